@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoref.presenter;
@@ -17,6 +17,7 @@ import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.referee.data.EGameState;
 import edu.tigers.sumatra.views.ISumatraViewPresenter;
 import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.Getter;
@@ -100,7 +101,7 @@ public class BallSpeedPresenter implements ISumatraViewPresenter, IWorldFrameObs
 	{
 		ISumatraViewPresenter.super.onStartModuli();
 		SumatraModel.getInstance().getModuleOpt(AWorldPredictor.class).ifPresent(predictor -> {
-			predictor.addObserver(this);
+			predictor.addObserver(this, EObserverDispatchPolicy.LATEST_ONLY);
 			chartTimer.start();
 		});
 	}
@@ -1,83 +1,328 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.data;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 
 /**
- * Buffer data based on the timestamp span
- * 
+ * Buffer data based on the timestamp span.
+ * <p>
+ * The data is stored in a ring buffer, ordered by timestamp. Adding and evicting data is O(1) (amortized, if the
+ * capacity is not fixed) and lookups by timestamp are binary searches.
+ * Before new data is added, all data that is older than the buffer duration relative to the latest data is removed.
+ * <p>
+ * Data must be added with non-decreasing timestamps, because the lookups rely on the order. If the timestamp jumps
+ * backwards (like after a jump in a replay), all buffered data is removed, instead of keeping the newer data until
+ * it expires. A buffer with a fixed capacity also removes the oldest data when it is full, even if it did not
+ * expire yet.
+ *
  * @param <T> the data type to buffer
  */
 public class TimestampBasedBuffer<T extends ITimestampBased>
 {
+	private static final int INITIAL_CAPACITY = 16;
+
 	private final long bufferDuration;
-	private final List<T> buffer = new ArrayList<>();
-	
-	
+	private final boolean fixedCapacity;
+	private Object[] elements;
+	private int head = 0;
+	private int size = 0;
+
+
 	/**
+	 * Create a buffer that grows as needed
+	 *
 	 * @param bufferDuration the duration in [s]
 	 */
 	public TimestampBasedBuffer(final double bufferDuration)
 	{
-		this.bufferDuration = (long) (bufferDuration * 1e9);
+		this(bufferDuration, INITIAL_CAPACITY, false);
 	}
-	
-	
-	private void reduceBuffer()
+
+
+	/**
+	 * Create a buffer with a fixed capacity. If the buffer is full, the oldest data is dropped.
+	 *
+	 * @param bufferDuration the duration in [s]
+	 * @param capacity       the max number of elements
+	 */
+	public TimestampBasedBuffer(final double bufferDuration, final int capacity)
+	{
+		this(bufferDuration, capacity, true);
+	}
+
+
+	private TimestampBasedBuffer(final double bufferDuration, final int capacity, final boolean fixedCapacity)
 	{
-		if (buffer.isEmpty())
+		if (capacity <= 0)
 		{
-			return;
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
 		}
-		long latestTimestamp = buffer.get(buffer.size() - 1).getTimestamp();
-		buffer.removeIf(d -> (latestTimestamp - d.getTimestamp()) > bufferDuration);
+		this.bufferDuration = (long) (bufferDuration * 1e9);
+		this.fixedCapacity = fixedCapacity;
+		this.elements = new Object[capacity];
 	}
-	
-	
+
+
 	public void add(T data)
 	{
+		long timestamp = data.getTimestamp();
+		if (size > 0 && timestamp < getTimestamp(size - 1))
+		{
+			clear();
+		}
 		reduceBuffer();
-		buffer.add(data);
+		if (size == elements.length)
+		{
+			if (fixedCapacity)
+			{
+				removeOldest();
+			} else
+			{
+				grow();
+			}
+		}
+		elements[index(size)] = data;
+		size++;
+	}
+
+
+	public void clear()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			elements[index(i)] = null;
+		}
+		head = 0;
+		size = 0;
 	}
-	
-	
+
+
+	/**
+	 * @return an unmodifiable view of the data, ordered from oldest to latest
+	 */
 	public List<T> getData()
 	{
-		return Collections.unmodifiableList(buffer);
+		return new DataView();
 	}
-	
-	
+
+
 	public int size()
 	{
-		return buffer.size();
+		return size;
 	}
-	
-	
+
+
+	/**
+	 * @param i the index, 0 is the oldest element
+	 * @return the element at the given index
+	 */
+	@SuppressWarnings("unchecked")
 	public T get(int i)
 	{
-		return buffer.get(i);
+		if (i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+		}
+		return (T) elements[index(i)];
 	}
-	
-	
+
+
 	public Optional<T> getOldest()
 	{
-		return buffer.stream().findFirst();
+		if (size == 0)
+		{
+			return Optional.empty();
+		}
+		return Optional.of(get(0));
 	}
-	
-	
+
+
 	public Optional<T> getLatest()
 	{
-		if (buffer.isEmpty())
+		if (size == 0)
 		{
 			return Optional.empty();
 		}
-		return Optional.of(buffer.get(buffer.size() - 1));
+		return Optional.of(get(size - 1));
+	}
+
+
+	/**
+	 * @param timestamp a timestamp
+	 * @return the latest element with a timestamp less than or equal to the given timestamp
+	 */
+	public Optional<T> getFloor(final long timestamp)
+	{
+		int i = upperBound(timestamp) - 1;
+		return i >= 0 ? Optional.of(get(i)) : Optional.empty();
+	}
+
+
+	/**
+	 * @param timestamp a timestamp
+	 * @return the oldest element with a timestamp greater than or equal to the given timestamp
+	 */
+	public Optional<T> getCeil(final long timestamp)
+	{
+		int i = lowerBound(timestamp);
+		return i < size ? Optional.of(get(i)) : Optional.empty();
+	}
+
+
+	/**
+	 * Interpolate between the two elements around the given timestamp
+	 *
+	 * @param timestamp    a timestamp
+	 * @param interpolator the interpolation function
+	 * @return the interpolated data or empty, if the timestamp is not within the buffered time span
+	 */
+	public Optional<T> interpolate(final long timestamp, final IInterpolator<T> interpolator)
+	{
+		if (size == 0 || timestamp < getTimestamp(0) || timestamp > getTimestamp(size - 1))
+		{
+			return Optional.empty();
+		}
+		int i = lowerBound(timestamp);
+		T second = get(i);
+		if (second.getTimestamp() == timestamp || i == 0)
+		{
+			return Optional.of(second);
+		}
+		T first = get(i - 1);
+		double percentageOfSecond = (double) (timestamp - first.getTimestamp())
+				/ (second.getTimestamp() - first.getTimestamp());
+		return Optional.of(interpolator.interpolate(first, second, percentageOfSecond));
+	}
+
+
+	private void reduceBuffer()
+	{
+		if (size == 0)
+		{
+			return;
+		}
+		long latestTimestamp = getTimestamp(size - 1);
+		while ((latestTimestamp - getTimestamp(0)) > bufferDuration)
+		{
+			removeOldest();
+		}
+	}
+
+
+	private long getTimestamp(final int i)
+	{
+		return get(i).getTimestamp();
+	}
+
+
+	private int index(final int i)
+	{
+		int index = head + i;
+		return index < elements.length ? index : index - elements.length;
+	}
+
+
+	private void removeOldest()
+	{
+		elements[head] = null;
+		head = index(1);
+		size--;
+	}
+
+
+	private void grow()
+	{
+		Object[] newElements = new Object[elements.length * 2];
+		for (int i = 0; i < size; i++)
+		{
+			newElements[i] = elements[index(i)];
+		}
+		elements = newElements;
+		head = 0;
+	}
+
+
+	/**
+	 * @return the first index with a timestamp greater than or equal to the given timestamp
+	 */
+	private int lowerBound(final long timestamp)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (getTimestamp(mid) < timestamp)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * @return the first index with a timestamp greater than the given timestamp
+	 */
+	private int upperBound(final long timestamp)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (getTimestamp(mid) <= timestamp)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Interpolates between two buffered elements
+	 *
+	 * @param <T> the data type
+	 */
+	@FunctionalInterface
+	public interface IInterpolator<T>
+	{
+		/**
+		 * @param first              the element before the timestamp
+		 * @param second             the element after the timestamp
+		 * @param percentageOfSecond the relative part to take from the second element
+		 * @return the interpolated data
+		 */
+		T interpolate(T first, T second, double percentageOfSecond);
+	}
+
+	private class DataView extends AbstractList<T> implements RandomAccess
+	{
+		@Override
+		public T get(final int index)
+		{
+			return TimestampBasedBuffer.this.get(index);
+		}
+
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
 	}
 }
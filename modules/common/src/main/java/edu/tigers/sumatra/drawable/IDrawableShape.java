@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.drawable;
@@ -62,4 +62,13 @@ public interface IDrawableShape
 	{
 		return this;
 	}
+
+
+	/**
+	 * @return true, if the shape changes its appearance over time without being modified (it can not be cached)
+	 */
+	default boolean isAnimated()
+	{
+		return false;
+	}
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.drawable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+
+/**
+ * The latest published shape map of each source.
+ * <p>
+ * Producers publish a new shape map per source by swapping the reference, consumers read the current shape maps
+ * without copying. Each publication gets a new version, so that consumers can process only the shape maps that
+ * changed since they last looked.
+ */
+public class PublishedShapeMaps
+{
+	private final Map<ShapeMapSource, Publication> publications = new ConcurrentHashMap<>();
+	private final AtomicLong version = new AtomicLong();
+
+
+	/**
+	 * Publish a new shape map for the given source, replacing the previous one
+	 *
+	 * @param source   the source of the shape map
+	 * @param shapeMap the new shape map, it should be frozen, if it is not owned by the consumer
+	 */
+	public void publish(final ShapeMapSource source, final ShapeMap shapeMap)
+	{
+		publications.put(source, new Publication(shapeMap, version.incrementAndGet()));
+	}
+
+
+	/**
+	 * @param source the source to remove
+	 */
+	public void remove(final ShapeMapSource source)
+	{
+		removeIf(source::equals);
+	}
+
+
+	/**
+	 * @param filter the sources to remove
+	 */
+	public void removeIf(final Predicate<ShapeMapSource> filter)
+	{
+		publications.keySet().removeIf(filter);
+		version.incrementAndGet();
+	}
+
+
+	public void clear()
+	{
+		removeIf(s -> true);
+	}
+
+
+	/**
+	 * @return the current version, it is increased with each change
+	 */
+	public long getVersion()
+	{
+		return version.get();
+	}
+
+
+	/**
+	 * @param consumer called with the latest shape map of each source
+	 */
+	public void forEach(final BiConsumer<ShapeMapSource, ShapeMap> consumer)
+	{
+		forEachChangedSince(Long.MIN_VALUE, consumer);
+	}
+
+
+	/**
+	 * @return the latest shape map of each source
+	 */
+	public Stream<ShapeMap> stream()
+	{
+		return publications.values().stream().map(Publication::shapeMap);
+	}
+
+
+	/**
+	 * Call the consumer for each shape map that was published after the given version
+	 *
+	 * @param sinceVersion a version returned by {@link #getVersion()}
+	 * @param consumer     the consumer
+	 */
+	public void forEachChangedSince(final long sinceVersion, final BiConsumer<ShapeMapSource, ShapeMap> consumer)
+	{
+		publications.forEach((source, publication) -> {
+			if (publication.version() > sinceVersion)
+			{
+				consumer.accept(source, publication.shapeMap());
+			}
+		});
+	}
+
+
+	private record Publication(ShapeMap shapeMap, long version)
+	{
+	}
+}
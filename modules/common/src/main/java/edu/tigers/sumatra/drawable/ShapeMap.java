@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.drawable;
@@ -20,11 +20,19 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Data structure that contains shapes, organized in layers.
+ * <p>
+ * A shape map is filled by a single producer and then {@link #freeze() frozen}, before it is published.
+ * Frozen shape maps are immutable, so consumers can share and keep them without copying.
+ * <p>
+ * A shape map can be bound to the source it is published for. Producers should then check
+ * {@link #isActive(IShapeLayerIdentifier)} before creating shapes, see {@link ShapeMapSubscriptions}.
  */
 @Persistent
 public class ShapeMap
 {
 	private final Map<String, ShapeLayer> categories;
+	private final transient ShapeMapSource source;
+	private transient boolean frozen = false;
 
 	private static boolean persistDebugShapes = true;
 
@@ -34,18 +42,25 @@ public class ShapeMap
 	 */
 	public ShapeMap()
 	{
-		this(new HashMap<>());
+		this(null);
 	}
 
 
-	private ShapeMap(Map<String, ShapeLayer> map)
+	/**
+	 * Create new empty shape map for the given source
+	 *
+	 * @param source the source that the shape map will be published for, or null, if all layers are active
+	 */
+	public ShapeMap(final ShapeMapSource source)
 	{
-		categories = map;
+		categories = new HashMap<>();
+		this.source = source;
 	}
 
 
 	public void addAll(ShapeMap shapeMap)
 	{
+		assertNotFrozen();
 		for (ShapeLayer sl : shapeMap.categories.values())
 		{
 			categories.put(sl.identifier.getId(), new ShapeLayer(sl));
@@ -53,15 +68,69 @@ public class ShapeMap
 	}
 
 
-	public static ShapeMap unmodifiableCopy(ShapeMap s)
+	/**
+	 * Append all shapes of the given shape map to the layers of this shape map.
+	 * In contrast to {@link #addAll(ShapeMap)}, existing layers are extended instead of being replaced.
+	 *
+	 * @param shapeMap the shape map to take the shapes from
+	 */
+	public void merge(ShapeMap shapeMap)
+	{
+		assertNotFrozen();
+		for (ShapeLayer sl : shapeMap.categories.values())
+		{
+			get(sl.identifier).addAll(sl.shapes);
+		}
+	}
+
+
+	/**
+	 * Make this shape map immutable. The producer must not modify the shapes afterwards.
+	 * Freezing is idempotent.
+	 *
+	 * @return this shape map
+	 */
+	public ShapeMap freeze()
+	{
+		if (!frozen)
+		{
+			categories.replaceAll((id, sl) -> new ShapeLayer(sl.identifier, Collections.unmodifiableList(sl.shapes),
+					sl.inverted));
+			frozen = true;
+		}
+		return this;
+	}
+
+
+	public boolean isFrozen()
+	{
+		return frozen;
+	}
+
+
+	/**
+	 * @return a new modifiable shape map with copies of all layers that should be persisted
+	 */
+	public ShapeMap persistentCopy()
+	{
+		ShapeMap copy = new ShapeMap(source);
+		for (ShapeLayer sl : categories.values())
+		{
+			if (isPersistent(sl.identifier))
+			{
+				copy.categories.put(sl.identifier.getId(), new ShapeLayer(sl));
+			}
+		}
+		return copy;
+	}
+
+
+	private void assertNotFrozen()
 	{
-		Map<String, ShapeLayer> categories = new HashMap<>();
-		for (ShapeLayer sl : s.categories.values())
+		if (frozen)
 		{
-			categories.put(sl.identifier.getId(),
-					new ShapeLayer(sl.identifier, Collections.unmodifiableList(sl.shapes), sl.inverted));
+			throw new IllegalStateException("Shape map is frozen and can not be modified");
 		}
-		return new ShapeMap(Collections.unmodifiableMap(categories));
 	}
 
 
@@ -74,14 +143,41 @@ public class ShapeMap
 	}
 
 
+	/**
+	 * @return the source that this shape map is published for, or null, if it is not bound to a source
+	 */
+	public ShapeMapSource getSource()
+	{
+		return source;
+	}
+
+
+	/**
+	 * Check if anyone is interested in the shapes of the given layer.
+	 * Producers should check this before creating shapes. Shape maps without a source are always active.
+	 *
+	 * @param identifier the layer
+	 * @return true, if the shapes of the layer are needed
+	 */
+	public boolean isActive(final IShapeLayerIdentifier identifier)
+	{
+		return source == null || ShapeMapSubscriptions.isSubscribed(source, identifier);
+	}
+
+
 	/**
 	 * Get list for layer and category
 	 *
 	 * @param identifier
-	 * @return
+	 * @return the modifiable shapes of the layer or an unmodifiable list, if the shape map is frozen
 	 */
 	public List<IDrawableShape> get(final IShapeLayerIdentifier identifier)
 	{
+		if (frozen)
+		{
+			ShapeLayer shapeLayer = categories.get(identifier.getId());
+			return shapeLayer == null ? Collections.emptyList() : shapeLayer.shapes;
+		}
 		return categories.computeIfAbsent(identifier.getId(), k -> new ShapeLayer(identifier)).shapes;
 	}
 
@@ -91,11 +187,16 @@ public class ShapeMap
 	 */
 	public void removeNonPersistent()
 	{
-		categories.entrySet().removeIf(en -> !persist(en.getValue().identifier));
+		assertNotFrozen();
+		categories.entrySet().removeIf(en -> !isPersistent(en.getValue().identifier));
 	}
 
 
-	private boolean persist(IShapeLayerIdentifier identifier)
+	/**
+	 * @param identifier the layer
+	 * @return true, if the shapes of the layer should be persisted
+	 */
+	public static boolean isPersistent(final IShapeLayerIdentifier identifier)
 	{
 		return identifier.getPersistenceType() == EShapeLayerPersistenceType.ALWAYS_PERSIST ||
 				(persistDebugShapes && identifier.getPersistenceType() == EShapeLayerPersistenceType.DEBUG_PERSIST);
@@ -125,6 +226,7 @@ public class ShapeMap
 	 */
 	public void setInverted(final boolean inverted)
 	{
+		assertNotFrozen();
 		categories.values().forEach(sl -> sl.inverted = inverted);
 	}
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.drawable;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+
+/**
+ * Registry of the consumers that are interested in shapes.
+ * <p>
+ * Creating shapes costs time in every frame, even if nobody looks at them, like on a headless auto referee.
+ * Consumers like the visualizer or the recorder subscribe to the sources and layers that they need while they are
+ * active. Producers check {@link #isSubscribed(ShapeMapSource, IShapeLayerIdentifier)} or
+ * {@link ShapeMap#isActive(IShapeLayerIdentifier)} before they create their shapes.
+ * The checks do not lock and do not allocate.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ShapeMapSubscriptions
+{
+	private static volatile Subscription[] subscriptions = new Subscription[0];
+
+
+	/**
+	 * Subscribe to the shapes of some sources and layers.
+	 *
+	 * @param sources the sources of interest
+	 * @param layers  the layers of interest
+	 * @return the subscription, it must be closed, when the shapes are not needed anymore
+	 */
+	public static synchronized Subscription subscribe(
+			final Predicate<ShapeMapSource> sources,
+			final Predicate<IShapeLayerIdentifier> layers)
+	{
+		Subscription subscription = new Subscription(sources, layers);
+		Subscription[] current = subscriptions;
+		Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+		updated[current.length] = subscription;
+		subscriptions = updated;
+		return subscription;
+	}
+
+
+	/**
+	 * Subscribe to all layers of all sources.
+	 *
+	 * @return the subscription, it must be closed, when the shapes are not needed anymore
+	 */
+	public static Subscription subscribeAll()
+	{
+		return subscribe(source -> true, layer -> true);
+	}
+
+
+	private static synchronized void unsubscribe(final Subscription subscription)
+	{
+		subscriptions = Arrays.stream(subscriptions)
+				.filter(s -> s != subscription)
+				.toArray(Subscription[]::new);
+	}
+
+
+	/**
+	 * @param source the source of the shapes
+	 * @return true, if anyone is interested in any layer of the source
+	 */
+	public static boolean isSubscribed(final ShapeMapSource source)
+	{
+		for (Subscription subscription : subscriptions)
+		{
+			if (subscription.sources.test(source))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * @param source the source of the shapes
+	 * @param layer  the layer of the shapes
+	 * @return true, if anyone is interested in the layer of the source
+	 */
+	public static boolean isSubscribed(final ShapeMapSource source, final IShapeLayerIdentifier layer)
+	{
+		for (Subscription subscription : subscriptions)
+		{
+			if (subscription.sources.test(source) && subscription.layers.test(layer))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * The interest of a single consumer. Closing it more than once has no effect.
+	 */
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class Subscription implements AutoCloseable
+	{
+		private final Predicate<ShapeMapSource> sources;
+		private final Predicate<IShapeLayerIdentifier> layers;
+
+
+		@Override
+		public void close()
+		{
+			unsubscribe(this);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.drawable.animated;
 
@@ -66,6 +66,13 @@ public class AAnimatedShape implements IDrawableShape
 	}
 
 
+	@Override
+	public boolean isAnimated()
+	{
+		return true;
+	}
+
+
 	@Override
 	public AAnimatedShape setStrokeWidth(final double strokeWidth)
 	{
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2017, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.filter.tracking;
 
@@ -8,7 +8,6 @@ import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 
-import edu.tigers.sumatra.filter.kf.KalmanFilter;
 import edu.tigers.sumatra.math.SumatraMath;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.Vector2;
@@ -18,14 +17,28 @@ import edu.tigers.sumatra.math.vector.Vector2;
  * Simple tracking filter based on a linear Kalman filter.
  * State vector includes position and velocity.
  * Only position can be measured.
+ * <p>
+ * The filter is specialized for its fixed size: State and covariance are primitive doubles that are updated in
+ * place, so predict and correct do not allocate. The results are the same as with the generic
+ * {@link edu.tigers.sumatra.filter.kf.KalmanFilter}.
  * 
  * @author AndreR
  */
-public class TrackingFilterPosVel2D extends KalmanFilter
+public class TrackingFilterPosVel2D
 {
-	private double	modelError;
+	private static final int NUM_STATES = 4;
 	
-	private long	lastTimestamp;
+	/** x, y, vx, vy */
+	private final double[]	state			= new double[NUM_STATES];
+	/** P, row-major */
+	private final double[]	covariance	= new double[NUM_STATES * NUM_STATES];
+	private double				innovationX;
+	private double				innovationY;
+	
+	private double				measurementError;
+	private double				modelError;
+	
+	private long				lastTimestamp;
 	
 	
 	/**
@@ -40,13 +53,9 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	public TrackingFilterPosVel2D(final IVector2 initialPos, final double covariance, final double modelErr,
 			final double measErr, final long timestamp)
 	{
-		super(4, 2, 1);
-		
-		stateEstimation.setSubVector(0, initialPos.toRealVector());
-		errorCovariance = MatrixUtils.createRealIdentityMatrix(4).scalarMultiply(covariance);
-		
-		measurementMatrix.setEntry(0, 0, 1);
-		measurementMatrix.setEntry(1, 1, 1);
+		state[0] = initialPos.x();
+		state[1] = initialPos.y();
+		setDiagonalCovariance(covariance);
 		
 		setMeasurementError(measErr);
 		setModelError(modelErr);
@@ -66,15 +75,13 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	public TrackingFilterPosVel2D(final RealVector initialState, final double covariance, final double modelErr,
 			final double measErr, final long timestamp)
 	{
-		super(4, 2, 1);
-		
 		Validate.isTrue(initialState.getDimension() == 4);
 		
-		stateEstimation = initialState.copy();
-		errorCovariance = MatrixUtils.createRealIdentityMatrix(4).scalarMultiply(covariance);
-		
-		measurementMatrix.setEntry(0, 0, 1);
-		measurementMatrix.setEntry(1, 1, 1);
+		for (int i = 0; i < NUM_STATES; i++)
+		{
+			state[i] = initialState.getEntry(i);
+		}
+		setDiagonalCovariance(covariance);
 		
 		setMeasurementError(measErr);
 		setModelError(modelErr);
@@ -94,17 +101,18 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	public TrackingFilterPosVel2D(final RealVector initialState, final RealMatrix initialCovariance,
 			final double modelErr, final double measErr, final long timestamp)
 	{
-		super(4, 2, 1);
-		
 		Validate.isTrue(initialState.getDimension() == 4, "State vector size must be 4");
 		Validate.isTrue(initialCovariance.isSquare(), "Covariance matrix must be square");
 		Validate.isTrue(initialCovariance.getRowDimension() == 4, "Covariance matrix size must be 4x4");
 		
-		stateEstimation = initialState.copy();
-		errorCovariance = initialCovariance.copy();
-		
-		measurementMatrix.setEntry(0, 0, 1);
-		measurementMatrix.setEntry(1, 1, 1);
+		for (int i = 0; i < NUM_STATES; i++)
+		{
+			state[i] = initialState.getEntry(i);
+			for (int j = 0; j < NUM_STATES; j++)
+			{
+				covariance[(i * NUM_STATES) + j] = initialCovariance.getEntry(i, j);
+			}
+		}
 		
 		setMeasurementError(measErr);
 		setModelError(modelErr);
@@ -120,8 +128,12 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	 */
 	public TrackingFilterPosVel2D(final TrackingFilterPosVel2D orig, final long timestamp)
 	{
-		super(orig);
+		System.arraycopy(orig.state, 0, state, 0, state.length);
+		System.arraycopy(orig.covariance, 0, covariance, 0, covariance.length);
+		innovationX = orig.innovationX;
+		innovationY = orig.innovationY;
 		
+		setMeasurementError(orig.measurementError);
 		setModelError(orig.modelError);
 		lastTimestamp = timestamp;
 	}
@@ -129,8 +141,7 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	
 	public void setMeasurementError(final double error)
 	{
-		measurementNoiseCovariance.setEntry(0, 0, error);
-		measurementNoiseCovariance.setEntry(1, 1, error);
+		measurementError = error;
 	}
 	
 	
@@ -142,15 +153,15 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	
 	public void setPosition(final IVector2 pos)
 	{
-		stateEstimation.setEntry(0, pos.x());
-		stateEstimation.setEntry(1, pos.y());
+		state[0] = pos.x();
+		state[1] = pos.y();
 	}
 	
 	
 	public void setVelocity(final IVector2 vel)
 	{
-		stateEstimation.setEntry(2, vel.x());
-		stateEstimation.setEntry(3, vel.y());
+		state[2] = vel.x();
+		state[3] = vel.y();
 	}
 	
 	
@@ -161,9 +172,21 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	 */
 	public void resetCovariance(final double covariance)
 	{
-		errorCovariance = MatrixUtils.createRealIdentityMatrix(4).scalarMultiply(covariance);
-		errorCovariance.setEntry(2, 2, covariance * covariance);
-		errorCovariance.setEntry(3, 3, covariance * covariance);
+		setDiagonalCovariance(covariance);
+		this.covariance[10] = covariance * covariance;
+		this.covariance[15] = covariance * covariance;
+	}
+	
+	
+	private void setDiagonalCovariance(final double value)
+	{
+		for (int i = 0; i < NUM_STATES; i++)
+		{
+			for (int j = 0; j < NUM_STATES; j++)
+			{
+				covariance[(i * NUM_STATES) + j] = i == j ? value : 0;
+			}
+		}
 	}
 	
 	
@@ -183,9 +206,38 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 		
 		lastTimestamp = timestamp;
 		
-		updateMatrices(dt);
+		// x = A * x
+		state[0] += dt * state[2];
+		state[1] += dt * state[3];
+		
+		// P = A * P * A' + Q
+		// A * P: add dt * velocity rows to the position rows
+		double[] p = covariance;
+		for (int j = 0; j < NUM_STATES; j++)
+		{
+			p[j] += dt * p[8 + j];
+			p[4 + j] += dt * p[12 + j];
+		}
+		// (A * P) * A': add dt * velocity columns to the position columns
+		for (int i = 0; i < NUM_STATES * NUM_STATES; i += NUM_STATES)
+		{
+			p[i] += dt * p[i + 2];
+			p[i + 1] += dt * p[i + 3];
+		}
 		
-		predict();
+		// optimal process noise error if we assume white noise on acceleration with zero mean
+		double sigma = SumatraMath.sqrt((3.0 * modelError) / dt) / dt;
+		double dt3 = (1.0 / 3.0) * dt * dt * dt * sigma * sigma;
+		double dt2 = (1.0 / 2.0) * dt * dt * sigma * sigma;
+		double dt1 = dt * sigma * sigma;
+		p[0] += dt3;
+		p[2] += dt2;
+		p[5] += dt3;
+		p[7] += dt2;
+		p[8] += dt2;
+		p[10] += dt1;
+		p[13] += dt2;
+		p[15] += dt1;
 	}
 	
 	
@@ -196,7 +248,61 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	 */
 	public void correct(final IVector2 position)
 	{
-		correct(position.toRealVector());
+		correct(position.x(), position.y());
+	}
+	
+	
+	/**
+	 * Correct filter estimate with a new measurement.
+	 *
+	 * @param x measured x position
+	 * @param y measured y position
+	 */
+	public void correct(final double x, final double y)
+	{
+		double[] p = covariance;
+		
+		// S = H * P * H' + R, H selects the position
+		double s00 = p[0] + measurementError;
+		double s01 = p[1];
+		double s10 = p[4];
+		double s11 = p[5] + measurementError;
+		double det = (s00 * s11) - (s01 * s10);
+		double i00 = s11 / det;
+		double i01 = -s01 / det;
+		double i10 = -s10 / det;
+		double i11 = s00 / det;
+		
+		innovationX = x - state[0];
+		innovationY = y - state[1];
+		
+		// H * P, needed after P was overwritten
+		double hp00 = p[0];
+		double hp01 = p[1];
+		double hp02 = p[2];
+		double hp03 = p[3];
+		double hp10 = p[4];
+		double hp11 = p[5];
+		double hp12 = p[6];
+		double hp13 = p[7];
+		
+		for (int i = 0; i < NUM_STATES; i++)
+		{
+			int row = i * NUM_STATES;
+			
+			// K = P * H' * S^-1
+			double k0 = (p[row] * i00) + (p[row + 1] * i10);
+			double k1 = (p[row] * i01) + (p[row + 1] * i11);
+			
+			// x = x + K * innovation
+			state[i] += (k0 * innovationX) + (k1 * innovationY);
+			
+			// P = (I - K * H) * P = P - K * (H * P)
+			p[row] -= (k0 * hp00) + (k1 * hp10);
+			p[row + 1] -= (k0 * hp01) + (k1 * hp11);
+			p[row + 2] -= (k0 * hp02) + (k1 * hp12);
+			p[row + 3] -= (k0 * hp03) + (k1 * hp13);
+		}
 	}
 	
 	
@@ -208,7 +314,7 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	
 	public IVector2 getPositionEstimate()
 	{
-		return Vector2.fromReal(stateEstimation.getSubVector(0, 2));
+		return Vector2.fromXY(state[0], state[1]);
 	}
 	
 	
@@ -221,11 +327,9 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	 */
 	public IVector2 getPositionEstimate(final long timestamp)
 	{
-		IVector2 p = getPositionEstimate();
-		IVector2 v = getVelocityEstimate();
 		double dt = (timestamp - lastTimestamp) * 1e-9;
 		
-		return p.addNew(v.multiplyNew(dt));
+		return Vector2.fromXY(state[0] + (state[2] * dt), state[1] + (state[3] * dt));
 	}
 	
 	
@@ -258,42 +362,59 @@ public class TrackingFilterPosVel2D extends KalmanFilter
 	
 	public IVector2 getPositionUncertainty()
 	{
-		return Vector2.fromXY(SumatraMath.sqrt(errorCovariance.getEntry(0, 0)),
-				SumatraMath.sqrt(errorCovariance.getEntry(1, 1)));
+		return Vector2.fromXY(SumatraMath.sqrt(covariance[0]), SumatraMath.sqrt(covariance[5]));
 	}
 	
 	
 	public IVector2 getPositionInnovation()
 	{
-		return Vector2.fromReal(innovation);
+		return Vector2.fromXY(innovationX, innovationY);
 	}
 	
 	
 	public IVector2 getVelocityEstimate()
 	{
-		return Vector2.fromReal(stateEstimation.getSubVector(2, 2));
+		return Vector2.fromXY(state[2], state[3]);
 	}
 	
 	
-	private void updateMatrices(final double dt)
+	public IVector2 getVelocityUncertainty()
 	{
-		transitionMatrix.setEntry(0, 0, 1);
-		transitionMatrix.setEntry(0, 2, dt);
-		
-		transitionMatrix.setEntry(1, 1, 1);
-		transitionMatrix.setEntry(1, 3, dt);
-		
-		transitionMatrix.setEntry(2, 2, 1);
-		
-		transitionMatrix.setEntry(3, 3, 1);
-		
-		getOptimalProcessNoise(processNoiseCovariance, dt, modelError);
+		return Vector2.fromXY(SumatraMath.sqrt(covariance[10]), SumatraMath.sqrt(covariance[15]));
 	}
 	
 	
-	public IVector2 getVelocityUncertainty()
+	/**
+	 * @return a copy of the state vector [x, y, vx, vy]
+	 */
+	public RealVector getStateEstimate()
+	{
+		return MatrixUtils.createRealVector(state);
+	}
+	
+	
+	/**
+	 * @return a copy of the 4x4 error covariance matrix
+	 */
+	public RealMatrix getCovarianceMatrix()
+	{
+		RealMatrix m = MatrixUtils.createRealMatrix(NUM_STATES, NUM_STATES);
+		for (int i = 0; i < NUM_STATES; i++)
+		{
+			for (int j = 0; j < NUM_STATES; j++)
+			{
+				m.setEntry(i, j, covariance[(i * NUM_STATES) + j]);
+			}
+		}
+		return m;
+	}
+	
+	
+	/**
+	 * @return a copy of the innovation from the last correction
+	 */
+	public RealVector getInnovation()
 	{
-		return Vector2.fromXY(SumatraMath.sqrt(errorCovariance.getEntry(2, 2)),
-				SumatraMath.sqrt(errorCovariance.getEntry(3, 3)));
+		return MatrixUtils.createRealVector(new double[] { innovationX, innovationY });
 	}
 }
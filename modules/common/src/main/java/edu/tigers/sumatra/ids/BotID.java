@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.ids;
@@ -7,14 +7,16 @@ package edu.tigers.sumatra.ids;
 import com.sleepycat.persist.model.Persistent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * Identifier for bots
+ * <p>
+ * All valid bot ids are created once and looked up by number and color from a plain array,
+ * so creating a bot id does neither allocate nor box.
  *
  * @author Nicolai Ommer <nicolai.ommer@gmail.com>
  */
@@ -23,18 +25,24 @@ public final class BotID extends AObjectID
 {
 	private final ETeamColor teamColor;
 
+	/** number of bot ids per team color */
+	static final int NUM_IDS_PER_COLOR = AObjectID.BOT_ID_MAX + 1;
+	/** number of distinct valid bot ids, including the neutral ones */
+	static final int NUM_IDS = NUM_IDS_PER_COLOR * ETeamColor.values().length;
+
 	private static final BotID NO_BOT_ID = new BotID();
-	private static final Map<Integer, BotID> YELLOW_BOT_IDS = new ConcurrentHashMap<>();
-	private static final Map<Integer, BotID> BLUE_BOT_IDS = new ConcurrentHashMap<>();
-	private static final Map<Integer, BotID> UNKNOWN_BOT_IDS = new ConcurrentHashMap<>();
+	/** all valid bot ids, indexed by {@link #getDenseIndex()} */
+	private static final BotID[] BOT_IDS = new BotID[NUM_IDS];
 
 
 	static
 	{
-		for (int i = 0; i <= AObjectID.BOT_ID_MAX; i++)
+		for (ETeamColor color : ETeamColor.values())
 		{
-			YELLOW_BOT_IDS.put(i, new BotID(i, ETeamColor.YELLOW));
-			BLUE_BOT_IDS.put(i, new BotID(i, ETeamColor.BLUE));
+			for (int i = 0; i <= AObjectID.BOT_ID_MAX; i++)
+			{
+				BOT_IDS[denseIndex(i, color)] = new BotID(i, color);
+			}
 		}
 	}
 
@@ -87,12 +95,22 @@ public final class BotID extends AObjectID
 		{
 			return NO_BOT_ID;
 		}
-		return switch (color)
-				{
-					case BLUE -> createBotId(BLUE_BOT_IDS, number, color);
-					case NEUTRAL -> createBotId(UNKNOWN_BOT_IDS, number, color);
-					case YELLOW -> createBotId(YELLOW_BOT_IDS, number, color);
-				};
+		if ((number >= AObjectID.BOT_ID_MIN) && (number <= AObjectID.BOT_ID_MAX))
+		{
+			return BOT_IDS[denseIndex(number, color)];
+		}
+		// not cached: either the uninitialized id or invalid
+		return new BotID(number, color);
+	}
+
+
+	/**
+	 * @param index a dense index in [0, {@link #NUM_IDS})
+	 * @return the bot id with the given dense index
+	 */
+	static BotID fromDenseIndex(final int index)
+	{
+		return BOT_IDS[index];
 	}
 
 
@@ -120,9 +138,9 @@ public final class BotID extends AObjectID
 	}
 
 
-	private static BotID createBotId(final Map<Integer, BotID> bots, final int number, final ETeamColor color)
+	private static int denseIndex(final int number, final ETeamColor color)
 	{
-		return bots.computeIfAbsent(number, k -> new BotID(number, color));
+		return (color.ordinal() * NUM_IDS_PER_COLOR) + number;
 	}
 
 
@@ -172,6 +190,21 @@ public final class BotID extends AObjectID
 	}
 
 
+	/**
+	 * The dense index is unique for each valid bot id and can be used as an array index, like in {@link BotIdMap}.
+	 *
+	 * @return the index in [0, {@link #NUM_IDS}) or -1, if this is not a valid bot id
+	 */
+	int getDenseIndex()
+	{
+		if (!isBot())
+		{
+			return -1;
+		}
+		return denseIndex(getNumber(), teamColor);
+	}
+
+
 	/**
 	 * @return the teamColor
 	 */
@@ -236,7 +269,7 @@ public final class BotID extends AObjectID
 	 */
 	public static Collection<BotID> getAllYellow()
 	{
-		return new ArrayList<>(YELLOW_BOT_IDS.values());
+		return getAllOfColor(ETeamColor.YELLOW);
 	}
 
 
@@ -245,7 +278,14 @@ public final class BotID extends AObjectID
 	 */
 	public static Collection<BotID> getAllBlue()
 	{
-		return new ArrayList<>(BLUE_BOT_IDS.values());
+		return getAllOfColor(ETeamColor.BLUE);
+	}
+
+
+	private static Collection<BotID> getAllOfColor(final ETeamColor color)
+	{
+		int offset = denseIndex(0, color);
+		return new ArrayList<>(Arrays.asList(BOT_IDS).subList(offset, offset + NUM_IDS_PER_COLOR));
 	}
 
 
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+
+/**
+ * A map with {@link BotID} keys, backed by a plain array, similar to {@link java.util.EnumMap}.
+ * <p>
+ * Each valid bot id has a fixed slot, so lookups and updates do neither hash nor box nor allocate.
+ * {@link #forEach(BiConsumer)} iterates the entries in bot id order without allocating, the collection views
+ * iterate in the same order.
+ * Only valid bot ids can be used as keys. Like the other standard maps, this map is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class BotIdMap<V> extends AbstractMap<BotID, V>
+{
+	/** marks null values */
+	private static final Object NULL = new Object();
+
+	private final Object[] values = new Object[BotID.NUM_IDS];
+	private int size;
+	private transient Set<Entry<BotID, V>> entrySet;
+
+
+	/**
+	 * Create an empty map
+	 */
+	public BotIdMap()
+	{
+		// empty
+	}
+
+
+	/**
+	 * Create a map with all entries of the given map
+	 *
+	 * @param map the map to copy
+	 */
+	public BotIdMap(final Map<BotID, ? extends V> map)
+	{
+		putAll(map);
+	}
+
+
+	/**
+	 * Collect elements into a new {@link BotIdMap}, like {@link java.util.stream.Collectors#toMap(Function, Function)}
+	 *
+	 * @param keyMapper   the function to get the bot id
+	 * @param valueMapper the function to get the value
+	 * @param <T>         the type of the input elements
+	 * @param <V>         the type of the values
+	 * @return a collector
+	 */
+	public static <T, V> Collector<T, ?, BotIdMap<V>> toBotIdMap(
+			final Function<? super T, BotID> keyMapper,
+			final Function<? super T, ? extends V> valueMapper)
+	{
+		return Collector.of(
+				BotIdMap::new,
+				(map, element) -> map.putUnique(keyMapper.apply(element), valueMapper.apply(element)),
+				(map1, map2) -> {
+					map2.forEach(map1::putUnique);
+					return map1;
+				},
+				Collector.Characteristics.IDENTITY_FINISH
+		);
+	}
+
+
+	private void putUnique(final BotID key, final V value)
+	{
+		if (containsKey(key))
+		{
+			throw new IllegalStateException("Duplicate key " + key);
+		}
+		put(key, value);
+	}
+
+
+	private static int indexOf(final Object key)
+	{
+		if (key instanceof BotID botID)
+		{
+			return botID.getDenseIndex();
+		}
+		return -1;
+	}
+
+
+	private static Object maskNull(final Object value)
+	{
+		return value == null ? NULL : value;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static <V> V unmaskNull(final Object value)
+	{
+		return value == NULL ? null : (V) value;
+	}
+
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		int index = indexOf(key);
+		return index >= 0 && values[index] != null;
+	}
+
+
+	@Override
+	public boolean containsValue(final Object value)
+	{
+		Object masked = maskNull(value);
+		for (Object v : values)
+		{
+			if (v != null && masked.equals(v))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	@Override
+	public V get(final Object key)
+	{
+		int index = indexOf(key);
+		if (index < 0)
+		{
+			return null;
+		}
+		return unmaskNull(values[index]);
+	}
+
+
+	@Override
+	public V put(final BotID key, final V value)
+	{
+		int index = indexOf(key);
+		if (index < 0)
+		{
+			throw new IllegalArgumentException("Not a valid bot id: " + key);
+		}
+		Object old = values[index];
+		values[index] = maskNull(value);
+		if (old == null)
+		{
+			size++;
+		}
+		return unmaskNull(old);
+	}
+
+
+	@Override
+	public V remove(final Object key)
+	{
+		int index = indexOf(key);
+		if (index < 0)
+		{
+			return null;
+		}
+		return removeAt(index);
+	}
+
+
+	private V removeAt(final int index)
+	{
+		Object old = values[index];
+		if (old != null)
+		{
+			values[index] = null;
+			size--;
+		}
+		return unmaskNull(old);
+	}
+
+
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+
+	@Override
+	public void forEach(final BiConsumer<? super BotID, ? super V> action)
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			Object value = values[i];
+			if (value != null)
+			{
+				action.accept(BotID.fromDenseIndex(i), unmaskNull(value));
+			}
+		}
+	}
+
+
+	@Override
+	public Set<Entry<BotID, V>> entrySet()
+	{
+		if (entrySet == null)
+		{
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+
+	private class EntrySet extends AbstractSet<Entry<BotID, V>>
+	{
+		@Override
+		public Iterator<Entry<BotID, V>> iterator()
+		{
+			return new EntryIterator();
+		}
+
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+
+
+		@Override
+		public void clear()
+		{
+			BotIdMap.this.clear();
+		}
+	}
+
+
+	private class EntryIterator implements Iterator<Entry<BotID, V>>
+	{
+		private int next = findNext(0);
+		private int last = -1;
+
+
+		private int findNext(final int start)
+		{
+			int i = start;
+			while (i < values.length && values[i] == null)
+			{
+				i++;
+			}
+			return i;
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			return next < values.length;
+		}
+
+
+		@Override
+		public Entry<BotID, V> next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = findNext(next + 1);
+			return new SlotEntry(last);
+		}
+
+
+		@Override
+		public void remove()
+		{
+			if (last < 0)
+			{
+				throw new IllegalStateException();
+			}
+			removeAt(last);
+			last = -1;
+		}
+	}
+
+
+	private class SlotEntry implements Entry<BotID, V>
+	{
+		private final int index;
+
+
+		SlotEntry(final int index)
+		{
+			this.index = index;
+		}
+
+
+		@Override
+		public BotID getKey()
+		{
+			return BotID.fromDenseIndex(index);
+		}
+
+
+		@Override
+		public V getValue()
+		{
+			return unmaskNull(values[index]);
+		}
+
+
+		@Override
+		public V setValue(final V value)
+		{
+			Object old = values[index];
+			if (old == null)
+			{
+				throw new IllegalStateException("Entry was removed");
+			}
+			values[index] = maskNull(value);
+			return unmaskNull(old);
+		}
+
+
+		@Override
+		public boolean equals(final Object o)
+		{
+			return o instanceof Entry<?, ?> e
+					&& getKey().equals(e.getKey())
+					&& Objects.equals(getValue(), e.getValue());
+		}
+
+
+		@Override
+		public int hashCode()
+		{
+			return getKey().hashCode() ^ Objects.hashCode(getValue());
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return getKey() + "=" + getValue();
+		}
+	}
+}
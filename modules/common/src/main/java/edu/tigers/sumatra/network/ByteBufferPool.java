@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * A thread-safe pool of direct byte buffers of the same size.
+ * Acquiring and releasing a buffer does not allocate, as long as the pool does not run empty.
+ */
+public class ByteBufferPool
+{
+	private final int bufferSize;
+	private final BlockingQueue<ByteBuffer> buffers;
+
+
+	/**
+	 * @param bufferSize the capacity of each buffer [bytes]
+	 * @param maxPooled  the max number of buffers that are kept in the pool
+	 */
+	public ByteBufferPool(final int bufferSize, final int maxPooled)
+	{
+		this.bufferSize = bufferSize;
+		this.buffers = new ArrayBlockingQueue<>(maxPooled);
+	}
+
+
+	/**
+	 * @return a cleared buffer from the pool or a new one, if the pool is empty
+	 */
+	public ByteBuffer acquire()
+	{
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null)
+		{
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+		return buffer.clear();
+	}
+
+
+	/**
+	 * Return a buffer to the pool. It must not be used afterwards.
+	 *
+	 * @param buffer a buffer that was acquired from this pool
+	 */
+	public void release(final ByteBuffer buffer)
+	{
+		if (buffer.capacity() == bufferSize && buffer.isDirect())
+		{
+			buffers.offer(buffer);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.network;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Handler for received datagrams.
+ */
+@FunctionalInterface
+public interface IDatagramHandler
+{
+	/**
+	 * Handle a received datagram. The buffer is owned by the receiver and reused after this method returns,
+	 * so neither the buffer nor views of it must be kept.
+	 *
+	 * @param data   the datagram, from position to limit
+	 * @param source the address of the sender
+	 */
+	void onDatagram(ByteBuffer data, SocketAddress source);
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.network;
@@ -7,34 +7,46 @@ package edu.tigers.sumatra.network;
 
 import lombok.extern.log4j.Log4j2;
 
-import java.io.EOFException;
 import java.io.IOException;
-import java.net.DatagramPacket;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.MulticastSocket;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
- * Connect to a multicast group on all reasonable network interfaces, and receive {@link DatagramPacket}s on it.
+ * Connect to a multicast group on all reasonable network interfaces, and receive datagrams on it.
+ * <p>
+ * Datagrams are received into pooled direct buffers with a {@link DatagramChannel}, so that receiving does not
+ * allocate buffers or copy the data. The buffer is only valid while the {@link IDatagramHandler} is called.
  */
 @Log4j2
 public class MulticastUDPReceiver implements AutoCloseable
 {
 	private static final int SO_TIMEOUT = 500;
+	private static final int MAX_DATAGRAM_SIZE = 65507;
+	private static final ByteBufferPool BUFFER_POOL = new ByteBufferPool(MAX_DATAGRAM_SIZE, 16);
 	private static final String[] USELESS_PREFIXES = { "tap", "tun", "ham", "WAN" };
 	private final List<IReceiverObserver> observers = new CopyOnWriteArrayList<>();
-	private MulticastSocket currentSocket;
+	private DatagramChannel channel;
+	private Selector selector;
+	private boolean timedOut = false;
 
 
 	public MulticastUDPReceiver(String host, int port)
 	{
-		currentSocket = connect(port);
+		connect(port);
 		addAllNetworkInterfaces(host, port);
 	}
 
@@ -48,7 +60,7 @@ public class MulticastUDPReceiver implements AutoCloseable
 	 */
 	public MulticastUDPReceiver(final String host, final int port, final NetworkInterface iface)
 	{
-		currentSocket = connect(port);
+		connect(port);
 		joinOnInterface(port, host, iface);
 	}
 
@@ -79,16 +91,21 @@ public class MulticastUDPReceiver implements AutoCloseable
 	}
 
 
-	private MulticastSocket connect(int port)
+	private void connect(int port)
 	{
 		try
 		{
-			return new MulticastSocket(new InetSocketAddress(port));
+			channel = DatagramChannel.open(StandardProtocolFamily.INET)
+					.setOption(StandardSocketOptions.SO_REUSEADDR, true)
+					.bind(new InetSocketAddress(port));
+			channel.configureBlocking(false);
+			selector = Selector.open();
+			channel.register(selector, SelectionKey.OP_READ);
 		} catch (IOException err)
 		{
 			log.error("Could not create new multicast socket", err);
+			close();
 		}
-		return null;
 	}
 
 
@@ -133,10 +150,14 @@ public class MulticastUDPReceiver implements AutoCloseable
 
 	private void joinOnInterface(final int port, final String groupStr, final NetworkInterface iface)
 	{
+		if (channel == null)
+		{
+			return;
+		}
 		try
 		{
 			log.debug("Using network interface '{}' with MTU {}", iface.getDisplayName(), iface.getMTU());
-			currentSocket.joinGroup(new InetSocketAddress(groupStr, port), iface);
+			channel.join(InetAddress.getByName(groupStr), iface);
 			log.debug("Multicast group {}:{} joined on nif {}", groupStr, port, iface.getDisplayName());
 		} catch (IOException err)
 		{
@@ -145,41 +166,86 @@ public class MulticastUDPReceiver implements AutoCloseable
 	}
 
 
-	public void receive(final DatagramPacket store) throws IOException
+	/**
+	 * Block until the next datagram is received and pass it to the handler.
+	 * Returns without calling the handler, if the current thread is interrupted.
+	 *
+	 * @param handler the handler for the datagram
+	 * @throws IOException if the receiver is closed or receiving fails
+	 */
+	public void receive(final IDatagramHandler handler) throws IOException
+	{
+		ByteBuffer buffer = BUFFER_POOL.acquire();
+		try
+		{
+			SocketAddress source = receiveInto(buffer);
+			if (source != null)
+			{
+				buffer.flip();
+				handler.onDatagram(buffer, source);
+			}
+		} finally
+		{
+			BUFFER_POOL.release(buffer);
+		}
+	}
+
+
+	private SocketAddress receiveInto(final ByteBuffer buffer) throws IOException
 	{
-		if (currentSocket == null)
+		if (channel == null)
 		{
 			throw new IOException("Connection is closed");
 		}
 
-		while (currentSocket != null)
+		try
 		{
-			try
-			{
-				currentSocket.receive(store);
-				currentSocket.setSoTimeout(SO_TIMEOUT);
-				return;
-			} catch (EOFException eof)
+			while (!Thread.currentThread().isInterrupted())
 			{
-				log.error("EOF error, buffer may be too small", eof);
-			} catch (SocketTimeoutException e)
-			{
-				log.debug("No data received for {} ms", SO_TIMEOUT, e);
-				observers.forEach(IReceiverObserver::onSocketTimedOut);
-				currentSocket.setSoTimeout(0);
+				SocketAddress source = channel.receive(buffer);
+				if (source != null)
+				{
+					timedOut = false;
+					return source;
+				}
+				if (selector.select(SO_TIMEOUT) == 0 && !timedOut && !Thread.currentThread().isInterrupted())
+				{
+					// notify only once until data is received again
+					log.debug("No data received for {} ms", SO_TIMEOUT);
+					observers.forEach(IReceiverObserver::onSocketTimedOut);
+					timedOut = true;
+				}
+				selector.selectedKeys().clear();
 			}
+			return null;
+		} catch (ClosedSelectorException e)
+		{
+			throw new IOException("Connection is closed", e);
 		}
-		throw new IOException("No data received");
 	}
 
 
 	@Override
 	public void close()
 	{
-		if (currentSocket != null)
+		closeQuietly(selector);
+		closeQuietly(channel);
+		observers.clear();
+	}
+
+
+	private void closeQuietly(final AutoCloseable closeable)
+	{
+		if (closeable == null)
 		{
-			currentSocket.close();
+			return;
+		}
+		try
+		{
+			closeable.close();
+		} catch (Exception err)
+		{
+			log.debug("Could not close {}", closeable, err);
 		}
-		observers.clear();
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.network;
@@ -10,31 +10,40 @@ import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
-import java.net.SocketTimeoutException;
-import java.util.Arrays;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.DatagramChannel;
 import java.util.function.Consumer;
 
 
 /**
  * A threaded UDP sender and receiver.
+ * <p>
+ * Responses are received into a single direct buffer. They are either passed as a copy to the
+ * {@link #responseConsumer} or, without copying, to the {@link #responseBufferConsumer}.
+ * The receiving thread is stopped by interrupting it, which closes the channel.
  */
 @Log4j2
 @RequiredArgsConstructor
 public class UdpTransceiver
 {
-	private static final int SOCKET_TIMEOUT_MS = 1000;
 	private final String host;
 	private final int port;
-	private DatagramSocket socket;
-	private InetAddress address;
+	private DatagramChannel channel;
+	private InetSocketAddress address;
 	private int bufferSize;
 	private Thread thread;
 	@Setter
 	private Consumer<byte[]> responseConsumer = b -> {
 	};
+	/**
+	 * Consumer for responses that is called with the receive buffer. The buffer is reused afterwards.
+	 * If set, the {@link #responseConsumer} is not called.
+	 */
+	@Setter
+	private Consumer<ByteBuffer> responseBufferConsumer;
 
 
 	public void start()
@@ -67,18 +76,18 @@ public class UdpTransceiver
 
 	private void connect()
 	{
-		if (socket == null)
+		if (channel == null)
 		{
 			try
 			{
-				socket = new DatagramSocket();
-				address = InetAddress.getByName(host);
-				socket.setSoTimeout(SOCKET_TIMEOUT_MS);
-				bufferSize = socket.getReceiveBufferSize();
+				channel = DatagramChannel.open();
+				channel.bind(null);
+				address = new InetSocketAddress(host, port);
+				bufferSize = channel.getOption(StandardSocketOptions.SO_RCVBUF);
 			} catch (IOException e)
 			{
 				log.warn("Failed to setup socket for {}", this, e);
-				socket = null;
+				disconnect();
 			}
 		}
 	}
@@ -86,10 +95,16 @@ public class UdpTransceiver
 
 	private void disconnect()
 	{
-		if (socket != null)
+		if (channel != null)
 		{
-			socket.close();
-			socket = null;
+			try
+			{
+				channel.close();
+			} catch (IOException e)
+			{
+				log.debug("Failed to close socket for {}", this, e);
+			}
+			channel = null;
 		}
 	}
 
@@ -99,20 +114,31 @@ public class UdpTransceiver
 		try
 		{
 			connect();
+			if (channel == null)
+			{
+				return;
+			}
 			log.debug("Start listening for messages from {}", this);
-			byte[] buf = new byte[bufferSize];
+			ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
 			while (!Thread.interrupted())
 			{
 				try
 				{
-					var packet = new DatagramPacket(buf, buf.length);
-					socket.receive(packet);
-					responseConsumer.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
-				} catch (@SuppressWarnings("squid:S1166") SocketTimeoutException e)
+					buffer.clear();
+					channel.receive(buffer);
+					buffer.flip();
+					consumeResponse(buffer);
+				} catch (@SuppressWarnings("squid:S1166") ClosedByInterruptException e)
 				{
-					// go on in the loop (checking if we got interrupted and need to stop)
+					// stopped
+					return;
 				} catch (IOException e)
 				{
+					if (!channel.isOpen())
+					{
+						log.warn("Socket closed for {}", this, e);
+						return;
+					}
 					log.warn("Failed to receive data from {}", this, e);
 				}
 			}
@@ -124,15 +150,30 @@ public class UdpTransceiver
 	}
 
 
+	private void consumeResponse(final ByteBuffer buffer)
+	{
+		Consumer<ByteBuffer> bufferConsumer = responseBufferConsumer;
+		if (bufferConsumer != null)
+		{
+			bufferConsumer.accept(buffer);
+			return;
+		}
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		responseConsumer.accept(bytes);
+	}
+
+
 	public void send(byte[] bytes)
 	{
-		if (socket == null || address == null)
+		DatagramChannel currentChannel = channel;
+		if (currentChannel == null || address == null)
 		{
 			return;
 		}
 		try
 		{
-			socket.send(new DatagramPacket(bytes, bytes.length, address, port));
+			currentChannel.send(ByteBuffer.wrap(bytes), address);
 		} catch (IOException e)
 		{
 			log.warn("Failed to send data to {}", this, e);
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Thread-safe histogram of durations with logarithmic buckets.
+ * Bucket 0 holds durations below 1us, bucket i holds durations in [2^(i-1), 2^i) us.
+ * Recording a value does not allocate.
+ */
+public class LatencyHistogram
+{
+	private static final int NUM_BUCKETS = 32;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+
+	/**
+	 * Record a single duration
+	 *
+	 * @param durationNs the duration in [ns]
+	 */
+	public void record(final long durationNs)
+	{
+		long duration = Math.max(0, durationNs);
+		buckets.incrementAndGet(bucketIndex(duration));
+		count.incrementAndGet();
+		sum.addAndGet(duration);
+		max.accumulateAndGet(duration, Math::max);
+	}
+
+
+	private static int bucketIndex(final long durationNs)
+	{
+		long us = durationNs / 1000;
+		return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(us));
+	}
+
+
+	/**
+	 * @param index the bucket index
+	 * @return the exclusive upper bound of the bucket in [ns]
+	 */
+	private static long bucketUpperBound(final int index)
+	{
+		return (1L << index) * 1000;
+	}
+
+
+	/**
+	 * Reset all recorded values
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+
+	/**
+	 * @return the number of recorded durations
+	 */
+	public long getCount()
+	{
+		return count.get();
+	}
+
+
+	/**
+	 * @return the average duration in [s]
+	 */
+	public double getAverageTime()
+	{
+		long n = count.get();
+		if (n == 0)
+		{
+			return 0;
+		}
+		return sum.get() / 1e9 / n;
+	}
+
+
+	/**
+	 * @return the max duration in [s]
+	 */
+	public double getMaxTime()
+	{
+		return max.get() / 1e9;
+	}
+
+
+	/**
+	 * Estimate a percentile. The result is the upper bound of the bucket that contains the percentile,
+	 * but never more than the max recorded duration.
+	 *
+	 * @param percentile the percentile in [0,1]
+	 * @return the estimated duration in [s]
+	 */
+	public double getPercentileTime(final double percentile)
+	{
+		long n = count.get();
+		if (n == 0)
+		{
+			return 0;
+		}
+		long threshold = (long) Math.ceil(Math.clamp(percentile, 0, 1) * n);
+		long accumulated = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			accumulated += buckets.get(i);
+			if (accumulated >= threshold)
+			{
+				return Math.min(bucketUpperBound(i), max.get()) / 1e9;
+			}
+		}
+		return getMaxTime();
+	}
+
+
+	/**
+	 * @return a copy of the bucket counts
+	 */
+	public long[] getBuckets()
+	{
+		long[] copy = new long[NUM_BUCKETS];
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			copy[i] = buckets.get(i);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.data;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Test class for TimestampBasedBuffer
+ */
+public class TimestampBasedBufferTest
+{
+	@Test
+	public void testEviction()
+	{
+		// 1s
+		TimestampBasedBuffer<Data> buffer = new TimestampBasedBuffer<>(1.0);
+		for (int i = 0; i < 100; i++)
+		{
+			buffer.add(new Data(i * 100_000_000L, i));
+		}
+		// data is removed relative to the latest data before adding the new data
+		assertThat(buffer.size()).isEqualTo(12);
+		assertThat(buffer.getOldest()).map(Data::value).contains(88.0);
+		assertThat(buffer.getLatest()).map(Data::value).contains(99.0);
+		assertThat(buffer.getData()).extracting(Data::value).isSorted();
+	}
+
+
+	@Test
+	public void testFixedCapacity()
+	{
+		TimestampBasedBuffer<Data> buffer = new TimestampBasedBuffer<>(10.0, 4);
+		for (int i = 0; i < 10; i++)
+		{
+			buffer.add(new Data(i, i));
+		}
+		assertThat(buffer.getData()).extracting(Data::value).containsExactly(6.0, 7.0, 8.0, 9.0);
+	}
+
+
+	@Test
+	public void testTimeJumpBackwards()
+	{
+		TimestampBasedBuffer<Data> buffer = new TimestampBasedBuffer<>(10.0);
+		buffer.add(new Data(10, 1));
+		buffer.add(new Data(20, 2));
+		buffer.add(new Data(5, 3));
+		assertThat(buffer.getData()).extracting(Data::value).containsExactly(3.0);
+	}
+
+
+	@Test
+	public void testLookup()
+	{
+		TimestampBasedBuffer<Data> buffer = new TimestampBasedBuffer<>(10.0, 3);
+		buffer.add(new Data(0, 0));
+		buffer.add(new Data(10, 1));
+		buffer.add(new Data(20, 2));
+		buffer.add(new Data(30, 3));
+
+		assertThat(buffer.getFloor(5)).isEmpty();
+		assertThat(buffer.getFloor(10)).map(Data::value).contains(1.0);
+		assertThat(buffer.getFloor(25)).map(Data::value).contains(2.0);
+		assertThat(buffer.getFloor(35)).map(Data::value).contains(3.0);
+
+		assertThat(buffer.getCeil(5)).map(Data::value).contains(1.0);
+		assertThat(buffer.getCeil(20)).map(Data::value).contains(2.0);
+		assertThat(buffer.getCeil(25)).map(Data::value).contains(3.0);
+		assertThat(buffer.getCeil(35)).isEmpty();
+	}
+
+
+	@Test
+	public void testInterpolate()
+	{
+		TimestampBasedBuffer<Data> buffer = new TimestampBasedBuffer<>(10.0);
+		buffer.add(new Data(10, 1));
+		buffer.add(new Data(20, 2));
+		buffer.add(new Data(30, 4));
+
+		TimestampBasedBuffer.IInterpolator<Data> interpolator = (first, second, p) -> new Data(
+				0, first.value() + (second.value() - first.value()) * p);
+
+		assertThat(buffer.interpolate(5, interpolator)).isEmpty();
+		assertThat(buffer.interpolate(35, interpolator)).isEmpty();
+		assertThat(buffer.interpolate(10, interpolator)).map(Data::value).contains(1.0);
+		assertThat(buffer.interpolate(20, interpolator)).map(Data::value).contains(2.0);
+		assertThat(buffer.interpolate(25, interpolator).orElseThrow().value()).isCloseTo(3.0, within(1e-10));
+	}
+
+
+	private record Data(long timestamp, double value) implements ITimestampBased
+	{
+		@Override
+		public long getTimestamp()
+		{
+			return timestamp;
+		}
+	}
+}
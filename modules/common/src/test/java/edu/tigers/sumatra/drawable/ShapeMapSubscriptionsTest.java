@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.drawable;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for ShapeMapSubscriptions
+ */
+public class ShapeMapSubscriptionsTest
+{
+	private static final ShapeMapSource SOURCE = ShapeMapSource.of("subscribed");
+	private static final ShapeMapSource OTHER_SOURCE = ShapeMapSource.of("other");
+	private static final IShapeLayerIdentifier LAYER = ShapeLayerIdentifier.builder()
+			.id("layer").layerName("layer").build();
+	private static final IShapeLayerIdentifier DEBUG_LAYER = ShapeLayerIdentifier.builder()
+			.id("debug").layerName("debug").persistenceType(ShapeMap.EShapeLayerPersistenceType.NEVER_PERSIST).build();
+
+
+	@Test
+	public void testSubscribe()
+	{
+		assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE)).isFalse();
+
+		try (var subscription = ShapeMapSubscriptions.subscribe(SOURCE::equals, ShapeMap::isPersistent))
+		{
+			assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE)).isTrue();
+			assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE, LAYER)).isTrue();
+			assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE, DEBUG_LAYER)).isFalse();
+			assertThat(ShapeMapSubscriptions.isSubscribed(OTHER_SOURCE)).isFalse();
+
+			try (var all = ShapeMapSubscriptions.subscribeAll())
+			{
+				assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE, DEBUG_LAYER)).isTrue();
+				assertThat(ShapeMapSubscriptions.isSubscribed(OTHER_SOURCE, LAYER)).isTrue();
+			}
+			assertThat(ShapeMapSubscriptions.isSubscribed(OTHER_SOURCE)).isFalse();
+
+			subscription.close();
+			assertThat(ShapeMapSubscriptions.isSubscribed(SOURCE)).isFalse();
+		}
+	}
+
+
+	@Test
+	public void testActiveLayers()
+	{
+		ShapeMap unbound = new ShapeMap();
+		ShapeMap bound = new ShapeMap(SOURCE);
+		assertThat(unbound.isActive(LAYER)).isTrue();
+		assertThat(bound.isActive(LAYER)).isFalse();
+		assertThat(bound.persistentCopy().getSource()).isEqualTo(SOURCE);
+
+		try (var subscription = ShapeMapSubscriptions.subscribe(SOURCE::equals, LAYER::equals))
+		{
+			assertThat(bound.isActive(LAYER)).isTrue();
+			assertThat(bound.isActive(DEBUG_LAYER)).isFalse();
+		}
+		assertThat(bound.isActive(LAYER)).isFalse();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.drawable;
+
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+/**
+ * Test class for ShapeMap and PublishedShapeMaps
+ */
+public class ShapeMapTest
+{
+	private static final IShapeLayerIdentifier LAYER = ShapeLayerIdentifier.builder()
+			.id("layer").layerName("layer").build();
+	private static final IShapeLayerIdentifier DEBUG_LAYER = ShapeLayerIdentifier.builder()
+			.id("debug").layerName("debug").persistenceType(ShapeMap.EShapeLayerPersistenceType.NEVER_PERSIST).build();
+
+
+	@Test
+	public void testFreeze()
+	{
+		ShapeMap shapeMap = new ShapeMap();
+		IDrawableShape point = new DrawablePoint(Vector2.zero());
+		shapeMap.get(LAYER).add(point);
+
+		assertThat(shapeMap.freeze()).isSameAs(shapeMap);
+		assertThat(shapeMap.isFrozen()).isTrue();
+		assertThat(shapeMap.get(LAYER)).containsExactly(point);
+		assertThat(shapeMap.get(DEBUG_LAYER)).isEmpty();
+		assertThat(shapeMap.getAllShapeLayers()).hasSize(1);
+
+		List<IDrawableShape> shapes = shapeMap.get(LAYER);
+		assertThatThrownBy(() -> shapes.add(point)).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> shapeMap.setInverted(true)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> shapeMap.merge(new ShapeMap())).isInstanceOf(IllegalStateException.class);
+	}
+
+
+	@Test
+	public void testPersistentCopy()
+	{
+		ShapeMap shapeMap = new ShapeMap();
+		IDrawableShape point = new DrawablePoint(Vector2.zero());
+		shapeMap.get(LAYER).add(point);
+		shapeMap.get(DEBUG_LAYER).add(point);
+		shapeMap.freeze();
+
+		ShapeMap copy = shapeMap.persistentCopy();
+		assertThat(copy.isFrozen()).isFalse();
+		assertThat(copy.getAllShapeLayersIdentifiers()).containsExactly(LAYER);
+		copy.get(LAYER).add(point);
+		assertThat(copy.get(LAYER)).hasSize(2);
+		assertThat(shapeMap.get(LAYER)).hasSize(1);
+	}
+
+
+	@Test
+	public void testPublishedVersions()
+	{
+		PublishedShapeMaps publishedShapeMaps = new PublishedShapeMaps();
+		ShapeMapSource sourceA = ShapeMapSource.of("A");
+		ShapeMapSource sourceB = ShapeMapSource.of("B");
+		ShapeMap shapeMapA = new ShapeMap().freeze();
+		ShapeMap shapeMapB = new ShapeMap().freeze();
+
+		publishedShapeMaps.publish(sourceA, shapeMapA);
+		long version = publishedShapeMaps.getVersion();
+		publishedShapeMaps.publish(sourceB, shapeMapB);
+
+		List<ShapeMapSource> changed = new ArrayList<>();
+		publishedShapeMaps.forEachChangedSince(version, (source, shapeMap) -> changed.add(source));
+		assertThat(changed).containsExactly(sourceB);
+		assertThat(publishedShapeMaps.stream()).containsExactlyInAnyOrder(shapeMapA, shapeMapB);
+
+		publishedShapeMaps.remove(sourceA);
+		assertThat(publishedShapeMaps.getVersion()).isGreaterThan(version + 1);
+		assertThat(publishedShapeMaps.stream()).containsExactly(shapeMapB);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.filter.kf.KalmanFilter;
+import edu.tigers.sumatra.math.SumatraMath;
+import org.apache.commons.math3.linear.MatrixUtils;
+
+
+/**
+ * Reference implementations of the tracking filters, based on the generic {@link KalmanFilter}.
+ */
+final class GenericTrackingFilters
+{
+	private GenericTrackingFilters()
+	{
+	}
+
+
+	static class PosVel2D extends KalmanFilter
+	{
+		private final double modelError;
+		private long lastTimestamp;
+
+
+		PosVel2D(final double covariance, final double modelErr, final double measErr, final long timestamp)
+		{
+			super(4, 2, 1);
+			errorCovariance = MatrixUtils.createRealIdentityMatrix(4).scalarMultiply(covariance);
+			measurementMatrix.setEntry(0, 0, 1);
+			measurementMatrix.setEntry(1, 1, 1);
+			measurementNoiseCovariance.setEntry(0, 0, measErr);
+			measurementNoiseCovariance.setEntry(1, 1, measErr);
+			modelError = modelErr;
+			lastTimestamp = timestamp;
+		}
+
+
+		void predict(final long timestamp)
+		{
+			double dt = (timestamp - lastTimestamp) * 1e-9;
+			if (dt <= 0)
+			{
+				return;
+			}
+			lastTimestamp = timestamp;
+
+			transitionMatrix.setEntry(0, 0, 1);
+			transitionMatrix.setEntry(0, 2, dt);
+			transitionMatrix.setEntry(1, 1, 1);
+			transitionMatrix.setEntry(1, 3, dt);
+			transitionMatrix.setEntry(2, 2, 1);
+			transitionMatrix.setEntry(3, 3, 1);
+			TrackingFilterPosVel2D.getOptimalProcessNoise(processNoiseCovariance, dt, modelError);
+
+			predict();
+		}
+
+
+		void correct(final double x, final double y)
+		{
+			correct(MatrixUtils.createRealVector(new double[] { x, y }));
+		}
+	}
+
+
+	static class PosVel1D extends KalmanFilter
+	{
+		private final double modelError;
+		private long lastTimestamp;
+
+
+		PosVel1D(final double covariance, final double modelErr, final double measErr, final long timestamp)
+		{
+			super(2, 1, 1);
+			errorCovariance = MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(covariance);
+			measurementMatrix.setEntry(0, 0, 1);
+			measurementNoiseCovariance.setEntry(0, 0, measErr);
+			modelError = modelErr;
+			lastTimestamp = timestamp;
+		}
+
+
+		void predict(final long timestamp)
+		{
+			double dt = (timestamp - lastTimestamp) * 1e-9;
+			if (dt <= 0)
+			{
+				return;
+			}
+			lastTimestamp = timestamp;
+
+			transitionMatrix.setEntry(0, 0, 1);
+			transitionMatrix.setEntry(0, 1, dt);
+			transitionMatrix.setEntry(1, 1, 1);
+
+			double sigma = SumatraMath.sqrt((3.0 * modelError) / dt) / dt;
+			double dt3 = (1.0 / 3.0) * dt * dt * dt * sigma * sigma;
+			double dt2 = (1.0 / 2.0) * dt * dt * sigma * sigma;
+			processNoiseCovariance.setEntry(0, 0, dt3);
+			processNoiseCovariance.setEntry(0, 1, dt2);
+			processNoiseCovariance.setEntry(1, 0, dt2);
+			processNoiseCovariance.setEntry(1, 1, dt * sigma * sigma);
+
+			predict();
+		}
+
+
+		void correct(final double position)
+		{
+			correct(MatrixUtils.createRealVector(new double[] { position }));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+
+/**
+ * Compares the specialized tracking filters with the generic Kalman filter implementation.
+ * Each benchmark runs predict and correct on the same measurements and returns the final estimates,
+ * so the results of both implementations can be compared, too.
+ * Run with -prof gc to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class TrackingFilterBenchmark
+{
+	private static final int NUM_SAMPLES = 1_000;
+	private static final long DT = 13_333_333;
+
+	private final double[] xs = new double[NUM_SAMPLES];
+	private final double[] ys = new double[NUM_SAMPLES];
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	public TrackingFilterBenchmark()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < NUM_SAMPLES; i++)
+		{
+			xs[i] = i * 20.0 + rnd.nextGaussian();
+			ys[i] = i * -5.0 + rnd.nextGaussian();
+		}
+	}
+
+
+	@Benchmark
+	public double specialized2D()
+	{
+		TrackingFilterPosVel2D filter = new TrackingFilterPosVel2D(Vector2.zero(), 1, 0.1, 2, 0);
+		for (int i = 1; i < NUM_SAMPLES; i++)
+		{
+			filter.predict(i * DT);
+			filter.correct(xs[i], ys[i]);
+		}
+		return filter.getPositionEstimate().x() + filter.getVelocityEstimate().y();
+	}
+
+
+	@Benchmark
+	public double generic2D()
+	{
+		GenericTrackingFilters.PosVel2D filter = new GenericTrackingFilters.PosVel2D(1, 0.1, 2, 0);
+		for (int i = 1; i < NUM_SAMPLES; i++)
+		{
+			filter.predict(i * DT);
+			filter.correct(xs[i], ys[i]);
+		}
+		return filter.getStateEstimate().getEntry(0) + filter.getStateEstimate().getEntry(3);
+	}
+
+
+	@Benchmark
+	public double specialized1D()
+	{
+		TrackingFilterPosVel1D filter = new TrackingFilterPosVel1D(0, 1, 0.1, 2, 0);
+		for (int i = 1; i < NUM_SAMPLES; i++)
+		{
+			filter.predict(i * DT);
+			filter.correct(xs[i]);
+		}
+		return filter.getPositionEstimate() + filter.getVelocityEstimate();
+	}
+
+
+	@Benchmark
+	public double generic1D()
+	{
+		GenericTrackingFilters.PosVel1D filter = new GenericTrackingFilters.PosVel1D(1, 0.1, 2, 0);
+		for (int i = 1; i < NUM_SAMPLES; i++)
+		{
+			filter.predict(i * DT);
+			filter.correct(xs[i]);
+		}
+		return filter.getStateEstimate().getEntry(0) + filter.getStateEstimate().getEntry(1);
+	}
+}
@@ -123,4 +123,40 @@ public class TrackingFilterPosVel1DTest
 			}
 		}
 	}
+	
+	
+	@Test
+	public void matchesGenericKalmanFilterTest()
+	{
+		Random gen = new Random(0);
+		TrackingFilterPosVel1D filter = new TrackingFilterPosVel1D(0, 1, 0.1, 2, 0);
+		GenericTrackingFilters.PosVel1D reference = new GenericTrackingFilters.PosVel1D(1, 0.1, 2, 0);
+		
+		for (int i = 1; i < 500; i++)
+		{
+			long time = (long) (i * 0.01 * 1e9);
+			double pos = (i * 10.0) + gen.nextGaussian();
+			
+			filter.predict(time);
+			reference.predict(time);
+			if ((i % 7) != 0)
+			{
+				filter.correct(pos);
+				reference.correct(pos);
+			}
+			
+			assertClose(reference.getStateEstimate().toArray(), filter.getStateEstimate().toArray());
+			assertClose(reference.getCovarianceMatrix().getRow(0), filter.getCovarianceMatrix().getRow(0));
+			assertClose(reference.getCovarianceMatrix().getRow(1), filter.getCovarianceMatrix().getRow(1));
+		}
+	}
+	
+	
+	private void assertClose(final double[] expected, final double[] actual)
+	{
+		for (int i = 0; i < expected.length; i++)
+		{
+			Assert.assertEquals(expected[i], actual[i], 1e-9 * Math.max(1, Math.abs(expected[i])));
+		}
+	}
 }
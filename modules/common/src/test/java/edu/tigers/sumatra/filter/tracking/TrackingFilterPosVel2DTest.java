@@ -139,4 +139,43 @@ public class TrackingFilterPosVel2DTest
 			}
 		}
 	}
+	
+	
+	@Test
+	public void matchesGenericKalmanFilterTest()
+	{
+		Random gen = new Random(0);
+		TrackingFilterPosVel2D filter = new TrackingFilterPosVel2D(Vector2.zero(), 1, 0.1, 2, 0);
+		GenericTrackingFilters.PosVel2D reference = new GenericTrackingFilters.PosVel2D(1, 0.1, 2, 0);
+		
+		for (int i = 1; i < 500; i++)
+		{
+			long time = (long) (i * 0.01 * 1e9);
+			double posX = (i * 10.0) + gen.nextGaussian();
+			double posY = (i * -3.0) + gen.nextGaussian();
+			
+			filter.predict(time);
+			reference.predict(time);
+			if ((i % 7) != 0)
+			{
+				filter.correct(Vector2.fromXY(posX, posY));
+				reference.correct(posX, posY);
+			}
+			
+			assertClose(reference.getStateEstimate().toArray(), filter.getStateEstimate().toArray());
+			for (int row = 0; row < 4; row++)
+			{
+				assertClose(reference.getCovarianceMatrix().getRow(row), filter.getCovarianceMatrix().getRow(row));
+			}
+		}
+	}
+	
+	
+	private void assertClose(final double[] expected, final double[] actual)
+	{
+		for (int i = 0; i < expected.length; i++)
+		{
+			Assert.assertEquals(expected[i], actual[i], 1e-9 * Math.max(1, Math.abs(expected[i])));
+		}
+	}
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.ids;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+/**
+ * Test class for BotIdMap
+ */
+public class BotIdMapTest
+{
+	private static final BotID YELLOW_3 = BotID.createBotId(3, ETeamColor.YELLOW);
+	private static final BotID BLUE_0 = BotID.createBotId(0, ETeamColor.BLUE);
+	private static final BotID BLUE_15 = BotID.createBotId(15, ETeamColor.BLUE);
+
+
+	@Test
+	public void testPutGetRemove()
+	{
+		Map<BotID, String> map = new BotIdMap<>();
+		assertThat(map.put(BLUE_0, "a")).isNull();
+		assertThat(map.put(BLUE_0, "b")).isEqualTo("a");
+		map.put(YELLOW_3, null);
+
+		assertThat(map).hasSize(2);
+		assertThat(map.get(BLUE_0)).isEqualTo("b");
+		assertThat(map.containsKey(YELLOW_3)).isTrue();
+		assertThat(map.get(YELLOW_3)).isNull();
+		assertThat(map.containsKey(BLUE_15)).isFalse();
+		assertThat(map.get(BotID.noBot())).isNull();
+		assertThat(map.get("no bot id")).isNull();
+
+		assertThat(map.remove(BLUE_0)).isEqualTo("b");
+		assertThat(map.remove(BLUE_0)).isNull();
+		assertThat(map).hasSize(1);
+	}
+
+
+	@Test
+	public void testInvalidKey()
+	{
+		Map<BotID, String> map = new BotIdMap<>();
+		assertThatThrownBy(() -> map.put(BotID.noBot(), "a")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void testIterationOrder()
+	{
+		Map<BotID, String> map = new BotIdMap<>();
+		map.put(BLUE_15, "c");
+		map.put(BLUE_0, "b");
+		map.put(YELLOW_3, "a");
+
+		assertThat(map.keySet()).containsExactly(YELLOW_3, BLUE_0, BLUE_15);
+		assertThat(map.values()).containsExactly("a", "b", "c");
+
+		List<BotID> keys = new ArrayList<>();
+		map.forEach((k, v) -> keys.add(k));
+		assertThat(keys).containsExactly(YELLOW_3, BLUE_0, BLUE_15);
+
+		map.keySet().removeIf(id -> id.getTeamColor() == ETeamColor.BLUE);
+		assertThat(map).containsOnlyKeys(YELLOW_3);
+	}
+
+
+	@Test
+	public void testEqualsHashMap()
+	{
+		Map<BotID, String> hashMap = new HashMap<>();
+		hashMap.put(BLUE_0, "b");
+		hashMap.put(YELLOW_3, "a");
+		Map<BotID, String> map = new BotIdMap<>(hashMap);
+
+		assertThat(map).isEqualTo(hashMap);
+		assertThat(hashMap).isEqualTo(map);
+		assertThat(map).hasSameHashCodeAs(hashMap);
+	}
+
+
+	@Test
+	public void testCollector()
+	{
+		BotIdMap<Integer> map = Stream.of(BLUE_0, YELLOW_3)
+				.collect(BotIdMap.toBotIdMap(id -> id, BotID::getNumber));
+		assertThat(map).containsEntry(BLUE_0, 0).containsEntry(YELLOW_3, 3);
+
+		Stream<BotID> duplicates = Stream.of(BLUE_0, BLUE_0);
+		assertThatThrownBy(() -> duplicates.collect(BotIdMap.toBotIdMap(id -> id, BotID::getNumber)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+
+	@Test
+	public void testRegistry()
+	{
+		assertThat(BotID.createBotId(7, ETeamColor.NEUTRAL)).isSameAs(BotID.createBotId(7, ETeamColor.NEUTRAL));
+		assertThat(BotID.getAllYellow()).hasSize(AObjectID.BOT_ID_MAX + 1)
+				.allMatch(id -> id.getTeamColor() == ETeamColor.YELLOW);
+		assertThat(BotID.createBotId(AObjectID.UNINITIALIZED_ID, ETeamColor.BLUE).getDenseIndex()).isNegative();
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.time;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Test class for LatencyHistogram
+ */
+public class LatencyHistogramTest
+{
+	@Test
+	public void testEmpty()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getAverageTime()).isZero();
+		assertThat(histogram.getPercentileTime(0.99)).isZero();
+	}
+
+
+	@Test
+	public void testStatistics()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++)
+		{
+			histogram.record(10_000);
+		}
+		histogram.record(5_000_000);
+
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getMaxTime()).isCloseTo(5e-3, within(1e-12));
+		assertThat(histogram.getAverageTime()).isCloseTo((99 * 10e-6 + 5e-3) / 100, within(1e-12));
+		// 10us are in the bucket [8us, 16us)
+		assertThat(histogram.getPercentileTime(0.5)).isCloseTo(16e-6, within(1e-12));
+		assertThat(histogram.getPercentileTime(1.0)).isCloseTo(5e-3, within(1e-12));
+	}
+
+
+	@Test
+	public void testReset()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+		histogram.reset();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getBuckets()).containsOnly(0L);
+	}
+}
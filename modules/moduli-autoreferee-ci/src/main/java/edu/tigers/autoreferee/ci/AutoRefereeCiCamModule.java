@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.ci;
@@ -49,6 +49,10 @@ public class AutoRefereeCiCamModule extends ACam implements IWorldFrameObserver
 		refForwarder = (DirectRefereeMsgForwarder) ref.getSource(ERefereeMessageSource.INTERNAL_FORWARDER);
 		int port = getSubnodeConfiguration().getInt("port", 10013);
 		autoRefereeCiServer.setPort(port);
+		autoRefereeCiServer.setLockStep(getSubnodeConfiguration().getBoolean("lockStep", false));
+		autoRefereeCiServer.setOutputBufferSize(getSubnodeConfiguration().getInt("outputBufferSize", 16));
+		autoRefereeCiServer.setDropOutputs(getSubnodeConfiguration().getBoolean("dropOutputs", false));
+		autoRefereeCiServer.setLockStepTimeoutMs(getSubnodeConfiguration().getLong("lockStepTimeoutMs", 1000));
 		autoRefereeCiServer.start();
 	}
 
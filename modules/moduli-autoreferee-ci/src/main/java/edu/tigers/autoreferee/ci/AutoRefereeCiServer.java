@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.ci;
@@ -15,12 +15,43 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 
+/**
+ * Server for the auto-referee CI protocol.
+ * <p>
+ * The server accepts a single session at a time, as there is only one pipeline per process.
+ * Further connections are rejected, until the current session is closed.
+ * The session reads its input on its own virtual thread and the whole input message with all its detection frames
+ * is passed to the pipeline at once.
+ * <p>
+ * Outputs are written asynchronously by a writer thread per session, so publishing does not wait for the socket.
+ * In streaming mode, each session receives all outputs. If a client can not keep up, publishing waits until there
+ * is room in the output buffer, or, if {@link #dropOutputs} is set, the oldest buffered outputs are dropped.
+ * In lock-step mode, each input is acknowledged with exactly one output: The first output that is
+ * published after the input was processed and that is not older than the newest frame of the input,
+ * or an empty output, if none was published within the timeout. That way, a late output of the previous input
+ * does not acknowledge the next one. Inputs without frames are acknowledged by the next output.
+ * The session reads the next input only after the acknowledgement was sent.
+ */
 @Log4j2
 @RequiredArgsConstructor
 public class AutoRefereeCiServer
@@ -30,12 +61,25 @@ public class AutoRefereeCiServer
 	private final Consumer<SslGcRefereeMessage.Referee> refereeConsumer;
 	private final Consumer<SslVisionWrapperTracked.TrackerWrapperPacket> trackerWrapperPacketConsumer;
 
+	private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+	/** a new session may already be accepted, while the reader of the previous one still processes its last input */
+	private final Object pipelineLock = new Object();
+	private final AtomicInteger sessionCounter = new AtomicInteger();
+
 	@Setter
 	private int port;
+	@Setter
+	private boolean lockStep = false;
+	@Setter
+	private int outputBufferSize = 16;
+	@Setter
+	private boolean dropOutputs = false;
+	@Setter
+	private long lockStepTimeoutMs = 1000;
+
 	private Thread thread;
-	private boolean running;
+	private volatile boolean running;
 	private ServerSocket serverSocket;
-	private Socket currentSocket;
 
 
 	public void start()
@@ -53,9 +97,7 @@ public class AutoRefereeCiServer
 			log.error("Could not listen on port " + port, e);
 			return;
 		}
-		thread = new Thread(() -> Safe.run(this::listen));
-		thread.setName("AutoRef CI Server");
-		thread.start();
+		thread = Thread.ofVirtual().name("AutoRef CI Server").start(() -> Safe.run(this::listen));
 	}
 
 
@@ -73,6 +115,7 @@ public class AutoRefereeCiServer
 		{
 			log.warn("Failed to close server socket", e);
 		}
+		sessions.forEach(Session::close);
 
 		thread.interrupt();
 		thread = null;
@@ -80,10 +123,15 @@ public class AutoRefereeCiServer
 	}
 
 
+	/**
+	 * Publish a tracker packet to all connected sessions.
+	 * This only blocks, if a session can not keep up and {@link #dropOutputs} is not set.
+	 *
+	 * @param trackerWrapperPacket the packet to publish
+	 */
 	public void publish(SslVisionWrapperTracked.TrackerWrapperPacket trackerWrapperPacket)
 	{
-		Socket socket = currentSocket;
-		if (socket == null)
+		if (sessions.isEmpty())
 		{
 			return;
 		}
@@ -91,13 +139,7 @@ public class AutoRefereeCiServer
 		AutoRefCiOutput autoRefCiOutput = AutoRefCiOutput.newBuilder()
 				.setTrackerWrapperPacket(trackerWrapperPacket)
 				.build();
-		try
-		{
-			autoRefCiOutput.writeDelimitedTo(socket.getOutputStream());
-		} catch (IOException e)
-		{
-			log.warn("Failed to publish tracker wrapper packet", e);
-		}
+		sessions.forEach(session -> session.offer(autoRefCiOutput));
 	}
 
 
@@ -107,34 +149,30 @@ public class AutoRefereeCiServer
 		{
 			try
 			{
-				currentSocket = accept();
-				while (running)
+				Socket socket = accept();
+				if (!sessions.isEmpty())
 				{
-					if (!consume(currentSocket))
-					{
-						break;
-					}
+					log.warn("Rejecting CI connection from {}: Another session is still connected",
+							socket.getRemoteSocketAddress());
+					socket.close();
+					continue;
 				}
+				Session session = new Session(socket, sessionCounter.incrementAndGet());
+				sessions.add(session);
+				session.start();
 			} catch (IOException e)
 			{
-				log.warn("Connection failed", e);
+				if (running)
+				{
+					log.warn("Connection failed", e);
+				}
 			}
-			currentSocket = null;
 		}
 	}
 
 
-	private boolean consume(Socket socket) throws IOException
+	private void consume(AutoRefCiInput autoRefCiInput)
 	{
-		if (socket == null)
-		{
-			return false;
-		}
-		AutoRefCiInput autoRefCiInput = AutoRefCiInput.parseDelimitedFrom(socket.getInputStream());
-		if (autoRefCiInput == null)
-		{
-			return false;
-		}
 		if (autoRefCiInput.hasGeometry())
 		{
 			geometryDataConsumer.accept(autoRefCiInput.getGeometry());
@@ -148,7 +186,24 @@ public class AutoRefereeCiServer
 		{
 			trackerWrapperPacketConsumer.accept(autoRefCiInput.getTrackerWrapperPacket());
 		}
-		return true;
+	}
+
+
+	/**
+	 * @param autoRefCiInput an input
+	 * @return the timestamp [s] of the newest frame of the input, or negative infinity, if it contains no frames
+	 */
+	private static double getNewestFrameTimestamp(AutoRefCiInput autoRefCiInput)
+	{
+		double timestamp = autoRefCiInput.getDetectionList().stream()
+				.mapToDouble(SslVisionDetection.SSL_DetectionFrame::getTCapture)
+				.max()
+				.orElse(Double.NEGATIVE_INFINITY);
+		if (autoRefCiInput.hasTrackerWrapperPacket())
+		{
+			timestamp = Math.max(timestamp, autoRefCiInput.getTrackerWrapperPacket().getTrackedFrame().getTimestamp());
+		}
+		return timestamp;
 	}
 
 
@@ -158,4 +213,233 @@ public class AutoRefereeCiServer
 		socket.setTcpNoDelay(true);
 		return socket;
 	}
+
+
+	private class Session
+	{
+		private final Socket socket;
+		private final int id;
+		private final BlockingQueue<AutoRefCiOutput> outputs = new ArrayBlockingQueue<>(Math.max(1, outputBufferSize));
+		private final AtomicReference<PendingAck> pendingAck = new AtomicReference<>();
+		private final Semaphore acks = new Semaphore(0);
+		private final AtomicLong numDropped = new AtomicLong();
+		private final AtomicBoolean dropping = new AtomicBoolean();
+		private final Thread reader;
+		private final Thread writer;
+
+
+		Session(final Socket socket, final int id)
+		{
+			this.socket = socket;
+			this.id = id;
+			// create both threads first, as each of them closes the session on failure
+			reader = Thread.ofVirtual().name("AutoRef CI Session " + id)
+					.unstarted(() -> Safe.run(this::read));
+			writer = Thread.ofVirtual().name("AutoRef CI Session " + id + " Writer")
+					.unstarted(() -> Safe.run(this::write));
+		}
+
+
+		void start()
+		{
+			log.info("CI session {} connected from {} ({})", id, socket.getRemoteSocketAddress(),
+					lockStep ? "lock-step" : "streaming");
+			writer.start();
+			reader.start();
+		}
+
+
+		void offer(final AutoRefCiOutput output)
+		{
+			if (lockStep)
+			{
+				PendingAck ack = pendingAck.get();
+				if (ack != null && ack.isAcknowledgedBy(output) && pendingAck.compareAndSet(ack, null))
+				{
+					enqueue(output);
+					acks.release();
+				}
+			} else
+			{
+				enqueue(output);
+			}
+		}
+
+
+		private void enqueue(final AutoRefCiOutput output)
+		{
+			if (dropOutputs)
+			{
+				enqueueOrDropOldest(output);
+			} else
+			{
+				enqueueLossless(output);
+			}
+		}
+
+
+		private void enqueueLossless(final AutoRefCiOutput output)
+		{
+			try
+			{
+				// wait for the writer, but not for a closed session
+				while (!outputs.offer(output, 100, TimeUnit.MILLISECONDS))
+				{
+					if (socket.isClosed())
+					{
+						return;
+					}
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+
+		private void enqueueOrDropOldest(final AutoRefCiOutput output)
+		{
+			while (!outputs.offer(output))
+			{
+				if (outputs.poll() != null)
+				{
+					numDropped.incrementAndGet();
+					if (dropping.compareAndSet(false, true))
+					{
+						log.warn("CI session {} can not keep up. Dropping outputs!", id);
+					}
+				}
+			}
+			dropping.set(false);
+		}
+
+
+		private void read()
+		{
+			try (InputStream in = new BufferedInputStream(socket.getInputStream()))
+			{
+				long sequenceNumber = 0;
+				while (running)
+				{
+					AutoRefCiInput autoRefCiInput = AutoRefCiInput.parseDelimitedFrom(in);
+					if (autoRefCiInput == null)
+					{
+						break;
+					}
+					PendingAck ack = null;
+					if (lockStep)
+					{
+						ack = new PendingAck(sequenceNumber++, getNewestFrameTimestamp(autoRefCiInput));
+						pendingAck.set(ack);
+					}
+					synchronized (pipelineLock)
+					{
+						consume(autoRefCiInput);
+					}
+					if (lockStep)
+					{
+						awaitAck(ack);
+					}
+				}
+			} catch (IOException e)
+			{
+				if (running && !socket.isClosed())
+				{
+					log.warn("CI session {} failed", id, e);
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			} finally
+			{
+				close();
+			}
+		}
+
+
+		private void awaitAck(final PendingAck ack) throws InterruptedException
+		{
+			if (acks.tryAcquire(lockStepTimeoutMs, TimeUnit.MILLISECONDS))
+			{
+				return;
+			}
+			if (pendingAck.compareAndSet(ack, null))
+			{
+				log.debug("CI session {}: No output for input {} within {}ms, acknowledging with an empty output", id,
+						ack.sequenceNumber(), lockStepTimeoutMs);
+				enqueue(AutoRefCiOutput.getDefaultInstance());
+			} else
+			{
+				// the input was acknowledged just after the timeout, the permit is released right after
+				acks.acquire();
+			}
+		}
+
+
+		private void write()
+		{
+			try (OutputStream out = new BufferedOutputStream(socket.getOutputStream()))
+			{
+				while (!socket.isClosed())
+				{
+					AutoRefCiOutput output = outputs.take();
+					output.writeDelimitedTo(out);
+					// write all buffered outputs in one go
+					while ((output = outputs.poll()) != null)
+					{
+						output.writeDelimitedTo(out);
+					}
+					out.flush();
+				}
+			} catch (IOException e)
+			{
+				if (running && !socket.isClosed())
+				{
+					log.warn("Failed to publish to CI session {}", id, e);
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			} finally
+			{
+				close();
+			}
+		}
+
+
+		void close()
+		{
+			if (!sessions.remove(this))
+			{
+				return;
+			}
+			try
+			{
+				socket.close();
+			} catch (IOException e)
+			{
+				log.warn("Failed to close CI session {}", id, e);
+			}
+			reader.interrupt();
+			writer.interrupt();
+			log.info("CI session {} closed, {} outputs dropped", id, numDropped.get());
+		}
+	}
+
+
+	/**
+	 * An input that waits for its acknowledgement in lock-step mode.
+	 *
+	 * @param sequenceNumber the number of the input within its session
+	 * @param minTimestamp   the timestamp [s] of the newest frame of the input
+	 */
+	private record PendingAck(long sequenceNumber, double minTimestamp)
+	{
+		boolean isAcknowledgedBy(final AutoRefCiOutput output)
+		{
+			// the vision filter never publishes frames that are older than its newest input frame.
+			// Allow for the rounding of the timestamps to nanoseconds.
+			return output.getTrackerWrapperPacket().getTrackedFrame().getTimestamp() >= minTimestamp - 1e-6;
+		}
+	}
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+
+/**
+ * Base class for benchmarks of the autoRef pipeline.
+ * Each benchmark operation processes a single world frame, so the throughput is in frames per second
+ * and the normalized allocation rate of the gc profiler ({@code -prof gc}) is the allocation per frame.
+ */
+@State(Scope.Thread)
+public abstract class AAutoRefBenchmark
+{
+	private static List<List<WorldFrameWrapper>> frames;
+
+	private int logIndex = 0;
+	private int frameIndex = 0;
+
+
+	@Setup(Level.Trial)
+	public void setupFrames()
+	{
+		if (frames == null)
+		{
+			frames = AutoRefBenchmarkFrames.load();
+		}
+		logIndex = 0;
+		frameIndex = 0;
+		onNewLog();
+	}
+
+
+	/**
+	 * Called before the first frame of each game log. The pipeline should be recreated here.
+	 */
+	protected abstract void onNewLog();
+
+
+	/**
+	 * @return the next world frame, cycling through all game logs
+	 */
+	protected WorldFrameWrapper nextFrame()
+	{
+		List<WorldFrameWrapper> logFrames = frames.get(logIndex);
+		if (frameIndex >= logFrames.size())
+		{
+			frameIndex = 0;
+			logIndex = (logIndex + 1) % frames.size();
+			logFrames = frames.get(logIndex);
+			onNewLog();
+		}
+		return logFrames.get(frameIndex++);
+	}
+}
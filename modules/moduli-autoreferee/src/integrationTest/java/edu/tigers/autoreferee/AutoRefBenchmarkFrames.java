@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import edu.tigers.sumatra.gamelog.GameLogPlayer;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
+import edu.tigers.sumatra.wp.IWorldFrameObserver;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+/**
+ * Replays the SSL game logs of the autoRef integration tests through vision filter and world predictor
+ * and keeps the resulting world frames in memory, so that the autoRef pipeline can be benchmarked without
+ * the rest of the stack.
+ */
+@Log4j2
+final class AutoRefBenchmarkFrames
+{
+	private static final String MODULI_CONFIG = "integration_test.xml";
+	private static final String LOG_DIR_PROPERTY = "autoref.benchmark.logs";
+	private static final String DEFAULT_LOG_DIR = "config/autoref-tests";
+
+
+	private AutoRefBenchmarkFrames()
+	{
+	}
+
+
+	/**
+	 * Load all game logs from the directory given by the system property {@value #LOG_DIR_PROPERTY}
+	 * (default: {@value #DEFAULT_LOG_DIR}).
+	 * The moduli stay loaded afterwards, as the autoRef frames require the {@link SumatraModel}.
+	 *
+	 * @return the world frames of each game log
+	 */
+	static List<List<WorldFrameWrapper>> load()
+	{
+		ConfigRegistration.setDefPath("../../config/");
+		SumatraModel.getInstance().setCurrentModuliConfig(MODULI_CONFIG);
+		SumatraModel.getInstance().loadModulesOfConfigSafe(MODULI_CONFIG);
+		Geometry.setNegativeHalfTeam(ETeamColor.BLUE);
+
+		List<List<WorldFrameWrapper>> frames = new ArrayList<>();
+		for (Path logFile : findLogFiles())
+		{
+			List<WorldFrameWrapper> logFrames = replay(logFile);
+			if (!logFrames.isEmpty())
+			{
+				frames.add(logFrames);
+			}
+		}
+		if (frames.isEmpty())
+		{
+			throw new IllegalStateException("No world frames found. Set -D" + LOG_DIR_PROPERTY
+					+ " to a folder with SSL game logs.");
+		}
+		log.info("Loaded {} frames from {} logs", frames.stream().mapToInt(List::size).sum(), frames.size());
+		return frames;
+	}
+
+
+	private static List<WorldFrameWrapper> replay(Path logFile)
+	{
+		GameLogReader logReader = new GameLogReader();
+		logReader.loadFileBlocking(logFile.toAbsolutePath().toString());
+
+		List<WorldFrameWrapper> frames = Collections.synchronizedList(new ArrayList<>());
+		IWorldFrameObserver observer = new IWorldFrameObserver()
+		{
+			@Override
+			public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
+			{
+				frames.add(wFrameWrapper);
+			}
+		};
+
+		SumatraModel.getInstance().startModules();
+		try
+		{
+			SumatraModel.getInstance().getModule(AWorldPredictor.class)
+					.addObserver(observer, EObserverDispatchPolicy.BLOCK);
+			SumatraModel.getInstance().getModule(GameLogPlayer.class).playlogFast(logReader);
+			SumatraModel.getInstance().getModule(AWorldPredictor.class).awaitObservers();
+		} finally
+		{
+			SumatraModel.getInstance().getModule(AWorldPredictor.class).removeObserver(observer);
+			SumatraModel.getInstance().stopModules();
+		}
+		return new ArrayList<>(frames);
+	}
+
+
+	private static List<Path> findLogFiles()
+	{
+		Path logDir = Path.of(System.getProperty(LOG_DIR_PROPERTY, DEFAULT_LOG_DIR));
+		if (!logDir.toFile().exists())
+		{
+			return Collections.emptyList();
+		}
+		try (Stream<Path> stream = Files.walk(logDir))
+		{
+			return stream
+					.filter(p -> p.getFileName().toString().endsWith(".log")
+							|| p.getFileName().toString().endsWith(".log.gz"))
+					.sorted()
+					.toList();
+		} catch (IOException e)
+		{
+			throw new IllegalStateException("Could not walk through log folder.", e);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark the {@link AutoRefFramePreprocessor} with all or with a single {@link IAutoRefereeCalc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AutoRefCalcBenchmark extends AAutoRefBenchmark
+{
+	private static final String ALL = "ALL";
+
+	@Param({
+			ALL,
+			"BallLeftFieldAutoRefCalc",
+			"BotBallContactAutoRefCalc",
+			"GameStateHistoryAutoRefCalc",
+			"AllowedDistancesAutoRefVisCalc",
+			"PassDetectionAutoRefCalc",
+	})
+	public String calculator;
+
+	private AutoRefFramePreprocessor preprocessor;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	@Override
+	protected void onNewLog()
+	{
+		List<IAutoRefereeCalc> calculators = AutoRefFramePreprocessor.defaultCalculators().stream()
+				.filter(c -> ALL.equals(calculator) || c.getClass().getSimpleName().equals(calculator))
+				.toList();
+		if (calculators.isEmpty())
+		{
+			throw new IllegalArgumentException("Unknown calculator: " + calculator);
+		}
+		preprocessor = new AutoRefFramePreprocessor(calculators, new AutoRefMetrics());
+	}
+
+
+	@Benchmark
+	public AutoRefFrame process()
+	{
+		return preprocessor.process(nextFrame());
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee;
@@ -24,6 +24,7 @@ import edu.tigers.sumatra.persistence.log.BerkeleyLogRecorder;
 import edu.tigers.sumatra.referee.gameevent.GameEventFactory;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.referee.gameevent.SimilarityChecker;
+import edu.tigers.sumatra.wp.AWorldPredictor;
 import edu.tigers.sumatra.wp.BerkeleyShapeMapFrame;
 import edu.tigers.sumatra.wp.ShapeMapBerkeleyRecorder;
 import edu.tigers.sumatra.wp.WfwBerkeleyRecorder;
@@ -162,6 +163,8 @@ public class AutoRefIntegrationTest
 		{
 			var visionCam = SumatraModel.getInstance().getModule(GameLogPlayer.class);
 			visionCam.playlogFast(logReader);
+			// the autoRef processes the frames on its own thread
+			SumatraModel.getInstance().getModule(AWorldPredictor.class).awaitObservers();
 
 			assertNoWarningsOrErrors();
 
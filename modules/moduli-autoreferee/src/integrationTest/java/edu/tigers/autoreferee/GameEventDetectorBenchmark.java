@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.engine.PassiveAutoRefEngine;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark the full autoRef pipeline ({@link AutoRefFramePreprocessor} and {@link PassiveAutoRefEngine})
+ * with all detectors that are enabled by default, no or a single {@link IGameEventDetector}.
+ * The cost of a single detector is the difference to the {@value #NONE} baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GameEventDetectorBenchmark extends AAutoRefBenchmark
+{
+	private static final String ALL = "ALL";
+	private static final String NONE = "NONE";
+
+	@Param({
+			ALL,
+			NONE,
+			"ATTACKER_TO_DEFENSE_AREA_DISTANCE",
+			"BOT_IN_DEFENSE_AREA",
+			"DRIBBLING",
+			"BALL_SPEEDING",
+			"BOT_COLLISION",
+			"DEFENDER_TO_KICK_POINT_DISTANCE",
+			"BOT_STOP_SPEED",
+			"BALL_PLACEMENT_INTERFERENCE",
+			"GOAL",
+			"DOUBLE_TOUCH",
+			"BALL_PLACEMENT_SUCCEEDED",
+			"BALL_LEFT_FIELD",
+			"BOUNDARY_CROSSING",
+			"PUSHING",
+			"PENALTY_KICK_FAILED",
+	})
+	public String detector;
+
+	private AutoRefFramePreprocessor preprocessor;
+	private PassiveAutoRefEngine engine;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	@Override
+	protected void onNewLog()
+	{
+		AutoRefMetrics metrics = new AutoRefMetrics();
+		preprocessor = new AutoRefFramePreprocessor(metrics);
+		engine = new PassiveAutoRefEngine(activeDetectors(), metrics);
+	}
+
+
+	private Set<EGameEventDetectorType> activeDetectors()
+	{
+		return switch (detector)
+		{
+			case ALL -> EGameEventDetectorType.valuesEnabledByDefault();
+			case NONE -> EnumSet.noneOf(EGameEventDetectorType.class);
+			default -> EnumSet.of(EGameEventDetectorType.valueOf(detector));
+		};
+	}
+
+
+	@Benchmark
+	public AutoRefFrame process()
+	{
+		AutoRefFrame frame = preprocessor.process(nextFrame());
+		if (frame.getPreviousFrame() != null)
+		{
+			engine.process(frame);
+		}
+		return frame;
+	}
+}
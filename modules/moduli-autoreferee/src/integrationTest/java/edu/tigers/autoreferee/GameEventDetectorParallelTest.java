@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.engine.GameEventEngine;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test that the parallel execution of the game event detectors gives the same game events and shapes
+ * as the sequential execution on the frames of the recorded game logs.
+ * This only holds as long as the detectors do not share any state.
+ */
+public class GameEventDetectorParallelTest
+{
+	/** all detectors, including the ones that are disabled by default, to cover all of them */
+	private static final Set<EGameEventDetectorType> DETECTORS = EnumSet.allOf(EGameEventDetectorType.class);
+
+	private static List<List<WorldFrameWrapper>> frames;
+
+
+	@BeforeClass
+	public static void beforeClass()
+	{
+		frames = AutoRefBenchmarkFrames.load();
+	}
+
+
+	@Test
+	public void testParallelMatchesSequential()
+	{
+		int numGameEvents = 0;
+		for (List<WorldFrameWrapper> logFrames : frames)
+		{
+			numGameEvents += compare(logFrames);
+		}
+		assertThat(numGameEvents).isPositive();
+	}
+
+
+	private int compare(final List<WorldFrameWrapper> logFrames)
+	{
+		AutoRefFramePreprocessor sequentialPreprocessor = new AutoRefFramePreprocessor();
+		AutoRefFramePreprocessor parallelPreprocessor = new AutoRefFramePreprocessor();
+		GameEventEngine sequentialEngine = new GameEventEngine(DETECTORS, new AutoRefMetrics(), () -> false);
+		GameEventEngine parallelEngine = new GameEventEngine(DETECTORS, new AutoRefMetrics(), () -> true);
+
+		int numGameEvents = 0;
+		try
+		{
+			for (WorldFrameWrapper wfw : logFrames)
+			{
+				AutoRefFrame sequentialFrame = sequentialPreprocessor.process(wfw);
+				AutoRefFrame parallelFrame = parallelPreprocessor.process(wfw);
+				if (sequentialFrame.getPreviousFrame() == null)
+				{
+					continue;
+				}
+
+				List<IGameEvent> sequentialGameEvents = sequentialEngine.update(sequentialFrame);
+				List<IGameEvent> parallelGameEvents = parallelEngine.update(parallelFrame);
+
+				long timestamp = wfw.getSimpleWorldFrame().getTimestamp();
+				assertThat(parallelGameEvents).as("game events at %d", timestamp)
+						.containsExactlyElementsOf(sequentialGameEvents);
+				assertThat(shapeCounts(parallelFrame.getShapes())).as("shapes at %d", timestamp)
+						.isEqualTo(shapeCounts(sequentialFrame.getShapes()));
+				numGameEvents += sequentialGameEvents.size();
+			}
+		} finally
+		{
+			sequentialEngine.shutdown();
+			parallelEngine.shutdown();
+		}
+		return numGameEvents;
+	}
+
+
+	private Map<IShapeLayerIdentifier, Integer> shapeCounts(final ShapeMap shapeMap)
+	{
+		return shapeMap.getAllShapeLayers().stream()
+				.collect(Collectors.toMap(ShapeMap.ShapeLayer::getIdentifier, layer -> layer.getShapes().size()));
+	}
+}
@@ -1,12 +1,14 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee;
 
+import edu.tigers.autoreferee.generic.BotNeighborIndex;
 import edu.tigers.autoreferee.generic.BotPosition;
 import edu.tigers.autoreferee.module.AutoRefModule;
 import edu.tigers.sumatra.drawable.DrawableBorderText;
 import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.referee.data.GameState;
@@ -26,7 +28,7 @@ import java.util.Optional;
  */
 public class AutoRefFrame implements IAutoRefFrame
 {
-	private final ShapeMap shapes = new ShapeMap();
+	private final ShapeMap shapes;
 	private final WorldFrameWrapper worldFrameWrapper;
 	private AutoRefFrame previousFrame;
 
@@ -36,17 +38,34 @@ public class AutoRefFrame implements IAutoRefFrame
 	private boolean isBallInsideField = true;
 	private BallLeftFieldPosition ballLeftFieldPos = null;
 	private List<GameState> stateHistory = Collections.emptyList();
+	private BotNeighborIndex botNeighborIndex;
 
 
 	public AutoRefFrame(final AutoRefFrame previousFrame, final WorldFrameWrapper worldFrameWrapper)
+	{
+		this(previousFrame, worldFrameWrapper, null);
+	}
+
+
+	/**
+	 * @param previousFrame     the previous frame
+	 * @param worldFrameWrapper the current world frame
+	 * @param shapeMapSource    the source that the shapes are published for, or null to always create all shapes
+	 */
+	public AutoRefFrame(final AutoRefFrame previousFrame, final WorldFrameWrapper worldFrameWrapper,
+			final ShapeMapSource shapeMapSource)
 	{
 		this.previousFrame = previousFrame;
 		this.worldFrameWrapper = worldFrameWrapper;
-		shapes.get(EAutoRefShapesLayer.MODE).add(
-				new DrawableBorderText(
-						Vector2.fromXY(1, 6),
-						"AutoRef: " + SumatraModel.getInstance().getModule(AutoRefModule.class).getMode().toString())
-						.setColor(Color.WHITE));
+		shapes = new ShapeMap(shapeMapSource);
+		if (shapes.isActive(EAutoRefShapesLayer.MODE))
+		{
+			shapes.get(EAutoRefShapesLayer.MODE).add(
+					new DrawableBorderText(
+							Vector2.fromXY(1, 6),
+							"AutoRef: " + SumatraModel.getInstance().getModule(AutoRefModule.class).getMode().toString())
+							.setColor(Color.WHITE));
+		}
 	}
 
 
@@ -103,6 +122,19 @@ public class AutoRefFrame implements IAutoRefFrame
 	}
 
 
+	@Override
+	public BotNeighborIndex getBotNeighborIndex()
+	{
+		return botNeighborIndex;
+	}
+
+
+	public void setBotNeighborIndex(final BotNeighborIndex botNeighborIndex)
+	{
+		this.botNeighborIndex = botNeighborIndex;
+	}
+
+
 	@Override
 	public boolean isBallInsideField()
 	{
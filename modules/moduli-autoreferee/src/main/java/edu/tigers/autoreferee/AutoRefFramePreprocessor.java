@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee;
 
@@ -9,7 +9,10 @@ import edu.tigers.autoreferee.engine.calc.BotBallContactAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.GameStateHistoryAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc;
 import edu.tigers.autoreferee.engine.calc.PassDetectionAutoRefCalc;
+import edu.tigers.autoreferee.generic.BotNeighborIndex;
+import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,23 +23,56 @@ import java.util.List;
  */
 public class AutoRefFramePreprocessor
 {
-	private List<IAutoRefereeCalc> calculators = new ArrayList<>();
+	private final List<IAutoRefereeCalc> calculators;
+	private final AutoRefMetrics metrics;
 	private AutoRefFrame lastFrame;
+	/** the source that the shapes of the frames are published for, null to always create all shapes */
+	@Setter
+	private ShapeMapSource shapeMapSource;
 	
 	
 	public AutoRefFramePreprocessor()
 	{
+		this(new AutoRefMetrics());
+	}
+	
+	
+	public AutoRefFramePreprocessor(final AutoRefMetrics metrics)
+	{
+		this(defaultCalculators(), metrics);
+	}
+	
+	
+	/**
+	 * @param calculators the calculators to run, in this order
+	 * @param metrics     the metrics to record the calculator latencies to
+	 */
+	public AutoRefFramePreprocessor(final List<IAutoRefereeCalc> calculators, final AutoRefMetrics metrics)
+	{
+		this.calculators = new ArrayList<>(calculators);
+		this.metrics = metrics;
+	}
+	
+	
+	/**
+	 * @return new instances of all calculators that are run by default
+	 */
+	public static List<IAutoRefereeCalc> defaultCalculators()
+	{
+		List<IAutoRefereeCalc> calculators = new ArrayList<>();
 		calculators.add(new BallLeftFieldAutoRefCalc());
 		calculators.add(new BotBallContactAutoRefCalc());
 		calculators.add(new GameStateHistoryAutoRefCalc());
 		calculators.add(new AllowedDistancesAutoRefVisCalc());
 		calculators.add(new PassDetectionAutoRefCalc());
+		return calculators;
 	}
 	
 	
 	public AutoRefFrame process(final WorldFrameWrapper wFrame)
 	{
-		AutoRefFrame frame = new AutoRefFrame(lastFrame, wFrame);
+		AutoRefFrame frame = new AutoRefFrame(lastFrame, wFrame, shapeMapSource);
+		frame.setBotNeighborIndex(new BotNeighborIndex(wFrame.getSimpleWorldFrame().getBots().values()));
 		
 		if (lastFrame != null)
 		{
@@ -62,7 +98,9 @@ public class AutoRefFramePreprocessor
 	{
 		for (IAutoRefereeCalc calc : calculators)
 		{
+			long tStart = System.nanoTime();
 			calc.process(frame);
+			metrics.getCalcLatency(calc.getClass()).record(System.nanoTime() - tStart);
 		}
 	}
 	
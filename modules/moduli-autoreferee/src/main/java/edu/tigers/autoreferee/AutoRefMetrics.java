@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.time.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Runtime metrics of the autoRef pipeline: Frame counters and processing latencies of the preprocessor,
+ * the engine, each {@link edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc}
+ * and each {@link edu.tigers.autoreferee.engine.detector.IGameEventDetector}.
+ */
+public class AutoRefMetrics
+{
+	private static final String PREPROCESSOR = "preprocessor";
+	private static final String ENGINE = "engine";
+	private static final String GAME_CONTROLLER = "gameController";
+
+	private final LongAdder framesReceived = new LongAdder();
+	private final LongAdder framesDropped = new LongAdder();
+	private final LongAdder framesProcessed = new LongAdder();
+	private final Map<String, LatencyHistogram> stageLatencies = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> calcLatencies = new ConcurrentHashMap<>();
+	private final Map<EGameEventDetectorType, LatencyHistogram> detectorLatencies = new ConcurrentHashMap<>();
+
+
+	public void onFrameReceived()
+	{
+		framesReceived.increment();
+	}
+
+
+	public void onFrameDropped()
+	{
+		framesDropped.increment();
+	}
+
+
+	public void onFrameProcessed()
+	{
+		framesProcessed.increment();
+	}
+
+
+	public long getFramesReceived()
+	{
+		return framesReceived.sum();
+	}
+
+
+	public long getFramesDropped()
+	{
+		return framesDropped.sum();
+	}
+
+
+	public long getFramesProcessed()
+	{
+		return framesProcessed.sum();
+	}
+
+
+	public LatencyHistogram getPreprocessorLatency()
+	{
+		return stageLatencies.computeIfAbsent(PREPROCESSOR, k -> new LatencyHistogram());
+	}
+
+
+	public LatencyHistogram getEngineLatency()
+	{
+		return stageLatencies.computeIfAbsent(ENGINE, k -> new LatencyHistogram());
+	}
+
+
+	/**
+	 * @return the latency from detecting a game event until the game controller acknowledged it
+	 */
+	public LatencyHistogram getGameControllerLatency()
+	{
+		return stageLatencies.computeIfAbsent(GAME_CONTROLLER, k -> new LatencyHistogram());
+	}
+
+
+	/**
+	 * @param calcClass the calculator
+	 * @return the latency histogram of the given calculator
+	 */
+	public LatencyHistogram getCalcLatency(final Class<?> calcClass)
+	{
+		return calcLatencies.computeIfAbsent(calcClass.getSimpleName(), k -> new LatencyHistogram());
+	}
+
+
+	/**
+	 * @param type the detector type
+	 * @return the latency histogram of the given detector
+	 */
+	public LatencyHistogram getDetectorLatency(final EGameEventDetectorType type)
+	{
+		return detectorLatencies.computeIfAbsent(type, k -> new LatencyHistogram());
+	}
+
+
+	/**
+	 * @return all latency histograms by a unique name, sorted by name
+	 */
+	public Map<String, LatencyHistogram> getLatencies()
+	{
+		Map<String, LatencyHistogram> latencies = new TreeMap<>();
+		stageLatencies.forEach((name, h) -> latencies.put("stage." + name, h));
+		calcLatencies.forEach((name, h) -> latencies.put("calc." + name, h));
+		detectorLatencies.forEach((type, h) -> latencies.put("detector." + type.name(), h));
+		return Collections.unmodifiableMap(latencies);
+	}
+
+
+	/**
+	 * Reset all counters and histograms
+	 */
+	public void reset()
+	{
+		framesReceived.reset();
+		framesDropped.reset();
+		framesProcessed.reset();
+		stageLatencies.values().forEach(LatencyHistogram::reset);
+		calcLatencies.values().forEach(LatencyHistogram::reset);
+		detectorLatencies.values().forEach(LatencyHistogram::reset);
+	}
+
+
+	/**
+	 * @return the headers of {@link #getRows()}
+	 */
+	public List<String> getHeaders()
+	{
+		return List.of("name", "count", "avg [s]", "p50 [s]", "p99 [s]", "max [s]");
+	}
+
+
+	/**
+	 * Create a table of the current metrics, one row per counter or histogram
+	 *
+	 * @return all rows
+	 */
+	public List<List<Object>> getRows()
+	{
+		List<List<Object>> rows = new ArrayList<>();
+		rows.add(List.of("frames.received", getFramesReceived(), 0, 0, 0, 0));
+		rows.add(List.of("frames.dropped", getFramesDropped(), 0, 0, 0, 0));
+		rows.add(List.of("frames.processed", getFramesProcessed(), 0, 0, 0, 0));
+		getLatencies().forEach((name, h) -> rows.add(List.of(
+				name,
+				h.getCount(),
+				h.getAverageTime(),
+				h.getPercentileTime(0.5),
+				h.getPercentileTime(0.99),
+				h.getMaxTime()
+		)));
+		return rows;
+	}
+}
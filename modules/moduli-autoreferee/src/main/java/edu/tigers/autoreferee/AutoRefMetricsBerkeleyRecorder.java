@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.module.AutoRefModule;
+import edu.tigers.sumatra.export.CSVExporter;
+import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.persistence.IBerkeleyRecorder;
+
+import java.nio.file.Paths;
+
+
+/**
+ * Export the {@link AutoRefMetrics} as a CSV file into the recording folder, so that they are shipped together
+ * with the recording. The metrics are reset when the recording starts, so they only cover the recorded period.
+ */
+public class AutoRefMetricsBerkeleyRecorder implements IBerkeleyRecorder
+{
+	private static final String FILE_NAME = "autoref-metrics";
+	private final BerkeleyDb db;
+
+
+	public AutoRefMetricsBerkeleyRecorder(BerkeleyDb db)
+	{
+		this.db = db;
+	}
+
+
+	@Override
+	public void start()
+	{
+		SumatraModel.getInstance().getModuleOpt(AutoRefModule.class)
+				.map(AutoRefModule::getMetrics)
+				.ifPresent(AutoRefMetrics::reset);
+	}
+
+
+	@Override
+	public void stop()
+	{
+		SumatraModel.getInstance().getModuleOpt(AutoRefModule.class)
+				.map(AutoRefModule::getMetrics)
+				.ifPresent(this::export);
+	}
+
+
+	@Override
+	public void flush()
+	{
+		// metrics are exported once on stop
+	}
+
+
+	private void export(AutoRefMetrics metrics)
+	{
+		CSVExporter exporter = new CSVExporter(Paths.get(db.getDbPath()), FILE_NAME, CSVExporter.EMode.EXACT_FILE_NAME);
+		exporter.setHeader(metrics.getHeaders());
+		metrics.getRows().forEach(exporter::addValues);
+		exporter.close();
+	}
+}
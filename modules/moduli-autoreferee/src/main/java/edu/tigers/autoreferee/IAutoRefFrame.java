@@ -1,11 +1,12 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee;
 
 import java.util.List;
 import java.util.Optional;
 
+import edu.tigers.autoreferee.generic.BotNeighborIndex;
 import edu.tigers.autoreferee.generic.BotPosition;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.referee.data.GameState;
@@ -37,6 +38,12 @@ public interface IAutoRefFrame
 	Optional<BallLeftFieldPosition> getBallLeftFieldPos();
 	
 	
+	/**
+	 * @return the spatial index of all bots of this frame
+	 */
+	BotNeighborIndex getBotNeighborIndex();
+	
+	
 	boolean isBallInsideField();
 	
 	
@@ -1,8 +1,9 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee.engine;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.autoreferee.module.AutoRefModule;
@@ -28,13 +29,21 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	private static final String DEFAULT_REFEREE_HOST = "localhost";
 	private static final int DEFAULT_GC_AUTO_REF_PORT = 11007;
 
+	private final AutoRefMetrics metrics;
 	private AutoRefToGameControllerConnector remote;
 	private Long lastTimeSentContinue;
 
 
 	public ActiveAutoRefEngine(final Set<EGameEventDetectorType> activeDetectors)
 	{
-		super(activeDetectors);
+		this(activeDetectors, new AutoRefMetrics());
+	}
+
+
+	public ActiveAutoRefEngine(final Set<EGameEventDetectorType> activeDetectors, final AutoRefMetrics metrics)
+	{
+		super(activeDetectors, metrics);
+		this.metrics = metrics;
 	}
 
 
@@ -48,7 +57,7 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 				.orElse(DEFAULT_REFEREE_HOST);
 		int port = SumatraModel.getInstance().getModule(AutoRefModule.class)
 				.getSubnodeConfiguration().getInt("gameControllerPort", DEFAULT_GC_AUTO_REF_PORT);
-		remote = new AutoRefToGameControllerConnector(hostname, port);
+		remote = new AutoRefToGameControllerConnector(hostname, port, metrics.getGameControllerLatency());
 		remote.addGameEventResponseObserver(this::onGameControllerResponse);
 		remote.start();
 	}
@@ -57,6 +66,7 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	@Override
 	public void stop()
 	{
+		super.stop();
 		remote.stop();
 	}
 
@@ -3,6 +3,7 @@
  */
 package edu.tigers.autoreferee.engine;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
@@ -20,7 +21,13 @@ public class AutoRefEngine
 	
 	public AutoRefEngine(Set<EGameEventDetectorType> activeDetectors)
 	{
-		gameEventEngine = new GameEventEngine(activeDetectors);
+		this(activeDetectors, new AutoRefMetrics());
+	}
+	
+	
+	public AutoRefEngine(Set<EGameEventDetectorType> activeDetectors, AutoRefMetrics metrics)
+	{
+		gameEventEngine = new GameEventEngine(activeDetectors, metrics);
 	}
 	
 	
@@ -57,6 +64,7 @@ public class AutoRefEngine
 	public void stop()
 	{
 		gameEventEngine.reset();
+		gameEventEngine.shutdown();
 	}
 	
 	
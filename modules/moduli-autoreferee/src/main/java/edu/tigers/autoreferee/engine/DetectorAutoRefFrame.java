@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.engine;
+
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.generic.BotNeighborIndex;
+import edu.tigers.autoreferee.generic.BotPosition;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * A view on an {@link IAutoRefFrame} with a separate shape map, so that a single detector can be run concurrently
+ * to other detectors. The shapes are merged back into the original frame afterwards.
+ */
+class DetectorAutoRefFrame implements IAutoRefFrame
+{
+	private final IAutoRefFrame frame;
+	private final ShapeMap shapes;
+
+
+	DetectorAutoRefFrame(final IAutoRefFrame frame)
+	{
+		this.frame = frame;
+		shapes = new ShapeMap(frame.getShapes().getSource());
+	}
+
+
+	@Override
+	public IAutoRefFrame getPreviousFrame()
+	{
+		return frame.getPreviousFrame();
+	}
+
+
+	@Override
+	public SimpleWorldFrame getWorldFrame()
+	{
+		return frame.getWorldFrame();
+	}
+
+
+	@Override
+	public GameState getGameState()
+	{
+		return frame.getGameState();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsLastTouchedBall()
+	{
+		return frame.getBotsLastTouchedBall();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsTouchingBall()
+	{
+		return frame.getBotsTouchingBall();
+	}
+
+
+	@Override
+	public Optional<BallLeftFieldPosition> getBallLeftFieldPos()
+	{
+		return frame.getBallLeftFieldPos();
+	}
+
+
+	@Override
+	public BotNeighborIndex getBotNeighborIndex()
+	{
+		return frame.getBotNeighborIndex();
+	}
+
+
+	@Override
+	public boolean isBallInsideField()
+	{
+		return frame.isBallInsideField();
+	}
+
+
+	@Override
+	public RefereeMsg getRefereeMsg()
+	{
+		return frame.getRefereeMsg();
+	}
+
+
+	@Override
+	public List<GameState> getStateHistory()
+	{
+		return frame.getStateHistory();
+	}
+
+
+	@Override
+	public long getTimestamp()
+	{
+		return frame.getTimestamp();
+	}
+
+
+	@Override
+	public void cleanUp()
+	{
+		// the underlying frame is owned by the preprocessor
+	}
+
+
+	@Override
+	public ShapeMap getShapes()
+	{
+		return shapes;
+	}
+}
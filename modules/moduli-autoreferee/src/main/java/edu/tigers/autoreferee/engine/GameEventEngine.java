@@ -1,10 +1,12 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee.engine;
 
 import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import com.github.g3force.instanceables.InstanceableClass;
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
@@ -16,22 +18,62 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 
 /**
  * The engine consults the {@link IGameEventDetector}s.
+ * <p>
+ * Optionally, the active detectors can be executed in parallel on virtual threads. Each detector then works
+ * on its own shape map and the results are merged in the order of the detectors, so that the output is the same
+ * as for the sequential execution.
  */
 @Log4j2
 public class GameEventEngine
 {
+	@Configurable(defValue = "false", comment = "Run the active game event detectors in parallel, one virtual thread per detector")
+	private static boolean parallelDetectors = false;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", GameEventEngine.class);
+	}
+
 	private final List<IGameEventDetector> allDetectors = new ArrayList<>();
 	private final Set<EGameEventDetectorType> activeDetectors;
+	private final AutoRefMetrics metrics;
+	private final BooleanSupplier parallel;
+	private ExecutorService detectorExecutor;
 
 
 	public GameEventEngine(Set<EGameEventDetectorType> activeDetectors)
+	{
+		this(activeDetectors, new AutoRefMetrics());
+	}
+
+
+	public GameEventEngine(Set<EGameEventDetectorType> activeDetectors, AutoRefMetrics metrics)
+	{
+		this(activeDetectors, metrics, () -> parallelDetectors);
+	}
+
+
+	/**
+	 * @param activeDetectors the detectors to run
+	 * @param metrics         the metrics to record the detector latencies into
+	 * @param parallel        if the active detectors should run in parallel, overriding the configured mode
+	 */
+	public GameEventEngine(Set<EGameEventDetectorType> activeDetectors, AutoRefMetrics metrics,
+			BooleanSupplier parallel)
 	{
 		this.activeDetectors = activeDetectors;
+		this.metrics = metrics;
+		this.parallel = parallel;
 
 		for (EGameEventDetectorType eCalc : EGameEventDetectorType.values())
 		{
@@ -75,10 +117,15 @@ public class GameEventEngine
 				.filter(detector -> !detector.isActiveIn(lastState.getState()))
 				.forEach(IGameEventDetector::reset);
 
+		if (parallel.getAsBoolean() && detectors.size() > 1)
+		{
+			return updateParallel(frame, detectors);
+		}
+
 		List<IGameEvent> gameEvents = new ArrayList<>();
 		for (IGameEventDetector detector : detectors)
 		{
-			Optional<IGameEvent> result = detector.update(frame);
+			Optional<IGameEvent> result = runDetector(detector, frame);
 			result.ifPresent(gameEvents::add);
 			result.ifPresent(event -> log.debug("Detected game event: {}", event));
 		}
@@ -87,8 +134,81 @@ public class GameEventEngine
 	}
 
 
+	private List<IGameEvent> updateParallel(final IAutoRefFrame frame, final List<IGameEventDetector> detectors)
+	{
+		if (detectorExecutor == null)
+		{
+			detectorExecutor = Executors.newThreadPerTaskExecutor(
+					Thread.ofVirtual().name("AutoRef Detector-", 0).factory());
+		}
+
+		List<DetectorAutoRefFrame> detectorFrames = new ArrayList<>(detectors.size());
+		List<Future<Optional<IGameEvent>>> results = new ArrayList<>(detectors.size());
+		for (IGameEventDetector detector : detectors)
+		{
+			DetectorAutoRefFrame detectorFrame = new DetectorAutoRefFrame(frame);
+			detectorFrames.add(detectorFrame);
+			results.add(detectorExecutor.submit(() -> runDetector(detector, detectorFrame)));
+		}
+
+		// collect results in the order of the detectors to get a deterministic result
+		List<IGameEvent> gameEvents = new ArrayList<>();
+		for (int i = 0; i < results.size(); i++)
+		{
+			Optional<IGameEvent> result = await(results.get(i));
+			frame.getShapes().merge(detectorFrames.get(i).getShapes());
+			result.ifPresent(gameEvents::add);
+			result.ifPresent(event -> log.debug("Detected game event: {}", event));
+		}
+
+		return gameEvents;
+	}
+
+
+	private Optional<IGameEvent> runDetector(final IGameEventDetector detector, final IAutoRefFrame frame)
+	{
+		long tStart = System.nanoTime();
+		Optional<IGameEvent> result = detector.update(frame);
+		metrics.getDetectorLatency(detector.getType()).record(System.nanoTime() - tStart);
+		return result;
+	}
+
+
+	private Optional<IGameEvent> await(final Future<Optional<IGameEvent>> future)
+	{
+		try
+		{
+			return future.get();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return Optional.empty();
+		} catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException runtimeException)
+			{
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Game event detector failed", e.getCause());
+		}
+	}
+
+
 	public void reset()
 	{
 		allDetectors.forEach(IGameEventDetector::reset);
 	}
+
+
+	/**
+	 * Release the executor of the parallel execution mode, if any.
+	 */
+	public void shutdown()
+	{
+		if (detectorExecutor != null)
+		{
+			detectorExecutor.shutdownNow();
+			detectorExecutor = null;
+		}
+	}
 }
@@ -10,6 +10,7 @@ package edu.tigers.autoreferee.engine;
 
 import java.util.Set;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 
@@ -25,6 +26,12 @@ public class PassiveAutoRefEngine extends AutoRefEngine
 	}
 	
 	
+	public PassiveAutoRefEngine(final Set<EGameEventDetectorType> activeDetectors, final AutoRefMetrics metrics)
+	{
+		super(activeDetectors, metrics);
+	}
+	
+	
 	@Override
 	public void process(final IAutoRefFrame frame)
 	{
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.calc;
@@ -23,6 +23,11 @@ public class AllowedDistancesAutoRefVisCalc implements IAutoRefereeCalc
 	@Override
 	public void process(final AutoRefFrame frame)
 	{
+		if (!frame.getShapes().isActive(EAutoRefShapesLayer.ALLOWED_DISTANCES))
+		{
+			return;
+		}
+
 		List<IDrawableShape> shapes = frame.getShapes().get(EAutoRefShapesLayer.ALLOWED_DISTANCES);
 
 		if (frame.getGameState().isStandardSituation() || frame.getGameState().isStoppedGame())
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee.engine.calc;
 
@@ -33,7 +33,7 @@ public class BallLeftFieldAutoRefCalc implements IAutoRefereeCalc
 	
 	private void drawBallLeftFieldPos(final AutoRefFrame frame)
 	{
-		if (frame.getBallLeftFieldPos().isPresent())
+		if (frame.getBallLeftFieldPos().isPresent() && frame.getShapes().isActive(EAutoRefShapesLayer.BALL_LEFT_FIELD))
 		{
 			frame.getShapes().get(EAutoRefShapesLayer.BALL_LEFT_FIELD)
 					.add(new DrawableCircle(
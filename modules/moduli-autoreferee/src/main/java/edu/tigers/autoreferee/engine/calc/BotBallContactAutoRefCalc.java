@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.calc;
@@ -8,6 +8,7 @@ import edu.tigers.autoreferee.AutoRefFrame;
 import edu.tigers.autoreferee.EAutoRefShapesLayer;
 import edu.tigers.autoreferee.generic.BotPosition;
 import edu.tigers.sumatra.drawable.DrawableCircle;
+import edu.tigers.sumatra.drawable.IDrawableShape;
 import edu.tigers.sumatra.wp.data.KickedBall;
 import edu.tigers.sumatra.wp.util.BotLastTouchedBallCalculator;
 
@@ -51,16 +52,24 @@ public class BotBallContactAutoRefCalc implements IAutoRefereeCalc
 			lastBotTouchedBall = currentlyTouchingBots;
 		}
 		frame.setBotsLastTouchedBall(lastBotTouchedBall);
+		drawShapes(frame, currentlyTouchingBots);
 
+		lastKickEvent = frame.getWorldFrame().getKickedBall().orElse(null);
+	}
+
+
+	private void drawShapes(final AutoRefFrame frame, final List<BotPosition> currentlyTouchingBots)
+	{
+		if (!frame.getShapes().isActive(EAutoRefShapesLayer.LAST_BALL_CONTACT))
+		{
+			return;
+		}
+		List<IDrawableShape> shapes = frame.getShapes().get(EAutoRefShapesLayer.LAST_BALL_CONTACT);
 		lastBotTouchedBall.stream()
 				.filter(b -> currentlyTouchingBots.stream().noneMatch(p -> p.getBotID().equals(b.getBotID())))
 				.map(b -> frame.getWorldFrame().getBot(b.getBotID()))
 				.filter(Objects::nonNull)
-				.forEach(b -> frame.getShapes().get(EAutoRefShapesLayer.LAST_BALL_CONTACT)
-						.add(new DrawableCircle(b.getPos(), 100, Color.BLUE)));
-		currentlyTouchingBots.forEach(b -> frame.getShapes().get(EAutoRefShapesLayer.LAST_BALL_CONTACT)
-				.add(new DrawableCircle(b.getPos(), 100, Color.RED)));
-
-		lastKickEvent = frame.getWorldFrame().getKickedBall().orElse(null);
+				.forEach(b -> shapes.add(new DrawableCircle(b.getPos(), 100, Color.BLUE)));
+		currentlyTouchingBots.forEach(b -> shapes.add(new DrawableCircle(b.getPos(), 100, Color.RED)));
 	}
 }
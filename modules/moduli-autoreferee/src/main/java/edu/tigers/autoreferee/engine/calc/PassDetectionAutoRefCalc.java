@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.calc;
@@ -251,6 +251,10 @@ public class PassDetectionAutoRefCalc implements IAutoRefereeCalc
 
 	private void drawShapes(AutoRefFrame frame)
 	{
+		if (!frame.getShapes().isActive(EAutoRefShapesLayer.PASS_DETECTION))
+		{
+			return;
+		}
 		for (var pass : lastPasses)
 		{
 			List<IDrawableShape> shapes = frame.getShapes().get(EAutoRefShapesLayer.PASS_DETECTION);
@@ -1,17 +1,17 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.EAutoRefShapesLayer;
 import edu.tigers.sumatra.drawable.DrawableTube;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.geometry.RuleConstraints;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.tube.ITube;
 import edu.tigers.sumatra.math.tube.Tube;
 import edu.tigers.sumatra.math.vector.IVector2;
@@ -86,14 +86,20 @@ public class BallPlacementInterferenceDetector extends AGameEventDetector
 	{
 		IVector2 ballPos = frame.getWorldFrame().getBall().getPos();
 		IVector2 placePos = Optional.ofNullable(frame.getGameState().getBallPlacementPositionNeutral()).orElse(ballPos);
-		ITube placementTube = Tube.create(ballPos, placePos, RuleConstraints.getStopRadius() + Geometry.getBotRadius());
+		double radius = RuleConstraints.getStopRadius() + Geometry.getBotRadius();
+		ITube placementTube = Tube.create(ballPos, placePos, radius);
 		ETeamColor placingTeam = frame.getGameState().getForTeam();
 
-		frame.getShapes().get(EAutoRefShapesLayer.VIOLATED_DISTANCES)
-				.add(new DrawableTube(placementTube.withMargin(-Geometry.getBotRadius()), Color.red));
+		if (frame.getShapes().isActive(EAutoRefShapesLayer.VIOLATED_DISTANCES))
+		{
+			frame.getShapes().get(EAutoRefShapesLayer.VIOLATED_DISTANCES)
+					.add(new DrawableTube(placementTube.withMargin(-Geometry.getBotRadius()), Color.red));
+		}
 
-		return frame.getWorldFrame().getBots().values().stream()
-				.filter(AutoRefUtil.ColorFilter.get(placingTeam.opposite()))
+		// the tube is enclosed by a circle around the center of the placement path
+		IVector2 center = Lines.segmentFromPoints(ballPos, placePos).getPathCenter();
+		double enclosingRadius = ballPos.distanceTo(placePos) / 2 + radius;
+		return frame.getBotNeighborIndex().getBotsWithin(center, enclosingRadius, placingTeam.opposite()).stream()
 				.filter(bot -> placementTube.isPointInShape(bot.getPos()))
 				.map(ITrackedBot::getBotId)
 				.collect(Collectors.toSet());
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2020, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
@@ -115,15 +115,17 @@ public class BallPlacementSucceededDetector extends AGameEventDetector
 
 	private boolean canContinue()
 	{
-		final List<IDrawableShape> shapes = frame.getShapes().get(EAutoRefShapesLayer.ENGINE);
-
 		final boolean ballStill = isBallStill();
-		Color color = ballStill ? Color.green : Color.red;
-		shapes.add(new DrawableCircle(Circle.createCircle(ballPosFilter.getState().getXYVector(), 50), color));
-
 		final List<ITrackedBot> botsViolatingDistanceToBall = botsViolatingDistanceToBall();
-		botsViolatingDistanceToBall.forEach(bot -> shapes
-				.add(new DrawableCircle(Circle.createCircle(bot.getPos(), Geometry.getBotRadius() + 30), Color.red)));
+
+		if (frame.getShapes().isActive(EAutoRefShapesLayer.ENGINE))
+		{
+			final List<IDrawableShape> shapes = frame.getShapes().get(EAutoRefShapesLayer.ENGINE);
+			Color color = ballStill ? Color.green : Color.red;
+			shapes.add(new DrawableCircle(Circle.createCircle(ballPosFilter.getState().getXYVector(), 50), color));
+			botsViolatingDistanceToBall.forEach(bot -> shapes
+					.add(new DrawableCircle(Circle.createCircle(bot.getPos(), Geometry.getBotRadius() + 30), Color.red)));
+		}
 
 		return ballStill && botsViolatingDistanceToBall.isEmpty();
 	}
@@ -1,20 +1,20 @@
 /*
- * Copyright (c) 2009 - 2020, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.generic.BotNeighborIndex;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.math.AngleMath;
 import edu.tigers.sumatra.math.line.ILine;
 import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.vector.IVector2;
-import edu.tigers.sumatra.math.vector.VectorMath;
 import edu.tigers.sumatra.referee.data.EGameState;
 import edu.tigers.sumatra.referee.gameevent.BotCrashDrawn;
 import edu.tigers.sumatra.referee.gameevent.BotCrashUnique;
@@ -22,9 +22,7 @@ import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.wp.data.ITrackedBot;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -51,7 +49,7 @@ public class BotCollisionDetector extends AGameEventDetector
 	private static double botBrakeLookahead = 0.1;
 
 
-	private final Map<BotID, Long> lastViolators = new HashMap<>();
+	private final Map<BotID, Long> lastViolators = new BotIdMap<>();
 
 
 	public BotCollisionDetector()
@@ -71,11 +69,7 @@ public class BotCollisionDetector extends AGameEventDetector
 	@Override
 	public Optional<IGameEvent> doUpdate()
 	{
-		Collection<ITrackedBot> bots = frame.getWorldFrame().getBots().values();
-		List<ITrackedBot> yellowBots = AutoRefUtil.filterByColor(bots, ETeamColor.YELLOW);
-		List<ITrackedBot> blueBots = AutoRefUtil.filterByColor(bots, ETeamColor.BLUE);
-
-		List<BotPair> consideredBotPairs = calcConsideredBots(yellowBots, blueBots, frame.getTimestamp());
+		List<BotPair> consideredBotPairs = calcConsideredBots(frame.getBotNeighborIndex(), frame.getTimestamp());
 		return checkForCrashEvent(consideredBotPairs, frame);
 	}
 
@@ -142,45 +136,30 @@ public class BotCollisionDetector extends AGameEventDetector
 	}
 
 
-	private List<BotPair> calcConsideredBots(
-			final List<ITrackedBot> yellowBots,
-			final List<ITrackedBot> blueBots,
-			final long curTS)
+	private List<BotPair> calcConsideredBots(final BotNeighborIndex botNeighborIndex, final long curTS)
 	{
+		lastViolators.keySet().removeIf(bot -> !botStillOnCoolDown(bot, curTS));
+
+		double maxBotDistance = 2 * Geometry.getBotRadius() * minDistanceFactor;
 		List<BotPair> consideredBotPairs = new ArrayList<>();
-		for (ITrackedBot blueBot : blueBots)
+		for (ITrackedBot blueBot : botNeighborIndex.getBots(ETeamColor.BLUE))
 		{
 			if (botStillOnCoolDown(blueBot.getBotId(), curTS))
 			{
 				continue;
 			}
-			lastViolators.remove(blueBot.getBotId());
-			for (ITrackedBot yellowBot : yellowBots)
+			for (ITrackedBot yellowBot : botNeighborIndex.getOpponentsWithin(blueBot, maxBotDistance))
 			{
-				if (botStillOnCoolDown(yellowBot.getBotId(), curTS))
-				{
-					continue;
-				}
-				lastViolators.remove(yellowBot.getBotId());
-
-				if (isRobotPairConsiderable(blueBot, yellowBot))
+				if (!botStillOnCoolDown(yellowBot.getBotId(), curTS))
 				{
 					consideredBotPairs.add(new BotPair(blueBot, yellowBot));
 				}
-
 			}
 		}
 		return consideredBotPairs;
 	}
 
 
-	private boolean isRobotPairConsiderable(ITrackedBot blueBot, ITrackedBot yellowBot)
-	{
-		return VectorMath.distancePP(blueBot.getPos(),
-				yellowBot.getPos()) <= (2 * Geometry.getBotRadius() * minDistanceFactor);
-	}
-
-
 	private boolean isCrashCritical(double crashVel)
 	{
 		return crashVel > crashVelThreshold;
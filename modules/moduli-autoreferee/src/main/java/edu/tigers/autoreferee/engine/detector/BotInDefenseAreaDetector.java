@@ -1,15 +1,15 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.generic.BotPosition;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.geometry.NGeometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.math.penaltyarea.IPenaltyArea;
 import edu.tigers.sumatra.math.vector.IVector2;
@@ -18,7 +18,6 @@ import edu.tigers.sumatra.referee.gameevent.AttackerTouchedBallInDefenseArea;
 import edu.tigers.sumatra.referee.gameevent.DefenderInDefenseArea;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -35,7 +34,7 @@ public class BotInDefenseAreaDetector extends AGameEventDetector
 	@Configurable(comment = "[mm] Distance from the defense line that is considered a partial violation", defValue = "20.0")
 	private static double partialTouchMargin = 20;
 
-	private final Map<BotID, BotPosition> lastViolators = new HashMap<>();
+	private final Map<BotID, BotPosition> lastViolators = new BotIdMap<>();
 	private long entryTime = 0;
 
 
@@ -164,11 +163,9 @@ public class BotInDefenseAreaDetector extends AGameEventDetector
 	{
 		ETeamColor attackerColor = defender.getTeamColor().opposite();
 
-		return frame.getWorldFrame().getBots().values().stream()
-				// bots from attacking team
-				.filter(AutoRefUtil.ColorFilter.get(attackerColor))
-				// that touch the defender
-				.anyMatch(b -> botPos.distanceTo(b.getPos()) <= Geometry.getBotRadius() * 2 + 10);
+		// bots from attacking team that touch the defender
+		return !frame.getBotNeighborIndex().getBotsWithin(botPos, Geometry.getBotRadius() * 2 + 10, attackerColor)
+				.isEmpty();
 	}
 
 
@@ -1,15 +1,15 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
 import com.google.common.collect.Sets;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.geometry.RuleConstraints;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.math.circle.Circle;
 import edu.tigers.sumatra.math.circle.ICircle;
@@ -20,7 +20,6 @@ import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.wp.data.ITrackedBot;
 
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,7 +35,7 @@ public class DefenderToKickPointDistanceDetector extends AGameEventDetector
 	@Configurable(comment = "Margin [mm] to be added as a tolerance", defValue = "20.0")
 	private static double margin = 20;
 
-	private final Map<BotID, Long> lastViolators = new HashMap<>();
+	private final Map<BotID, Long> lastViolators = new BotIdMap<>();
 	private IVector2 ballPos = null;
 	private long tLastViolation;
 
@@ -102,13 +101,12 @@ public class DefenderToKickPointDistanceDetector extends AGameEventDetector
 	{
 		ETeamColor attackingColor = frame.getGameState().getForTeam();
 
-		Map<BotID, ITrackedBot> bots = frame.getWorldFrame().getBots();
-		List<ITrackedBot> defendingBots = AutoRefUtil.filterByColor(bots, attackingColor.opposite());
-
 		ICircle outerCircle = Circle.createCircle(
 				ballPos,
 				RuleConstraints.getStopRadius() + Geometry.getBotRadius() - margin
 		);
+		List<ITrackedBot> defendingBots = frame.getBotNeighborIndex()
+				.getBotsWithin(ballPos, outerCircle.radius(), attackingColor.opposite());
 
 		return botsInCircle(defendingBots, outerCircle);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.autoreferee.engine.detector;
@@ -78,8 +78,11 @@ public class DoubleTouchDetector extends AGameEventDetector
 	{
 		if (!frame.getGameState().isRunning())
 		{
-			frame.getShapes().get(EAutoRefShapesLayer.ENGINE)
-					.add(new DrawableLine(Lines.segmentFromPoints(initialBallPos, getBall().getPos()), Color.RED));
+			if (frame.getShapes().isActive(EAutoRefShapesLayer.ENGINE))
+			{
+				frame.getShapes().get(EAutoRefShapesLayer.ENGINE)
+						.add(new DrawableLine(Lines.segmentFromPoints(initialBallPos, getBall().getPos()), Color.RED));
+			}
 			kickerID = frame.getBotsTouchingBall().stream().findFirst().map(BotPosition::getBotID).orElse(kickerID);
 			return Optional.empty();
 		}
@@ -108,7 +111,7 @@ public class DoubleTouchDetector extends AGameEventDetector
 	
 	private void drawCurrentKickerBot()
 	{
-		if (kickerID != null)
+		if (kickerID != null && frame.getShapes().isActive(EAutoRefShapesLayer.ENGINE))
 		{
 			final ITrackedBot kicker = frame.getWorldFrame().getBot(kickerID);
 			if (kicker != null)
@@ -74,10 +74,13 @@ public class PushingDetector extends AGameEventDetector
 		latestRobotPairs.removeAll(recentlyDetectedPushingPairs);
 
 		firstRobotPairs = merge(firstRobotPairs, latestRobotPairs);
-		firstRobotPairs.forEach(this::drawBotPair);
-
 		final List<PushedDistance> pushedDistances = pushedDistances(latestRobotPairs);
-		pushedDistances.forEach(this::drawPushedDistance);
+
+		if (frame.getShapes().isActive(EAutoRefShapesLayer.PUSHING))
+		{
+			firstRobotPairs.forEach(this::drawBotPair);
+			pushedDistances.forEach(this::drawPushedDistance);
+		}
 
 		return ruleViolation(pushedDistances).map(this::createEvent);
 	}
@@ -216,8 +219,7 @@ public class PushingDetector extends AGameEventDetector
 
 	private List<RobotPair> touchingOpponents(ITrackedBot bot)
 	{
-		return frame.getWorldFrame().getBots().values().stream()
-				.filter(b -> bot.getTeamColor() != b.getTeamColor())
+		return frame.getBotNeighborIndex().getOpponentsWithin(bot, Geometry.getBotRadius() * 2 + botExtraMargin).stream()
 				.filter(b -> touching(bot, b))
 				.map(b -> new RobotPair(bot, b))
 				.toList();
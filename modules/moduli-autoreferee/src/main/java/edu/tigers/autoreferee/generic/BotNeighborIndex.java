@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.generic;
+
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Spatial index of all bots of a frame for neighbor queries.
+ * The bots are sorted by their x coordinate, so that a query only checks the bots within the x range of
+ * the query radius (sweep and prune).
+ */
+public class BotNeighborIndex
+{
+	private final ITrackedBot[] botsByX;
+	private final double[] xs;
+	private final Map<ETeamColor, List<ITrackedBot>> botsByColor = new EnumMap<>(ETeamColor.class);
+
+
+	/**
+	 * @param bots all bots of the frame
+	 */
+	public BotNeighborIndex(final Collection<ITrackedBot> bots)
+	{
+		botsByX = bots.toArray(new ITrackedBot[0]);
+		Arrays.sort(botsByX, Comparator.comparingDouble(b -> b.getPos().x()));
+		xs = new double[botsByX.length];
+		for (int i = 0; i < botsByX.length; i++)
+		{
+			xs[i] = botsByX[i].getPos().x();
+		}
+		for (ITrackedBot bot : bots)
+		{
+			botsByColor.computeIfAbsent(bot.getBotId().getTeamColor(), c -> new ArrayList<>()).add(bot);
+		}
+		botsByColor.replaceAll((c, l) -> Collections.unmodifiableList(l));
+	}
+
+
+	/**
+	 * @param color the team color
+	 * @return all bots of the given team, unmodifiable
+	 */
+	public List<ITrackedBot> getBots(final ETeamColor color)
+	{
+		return botsByColor.getOrDefault(color, Collections.emptyList());
+	}
+
+
+	/**
+	 * @param point  the center of the query
+	 * @param radius the max distance [mm] to the point
+	 * @return all bots with a distance to the point less than or equal to the radius
+	 */
+	public List<ITrackedBot> getBotsWithin(final IVector2 point, final double radius)
+	{
+		return getBotsWithin(point, radius, null);
+	}
+
+
+	/**
+	 * @param point  the center of the query
+	 * @param radius the max distance [mm] to the point
+	 * @param color  the team color of the bots or null for both teams
+	 * @return all bots of the given team with a distance to the point less than or equal to the radius
+	 */
+	public List<ITrackedBot> getBotsWithin(final IVector2 point, final double radius, final ETeamColor color)
+	{
+		List<ITrackedBot> result = new ArrayList<>();
+		double radiusSqr = radius * radius;
+		for (int i = lowerBound(point.x() - radius); i < botsByX.length && xs[i] <= point.x() + radius; i++)
+		{
+			ITrackedBot bot = botsByX[i];
+			if ((color == null || bot.getBotId().getTeamColor() == color)
+					&& bot.getPos().distanceToSqr(point) <= radiusSqr)
+			{
+				result.add(bot);
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * @param bot    a bot
+	 * @param radius the max distance [mm] between the bot centers
+	 * @return all opponent bots with a distance to the given bot less than or equal to the radius
+	 */
+	public List<ITrackedBot> getOpponentsWithin(final ITrackedBot bot, final double radius)
+	{
+		return getBotsWithin(bot.getPos(), radius, bot.getBotId().getTeamColor().opposite());
+	}
+
+
+	/**
+	 * @return the first index with an x coordinate greater than or equal to the given x
+	 */
+	private int lowerBound(final double x)
+	{
+		int low = 0;
+		int high = xs.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (xs[mid] < x)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -3,6 +3,7 @@
  */
 package edu.tigers.autoreferee.module;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefObserver;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
@@ -107,4 +108,13 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	{
 		return runner.getMode();
 	}
+
+
+	/**
+	 * @return the runtime metrics of the autoRef pipeline
+	 */
+	public AutoRefMetrics getMetrics()
+	{
+		return runner.getMetrics();
+	}
 }
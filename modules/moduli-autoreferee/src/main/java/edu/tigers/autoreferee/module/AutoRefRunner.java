@@ -1,10 +1,11 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee.module;
 
 import edu.tigers.autoreferee.AutoRefFrame;
 import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.engine.ActiveAutoRefEngine;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
@@ -15,6 +16,7 @@ import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
 import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.extern.log4j.Log4j2;
@@ -40,9 +42,11 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	private final BlockingDeque<WorldFrameWrapper> consumableFrames = new LinkedBlockingDeque<>(1);
 	private final Set<EGameEventDetectorType> activeDetectors = EGameEventDetectorType.valuesEnabledByDefault();
 
+	private final AutoRefMetrics metrics = new AutoRefMetrics();
+
 	private AutoRefFramePreprocessor preprocessor;
 	private ExecutorService executorService;
-	private AutoRefEngine engine = new AutoRefEngine(activeDetectors);
+	private AutoRefEngine engine = new AutoRefEngine(activeDetectors, metrics);
 	private final IAutoRefEngineObserver callback;
 	private EAutoRefMode mode = EAutoRefMode.OFF;
 	private final Object engineSync = new Object();
@@ -71,11 +75,16 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	 */
 	public void start()
 	{
-		preprocessor = new AutoRefFramePreprocessor();
+		preprocessor = new AutoRefFramePreprocessor(metrics);
+		preprocessor.setShapeMapSource(SHAPE_MAP_SOURCE);
 		// make sure, the engine is initially in a clean off state
 		changeMode(EAutoRefMode.OFF);
-		// register to WP frames
-		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(this);
+		// register to WP frames, in simulation, the whole pipeline waits for the auto referee.
+		// Publishing our own shape maps does not block, so the autoRef never waits for its own queue.
+		EObserverDispatchPolicy policy = SumatraModel.getInstance().isSimulation()
+				? EObserverDispatchPolicy.BLOCK
+				: EObserverDispatchPolicy.LOSSLESS;
+		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(this, policy);
 		// start runner thread
 		executorService = Executors.newSingleThreadExecutor(new NamedThreadFactory(AUTO_REF));
 		executorService.execute(this);
@@ -118,9 +127,9 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 			engine.removeObserver(callback);
 			engine = switch (mode)
 					{
-						case OFF -> new AutoRefEngine(activeDetectors);
-						case ACTIVE -> new ActiveAutoRefEngine(activeDetectors);
-						case PASSIVE -> new PassiveAutoRefEngine(activeDetectors);
+						case OFF -> new AutoRefEngine(activeDetectors, metrics);
+						case ACTIVE -> new ActiveAutoRefEngine(activeDetectors, metrics);
+						case PASSIVE -> new PassiveAutoRefEngine(activeDetectors, metrics);
 					};
 			this.mode = mode;
 			engine.addObserver(callback);
@@ -155,14 +164,19 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 
 	private void consumeWorldFrame(final WorldFrameWrapper frame)
 	{
+		long tStart = System.nanoTime();
 		AutoRefFrame currentFrame = preprocessor.process(frame);
+		metrics.getPreprocessorLatency().record(System.nanoTime() - tStart);
 		if (currentFrame.getPreviousFrame() != null)
 		{
 			synchronized (engineSync)
 			{
+				tStart = System.nanoTime();
 				engine.process(currentFrame);
+				metrics.getEngineLatency().record(System.nanoTime() - tStart);
 			}
 		}
+		metrics.onFrameProcessed();
 		SumatraModel.getInstance().getModule(AWorldPredictor.class)
 				.notifyNewShapeMap(frame.getTimestamp(), currentFrame.getShapes(), SHAPE_MAP_SOURCE);
 	}
@@ -171,19 +185,19 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	@Override
 	public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
 	{
+		metrics.onFrameReceived();
 		if (SumatraModel.getInstance().isSimulation())
 		{
-			// process all frames, waiting and blocking if necessary
-			try
-			{
-				consumableFrames.putFirst(wFrameWrapper);
-			} catch (InterruptedException e)
-			{
-				Thread.currentThread().interrupt();
-			}
+			// process all frames on the thread of the blocking observer dispatcher, so that the producer stays in
+			// lock-step and AWorldPredictor#awaitObservers returns only after the last frame was processed
+			consumeWorldFrame(wFrameWrapper);
 		} else
 		{
-			consumableFrames.pollLast();
+			if (consumableFrames.pollLast() != null)
+			{
+				// the previous frame has not been consumed in time
+				metrics.onFrameDropped();
+			}
 			consumableFrames.addFirst(wFrameWrapper);
 		}
 	}
@@ -199,4 +213,10 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	{
 		return mode;
 	}
+
+
+	public AutoRefMetrics getMetrics()
+	{
+		return metrics;
+	}
 }
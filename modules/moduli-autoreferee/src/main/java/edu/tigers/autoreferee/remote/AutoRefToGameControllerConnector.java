@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.autoreferee.remote;
 
@@ -10,6 +10,7 @@ import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.referee.proto.SslGcRcon;
 import edu.tigers.sumatra.referee.proto.SslGcRconAutoref;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.LatencyHistogram;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.Validate;
 import org.apache.logging.log4j.LogManager;
@@ -19,6 +20,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -27,14 +30,24 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Connector to game controller
+ * <p>
+ * The protocol is strictly request/reply and each request must be signed with the token of the last reply,
+ * so only one game event can be in flight. Queued events are sent back-to-back as soon as the previous reply
+ * arrived. The keep-alive message, which is sent when there was no event for a while, is signed in the background
+ * as soon as a new token is known, so that signing it does not delay the next exchange.
+ * The latency from queuing a game event until the game controller acknowledged it is recorded.
  */
 public class AutoRefToGameControllerConnector implements Runnable
 {
 	private static final Logger log = LogManager.getLogger(AutoRefToGameControllerConnector.class);
 	private static final String AUTO_REF_ID = "TIGERs AutoRef";
+	private static final long KEEP_ALIVE_INTERVAL_MS = 1000;
 
 	private GameControllerProtocol protocol;
 	private ExecutorService executorService;
+	private ExecutorService signingExecutorService;
+	private CompletableFuture<SslGcRconAutoref.AutoRefToController> keepAlive;
+	private final LatencyHistogram eventLatency;
 
 	private LinkedBlockingDeque<QueueEntry> commandQueue;
 
@@ -42,17 +55,38 @@ public class AutoRefToGameControllerConnector implements Runnable
 
 	private String nextToken;
 	private MessageSigner signer;
+	private MessageSigner keepAliveSigner;
 
 
 	public AutoRefToGameControllerConnector(final String hostname, final int port)
 	{
+		this(hostname, port, new LatencyHistogram());
+	}
+
+
+	/**
+	 * @param hostname     the game controller host
+	 * @param port         the game controller autoRef port
+	 * @param eventLatency histogram for the latency from sending an event until the game controller acknowledged it
+	 */
+	public AutoRefToGameControllerConnector(final String hostname, final int port, final LatencyHistogram eventLatency)
+	{
+		this.eventLatency = eventLatency;
 		protocol = new GameControllerProtocol(hostname, port);
 		protocol.addConnectedHandler(this::register);
 
 		commandQueue = new LinkedBlockingDeque<>();
+		signer = createSigner();
+		// separate signer, so that signing the keep-alive in the background does not block signing events
+		keepAliveSigner = createSigner();
+	}
+
+
+	private MessageSigner createSigner()
+	{
 		try
 		{
-			signer = new MessageSigner(
+			return new MessageSigner(
 					IOUtils.resourceToString("/edu/tigers/autoreferee/remote/TIGERs-Mannheim-autoRef.key.pem.pkcs8",
 							StandardCharsets.UTF_8),
 					IOUtils.resourceToString("/edu/tigers/autoreferee/remote/TIGERs-Mannheim-autoRef.pub.pem",
@@ -60,7 +94,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 		} catch (IOException e)
 		{
 			log.error("Could not read certificates from classpath", e);
-			signer = new MessageSigner();
+			return new MessageSigner();
 		}
 	}
 
@@ -106,6 +140,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 		{
 			log.info("Successfully registered AutoRef");
 			nextToken = reply.getControllerReply().getNextToken();
+			prepareKeepAlive();
 		}
 	}
 
@@ -118,6 +153,8 @@ public class AutoRefToGameControllerConnector implements Runnable
 	public void start()
 	{
 		log.debug("Starting connector");
+		signingExecutorService = Executors.newSingleThreadExecutor(
+				new NamedThreadFactory("AutoRefToGameControllerSigner"));
 		executorService = Executors.newSingleThreadExecutor(new NamedThreadFactory("AutoRefToGameControllerConnector"));
 		executorService.execute(this);
 	}
@@ -127,6 +164,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 	{
 		log.debug("Stopping connector");
 		executorService.shutdownNow();
+		signingExecutorService.shutdownNow();
 		try
 		{
 			Validate.isTrue(executorService.awaitTermination(2, TimeUnit.SECONDS));
@@ -138,6 +176,11 @@ public class AutoRefToGameControllerConnector implements Runnable
 	}
 
 
+	/**
+	 * Queue a game event for sending. This does not block.
+	 *
+	 * @param event the event to send
+	 */
 	public void sendEvent(final IGameEvent event)
 	{
 		QueueEntry entry = new QueueEntry(event);
@@ -171,23 +214,14 @@ public class AutoRefToGameControllerConnector implements Runnable
 
 	private void readWriteLoop() throws InterruptedException
 	{
-		QueueEntry entry = commandQueue.pollFirst(1, TimeUnit.SECONDS);
+		QueueEntry entry = commandQueue.pollFirst(KEEP_ALIVE_INTERVAL_MS, TimeUnit.MILLISECONDS);
 
-		SslGcRconAutoref.AutoRefToController.Builder req = SslGcRconAutoref.AutoRefToController
-				.newBuilder();
-		if (entry != null)
-		{
-			req.setGameEvent(entry.getEvent().toProtobuf());
-		}
-
-		if (nextToken != null)
-		{
-			req.getSignatureBuilder().setToken(nextToken).setPkcs1V15(ByteString.EMPTY);
-			byte[] signature = signer.sign(req.build().toByteArray());
-			req.getSignatureBuilder().setPkcs1V15(ByteString.copyFrom(signature));
-		}
+		SslGcRconAutoref.AutoRefToController req = entry == null
+				? takeKeepAlive()
+				: createRequest(entry.getEvent(), nextToken, signer);
 
-		if (!protocol.sendMessage(req.build()))
+		long sendTime = System.nanoTime();
+		if (!protocol.sendMessage(req))
 		{
 			if (entry != null)
 			{
@@ -198,6 +232,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 		}
 		SslGcRconAutoref.ControllerToAutoRef reply = protocol
 				.receiveMessage(SslGcRconAutoref.ControllerToAutoRef.parser());
+		long receiveTime = System.nanoTime();
 		if (reply == null || !reply.hasControllerReply())
 		{
 			log.error("Receiving GameController Reply failed");
@@ -205,18 +240,78 @@ public class AutoRefToGameControllerConnector implements Runnable
 				.getStatusCode() != SslGcRcon.ControllerReply.StatusCode.OK)
 		{
 			log.warn("Remote control rejected entry {} with outcome {}",
-					entry,
+					entry == null ? "keep-alive" : entry.getEvent(),
 					reply.getControllerReply().getStatusCode());
 		}
 
 		if (reply != null)
 		{
-			responseObserverList.forEach(a -> a.notify(new GameEventResponse(reply.getControllerReply())));
 			nextToken = reply.getControllerReply().getNextToken();
+			prepareKeepAlive();
+			if (entry != null)
+			{
+				eventLatency.record(receiveTime - entry.getTimestamp());
+				log.debug("Game event '{}' acknowledged after {} ms (round trip {} ms)", entry.getEvent(),
+						(receiveTime - entry.getTimestamp()) / 1e6, (receiveTime - sendTime) / 1e6);
+			}
+			responseObserverList.forEach(a -> a.notify(new GameEventResponse(reply.getControllerReply())));
 		}
 	}
 
 
+	private SslGcRconAutoref.AutoRefToController createRequest(
+			final IGameEvent event,
+			final String token,
+			final MessageSigner messageSigner)
+	{
+		SslGcRconAutoref.AutoRefToController.Builder req = SslGcRconAutoref.AutoRefToController
+				.newBuilder();
+		if (event != null)
+		{
+			req.setGameEvent(event.toProtobuf());
+		}
+
+		if (token != null)
+		{
+			req.getSignatureBuilder().setToken(token).setPkcs1V15(ByteString.EMPTY);
+			byte[] signature = messageSigner.sign(req.build().toByteArray());
+			req.getSignatureBuilder().setPkcs1V15(ByteString.copyFrom(signature));
+		}
+		return req.build();
+	}
+
+
+	private void prepareKeepAlive()
+	{
+		if (signingExecutorService.isShutdown())
+		{
+			return;
+		}
+		String token = nextToken;
+		keepAlive = CompletableFuture.supplyAsync(
+				() -> createRequest(null, token, keepAliveSigner),
+				signingExecutorService);
+	}
+
+
+	private SslGcRconAutoref.AutoRefToController takeKeepAlive()
+	{
+		CompletableFuture<SslGcRconAutoref.AutoRefToController> prepared = keepAlive;
+		keepAlive = null;
+		if (prepared != null)
+		{
+			try
+			{
+				return prepared.join();
+			} catch (CompletionException e)
+			{
+				log.warn("Preparing keep-alive message failed", e);
+			}
+		}
+		return createRequest(null, nextToken, signer);
+	}
+
+
 	public void addGameEventResponseObserver(IGameEventResponseObserver observer)
 	{
 		this.responseObserverList.add(observer);
@@ -226,6 +321,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 	private static class QueueEntry
 	{
 		private final IGameEvent event;
+		private final long timestamp = System.nanoTime();
 
 
 		public QueueEntry(final IGameEvent event)
@@ -234,6 +330,15 @@ public class AutoRefToGameControllerConnector implements Runnable
 		}
 
 
+		/**
+		 * @return the time when the event was queued [ns]
+		 */
+		public long getTimestamp()
+		{
+			return timestamp;
+		}
+
+
 		/**
 		 * @return the cmd
 		 */
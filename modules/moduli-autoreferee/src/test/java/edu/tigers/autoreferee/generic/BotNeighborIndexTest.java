@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee.generic;
+
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+import edu.tigers.sumatra.wp.data.TrackedBot;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for BotNeighborIndex
+ */
+public class BotNeighborIndexTest
+{
+	private static final IVector2 CENTER = Vector2.fromXY(100, 200);
+	private static final double RADIUS = 300;
+
+
+	private static ITrackedBot bot(final int id, final ETeamColor color, final double x, final double y)
+	{
+		return TrackedBot.stubBuilder(BotID.createBotId(id, color), 0)
+				.withPos(Vector2.fromXY(x, y))
+				.build();
+	}
+
+
+	@Test
+	public void testBotsAtRadiusAreIncluded()
+	{
+		// on the bounds of the x range
+		ITrackedBot left = bot(0, ETeamColor.YELLOW, CENTER.x() - RADIUS, CENTER.y());
+		ITrackedBot right = bot(1, ETeamColor.YELLOW, CENTER.x() + RADIUS, CENTER.y());
+		// exactly on the circle, but within the x range (3-4-5 triangle)
+		ITrackedBot diagonal = bot(2, ETeamColor.BLUE, CENTER.x() + 180, CENTER.y() + 240);
+		ITrackedBot center = bot(3, ETeamColor.BLUE, CENTER.x(), CENTER.y());
+		BotNeighborIndex index = new BotNeighborIndex(List.of(right, center, diagonal, left));
+
+		assertThat(index.getBotsWithin(CENTER, RADIUS)).containsExactlyInAnyOrder(left, right, diagonal, center);
+	}
+
+
+	@Test
+	public void testBotsBeyondRadiusAreExcluded()
+	{
+		ITrackedBot left = bot(0, ETeamColor.YELLOW, CENTER.x() - RADIUS - 0.001, CENTER.y());
+		ITrackedBot right = bot(1, ETeamColor.YELLOW, CENTER.x() + RADIUS + 0.001, CENTER.y());
+		ITrackedBot diagonal = bot(2, ETeamColor.BLUE, CENTER.x() + 180, CENTER.y() + 240.001);
+		// within the x range, but outside of the circle
+		ITrackedBot corner = bot(3, ETeamColor.BLUE, CENTER.x() + RADIUS - 1, CENTER.y() - RADIUS + 1);
+		BotNeighborIndex index = new BotNeighborIndex(List.of(left, right, diagonal, corner));
+
+		assertThat(index.getBotsWithin(CENTER, RADIUS)).isEmpty();
+	}
+
+
+	@Test
+	public void testZeroRadius()
+	{
+		ITrackedBot atCenter = bot(0, ETeamColor.YELLOW, CENTER.x(), CENTER.y());
+		ITrackedBot sameX = bot(1, ETeamColor.YELLOW, CENTER.x(), CENTER.y() + 1);
+		BotNeighborIndex index = new BotNeighborIndex(List.of(sameX, atCenter));
+
+		assertThat(index.getBotsWithin(CENTER, 0)).containsExactly(atCenter);
+	}
+
+
+	@Test
+	public void testTeamColor()
+	{
+		ITrackedBot yellow = bot(0, ETeamColor.YELLOW, CENTER.x(), CENTER.y());
+		ITrackedBot blueNear = bot(0, ETeamColor.BLUE, CENTER.x() + RADIUS, CENTER.y());
+		ITrackedBot blueFar = bot(1, ETeamColor.BLUE, CENTER.x() + 2 * RADIUS, CENTER.y());
+		BotNeighborIndex index = new BotNeighborIndex(List.of(yellow, blueNear, blueFar));
+
+		assertThat(index.getBotsWithin(CENTER, RADIUS, ETeamColor.BLUE)).containsExactly(blueNear);
+		assertThat(index.getBotsWithin(CENTER, RADIUS, ETeamColor.YELLOW)).containsExactly(yellow);
+		assertThat(index.getOpponentsWithin(yellow, RADIUS)).containsExactly(blueNear);
+		assertThat(index.getOpponentsWithin(blueNear, RADIUS)).containsExactly(yellow);
+		assertThat(index.getBots(ETeamColor.BLUE)).containsExactlyInAnyOrder(blueNear, blueFar);
+	}
+
+
+	@Test
+	public void testEmptyIndex()
+	{
+		BotNeighborIndex index = new BotNeighborIndex(List.of());
+
+		assertThat(index.getBotsWithin(CENTER, RADIUS)).isEmpty();
+		assertThat(index.getBots(ETeamColor.YELLOW)).isEmpty();
+	}
+}
@@ -1,18 +1,23 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.cam;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
 import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
 import edu.tigers.sumatra.gamelog.EMessageType;
 import edu.tigers.sumatra.gamelog.GameLogMessage;
 import edu.tigers.sumatra.gamelog.GameLogPlayer;
 import edu.tigers.sumatra.gamelog.GameLogPlayerObserver;
+import edu.tigers.sumatra.gamelog.GameLogSeekMarker;
 import edu.tigers.sumatra.model.SumatraModel;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+
 
 /**
  * This camera listens to messages from GameLogPlayer.
@@ -21,20 +26,53 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class GameLogCam extends ACam implements GameLogPlayerObserver
 {
+	/** Game log seek marker for vision messages with geometry, used to restore the geometry after a jump */
+	public static final String SEEK_MARKER_GEOMETRY = "vision.geometry";
+
 	private final SSLVisionCamGeometryTranslator geometryTranslator = new SSLVisionCamGeometryTranslator();
 
 
 	@Override
 	public void startModule()
 	{
-		SumatraModel.getInstance().getModule(GameLogPlayer.class).addObserver(this);
+		GameLogPlayer gameLogPlayer = SumatraModel.getInstance().getModule(GameLogPlayer.class);
+		gameLogPlayer.addObserver(this);
+		gameLogPlayer.addSeekMarker(new GameLogSeekMarker(
+				SEEK_MARKER_GEOMETRY, EMessageType.SSL_VISION_2014, () -> GameLogCam::hasGeometry, true));
 	}
 
 
 	@Override
 	public void stopModule()
 	{
-		SumatraModel.getInstance().getModule(GameLogPlayer.class).removeObserver(this);
+		GameLogPlayer gameLogPlayer = SumatraModel.getInstance().getModule(GameLogPlayer.class);
+		gameLogPlayer.removeObserver(this);
+		gameLogPlayer.removeSeekMarker(SEEK_MARKER_GEOMETRY);
+	}
+
+
+	/**
+	 * Check for the geometry field without parsing the whole packet.
+	 */
+	private static boolean hasGeometry(final GameLogMessage message)
+	{
+		try
+		{
+			CodedInputStream in = CodedInputStream.newInstance(message.getData());
+			int tag;
+			while ((tag = in.readTag()) != 0)
+			{
+				if (WireFormat.getTagFieldNumber(tag) == SslVisionWrapper.SSL_WrapperPacket.GEOMETRY_FIELD_NUMBER)
+				{
+					return true;
+				}
+				in.skipField(tag);
+			}
+		} catch (IOException e)
+		{
+			log.debug("Invalid SSL_VISION_2014 package.", e);
+		}
+		return false;
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.cam;
 
@@ -7,6 +7,7 @@ import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import com.github.g3force.configurable.IConfigClient;
 import com.github.g3force.configurable.IConfigObserver;
+import com.google.protobuf.CodedInputStream;
 import edu.tigers.moduli.exceptions.InitModuleException;
 import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.cam.proto.SslVisionWrapper.SSL_WrapperPacket;
@@ -15,6 +16,7 @@ import edu.tigers.sumatra.gamelog.EMessageType;
 import edu.tigers.sumatra.gamelog.GameLogMessage;
 import edu.tigers.sumatra.gamelog.GameLogRecorder;
 import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.network.IDatagramHandler;
 import edu.tigers.sumatra.network.IReceiverObserver;
 import edu.tigers.sumatra.network.MulticastUDPReceiver;
 import edu.tigers.sumatra.network.NetworkUtility;
@@ -22,11 +24,11 @@ import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang.StringUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.Optional;
 
@@ -38,9 +40,6 @@ import java.util.Optional;
 @Log4j2
 public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, IConfigObserver
 {
-	private static final int BUFFER_SIZE = 10000;
-	private final byte[] bufferArr = new byte[BUFFER_SIZE];
-
 	@Setter
 	private static int customPort;
 
@@ -63,6 +62,7 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	private InetAddress visionAddress;
 
 	private final SSLVisionCamGeometryTranslator geometryTranslator = new SSLVisionCamGeometryTranslator();
+	private final IDatagramHandler datagramHandler = this::processDatagram;
 
 	private GameLogRecorder gameLogRecorder;
 
@@ -113,39 +113,16 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	@Override
 	public void run()
 	{
-		// Create new buffer
-		final ByteBuffer buffer = ByteBuffer.wrap(bufferArr);
-
 		while (!Thread.currentThread().isInterrupted())
 		{
 			try
 			{
-				buffer.clear();
-
-				// Fetch packet
-				final DatagramPacket packet = new DatagramPacket(buffer.array(), buffer.capacity());
-
-				if (receiver == null)
+				MulticastUDPReceiver currentReceiver = receiver;
+				if (currentReceiver == null)
 				{
 					break;
 				}
-				receiver.receive(packet);
-
-				visionAddress = packet.getAddress();
-				final ByteArrayInputStream packetIn = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
-
-				// Translate
-				final SSL_WrapperPacket sslPacket;
-				try
-				{
-					sslPacket = SSL_WrapperPacket.parseFrom(packetIn);
-				} catch (Exception err)
-				{
-					log.error("invalid ssl package", err);
-					continue;
-				}
-
-				publishData(sslPacket);
+				currentReceiver.receive(datagramHandler);
 			} catch (final IOException err)
 			{
 				if (!expectIOE)
@@ -164,7 +141,37 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	}
 
 
-	private void publishData(final SSL_WrapperPacket sslPacket)
+	private void processDatagram(final ByteBuffer data, final SocketAddress source)
+	{
+		if (source instanceof InetSocketAddress inetSource)
+		{
+			visionAddress = inetSource.getAddress();
+		}
+
+		// the raw data is only copied if it is recorded
+		byte[] rawData = null;
+		if (gameLogRecorder != null)
+		{
+			rawData = new byte[data.remaining()];
+			data.duplicate().get(rawData);
+		}
+
+		// Translate directly from the receive buffer
+		final SSL_WrapperPacket sslPacket;
+		try
+		{
+			sslPacket = SSL_WrapperPacket.parseFrom(CodedInputStream.newInstance(data));
+		} catch (Exception err)
+		{
+			log.error("invalid ssl package", err);
+			return;
+		}
+
+		publishData(sslPacket, rawData);
+	}
+
+
+	private void publishData(final SSL_WrapperPacket sslPacket, final byte[] rawData)
 	{
 		// start with sending out the detection. It is most time critical
 		if (sslPacket.hasDetection())
@@ -181,9 +188,9 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 
 		notifyNewVisionPacket(sslPacket);
 
-		if(gameLogRecorder != null)
+		if (gameLogRecorder != null && rawData != null)
 		{
-			gameLogRecorder.writeMessage(new GameLogMessage(NanoTime.getTimestampNow(), EMessageType.SSL_VISION_2014, sslPacket.toByteArray()));
+			gameLogRecorder.writeMessage(new GameLogMessage(NanoTime.getTimestampNow(), EMessageType.SSL_VISION_2014, rawData));
 		}
 	}
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Compact index of all messages in a game log.
+ * For each message, the offset of its data in the (uncompressed) log, its size, timestamp and type are stored
+ * in primitive arrays.
+ */
+public class GameLogIndex
+{
+	private static final String SIDECAR_MAGIC = "SSL_LOG_INDEX";
+	private static final int SIDECAR_VERSION = 1;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private long[] offsets;
+	private long[] timestamps;
+	private int[] sizes;
+	private int[] types;
+	private int size = 0;
+
+
+	public GameLogIndex()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+
+	private GameLogIndex(final int capacity)
+	{
+		offsets = new long[capacity];
+		timestamps = new long[capacity];
+		sizes = new int[capacity];
+		types = new int[capacity];
+	}
+
+
+	/**
+	 * Add a message to the index
+	 *
+	 * @param offset      the offset of the message data in the uncompressed log
+	 * @param dataSize    the size of the message data
+	 * @param timestampNs the receive timestamp of the message
+	 * @param typeId      the type id of the message
+	 */
+	public void add(final long offset, final int dataSize, final long timestampNs, final int typeId)
+	{
+		if (size == offsets.length)
+		{
+			int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+			offsets = Arrays.copyOf(offsets, capacity);
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+			types = Arrays.copyOf(types, capacity);
+		}
+		offsets[size] = offset;
+		sizes[size] = dataSize;
+		timestamps[size] = timestampNs;
+		types[size] = typeId;
+		size++;
+	}
+
+
+	public int size()
+	{
+		return size;
+	}
+
+
+	public long getOffset(final int i)
+	{
+		return offsets[i];
+	}
+
+
+	public int getDataSize(final int i)
+	{
+		return sizes[i];
+	}
+
+
+	public long getTimestampNs(final int i)
+	{
+		return timestamps[i];
+	}
+
+
+	public EMessageType getType(final int i)
+	{
+		return EMessageType.getMessageTypeConstant(types[i]);
+	}
+
+
+	/**
+	 * @param filters the filters that all must accept a message
+	 * @return a new index with only those messages that are accepted by all filters
+	 */
+	public GameLogIndex filter(final List<MessageFilter> filters)
+	{
+		if (filters.isEmpty())
+		{
+			return this;
+		}
+		GameLogIndex filtered = new GameLogIndex(Math.max(1, size));
+		for (int i = 0; i < size; i++)
+		{
+			long timestamp = timestamps[i];
+			EMessageType type = getType(i);
+			if (filters.stream().allMatch(f -> f.filter(timestamp, type)))
+			{
+				filtered.add(offsets[i], sizes[i], timestamps[i], types[i]);
+			}
+		}
+		return filtered;
+	}
+
+
+	/**
+	 * Write this index to a sidecar file
+	 *
+	 * @param path             the target file
+	 * @param sourceSize       the size of the indexed log file
+	 * @param sourceModifiedAt the last modification time of the indexed log file
+	 * @throws IOException on write errors
+	 */
+	public void write(final Path path, final long sourceSize, final long sourceModifiedAt) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+		{
+			out.writeUTF(SIDECAR_MAGIC);
+			out.writeInt(SIDECAR_VERSION);
+			out.writeLong(sourceSize);
+			out.writeLong(sourceModifiedAt);
+			out.writeInt(size);
+			for (int i = 0; i < size; i++)
+			{
+				out.writeLong(offsets[i]);
+				out.writeInt(sizes[i]);
+				out.writeLong(timestamps[i]);
+				out.writeInt(types[i]);
+			}
+		}
+	}
+
+
+	/**
+	 * Read an index from a sidecar file, if it matches the given log file
+	 *
+	 * @param path             the sidecar file
+	 * @param sourceSize       the size of the indexed log file
+	 * @param sourceModifiedAt the last modification time of the indexed log file
+	 * @return the index or null, if the sidecar is missing or outdated
+	 * @throws IOException on read errors
+	 */
+	public static GameLogIndex read(final Path path, final long sourceSize, final long sourceModifiedAt)
+			throws IOException
+	{
+		if (!Files.isRegularFile(path))
+		{
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			if (!SIDECAR_MAGIC.equals(in.readUTF())
+					|| in.readInt() != SIDECAR_VERSION
+					|| in.readLong() != sourceSize
+					|| in.readLong() != sourceModifiedAt)
+			{
+				return null;
+			}
+			int numMessages = in.readInt();
+			GameLogIndex index = new GameLogIndex(Math.max(1, numMessages));
+			for (int i = 0; i < numMessages; i++)
+			{
+				long offset = in.readLong();
+				int dataSize = in.readInt();
+				long timestamp = in.readLong();
+				int type = in.readInt();
+				index.add(offset, dataSize, timestamp, type);
+			}
+			return index;
+		}
+	}
+}
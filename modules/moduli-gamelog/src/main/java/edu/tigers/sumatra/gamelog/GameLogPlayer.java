@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.gamelog;
@@ -9,7 +9,13 @@ import edu.tigers.moduli.exceptions.StartModuleException;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
@@ -18,6 +24,13 @@ import java.util.function.Function;
  * This module can open (SSL) Game Logs and replay them. Messages are binary blobs and must
  * be processed by attached observers.
  * This player will only handle playback speed and seek actions (i.e. _how_ it is played, not _what_ is played).
+ * <p>
+ * Seeking to a timestamp or to a {@link GameLogSeekMarker} is done with a {@link GameLogSeekIndex} that is built
+ * in the background when a log starts playing. After each jump, the last message of each context marker before
+ * the new position is published, so that observers can restore their state.
+ * <p>
+ * Like {@link #seekTo(Function)} and {@link #doSteps(int)}, the indexed seeks are meant for replay user interfaces
+ * that control the player. They are applied by the player thread before the next frame is published.
  */
 @Log4j2
 public class GameLogPlayer extends AModule
@@ -46,6 +59,11 @@ public class GameLogPlayer extends AModule
 	private long lastFrameTimestamp = 0;
 
 	private final List<GameLogPlayerObserver> observers = new CopyOnWriteArrayList<>();
+	private final List<GameLogSeekMarker> seekMarkers = new CopyOnWriteArrayList<>();
+
+	private volatile IIndexedSeek indexedSeek;
+	private List<GameLogMessage> seekIndexMessages;
+	private CompletableFuture<GameLogSeekIndex> seekIndex;
 
 
 	@Override
@@ -67,6 +85,11 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	/**
+	 * Play a new log. The player closes lazily loaded logs, when it is done with them.
+	 *
+	 * @param logfile the new log
+	 */
 	public void setLogfile(final GameLogReader logfile)
 	{
 		newLogfile = logfile;
@@ -96,6 +119,60 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	/**
+	 * Seeks to the first frame at or after the given receive timestamp.
+	 *
+	 * @param timestampNs the receive timestamp [ns]
+	 */
+	public void seekToTimestamp(final long timestampNs)
+	{
+		indexedSeek = (index, lastFrame) -> index.findPosition(timestampNs);
+	}
+
+
+	/**
+	 * Seeks forward to the next frame after the last published frame that is selected by the given marker.
+	 *
+	 * @param markerName the name of a registered {@link GameLogSeekMarker}
+	 */
+	public void seekToNextMarker(final String markerName)
+	{
+		indexedSeek = (index, lastFrame) -> index.findNextMarker(markerName, lastFrame);
+	}
+
+
+	/**
+	 * Seeks backward to the previous frame before the last published frame that is selected by the given marker.
+	 * Repeated calls step back through all marked frames.
+	 *
+	 * @param markerName the name of a registered {@link GameLogSeekMarker}
+	 */
+	public void seekToPreviousMarker(final String markerName)
+	{
+		indexedSeek = (index, lastFrame) -> index.findPreviousMarker(markerName, lastFrame);
+	}
+
+
+	/**
+	 * Add a marker to the seek index. An existing marker with the same name is replaced.
+	 *
+	 * @param marker the new marker
+	 */
+	public synchronized void addSeekMarker(final GameLogSeekMarker marker)
+	{
+		seekMarkers.removeIf(m -> m.name().equals(marker.name()));
+		seekMarkers.add(marker);
+		seekIndex = null;
+	}
+
+
+	public synchronized void removeSeekMarker(final String markerName)
+	{
+		seekMarkers.removeIf(m -> m.name().equals(markerName));
+		seekIndex = null;
+	}
+
+
 	public void addObserver(final GameLogPlayerObserver observer)
 	{
 		observers.add(observer);
@@ -132,6 +209,7 @@ public class GameLogPlayer extends AModule
 				playLog(currentLog);
 				log.info("Replay finished");
 				observers.forEach(GameLogPlayerObserver::onGameLogTimeJump);
+				closeLog(currentLog.getMessages());
 			}
 		}
 	}
@@ -171,6 +249,7 @@ public class GameLogPlayer extends AModule
 
 	private void playLog(final GameLogReader currentLog)
 	{
+		requestSeekIndex(currentLog.getMessages());
 		for (currentFrame = 0; currentFrame < currentLog.getMessages().size(); currentFrame++)
 		{
 			if (newLogfile != null)
@@ -238,11 +317,116 @@ public class GameLogPlayer extends AModule
 			currentFrame = numPackets - 1;
 		}
 
+		IIndexedSeek seek = indexedSeek;
+		if (seek != null)
+		{
+			indexedSeek = null;
+			GameLogSeekIndex index = getSeekIndex(currentLog.getMessages());
+			// the current frame is the next one to publish
+			int frame = index == null ? -1 : seek.find(index, currentFrame - 1);
+			if (frame >= 0)
+			{
+				setPosition(frame);
+			}
+		}
+
 		if (position >= 0)
 		{
-			currentFrame = position;
+			currentFrame = Math.min(position, numPackets - 1);
 			lastFrameTimestamp = 0;
 			position = -1;
+			restoreContext(currentLog);
+		}
+	}
+
+
+	private synchronized CompletableFuture<GameLogSeekIndex> requestSeekIndex(final List<GameLogMessage> messages)
+	{
+		if (seekIndex == null || seekIndexMessages != messages)
+		{
+			List<GameLogSeekMarker> markers = List.copyOf(seekMarkers);
+			seekIndexMessages = messages;
+			seekIndex = CompletableFuture.supplyAsync(
+					() -> GameLogSeekIndex.build(messages, markers),
+					r -> Thread.ofVirtual().name("GameLogSeekIndex").start(r)
+			);
+		}
+		return seekIndex;
+	}
+
+
+	private synchronized void closeLog(final List<GameLogMessage> messages)
+	{
+		if (!(messages instanceof Closeable closeable))
+		{
+			return;
+		}
+		// the seek index may still be built in the background
+		CompletableFuture<?> pendingIndex = seekIndexMessages == messages && seekIndex != null
+				? seekIndex
+				: CompletableFuture.completedFuture(null);
+		seekIndex = null;
+		seekIndexMessages = null;
+		pendingIndex.whenComplete((index, e) -> {
+			try
+			{
+				closeable.close();
+			} catch (IOException ex)
+			{
+				log.warn("Could not close logfile", ex);
+			}
+		});
+	}
+
+
+	private GameLogSeekIndex getSeekIndex(final List<GameLogMessage> messages)
+	{
+		try
+		{
+			return requestSeekIndex(messages).join();
+		} catch (CompletionException e)
+		{
+			log.error("Could not build seek index", e.getCause());
+			return null;
+		}
+	}
+
+
+	/**
+	 * Publish the last message of each context marker before the current frame in chronological order.
+	 */
+	private void restoreContext(final GameLogReader currentLog)
+	{
+		if (seekMarkers.stream().noneMatch(GameLogSeekMarker::restoreContext))
+		{
+			return;
+		}
+		// indexed seeks already waited for the index, other jumps should not wait for the whole log to be indexed
+		if (!requestSeekIndex(currentLog.getMessages()).isDone())
+		{
+			log.debug("Seek index is not built yet, the context is not restored");
+			return;
+		}
+		GameLogSeekIndex index = getSeekIndex(currentLog.getMessages());
+		if (index == null)
+		{
+			return;
+		}
+
+		List<Integer> contextFrames = new ArrayList<>();
+		for (GameLogSeekMarker marker : seekMarkers)
+		{
+			int frame = marker.restoreContext() ? index.findPreviousMarker(marker.name(), currentFrame) : -1;
+			if (frame >= 0 && !contextFrames.contains(frame))
+			{
+				contextFrames.add(frame);
+			}
+		}
+		contextFrames.sort(Comparator.naturalOrder());
+		for (int frame : contextFrames)
+		{
+			GameLogMessage msg = currentLog.getMessages().get(frame);
+			observers.forEach(o -> o.onNewGameLogMessage(msg, frame));
 		}
 	}
 
@@ -283,6 +467,18 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	@FunctionalInterface
+	private interface IIndexedSeek
+	{
+		/**
+		 * @param index     the seek index of the current log
+		 * @param lastFrame the last published frame, -1 if none
+		 * @return the new frame or -1, if no frame was found
+		 */
+		int find(GameLogSeekIndex index, int lastFrame);
+	}
+
+
 	private void publishFrameAndSleep(final GameLogMessage msg)
 	{
 		observers.forEach(o -> o.onNewGameLogMessage(msg, currentFrame));
@@ -4,15 +4,21 @@
 
 package edu.tigers.sumatra.gamelog;
 
+import com.google.common.io.CountingInputStream;
 import com.google.common.primitives.Bytes;
 import edu.tigers.sumatra.gamelog.filters.MessageFilter;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +32,8 @@ import java.util.zip.GZIPInputStream;
 @Log4j2
 public class GameLogReader
 {
+	private static final String SIDECAR_INDEX_EXTENSION = ".idx";
+
 	@Getter
 	private GameLogType fileType = GameLogType.UNKNOWN;
 	@Getter
@@ -100,6 +108,119 @@ public class GameLogReader
 	}
 
 
+	/**
+	 * Load a logfile lazily: The file is scanned once to build a {@link GameLogIndex} and the messages
+	 * are only read from the file when they are accessed via {@link #getMessages()}.
+	 * For compressed logs, the index is stored in a sidecar file next to the log, so that it does not need
+	 * to be rebuilt when the log is opened again.
+	 *
+	 * @param path
+	 */
+	public void loadFileIndexedBlocking(final String path)
+	{
+		Path file = Paths.get(path);
+		boolean compressed = path.endsWith(".gz");
+		try (CountingInputStream countingStream = new CountingInputStream(openStream(file, compressed));
+				DataInputStream fileStream = new DataInputStream(countingStream))
+		{
+			if (!parseHeader(fileStream))
+				throw new IOException("Unhandled log file type.");
+
+			GameLogIndex index = compressed ? loadSidecarIndex(file) : null;
+			if (index == null)
+			{
+				long maxOffset = compressed ? Long.MAX_VALUE : Files.size(file);
+				index = buildIndex(fileStream, countingStream, maxOffset);
+				if (compressed)
+				{
+					writeSidecarIndex(file, index);
+				}
+			}
+			index = index.filter(filters);
+
+			messages = compressed
+					? IndexedGameLog.compressed(file, index)
+					: IndexedGameLog.mapped(file, index);
+			notifyLoadComplete(true);
+		} catch (IOException e1)
+		{
+			notifyLoadComplete(false);
+			log.error("Loading logfile failed", e1);
+		}
+	}
+
+
+	private InputStream openStream(final Path file, final boolean compressed) throws IOException
+	{
+		InputStream inputStream = new BufferedInputStream(Files.newInputStream(file));
+		if (compressed)
+		{
+			inputStream = new BufferedInputStream(new GZIPInputStream(inputStream));
+		}
+		return inputStream;
+	}
+
+
+	private GameLogIndex buildIndex(final DataInputStream fileStream, final CountingInputStream countingStream,
+			final long maxOffset) throws IOException
+	{
+		GameLogIndex index = new GameLogIndex();
+		try
+		{
+			while (true)
+			{
+				long timestamp = fileStream.readLong();
+				int msgType = fileStream.readInt();
+				int msgSize = fileStream.readInt();
+				long offset = countingStream.getCount();
+				if (offset + msgSize > maxOffset)
+				{
+					break;
+				}
+				fileStream.skipNBytes(msgSize);
+				index.add(offset, msgSize, timestamp, msgType);
+			}
+		} catch (EOFException e)
+		{
+			// end of file reached, a truncated last message is ignored
+		}
+		log.info("Indexed {} messages", index.size());
+		return index;
+	}
+
+
+	private GameLogIndex loadSidecarIndex(final Path file)
+	{
+		try
+		{
+			return GameLogIndex.read(sidecarIndexPath(file), Files.size(file),
+					Files.getLastModifiedTime(file).toMillis());
+		} catch (IOException e)
+		{
+			log.warn("Could not read sidecar index of {}", file, e);
+			return null;
+		}
+	}
+
+
+	private void writeSidecarIndex(final Path file, final GameLogIndex index)
+	{
+		try
+		{
+			index.write(sidecarIndexPath(file), Files.size(file), Files.getLastModifiedTime(file).toMillis());
+		} catch (IOException e)
+		{
+			log.warn("Could not write sidecar index of {}", file, e);
+		}
+	}
+
+
+	private Path sidecarIndexPath(final Path file)
+	{
+		return file.resolveSibling(file.getFileName() + SIDECAR_INDEX_EXTENSION);
+	}
+
+
 	public void addFilter(final MessageFilter filter)
 	{
 		filters.add(filter);
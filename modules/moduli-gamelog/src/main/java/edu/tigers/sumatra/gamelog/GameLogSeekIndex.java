@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+
+/**
+ * Index over the messages of a game log for logarithmic seeking by timestamp and by {@link GameLogSeekMarker}.
+ */
+public class GameLogSeekIndex
+{
+	/** Non-decreasing timestamps: the running max of the message timestamps */
+	private final long[] timestamps;
+	private final Map<String, int[]> markers;
+
+
+	private GameLogSeekIndex(final long[] timestamps, final Map<String, int[]> markers)
+	{
+		this.timestamps = timestamps;
+		this.markers = markers;
+	}
+
+
+	/**
+	 * Build the index with a single pass over the messages.
+	 * For lazily loaded logs, only the data of messages with a type of one of the markers is read.
+	 * The data is read from an own data source, so the index can be built while the log is played.
+	 *
+	 * @param messages    the messages of the log
+	 * @param seekMarkers the markers to index
+	 * @return a new index
+	 */
+	public static GameLogSeekIndex build(final List<GameLogMessage> messages, final List<GameLogSeekMarker> seekMarkers)
+	{
+		if (messages instanceof IndexedGameLog indexedGameLog)
+		{
+			try (IndexedGameLog ownLog = indexedGameLog.withOwnDataSource())
+			{
+				return build(ownLog, ownLog.getIndex(), seekMarkers);
+			}
+		}
+		return build(messages, null, seekMarkers);
+	}
+
+
+	private static GameLogSeekIndex build(final List<GameLogMessage> messages, final GameLogIndex logIndex,
+			final List<GameLogSeekMarker> seekMarkers)
+	{
+		int size = messages.size();
+
+		long[] timestamps = new long[size];
+		Map<String, int[]> markerPositions = new HashMap<>();
+		Map<String, Integer> markerSizes = new HashMap<>();
+		List<Predicate<GameLogMessage>> predicates = seekMarkers.stream()
+				.map(m -> m.predicateFactory().get())
+				.toList();
+		seekMarkers.forEach(m -> {
+			markerPositions.put(m.name(), new int[16]);
+			markerSizes.put(m.name(), 0);
+		});
+
+		long maxTimestamp = Long.MIN_VALUE;
+		for (int i = 0; i < size; i++)
+		{
+			GameLogMessage msg = logIndex == null ? messages.get(i) : null;
+			EMessageType type = logIndex == null ? msg.getType() : logIndex.getType(i);
+			long timestamp = logIndex == null ? msg.getTimestampNs() : logIndex.getTimestampNs(i);
+			maxTimestamp = Math.max(maxTimestamp, timestamp);
+			timestamps[i] = maxTimestamp;
+
+			for (int m = 0; m < seekMarkers.size(); m++)
+			{
+				GameLogSeekMarker marker = seekMarkers.get(m);
+				if (marker.type() != type)
+				{
+					continue;
+				}
+				if (msg == null)
+				{
+					msg = messages.get(i);
+				}
+				if (predicates.get(m).test(msg))
+				{
+					int[] positions = markerPositions.get(marker.name());
+					int n = markerSizes.get(marker.name());
+					if (n == positions.length)
+					{
+						positions = Arrays.copyOf(positions, n * 2);
+						markerPositions.put(marker.name(), positions);
+					}
+					positions[n] = i;
+					markerSizes.put(marker.name(), n + 1);
+				}
+			}
+		}
+
+		Map<String, int[]> markers = new HashMap<>();
+		markerPositions.forEach((name, positions) -> markers.put(name, Arrays.copyOf(positions, markerSizes.get(name))));
+		return new GameLogSeekIndex(timestamps, markers);
+	}
+
+
+	/**
+	 * @param timestampNs a receive timestamp
+	 * @return the position of the first message at or after the given timestamp, or the last position
+	 */
+	public int findPosition(final long timestampNs)
+	{
+		int low = 0;
+		int high = timestamps.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (timestamps[mid] < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return Math.min(low, timestamps.length - 1);
+	}
+
+
+	/**
+	 * @param markerName the name of a marker
+	 * @param position   a message position
+	 * @return the position of the first marked message after the given position, or -1
+	 */
+	public int findNextMarker(final String markerName, final int position)
+	{
+		int[] positions = markers.getOrDefault(markerName, new int[0]);
+		int i = upperBound(positions, position);
+		return i < positions.length ? positions[i] : -1;
+	}
+
+
+	/**
+	 * @param markerName the name of a marker
+	 * @param position   a message position
+	 * @return the position of the last marked message before the given position, or -1
+	 */
+	public int findPreviousMarker(final String markerName, final int position)
+	{
+		int[] positions = markers.getOrDefault(markerName, new int[0]);
+		int i = lowerBound(positions, position) - 1;
+		return i >= 0 ? positions[i] : -1;
+	}
+
+
+	/**
+	 * @return the first index with a value greater than the key
+	 */
+	private static int upperBound(final int[] values, final int key)
+	{
+		int low = 0;
+		int high = values.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (values[mid] <= key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * @return the first index with a value greater or equal than the key
+	 */
+	private static int lowerBound(final int[] values, final int key)
+	{
+		int low = 0;
+		int high = values.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (values[mid] < key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+
+/**
+ * A named class of messages that the {@link GameLogPlayer} can seek to in logarithmic time.
+ *
+ * @param name             unique name of the marker
+ * @param type             the type of the messages that are considered
+ * @param predicateFactory creates a new predicate that selects the marked messages. The predicate is applied
+ *                         to all messages of the given type in order, so it may be stateful.
+ * @param restoreContext   if true, the last marked message before the new position is published to the
+ *                         observers after each jump, so that they can restore their state (like the
+ *                         geometry or the referee state)
+ */
+public record GameLogSeekMarker(
+		String name,
+		EMessageType type,
+		Supplier<Predicate<GameLogMessage>> predicateFactory,
+		boolean restoreContext
+)
+{
+}
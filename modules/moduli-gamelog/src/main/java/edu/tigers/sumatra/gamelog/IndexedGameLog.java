@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * A read-only list of game log messages that are loaded lazily from the log file, based on a {@link GameLogIndex}.
+ * Only the message that is requested is materialized, so the heap usage does not depend on the size of the log.
+ * <p>
+ * Uncompressed logs are memory-mapped. Compressed logs are decompressed on demand, which is efficient for
+ * sequential access only.
+ */
+@Log4j2
+public class IndexedGameLog extends AbstractList<GameLogMessage> implements RandomAccess, Closeable
+{
+	@Getter
+	private final GameLogIndex index;
+	private final IDataSource dataSource;
+
+
+	private IndexedGameLog(final GameLogIndex index, final IDataSource dataSource)
+	{
+		this.index = index;
+		this.dataSource = dataSource;
+	}
+
+
+	/**
+	 * @param path  an uncompressed log file
+	 * @param index the index of the log file
+	 * @return a new lazy game log
+	 * @throws IOException if the file can not be mapped
+	 */
+	static IndexedGameLog mapped(final Path path, final GameLogIndex index) throws IOException
+	{
+		return new IndexedGameLog(index, new MappedDataSource(path, index));
+	}
+
+
+	/**
+	 * @param path  a gzip compressed log file
+	 * @param index the index of the log file
+	 * @return a new lazy game log
+	 */
+	static IndexedGameLog compressed(final Path path, final GameLogIndex index)
+	{
+		return new IndexedGameLog(index, new GzipDataSource(path));
+	}
+
+
+	@Override
+	public GameLogMessage get(final int i)
+	{
+		if (i < 0 || i >= index.size())
+		{
+			throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + index.size());
+		}
+		byte[] data = dataSource.read(index.getOffset(i), index.getDataSize(i));
+		return new GameLogMessage(index.getTimestampNs(i), index.getType(i), data);
+	}
+
+
+	@Override
+	public int size()
+	{
+		return index.size();
+	}
+
+
+	/**
+	 * Create a view on the same log that reads from its own data source, so that a background reader, like
+	 * the builder of a {@link GameLogSeekIndex}, does not move the position of the compressed stream of this log.
+	 * The view must be closed by the caller.
+	 *
+	 * @return a new view on the same log
+	 */
+	public IndexedGameLog withOwnDataSource()
+	{
+		return new IndexedGameLog(index, dataSource.copy());
+	}
+
+
+	@Override
+	public void close()
+	{
+		dataSource.close();
+	}
+
+
+	private interface IDataSource
+	{
+		byte[] read(long offset, int size);
+
+
+		/**
+		 * @return a data source for the same file that can be read independently of this one
+		 */
+		IDataSource copy();
+
+
+		void close();
+	}
+
+	/**
+	 * Maps the whole file into a list of buffers of at most {@link #MAX_CHUNK_SIZE} bytes, each starting
+	 * at a message boundary, so that no message spans two buffers.
+	 */
+	private static class MappedDataSource implements IDataSource
+	{
+		private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+		private final long[] chunkStarts;
+		private final MappedByteBuffer[] chunks;
+
+
+		MappedDataSource(final Path path, final GameLogIndex index) throws IOException
+		{
+			List<Long> starts = new ArrayList<>();
+			List<MappedByteBuffer> buffers = new ArrayList<>();
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+			{
+				int i = 0;
+				while (i < index.size())
+				{
+					long start = index.getOffset(i);
+					long end = start;
+					while (i < index.size() && index.getOffset(i) + index.getDataSize(i) - start <= MAX_CHUNK_SIZE)
+					{
+						end = index.getOffset(i) + index.getDataSize(i);
+						i++;
+					}
+					if (end == start && i < index.size())
+					{
+						throw new IOException("Message exceeds max chunk size: " + index.getDataSize(i));
+					}
+					starts.add(start);
+					buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+				}
+			}
+			chunkStarts = starts.stream().mapToLong(Long::longValue).toArray();
+			chunks = buffers.toArray(new MappedByteBuffer[0]);
+		}
+
+
+		@Override
+		public byte[] read(final long offset, final int size)
+		{
+			int chunk = chunks.length - 1;
+			while (chunk > 0 && chunkStarts[chunk] > offset)
+			{
+				chunk--;
+			}
+			byte[] data = new byte[size];
+			chunks[chunk].get((int) (offset - chunkStarts[chunk]), data);
+			return data;
+		}
+
+
+		@Override
+		public IDataSource copy()
+		{
+			// absolute reads do not change the state of the buffers, so they can be shared
+			return this;
+		}
+
+
+		@Override
+		public void close()
+		{
+			// mapped buffers are released by the garbage collector
+		}
+	}
+
+	/**
+	 * Reads from a gzip stream that is kept open between subsequent reads.
+	 * Reading backwards requires decompressing the file from the beginning.
+	 */
+	private static class GzipDataSource implements IDataSource
+	{
+		private final Path path;
+		private InputStream stream;
+		private long position;
+
+
+		GzipDataSource(final Path path)
+		{
+			this.path = path;
+		}
+
+
+		@Override
+		public synchronized byte[] read(final long offset, final int size)
+		{
+			try
+			{
+				if (stream == null || offset < position)
+				{
+					close();
+					stream = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path)));
+					position = 0;
+				}
+				stream.skipNBytes(offset - position);
+				byte[] data = stream.readNBytes(size);
+				position = offset + data.length;
+				return data;
+			} catch (IOException e)
+			{
+				throw new IllegalStateException("Could not read message from " + path, e);
+			}
+		}
+
+
+		@Override
+		public IDataSource copy()
+		{
+			return new GzipDataSource(path);
+		}
+
+
+		@Override
+		public synchronized void close()
+		{
+			if (stream != null)
+			{
+				try
+				{
+					stream.close();
+				} catch (IOException e)
+				{
+					log.warn("Could not close {}", path, e);
+				}
+				stream = null;
+			}
+		}
+	}
+}
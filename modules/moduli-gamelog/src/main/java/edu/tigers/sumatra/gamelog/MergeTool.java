@@ -1,15 +1,16 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.gamelog;
 
 import lombok.extern.log4j.Log4j2;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 
 /**
@@ -65,6 +66,8 @@ public class MergeTool
 
 	/**
 	 * Merge files.
+	 * The logs are loaded lazily and streamed into the output file, so that only one message
+	 * is kept in memory at a time.
 	 */
 	public void mergeBlocking()
 	{
@@ -73,64 +76,112 @@ public class MergeTool
 			return;
 		}
 
-		log.info("Loading logfiles files");
+		log.info("Indexing logfiles");
 
-		// load all logfiles, sort by timestamp, combine into single list
-		List<GameLogMessage> fullLog = inputs.stream()
+		// index all logfiles and sort them by their first timestamp
+		List<List<GameLogMessage>> logs = inputs.stream()
 				.map(i -> {
 					GameLogReader reader = new GameLogReader();
-					reader.loadFileBlocking(i);
+					reader.loadFileIndexedBlocking(i);
 					return reader.getMessages();
 				})
-				.sorted(Comparator.comparingLong(l -> l.get(0).getTimestampNs()))
-				.flatMap(List::stream)
-				.collect(Collectors.toCollection(LinkedList::new));
+				.filter(this::isNotEmptyOrClose)
+				.sorted(Comparator.comparingLong(this::getFirstTimestamp))
+				.toList();
 
-		log.info("Loading done, processing filter verdicts...");
-
-		if (filter != null)
-		{
-			removeFilteredMessages(fullLog);
-		}
-
-		log.info("Processing complete. Writing output file.");
+		log.info("Indexing done, writing output file.");
 
 		GameLogWriter writer = new GameLogWriter(GameLogType.LOG_FILE);
 		writer.openPath(output);
-		fullLog.forEach(writer::write);
+		MessageRemover remover = new MessageRemover();
+		for (List<GameLogMessage> messages : logs)
+		{
+			for (GameLogMessage msg : messages)
+			{
+				remover.apply(msg).ifPresent(writer::write);
+			}
+			closeIfPossible(messages);
+		}
 		writer.close();
 
 		log.info("Write complete");
 	}
 
 
-	@SuppressWarnings("squid:ForLoopCounterChangedCheck")
-	private void removeFilteredMessages(final List<GameLogMessage> fullLog)
+	private boolean isNotEmptyOrClose(final List<GameLogMessage> messages)
 	{
-		long timeOffset = 0;
-		int removeStartIndex = -1;
-		for (int index = 0; index < fullLog.size(); index++)
+		if (messages.isEmpty())
 		{
-			GameLogMessage msg = fullLog.get(index);
-			var verdict = filter.apply(msg);
+			closeIfPossible(messages);
+			return false;
+		}
+		return true;
+	}
 
-			if(verdict == GameLogCompareResult.MATCH && removeStartIndex < 0)
+
+	private long getFirstTimestamp(final List<GameLogMessage> messages)
+	{
+		// do not read a message from the file just for sorting
+		if (messages instanceof IndexedGameLog indexedGameLog)
+		{
+			return indexedGameLog.getIndex().getTimestampNs(0);
+		}
+		return messages.get(0).getTimestampNs();
+	}
+
+
+	private void closeIfPossible(final List<GameLogMessage> messages)
+	{
+		if (messages instanceof Closeable closeable)
+		{
+			try
+			{
+				closeable.close();
+			} catch (IOException e)
 			{
-				removeStartIndex = index;
+				log.warn("Could not close logfile", e);
 			}
+		}
+	}
+
+
+	/**
+	 * Removes all sections of consecutive messages that match the filter and shifts the timestamps of all
+	 * following messages to close the gap.
+	 * Sections at the very start and end of the merged log are removed as well. The former in-place removal
+	 * kept them: it never removed anything, if the first message matched, and a trailing section was not
+	 * closed by a mismatching message.
+	 */
+	private class MessageRemover
+	{
+		private long timeOffset = 0;
+		private Long removeStartTimestamp = null;
+
 
-			if(verdict == GameLogCompareResult.MISMATCH && removeStartIndex > 0)
+		Optional<GameLogMessage> apply(final GameLogMessage msg)
+		{
+			if (filter == null)
 			{
-				long timeAdjust = msg.getTimestampNs() - fullLog.get(removeStartIndex).getTimestampNs();
-				timeOffset -= timeAdjust;
-				fullLog.subList(removeStartIndex, index).clear();
-				index = removeStartIndex;
-				removeStartIndex = -1;
+				return Optional.of(msg);
 			}
 
-			msg.adjustTimestamp(timeOffset);
-		}
-	}
+			var verdict = filter.apply(msg);
+			if (verdict == GameLogCompareResult.MATCH && removeStartTimestamp == null)
+			{
+				removeStartTimestamp = msg.getTimestampNs();
+			}
 
+			if (verdict == GameLogCompareResult.MISMATCH && removeStartTimestamp != null)
+			{
+				timeOffset -= msg.getTimestampNs() - removeStartTimestamp;
+				removeStartTimestamp = null;
+			}
 
+			if (removeStartTimestamp != null)
+			{
+				return Optional.empty();
+			}
+			return Optional.of(new GameLogMessage(msg.getTimestampNs() + timeOffset, msg.getType(), msg.getData()));
+		}
+	}
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.moduli.exceptions.StartModuleException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.FIRST_TIMESTAMP;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.FRAME_DT;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.createMessages;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.refereeMarker;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.stageMarker;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.writeLog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for the indexed seeking of the GameLogPlayer
+ */
+public class GameLogPlayerTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<Integer> published = new CopyOnWriteArrayList<>();
+	private GameLogPlayer player;
+
+
+	@Before
+	public void setUp() throws IOException, StartModuleException
+	{
+		GameLogReader reader = new GameLogReader();
+		reader.loadFileIndexedBlocking(
+				writeLog(folder.getRoot().toPath().resolve("test.log.gz"), createMessages(100)).toString());
+
+		player = new GameLogPlayer();
+		player.addObserver(new GameLogPlayerObserver()
+		{
+			@Override
+			public void onNewGameLogMessage(final GameLogMessage message, final int index)
+			{
+				published.add(index);
+			}
+
+
+			@Override
+			public void onGameLogTimeJump()
+			{
+				// not relevant here
+			}
+		});
+		player.addSeekMarker(refereeMarker());
+		player.addSeekMarker(stageMarker());
+		player.setPause(true);
+		player.setLogfile(reader);
+		player.startModule();
+	}
+
+
+	@After
+	public void tearDown()
+	{
+		player.stopModule();
+	}
+
+
+	private void step(final int numPublished) throws InterruptedException
+	{
+		player.doSteps(1);
+		long timeout = System.nanoTime() + 2_000_000_000L;
+		while (published.size() < numPublished && System.nanoTime() < timeout)
+		{
+			Thread.sleep(10);
+		}
+		assertThat(published).hasSize(numPublished);
+	}
+
+
+	@Test
+	public void testSeekRestoresContext() throws InterruptedException
+	{
+		player.seekToTimestamp(FIRST_TIMESTAMP + 45 * FRAME_DT);
+		step(2);
+		// the last referee message before the new position is published first
+		assertThat(published).containsExactly(40, 45);
+
+		player.seekToNextMarker("stage");
+		step(4);
+		assertThat(published.subList(2, 4)).containsExactly(50, 60);
+
+		player.seekToPreviousMarker("stage");
+		step(6);
+		assertThat(published.subList(4, 6)).containsExactly(20, 30);
+	}
+
+
+	@Test
+	public void testSeekWithoutMatch() throws InterruptedException
+	{
+		player.seekToTimestamp(FIRST_TIMESTAMP + 95 * FRAME_DT);
+		step(2);
+		assertThat(published).containsExactly(90, 95);
+
+		// there is no further stage change, the player just steps to the next frame
+		player.seekToNextMarker("stage");
+		step(3);
+		assertThat(published.get(2)).isEqualTo(96);
+	}
+}
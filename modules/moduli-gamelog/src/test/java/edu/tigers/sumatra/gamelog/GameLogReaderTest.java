@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.createMessages;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.writeLog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for GameLogReader
+ */
+public class GameLogReaderTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	static void assertMessages(final List<GameLogMessage> actual, final List<GameLogMessage> expected)
+	{
+		assertThat(actual).hasSize(expected.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertMessage(actual.get(i), expected.get(i));
+		}
+	}
+
+
+	private static void assertMessage(final GameLogMessage actual, final GameLogMessage expected)
+	{
+		assertThat(actual.getTimestampNs()).isEqualTo(expected.getTimestampNs());
+		assertThat(actual.getType()).isEqualTo(expected.getType());
+		assertThat(actual.getData()).isEqualTo(expected.getData());
+	}
+
+
+	private static GameLogReader loadEager(final Path file)
+	{
+		GameLogReader reader = new GameLogReader();
+		reader.loadFileBlocking(file.toString());
+		return reader;
+	}
+
+
+	private static GameLogReader loadIndexed(final Path file)
+	{
+		GameLogReader reader = new GameLogReader();
+		reader.loadFileIndexedBlocking(file.toString());
+		return reader;
+	}
+
+
+	private static void close(final GameLogReader reader) throws IOException
+	{
+		if (reader.getMessages() instanceof Closeable closeable)
+		{
+			closeable.close();
+		}
+	}
+
+
+	private Path sidecar(final Path file)
+	{
+		return file.resolveSibling(file.getFileName() + ".idx");
+	}
+
+
+	@Test
+	public void testIndexedMatchesEager() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		for (String fileName : List.of("test.log", "test.log.gz"))
+		{
+			Path file = writeLog(folder.getRoot().toPath().resolve(fileName), messages);
+			GameLogReader eager = loadEager(file);
+			GameLogReader indexed = loadIndexed(file);
+
+			assertThat(indexed.getMessages()).isInstanceOf(IndexedGameLog.class);
+			assertThat(indexed.getFileType()).isEqualTo(GameLogType.LOG_FILE);
+			assertThat(indexed.getVersionNumber()).isEqualTo(eager.getVersionNumber());
+			assertMessages(eager.getMessages(), messages);
+			assertMessages(indexed.getMessages(), eager.getMessages());
+			close(indexed);
+		}
+	}
+
+
+	@Test
+	public void testRandomAccess() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		for (String fileName : List.of("test.log", "test.log.gz"))
+		{
+			GameLogReader indexed = loadIndexed(writeLog(folder.getRoot().toPath().resolve(fileName), messages));
+
+			// backwards and with gaps, compressed logs decompress the file from the beginning again
+			for (int i = messages.size() - 1; i >= 0; i -= 3)
+			{
+				assertMessage(indexed.getMessages().get(i), messages.get(i));
+			}
+			close(indexed);
+		}
+	}
+
+
+	@Test
+	public void testFilter() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		for (String fileName : List.of("test.log", "test.log.gz"))
+		{
+			Path file = writeLog(folder.getRoot().toPath().resolve(fileName), messages);
+			GameLogReader eager = new GameLogReader();
+			eager.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_REFBOX_2013)));
+			eager.loadFileBlocking(file.toString());
+			GameLogReader indexed = new GameLogReader();
+			indexed.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_REFBOX_2013)));
+			indexed.loadFileIndexedBlocking(file.toString());
+
+			assertThat(eager.getMessages()).hasSize(10);
+			assertMessages(indexed.getMessages(), eager.getMessages());
+			close(indexed);
+		}
+	}
+
+
+	@Test
+	public void testTruncatedLastMessage() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		Path file = writeLog(folder.getRoot().toPath().resolve("test.log"), messages);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+		{
+			channel.truncate(channel.size() - 1);
+		}
+
+		GameLogReader eager = loadEager(file);
+		GameLogReader indexed = loadIndexed(file);
+
+		assertMessages(eager.getMessages(), messages.subList(0, 99));
+		assertMessages(indexed.getMessages(), eager.getMessages());
+		close(indexed);
+	}
+
+
+	@Test
+	public void testSidecarIndex() throws IOException
+	{
+		Path uncompressed = writeLog(folder.getRoot().toPath().resolve("test.log"), createMessages(100));
+		close(loadIndexed(uncompressed));
+		// uncompressed logs are scanned quickly, they do not need a sidecar
+		assertThat(Files.exists(sidecar(uncompressed))).isFalse();
+
+		Path compressed = writeLog(folder.getRoot().toPath().resolve("test.log.gz"), createMessages(100));
+		GameLogReader reader = loadIndexed(compressed);
+		close(reader);
+		assertThat(Files.exists(sidecar(compressed))).isTrue();
+		GameLogIndex sidecarIndex = GameLogIndex.read(sidecar(compressed), Files.size(compressed),
+				Files.getLastModifiedTime(compressed).toMillis());
+		assertThat(sidecarIndex).isNotNull();
+		assertThat(sidecarIndex.size()).isEqualTo(100);
+	}
+
+
+	@Test
+	public void testSidecarIndexIsReused() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		Path file = writeLog(folder.getRoot().toPath().resolve("test.log.gz"), messages);
+		close(loadIndexed(file));
+
+		// an unchanged sidecar is not written again
+		FileTime sidecarModifiedAt = FileTime.fromMillis(1_000_000L);
+		Files.setLastModifiedTime(sidecar(file), sidecarModifiedAt);
+		GameLogReader reader = loadIndexed(file);
+
+		assertThat(Files.getLastModifiedTime(sidecar(file))).isEqualTo(sidecarModifiedAt);
+		assertMessages(reader.getMessages(), messages);
+		close(reader);
+	}
+
+
+	@Test
+	public void testStaleSidecarIndexIsRebuilt() throws IOException
+	{
+		Path file = writeLog(folder.getRoot().toPath().resolve("test.log.gz"), createMessages(100));
+		close(loadIndexed(file));
+
+		// replace the log with a longer one
+		List<GameLogMessage> messages = createMessages(150);
+		writeLog(file, messages);
+		GameLogReader reader = loadIndexed(file);
+
+		assertMessages(reader.getMessages(), messages);
+		close(reader);
+		GameLogIndex sidecarIndex = GameLogIndex.read(sidecar(file), Files.size(file),
+				Files.getLastModifiedTime(file).toMillis());
+		assertThat(sidecarIndex).isNotNull();
+		assertThat(sidecarIndex.size()).isEqualTo(150);
+	}
+
+
+	@Test
+	public void testCorruptSidecarIndexIsRebuilt() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		Path file = writeLog(folder.getRoot().toPath().resolve("test.log.gz"), messages);
+		Files.write(sidecar(file), new byte[] { 1, 2, 3 });
+
+		GameLogReader reader = loadIndexed(file);
+
+		assertMessages(reader.getMessages(), messages);
+		close(reader);
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for GameLogSeekIndex
+ */
+public class GameLogSeekIndexTest
+{
+	static final long FIRST_TIMESTAMP = 1_000_000_000L;
+	static final long FRAME_DT = 16_000_000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Create the messages of a log, where every 10th message is a referee message and the referee stage
+	 * changes every 30 messages. All other messages are vision messages of different sizes.
+	 *
+	 * @param numMessages the number of messages
+	 * @return the messages
+	 */
+	static List<GameLogMessage> createMessages(final int numMessages)
+	{
+		List<GameLogMessage> messages = new ArrayList<>();
+		for (int i = 0; i < numMessages; i++)
+		{
+			long timestamp = FIRST_TIMESTAMP + i * FRAME_DT;
+			if (i % 10 == 0)
+			{
+				messages.add(new GameLogMessage(timestamp, EMessageType.SSL_REFBOX_2013, new byte[] { (byte) (i / 30) }));
+			} else
+			{
+				byte[] data = new byte[i % 7 + 1];
+				Arrays.fill(data, (byte) i);
+				messages.add(new GameLogMessage(timestamp, EMessageType.SSL_VISION_2014, data));
+			}
+		}
+		return messages;
+	}
+
+
+	/**
+	 * Write the messages to a log file, which is gzip compressed, if the file name ends with .gz
+	 *
+	 * @param file     the log file
+	 * @param messages the messages
+	 * @return the log file
+	 * @throws IOException on write errors
+	 */
+	static Path writeLog(final Path file, final List<GameLogMessage> messages) throws IOException
+	{
+		boolean compressed = file.getFileName().toString().endsWith(".gz");
+		Path uncompressed = compressed ? file.resolveSibling(file.getFileName() + ".tmp") : file;
+		GameLogWriter writer = new GameLogWriter(GameLogType.LOG_FILE);
+		writer.openPath(uncompressed.toString());
+		messages.forEach(writer::write);
+		writer.close();
+		if (compressed)
+		{
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file)))
+			{
+				Files.copy(uncompressed, out);
+			}
+			Files.delete(uncompressed);
+		}
+		return file;
+	}
+
+
+	/**
+	 * @return a marker for all referee messages that restores the context
+	 */
+	static GameLogSeekMarker refereeMarker()
+	{
+		return new GameLogSeekMarker("referee", EMessageType.SSL_REFBOX_2013, () -> msg -> true, true);
+	}
+
+
+	/**
+	 * @return a marker for referee messages with a new stage, with a stateful predicate
+	 */
+	static GameLogSeekMarker stageMarker()
+	{
+		return new GameLogSeekMarker("stage", EMessageType.SSL_REFBOX_2013, () -> new Predicate<>()
+		{
+			private Byte lastStage = null;
+
+
+			@Override
+			public boolean test(final GameLogMessage msg)
+			{
+				boolean changed = lastStage == null || lastStage != msg.getData()[0];
+				lastStage = msg.getData()[0];
+				return changed;
+			}
+		}, false);
+	}
+
+
+	@Test
+	public void testFindPosition()
+	{
+		List<GameLogMessage> messages = new ArrayList<>();
+		// the 5th message has an older timestamp than its predecessor
+		for (long timestamp : new long[] { 100, 200, 200, 300, 250, 400 })
+		{
+			messages.add(new GameLogMessage(timestamp, EMessageType.SSL_VISION_2014, new byte[0]));
+		}
+		GameLogSeekIndex index = GameLogSeekIndex.build(messages, List.of());
+
+		assertThat(index.findPosition(50)).isEqualTo(0);
+		assertThat(index.findPosition(100)).isEqualTo(0);
+		assertThat(index.findPosition(150)).isEqualTo(1);
+		assertThat(index.findPosition(200)).isEqualTo(1);
+		assertThat(index.findPosition(250)).isEqualTo(3);
+		assertThat(index.findPosition(300)).isEqualTo(3);
+		assertThat(index.findPosition(350)).isEqualTo(5);
+		assertThat(index.findPosition(400)).isEqualTo(5);
+		// after the end of the log
+		assertThat(index.findPosition(500)).isEqualTo(5);
+	}
+
+
+	@Test
+	public void testFindNextMarker()
+	{
+		GameLogSeekIndex index = GameLogSeekIndex.build(createMessages(100), List.of(refereeMarker(), stageMarker()));
+
+		assertThat(index.findNextMarker("referee", -1)).isEqualTo(0);
+		assertThat(index.findNextMarker("referee", 0)).isEqualTo(10);
+		assertThat(index.findNextMarker("referee", 9)).isEqualTo(10);
+		assertThat(index.findNextMarker("referee", 90)).isEqualTo(-1);
+
+		assertThat(index.findNextMarker("stage", -1)).isEqualTo(0);
+		assertThat(index.findNextMarker("stage", 0)).isEqualTo(30);
+		assertThat(index.findNextMarker("stage", 29)).isEqualTo(30);
+		assertThat(index.findNextMarker("stage", 30)).isEqualTo(60);
+		assertThat(index.findNextMarker("stage", 90)).isEqualTo(-1);
+
+		assertThat(index.findNextMarker("unknown", 0)).isEqualTo(-1);
+	}
+
+
+	@Test
+	public void testFindPreviousMarker()
+	{
+		GameLogSeekIndex index = GameLogSeekIndex.build(createMessages(100), List.of(refereeMarker(), stageMarker()));
+
+		assertThat(index.findPreviousMarker("referee", 0)).isEqualTo(-1);
+		assertThat(index.findPreviousMarker("referee", 1)).isEqualTo(0);
+		assertThat(index.findPreviousMarker("referee", 10)).isEqualTo(0);
+		assertThat(index.findPreviousMarker("referee", 11)).isEqualTo(10);
+		assertThat(index.findPreviousMarker("referee", 99)).isEqualTo(90);
+
+		assertThat(index.findPreviousMarker("stage", 0)).isEqualTo(-1);
+		assertThat(index.findPreviousMarker("stage", 30)).isEqualTo(0);
+		assertThat(index.findPreviousMarker("stage", 31)).isEqualTo(30);
+		assertThat(index.findPreviousMarker("stage", 99)).isEqualTo(90);
+
+		assertThat(index.findPreviousMarker("unknown", 50)).isEqualTo(-1);
+	}
+
+
+	@Test
+	public void testIndexedLogs() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		List<GameLogSeekMarker> markers = List.of(refereeMarker(), stageMarker());
+		GameLogSeekIndex expected = GameLogSeekIndex.build(messages, markers);
+
+		for (String fileName : List.of("test.log", "test.log.gz"))
+		{
+			GameLogReader reader = new GameLogReader();
+			reader.loadFileIndexedBlocking(writeLog(folder.getRoot().toPath().resolve(fileName), messages).toString());
+			try (IndexedGameLog log = (IndexedGameLog) reader.getMessages())
+			{
+				// start reading the log, like the player does
+				assertThat(log.get(50).getData()).isEqualTo(messages.get(50).getData());
+
+				GameLogSeekIndex index = GameLogSeekIndex.build(log, markers);
+
+				// the log is still readable and not affected by the reads of the index
+				assertThat(log.get(51).getData()).isEqualTo(messages.get(51).getData());
+				for (int i = -1; i < messages.size(); i++)
+				{
+					assertThat(index.findNextMarker("stage", i)).isEqualTo(expected.findNextMarker("stage", i));
+					assertThat(index.findPreviousMarker("referee", i))
+							.isEqualTo(expected.findPreviousMarker("referee", i));
+				}
+				for (GameLogMessage msg : messages)
+				{
+					assertThat(index.findPosition(msg.getTimestampNs()))
+							.isEqualTo(expected.findPosition(msg.getTimestampNs()));
+				}
+			}
+		}
+	}
+}
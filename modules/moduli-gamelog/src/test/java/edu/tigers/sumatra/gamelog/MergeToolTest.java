@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static edu.tigers.sumatra.gamelog.GameLogReaderTest.assertMessages;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.FRAME_DT;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.createMessages;
+import static edu.tigers.sumatra.gamelog.GameLogSeekIndexTest.writeLog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for MergeTool
+ */
+public class MergeToolTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	private static List<GameLogMessage> shift(final List<GameLogMessage> messages, final long offset)
+	{
+		return messages.stream()
+				.map(msg -> new GameLogMessage(msg.getTimestampNs() + offset, msg.getType(), msg.getData()))
+				.toList();
+	}
+
+
+	private Path merge(final MergeTool mergeTool, final Path... inputs)
+	{
+		Path output = folder.getRoot().toPath().resolve("merged.log");
+		mergeTool.withInputFiles(Arrays.stream(inputs).map(Path::toString).toList())
+				.withOutputFile(output.toString())
+				.mergeBlocking();
+		return output;
+	}
+
+
+	private static List<GameLogMessage> load(final Path file)
+	{
+		GameLogReader reader = new GameLogReader();
+		reader.loadFileBlocking(file.toString());
+		return reader.getMessages();
+	}
+
+
+	@Test
+	public void testMergeSortsLogsByFirstTimestamp() throws IOException
+	{
+		List<GameLogMessage> first = createMessages(50);
+		List<GameLogMessage> second = shift(createMessages(70), 100 * FRAME_DT);
+		Path firstFile = writeLog(folder.getRoot().toPath().resolve("first.log.gz"), first);
+		Path secondFile = writeLog(folder.getRoot().toPath().resolve("second.log"), second);
+		Path emptyFile = writeLog(folder.getRoot().toPath().resolve("empty.log"), List.of());
+
+		Path output = merge(new MergeTool(), secondFile, emptyFile, firstFile);
+
+		List<GameLogMessage> expected = new ArrayList<>(first);
+		expected.addAll(second);
+		assertMessages(load(output), expected);
+	}
+
+
+	@Test
+	public void testMergeRemovesMatchingSections() throws IOException
+	{
+		List<GameLogMessage> messages = createMessages(100);
+		Path file = writeLog(folder.getRoot().toPath().resolve("test.log.gz"), messages);
+
+		// remove the messages from 20 to 39 and the trailing messages from 90
+		MergeTool mergeTool = new MergeTool().withFilter(msg -> {
+			long frame = (msg.getTimestampNs() - messages.getFirst().getTimestampNs()) / FRAME_DT;
+			return (frame >= 20 && frame < 40) || frame >= 90
+					? GameLogCompareResult.MATCH
+					: GameLogCompareResult.MISMATCH;
+		});
+		List<GameLogMessage> merged = load(merge(mergeTool, file));
+
+		List<GameLogMessage> expected = new ArrayList<>(messages.subList(0, 20));
+		// the gap is closed, the first message after the section takes the timestamp of the first removed one
+		expected.addAll(shift(messages.subList(40, 90), -20 * FRAME_DT));
+		assertMessages(merged, expected);
+		assertThat(merged.get(20).getTimestampNs()).isEqualTo(messages.get(20).getTimestampNs());
+	}
+}
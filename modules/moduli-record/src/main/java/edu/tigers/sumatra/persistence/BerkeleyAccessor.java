@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.persistence;
 
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 
 /**
@@ -84,6 +85,26 @@ public class BerkeleyAccessor<T> implements IBerkeleyAccessor<T>
 	}
 
 
+	@Override
+	public T getByKey(final long key)
+	{
+		return frameByTimestamp.get(key);
+	}
+
+
+	@Override
+	public synchronized long[] getKeysAfter(final long key)
+	{
+		LongStream.Builder keys = LongStream.builder();
+		try (EntityCursor<Long> cursor = frameByTimestamp.keys(null, key, false, null, true,
+				CursorConfig.READ_UNCOMMITTED))
+		{
+			cursor.forEach(keys::add);
+		}
+		return keys.build().toArray();
+	}
+
+
 	@Override
 	public synchronized void forEach(Consumer<T> consumer)
 	{
@@ -1,10 +1,13 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.persistence;
 
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.LatencyHistogram;
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.time.DurationFormatUtils;
 import org.apache.logging.log4j.LogManager;
@@ -12,13 +15,21 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
- * Record on a separate thread
+ * Record on a separate thread.
+ * <p>
+ * The recorders buffer their data and the record saver periodically writes all buffers to the database.
+ * Written elements are committed in groups of {@link #elementsPerCommit}, so the cost of making the data durable
+ * is shared by many frames. If a flush cycle takes longer than the flush period, the buffers of the recorders
+ * grow, which is tracked as a slow flush. The buffers are bounded {@link RecordingQueue}s, which count the elements
+ * that they dropped.
  */
 public class BerkeleyAsyncRecorder
 {
@@ -26,6 +37,14 @@ public class BerkeleyAsyncRecorder
 
 	private static final int TIME_OFFSET = 100;
 
+	@Configurable(defValue = "200", comment = "Number of written elements that are committed together")
+	private static int elementsPerCommit = 200;
+
+	static
+	{
+		ConfigRegistration.registerClass("user", BerkeleyAsyncRecorder.class);
+	}
+
 	private final RecordSaver recordSaver = new RecordSaver();
 	private final BerkeleyDb db;
 	private final List<IBerkeleyRecorder> recorders = new ArrayList<>();
@@ -119,9 +138,40 @@ public class BerkeleyAsyncRecorder
 	}
 
 
+	/**
+	 * @return the durations of the flush cycles
+	 */
+	public LatencyHistogram getFlushLatency()
+	{
+		return recordSaver.flushLatency;
+	}
+
+
+	/**
+	 * @return the number of flush cycles that took longer than the flush period
+	 */
+	public long getNumSlowFlushes()
+	{
+		return recordSaver.numSlowFlushes.get();
+	}
+
+
+	/**
+	 * @return the recording queues of all recorders with their drop and latency counters
+	 */
+	public List<RecordingQueue<?>> getRecordingQueues()
+	{
+		return recorders.stream()
+				.flatMap(r -> r.getRecordingQueues().stream())
+				.toList();
+	}
+
+
 	private class RecordSaver implements Runnable
 	{
 		private final ScheduledExecutorService execService;
+		private final LatencyHistogram flushLatency = new LatencyHistogram();
+		private final AtomicLong numSlowFlushes = new AtomicLong();
 
 
 		RecordSaver()
@@ -134,13 +184,36 @@ public class BerkeleyAsyncRecorder
 		@Override
 		public void run()
 		{
+			long tStart = System.nanoTime();
 			try
 			{
 				recorders.forEach(IBerkeleyRecorder::flush);
+				if (db.getNumUncommitted() >= elementsPerCommit)
+				{
+					db.commit();
+				}
 			} catch (Exception e)
 			{
 				log.error("Unexpected exception while flushing", e);
 			}
+			long duration = System.nanoTime() - tStart;
+			flushLatency.record(duration);
+			if (duration > TimeUnit.MILLISECONDS.toNanos(TIME_OFFSET))
+			{
+				numSlowFlushes.incrementAndGet();
+			}
+		}
+
+
+		private void printStats()
+		{
+			db.getWriteStats().forEach(stats -> log.info("Recorded {}", stats));
+			getRecordingQueues().forEach(queue -> log.info("Buffered {}", queue));
+			LatencyHistogram commitLatency = db.getCommitLatency();
+			log.info(String.format(Locale.ENGLISH,
+					"%d flushes (%d slower than %dms), max flush time %.2fms, %d commits, max commit time %.2fms",
+					flushLatency.getCount(), numSlowFlushes.get(), TIME_OFFSET, flushLatency.getMaxTime() * 1e3,
+					commitLatency.getCount(), commitLatency.getMaxTime() * 1e3));
 		}
 
 
@@ -162,6 +235,7 @@ public class BerkeleyAsyncRecorder
 			execService.execute(this);
 			execService.execute(this::printPeriod);
 			execService.execute(db::close);
+			execService.execute(this::printStats);
 			execService.shutdown();
 			try
 			{
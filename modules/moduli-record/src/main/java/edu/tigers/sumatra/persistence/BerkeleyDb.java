@@ -1,10 +1,12 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.persistence;
 
 import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import net.lingala.zip4j.ZipFile;
 import net.lingala.zip4j.exception.ZipException;
@@ -26,6 +28,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 
@@ -38,6 +42,10 @@ public class BerkeleyDb
 	private final BerkeleyEnv env = new BerkeleyEnv();
 	private final Path dbPath;
 	private final Map<Class<?>, IBerkeleyAccessor<?>> accessors = new HashMap<>();
+	private final Map<Class<?>, BerkeleyWriteStats> writeStats = new ConcurrentHashMap<>();
+	private final AtomicLong numUncommitted = new AtomicLong();
+	@Getter
+	private final LatencyHistogram commitLatency = new LatencyHistogram();
 
 
 	/**
@@ -160,6 +168,38 @@ public class BerkeleyDb
 	}
 
 
+	/**
+	 * @param clazz the element type
+	 * @param key   an exact key
+	 * @return the element with the given key or null
+	 */
+	public <T> T getByKey(Class<T> clazz, long key)
+	{
+		IBerkeleyAccessor<T> accessor = getAccessor(clazz);
+		if (accessor == null)
+		{
+			return null;
+		}
+		return accessor.getByKey(key);
+	}
+
+
+	/**
+	 * @param clazz the element type
+	 * @param key   some key
+	 * @return all keys of the given type after the given key in ascending order
+	 */
+	public <T> long[] getKeysAfter(Class<T> clazz, long key)
+	{
+		IBerkeleyAccessor<T> accessor = getAccessor(clazz);
+		if (accessor == null)
+		{
+			return new long[0];
+		}
+		return accessor.getKeysAfter(key);
+	}
+
+
 	public <T> List<T> getAll(Class<T> clazz)
 	{
 		IBerkeleyAccessor<T> accessor = getAccessor(clazz);
@@ -196,9 +236,11 @@ public class BerkeleyDb
 	public <T> void write(Class<T> clazz, Collection<T> elements)
 	{
 		IBerkeleyAccessor<T> accessor = getAccessor(clazz);
-		if (accessor != null)
+		if (accessor != null && !elements.isEmpty())
 		{
+			long tStart = System.nanoTime();
 			accessor.write(elements);
+			recordWrite(clazz, elements.size(), System.nanoTime() - tStart);
 		}
 	}
 
@@ -208,11 +250,56 @@ public class BerkeleyDb
 		IBerkeleyAccessor<T> accessor = getAccessor(clazz);
 		if (accessor != null)
 		{
+			long tStart = System.nanoTime();
 			accessor.write(element);
+			recordWrite(clazz, 1, System.nanoTime() - tStart);
 		}
 	}
 
 
+	private void recordWrite(Class<?> clazz, int numElements, long durationNs)
+	{
+		writeStats.computeIfAbsent(clazz, c -> new BerkeleyWriteStats(c.getSimpleName()))
+				.record(numElements, durationNs);
+		numUncommitted.addAndGet(numElements);
+	}
+
+
+	/**
+	 * Commit all elements that were written since the last commit (group commit).
+	 * The durability of the commit is defined by the {@link BerkeleyEnv}.
+	 */
+	public void commit()
+	{
+		if (numUncommitted.get() == 0)
+		{
+			return;
+		}
+		long tStart = System.nanoTime();
+		env.commit();
+		commitLatency.record(System.nanoTime() - tStart);
+		numUncommitted.set(0);
+	}
+
+
+	/**
+	 * @return the number of elements that were written, but not committed yet
+	 */
+	public long getNumUncommitted()
+	{
+		return numUncommitted.get();
+	}
+
+
+	/**
+	 * @return the write statistics per entity type
+	 */
+	public Collection<BerkeleyWriteStats> getWriteStats()
+	{
+		return Collections.unmodifiableCollection(writeStats.values());
+	}
+
+
 	@SuppressWarnings("unchecked")
 	private <T> IBerkeleyAccessor<T> getAccessor(Class<T> clazz)
 	{
@@ -257,6 +344,7 @@ public class BerkeleyDb
 	 */
 	public void close()
 	{
+		commit();
 		env.close();
 	}
 
@@ -1,8 +1,10 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.persistence;
 
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
@@ -10,6 +12,7 @@ import com.sleepycat.persist.EntityStore;
 import com.sleepycat.persist.StoreConfig;
 import com.sleepycat.persist.model.AnnotationModel;
 import com.sleepycat.persist.model.EntityModel;
+import edu.tigers.sumatra.persistence.proxy.BotIdMapProxy;
 import edu.tigers.sumatra.persistence.proxy.ColorProxy;
 import edu.tigers.sumatra.persistence.proxy.ConcurrentHashMapProxy;
 import edu.tigers.sumatra.persistence.proxy.EnumMapProxy;
@@ -47,6 +50,14 @@ public class BerkeleyEnv
 
 	private static final Map<File, DatabaseSession> SESSIONS = new HashMap<>();
 
+	@Configurable(defValue = "WRITE_NO_SYNC", comment = "Durability of recorded data on each group commit")
+	private static EBerkeleyDurability durability = EBerkeleyDurability.WRITE_NO_SYNC;
+
+	static
+	{
+		ConfigRegistration.registerClass("user", BerkeleyEnv.class);
+	}
+
 
 	public BerkeleyEnv()
 	{
@@ -56,6 +67,7 @@ public class BerkeleyEnv
 		model.registerClass(LinkedHashSetProxy.class);
 		model.registerClass(TreeMapProxy.class);
 		model.registerClass(IdentityHashMapProxy.class);
+		model.registerClass(BotIdMapProxy.class);
 	}
 
 
@@ -80,7 +92,8 @@ public class BerkeleyEnv
 			myEnvConfig.setAllowCreate(true);
 			storeConfig.setAllowCreate(true);
 			storeConfig.setModel(model);
-			storeConfig.setDeferredWrite(false);
+			storeConfig.setDeferredWrite(durability == EBerkeleyDurability.DEFERRED_WRITE);
+			session.durability = durability;
 			session.myEnv = new Environment(envHome, myEnvConfig);
 			session.store = new EntityStore(session.myEnv, "EntityStore", storeConfig);
 			myEnvConfig = null;
@@ -111,6 +124,28 @@ public class BerkeleyEnv
 	}
 
 
+	/**
+	 * Make all data that was written so far durable, according to the configured {@link EBerkeleyDurability}.
+	 */
+	public void commit()
+	{
+		if (!isOpen())
+		{
+			return;
+		}
+		switch (session.durability)
+		{
+			case SYNC -> session.myEnv.flushLog(true);
+			case WRITE_NO_SYNC -> session.myEnv.flushLog(false);
+			case DEFERRED_WRITE -> session.store.sync();
+			case NO_SYNC ->
+			{
+				// the log buffer is written by berkeley itself
+			}
+		}
+	}
+
+
 	/**
 	 * Close the store and environment
 	 *
@@ -250,6 +285,7 @@ public class BerkeleyEnv
 	{
 		Environment myEnv;
 		EntityStore store;
+		EBerkeleyDurability durability = EBerkeleyDurability.NO_SYNC;
 		boolean compressOnClose = false;
 		int numHandles = 0;
 	}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import edu.tigers.sumatra.time.LatencyHistogram;
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Write statistics of a single entity type of a {@link BerkeleyDb}.
+ */
+public class BerkeleyWriteStats
+{
+	@Getter
+	private final String name;
+	private final AtomicLong numElements = new AtomicLong();
+	private final AtomicLong maxBatchSize = new AtomicLong();
+	@Getter
+	private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+
+	public BerkeleyWriteStats(final String name)
+	{
+		this.name = name;
+	}
+
+
+	/**
+	 * Record a written batch
+	 *
+	 * @param batchSize  the number of elements in the batch
+	 * @param durationNs the time it took to write the batch in [ns]
+	 */
+	public void record(final int batchSize, final long durationNs)
+	{
+		numElements.addAndGet(batchSize);
+		maxBatchSize.accumulateAndGet(batchSize, Math::max);
+		writeLatency.record(durationNs);
+	}
+
+
+	/**
+	 * @return the total number of written elements
+	 */
+	public long getNumElements()
+	{
+		return numElements.get();
+	}
+
+
+	/**
+	 * @return the number of written batches
+	 */
+	public long getNumBatches()
+	{
+		return writeLatency.getCount();
+	}
+
+
+	/**
+	 * @return the largest batch that was written at once
+	 */
+	public long getMaxBatchSize()
+	{
+		return maxBatchSize.get();
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ENGLISH,
+				"%s: %d elements in %d batches (max %d), write time avg %.2fms, p99 %.2fms, max %.2fms",
+				name, getNumElements(), getNumBatches(), getMaxBatchSize(),
+				writeLatency.getAverageTime() * 1e3,
+				writeLatency.getPercentileTime(0.99) * 1e3,
+				writeLatency.getMaxTime() * 1e3);
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+/**
+ * Durability of the recorded data when a group of written elements is committed.
+ */
+public enum EBerkeleyDurability
+{
+	/**
+	 * Write the log buffer to disk and sync it on each commit
+	 */
+	SYNC,
+	/**
+	 * Write the log buffer to the operating system on each commit, but do not sync it
+	 */
+	WRITE_NO_SYNC,
+	/**
+	 * Do nothing on commit. The log buffer is written when it is full or the database is closed
+	 */
+	NO_SYNC,
+	/**
+	 * Open the store in deferred-write mode and sync the store on each commit.
+	 * Data that was not committed is lost on a crash.
+	 */
+	DEFERRED_WRITE,
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+/**
+ * What a {@link RecordingQueue} does with a new element when it is full.
+ */
+public enum ERecordingQueueOverflowPolicy
+{
+	/**
+	 * Remove the oldest buffered element to make room for the new one
+	 */
+	DROP_OLDEST,
+	/**
+	 * Drop the new element
+	 */
+	DROP_NEWEST,
+	/**
+	 * Block the producer until the record saver made room for the new element
+	 */
+	BLOCK,
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.persistence;
@@ -68,6 +68,21 @@ public interface IBerkeleyAccessor<T>
 	 */
 	T get(long key);
 
+
+	/**
+	 * @param key an exact key
+	 * @return the element with the given key or null
+	 */
+	T getByKey(long key);
+
+
+	/**
+	 * @param key some key
+	 * @return all keys after the given key in ascending order
+	 */
+	long[] getKeysAfter(long key);
+
+
 	/**
 	 * @return the very first (smallest) key in this storage
 	 */
@@ -1,9 +1,12 @@
 /*
- * Copyright (c) 2009 - 2017, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.persistence;
 
+import java.util.List;
+
+
 /**
  * An interface for all berkeley stores
  */
@@ -25,4 +28,13 @@ public interface IBerkeleyRecorder
 	 * Flush all buffered data
 	 */
 	void flush();
+	
+	
+	/**
+	 * @return the queues that buffer the data of this recorder until it is flushed
+	 */
+	default List<RecordingQueue<?>> getRecordingQueues()
+	{
+		return List.of();
+	}
 }
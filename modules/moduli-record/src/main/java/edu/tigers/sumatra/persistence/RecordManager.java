@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.persistence;
@@ -377,6 +377,19 @@ public class RecordManager extends AModule implements IRefereeObserver
 	}
 
 
+	/**
+	 * @return the recording queues of the active recorder with their drop and latency counters
+	 */
+	public synchronized List<RecordingQueue<?>> getRecordingQueues()
+	{
+		if (recorder == null)
+		{
+			return List.of();
+		}
+		return recorder.getRecordingQueues();
+	}
+
+
 	/**
 	 * @return
 	 */
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Bounded lock-free queue between the producers of a {@link IBerkeleyRecorder} and the record saver.
+ * <p>
+ * Producers offer single elements in constant time without locking or allocating, the record saver drains all
+ * buffered elements at once and writes them as one batch to the {@link BerkeleyDb}.
+ * If the queue is full, the {@link ERecordingQueueOverflowPolicy} decides what happens with a new element.
+ * The queue counts offered and dropped elements and measures how long elements were buffered.
+ * A full queue is reported once, until the record saver finds it at most half full again.
+ * <p>
+ * The ring buffer follows the bounded queue of Dmitry Vyukov: each slot has a sequence number that tells producers
+ * and consumers if the slot is free or filled for the current round. With {@link ERecordingQueueOverflowPolicy#DROP_OLDEST},
+ * producers remove elements, too, which the ring buffer supports as well.
+ *
+ * @param <T> the type of the buffered elements
+ */
+@Log4j2
+public class RecordingQueue<T>
+{
+	private static final long BLOCK_PARK_TIME = 100_000;
+
+	@Configurable(defValue = "DROP_NEWEST", comment = "What recorders do with new data if their buffer is full")
+	private static ERecordingQueueOverflowPolicy overflowPolicy = ERecordingQueueOverflowPolicy.DROP_NEWEST;
+
+	static
+	{
+		ConfigRegistration.registerClass("user", RecordingQueue.class);
+	}
+
+	@Getter
+	private final String name;
+	@Getter
+	private final ERecordingQueueOverflowPolicy policy;
+	private final int capacity;
+	private final AtomicReferenceArray<T> elements;
+	private final AtomicLongArray sequences;
+	private final long[] enqueueTimes;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	private final AtomicLong numOffered = new AtomicLong();
+	private final AtomicLong numDropped = new AtomicLong();
+	private final AtomicLong maxDepth = new AtomicLong();
+	private final AtomicBoolean overflowing = new AtomicBoolean();
+	@Getter
+	private final LatencyHistogram queueLatency = new LatencyHistogram();
+
+
+	/**
+	 * Create a queue with the configured overflow policy
+	 *
+	 * @param name     the name used in logs and statistics
+	 * @param capacity the max number of buffered elements
+	 */
+	public RecordingQueue(final String name, final int capacity)
+	{
+		this(name, capacity, overflowPolicy);
+	}
+
+
+	/**
+	 * @param name     the name used in logs and statistics
+	 * @param capacity the max number of buffered elements
+	 * @param policy   what to do with new elements, if the queue is full
+	 */
+	public RecordingQueue(final String name, final int capacity, final ERecordingQueueOverflowPolicy policy)
+	{
+		if (capacity < 1 || capacity > (1 << 30))
+		{
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.name = name;
+		this.policy = policy;
+		this.capacity = capacity;
+		elements = new AtomicReferenceArray<>(capacity);
+		sequences = new AtomicLongArray(capacity);
+		enqueueTimes = new long[capacity];
+		for (int i = 0; i < capacity; i++)
+		{
+			sequences.set(i, i);
+		}
+	}
+
+
+	/**
+	 * Offer a new element. This can be called from multiple threads.
+	 *
+	 * @param element the element to record
+	 * @return false, if the element was dropped
+	 */
+	public boolean offer(final T element)
+	{
+		numOffered.incrementAndGet();
+		while (!tryOffer(element))
+		{
+			switch (policy)
+			{
+				case DROP_NEWEST ->
+				{
+					onDropped();
+					return false;
+				}
+				case DROP_OLDEST ->
+				{
+					if (tryPoll(0, false) != null)
+					{
+						onDropped();
+					}
+				}
+				case BLOCK -> LockSupport.parkNanos(BLOCK_PARK_TIME);
+			}
+		}
+		return true;
+	}
+
+
+	private void onDropped()
+	{
+		numDropped.incrementAndGet();
+		if (overflowing.compareAndSet(false, true))
+		{
+			log.warn("{} recording buffer is full. Dropping frames!", name);
+		}
+	}
+
+
+	private boolean tryOffer(final T element)
+	{
+		long pos = tail.get();
+		while (true)
+		{
+			int index = (int) (pos % capacity);
+			long diff = sequences.get(index) - pos;
+			if (diff == 0)
+			{
+				if (tail.compareAndSet(pos, pos + 1))
+				{
+					elements.lazySet(index, element);
+					enqueueTimes[index] = System.nanoTime();
+					// publishes the element and its timestamp to the consumer
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			} else if (diff < 0)
+			{
+				// slot is still filled from the last round => full
+				return false;
+			} else
+			{
+				pos = tail.get();
+			}
+		}
+	}
+
+
+	private T tryPoll(final long now, final boolean recordLatency)
+	{
+		long pos = head.get();
+		while (true)
+		{
+			int index = (int) (pos % capacity);
+			long diff = sequences.get(index) - (pos + 1);
+			if (diff == 0)
+			{
+				if (head.compareAndSet(pos, pos + 1))
+				{
+					T element = elements.get(index);
+					if (recordLatency)
+					{
+						queueLatency.record(now - enqueueTimes[index]);
+					}
+					elements.lazySet(index, null);
+					// release the slot for the next round
+					sequences.set(index, pos + capacity);
+					return element;
+				}
+				pos = head.get();
+			} else if (diff < 0)
+			{
+				// slot not filled yet => empty
+				return null;
+			} else
+			{
+				pos = head.get();
+			}
+		}
+	}
+
+
+	/**
+	 * Remove all buffered elements and add them to the given collection.
+	 * This should only be called by the record saver.
+	 *
+	 * @param target the collection to add the elements to
+	 * @return the number of drained elements
+	 */
+	public int drainTo(final Collection<? super T> target)
+	{
+		int depth = size();
+		maxDepth.accumulateAndGet(depth, Math::max);
+		if (depth <= capacity / 2)
+		{
+			// low-water mark, the record saver keeps up again => report the next overflow
+			overflowing.set(false);
+		}
+		long now = System.nanoTime();
+		int numDrained = 0;
+		// bound the batch, in case the producers are as fast as the drain
+		T element = tryPoll(now, true);
+		while (element != null)
+		{
+			target.add(element);
+			numDrained++;
+			element = numDrained < capacity ? tryPoll(now, true) : null;
+		}
+		return numDrained;
+	}
+
+
+	/**
+	 * Remove all buffered elements.
+	 * This should only be called by the record saver.
+	 *
+	 * @return the drained elements
+	 */
+	public List<T> drain()
+	{
+		List<T> drained = new ArrayList<>(size());
+		drainTo(drained);
+		return drained;
+	}
+
+
+	/**
+	 * Drain all buffered elements and write them as one batch
+	 *
+	 * @param db    the database to write to
+	 * @param clazz the entity type of the elements
+	 */
+	public void flushTo(final BerkeleyDb db, final Class<T> clazz)
+	{
+		db.write(clazz, drain());
+	}
+
+
+	/**
+	 * @return the number of buffered elements
+	 */
+	public int size()
+	{
+		return (int) Math.clamp(tail.get() - head.get(), 0, capacity);
+	}
+
+
+	/**
+	 * @return the max number of buffered elements
+	 */
+	public int capacity()
+	{
+		return capacity;
+	}
+
+
+	/**
+	 * @return the number of offered elements, including the dropped ones
+	 */
+	public long getNumOffered()
+	{
+		return numOffered.get();
+	}
+
+
+	/**
+	 * @return the number of dropped elements
+	 */
+	public long getNumDropped()
+	{
+		return numDropped.get();
+	}
+
+
+	/**
+	 * @return true, if elements were dropped since the record saver last found the queue at most half full
+	 */
+	public boolean isOverflowing()
+	{
+		return overflowing.get();
+	}
+
+
+	/**
+	 * @return the max number of elements that were buffered between two drains
+	 */
+	public long getMaxDepth()
+	{
+		return maxDepth.get();
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ENGLISH,
+				"%s: %d offered, %d dropped (%s), max depth %d/%d, queue time avg %.2fms, p99 %.2fms, max %.2fms",
+				name, getNumOffered(), getNumDropped(), policy, getMaxDepth(), capacity(),
+				queueLatency.getAverageTime() * 1e3,
+				queueLatency.getPercentileTime(0.99) * 1e3,
+				queueLatency.getMaxTime() * 1e3);
+	}
+}
@@ -1,12 +1,9 @@
 /*
- * Copyright (c) 2009 - 2019, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.persistence.log;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.LogEvent;
@@ -15,7 +12,9 @@ import org.apache.logging.log4j.core.LoggerContext;
 import edu.tigers.sumatra.log.ILogEventConsumer;
 import edu.tigers.sumatra.log.SumatraAppender;
 import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.persistence.ERecordingQueueOverflowPolicy;
 import edu.tigers.sumatra.persistence.IBerkeleyRecorder;
+import edu.tigers.sumatra.persistence.RecordingQueue;
 
 
 /**
@@ -24,7 +23,10 @@ import edu.tigers.sumatra.persistence.IBerkeleyRecorder;
 public class BerkeleyLogRecorder implements IBerkeleyRecorder, ILogEventConsumer
 {
 	private static final String BERKELEY_APPENDER_NAME = "berkeley";
-	private final Queue<BerkeleyLogEvent> buffer = new ConcurrentLinkedQueue<>();
+	private static final int MAX_BUFFER_SIZE = 10000;
+	/** the record saver logs, too, so it must never block on this queue */
+	private final RecordingQueue<BerkeleyLogEvent> buffer = new RecordingQueue<>("LogEvent", MAX_BUFFER_SIZE,
+			ERecordingQueueOverflowPolicy.DROP_NEWEST);
 	private final BerkeleyDb db;
 
 
@@ -40,7 +42,7 @@ public class BerkeleyLogRecorder implements IBerkeleyRecorder, ILogEventConsumer
 	@Override
 	public void onNewLogEvent(final LogEvent logEvent)
 	{
-		buffer.add(new BerkeleyLogEvent(logEvent));
+		buffer.offer(new BerkeleyLogEvent(logEvent));
 	}
 
 
@@ -65,14 +67,13 @@ public class BerkeleyLogRecorder implements IBerkeleyRecorder, ILogEventConsumer
 	@Override
 	public void flush()
 	{
-		List<BerkeleyLogEvent> eventsToSave = new ArrayList<>();
-		BerkeleyLogEvent event = buffer.poll();
-		while (event != null)
-		{
-			eventsToSave.add(event);
-			event = buffer.poll();
-		}
-
-		db.write(BerkeleyLogEvent.class, eventsToSave);
+		buffer.flushTo(db, BerkeleyLogEvent.class);
+	}
+
+
+	@Override
+	public List<RecordingQueue<?>> getRecordingQueues()
+	{
+		return List.of(buffer);
 	}
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence.proxy;
+
+import com.sleepycat.persist.model.Persistent;
+import com.sleepycat.persist.model.PersistentProxy;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Proxy for {@link BotIdMap}
+ */
+@Persistent(proxyFor = BotIdMap.class)
+public class BotIdMapProxy implements PersistentProxy<BotIdMap<?>>
+{
+	private Map<BotID, ?> map;
+
+
+	@Override
+	public void initializeProxy(final BotIdMap<?> object)
+	{
+		map = new HashMap<>(object);
+	}
+
+
+	@Override
+	public BotIdMap<?> convertProxy()
+	{
+		return new BotIdMap<>(map);
+	}
+}
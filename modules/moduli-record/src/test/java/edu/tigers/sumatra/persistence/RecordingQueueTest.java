@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+/**
+ * Test class for RecordingQueue
+ */
+public class RecordingQueueTest
+{
+	private static void offerAll(final RecordingQueue<Integer> queue, final int from, final int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			queue.offer(i);
+		}
+	}
+
+
+	@Test
+	public void testCapacityIsNotRounded()
+	{
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 10, ERecordingQueueOverflowPolicy.DROP_NEWEST);
+		assertThat(queue.capacity()).isEqualTo(10);
+
+		offerAll(queue, 0, 20);
+
+		assertThat(queue.size()).isEqualTo(10);
+		assertThat(queue.drain()).containsExactlyElementsOf(IntStream.range(0, 10).boxed().toList());
+		assertThat(queue.size()).isZero();
+	}
+
+
+	@Test
+	public void testInvalidCapacity()
+	{
+		assertThatThrownBy(() -> new RecordingQueue<>("test", 0, ERecordingQueueOverflowPolicy.DROP_NEWEST))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void testDropNewest()
+	{
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 3, ERecordingQueueOverflowPolicy.DROP_NEWEST);
+
+		assertThat(queue.offer(1)).isTrue();
+		assertThat(queue.offer(2)).isTrue();
+		assertThat(queue.offer(3)).isTrue();
+		assertThat(queue.offer(4)).isFalse();
+		assertThat(queue.offer(5)).isFalse();
+
+		assertThat(queue.drain()).containsExactly(1, 2, 3);
+		assertThat(queue.getNumOffered()).isEqualTo(5);
+		assertThat(queue.getNumDropped()).isEqualTo(2);
+	}
+
+
+	@Test
+	public void testDropOldest()
+	{
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 3, ERecordingQueueOverflowPolicy.DROP_OLDEST);
+
+		offerAll(queue, 1, 6);
+
+		assertThat(queue.drain()).containsExactly(3, 4, 5);
+		assertThat(queue.getNumOffered()).isEqualTo(5);
+		assertThat(queue.getNumDropped()).isEqualTo(2);
+
+		// the ring buffer is still consistent after producers removed elements
+		offerAll(queue, 6, 8);
+		assertThat(queue.drain()).containsExactly(6, 7);
+	}
+
+
+	@Test
+	public void testBlock() throws InterruptedException
+	{
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 2, ERecordingQueueOverflowPolicy.BLOCK);
+		offerAll(queue, 1, 3);
+
+		Thread producer = Thread.ofVirtual().start(() -> queue.offer(3));
+		producer.join(200);
+		assertThat(producer.isAlive()).isTrue();
+		assertThat(queue.size()).isEqualTo(2);
+
+		List<Integer> drained = new ArrayList<>(queue.drain());
+		producer.join(1000);
+		assertThat(producer.isAlive()).isFalse();
+		drained.addAll(queue.drain());
+
+		assertThat(drained).containsExactly(1, 2, 3);
+		assertThat(queue.getNumDropped()).isZero();
+	}
+
+
+	@Test
+	public void testOverflowIsResetBelowLowWaterMark()
+	{
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 4, ERecordingQueueOverflowPolicy.DROP_OLDEST);
+
+		offerAll(queue, 0, 10);
+		assertThat(queue.isOverflowing()).isTrue();
+
+		// sustained overload keeps the queue overflowing, even if single offers succeed
+		List<Integer> drained = new ArrayList<>();
+		queue.drainTo(drained);
+		offerAll(queue, 10, 13);
+		queue.drainTo(drained);
+		assertThat(queue.isOverflowing()).isTrue();
+
+		// the consumer keeps up again
+		offerAll(queue, 13, 15);
+		queue.drainTo(drained);
+		assertThat(queue.isOverflowing()).isFalse();
+		assertThat(drained).containsExactly(6, 7, 8, 9, 10, 11, 12, 13, 14);
+		assertThat(queue.getNumDropped()).isEqualTo(6);
+	}
+
+
+	@Test
+	public void testConcurrentOfferAndDrain() throws InterruptedException
+	{
+		int numProducers = 4;
+		int numElements = 50_000;
+		RecordingQueue<Integer> queue = new RecordingQueue<>("test", 100, ERecordingQueueOverflowPolicy.BLOCK);
+
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < numProducers; p++)
+		{
+			int offset = p * numElements;
+			producers.add(Thread.ofPlatform().start(() -> offerAll(queue, offset, offset + numElements)));
+		}
+
+		AtomicBoolean producing = new AtomicBoolean(true);
+		List<Integer> drained = new ArrayList<>();
+		Thread consumer = Thread.ofPlatform().start(() -> {
+			while (producing.get() || queue.size() > 0)
+			{
+				queue.drainTo(drained);
+				Thread.onSpinWait();
+			}
+		});
+		for (Thread producer : producers)
+		{
+			producer.join();
+		}
+		producing.set(false);
+		consumer.join();
+
+		assertThat(drained).hasSize(numProducers * numElements);
+		Set<Integer> unique = new HashSet<>(drained);
+		assertThat(unique).hasSize(numProducers * numElements);
+		assertThat(queue.getNumDropped()).isZero();
+		assertThat(queue.getNumOffered()).isEqualTo((long) numProducers * numElements);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2019, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.referee;
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
  * Utility Class for Message Signatures
  * This class provides methods to load RSA Keys and to sign and verify arbitrary byte data.
  * The signatures are based on RSA.
+ * The signature instance for signing is created once and reused, signing is thread-safe.
  * NOTE: to generate a new key, use the tool in the SSL-Game-Controller repository
  * and process the private key with the script in this module to get a PKCS8-Key-File
  */
@@ -34,6 +35,7 @@ public class MessageSigner
 
 	private PrivateKey privateKey;
 	private PublicKey publicKey;
+	private Signature signingSignature;
 
 
 	/**
@@ -126,7 +128,7 @@ public class MessageSigner
 	 * @param data Data that should be signed
 	 * @return The generated signature
 	 */
-	public byte[] sign(byte[] data)
+	public synchronized byte[] sign(byte[] data)
 	{
 		if (privateKey == null)
 		{
@@ -136,13 +138,18 @@ public class MessageSigner
 
 		try
 		{
-			Signature sig = Signature.getInstance(SIGNING_ALGORITHM);
-			sig.initSign(privateKey);
-			sig.update(data);
-			return sig.sign();
+			if (signingSignature == null)
+			{
+				signingSignature = Signature.getInstance(SIGNING_ALGORITHM);
+				signingSignature.initSign(privateKey);
+			}
+			// signing resets the instance to its initialized state, so it can be reused
+			signingSignature.update(data);
+			return signingSignature.sign();
 		} catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e)
 		{
 			log.warn("Message signing failed", e);
+			signingSignature = null;
 		}
 
 		return new byte[0];
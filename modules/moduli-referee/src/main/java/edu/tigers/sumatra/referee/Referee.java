@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.referee;
 
@@ -9,6 +9,7 @@ import edu.tigers.sumatra.gamelog.GameLogMessage;
 import edu.tigers.sumatra.gamelog.GameLogPlayer;
 import edu.tigers.sumatra.gamelog.GameLogPlayerObserver;
 import edu.tigers.sumatra.gamelog.GameLogRecorder;
+import edu.tigers.sumatra.gamelog.GameLogSeekMarker;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.referee.control.GcEventFactory;
@@ -32,6 +33,7 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 
 /**
@@ -42,6 +44,11 @@ public class Referee extends AReferee
 {
 	private static final int DEFAULT_GC_UI_PORT = 11000;
 
+	/** Game log seek marker for all referee messages, used to restore the referee state after a jump */
+	public static final String SEEK_MARKER_REFEREE_STATE = "referee.state";
+	/** Game log seek marker for referee messages with a new command */
+	public static final String SEEK_MARKER_REFEREE_COMMAND = "referee.command";
+
 	@Setter
 	private static int customPort;
 
@@ -88,6 +95,10 @@ public class Referee extends AReferee
 		{
 			gameLogForwarder = new GameLogForwarder((DirectRefereeMsgForwarder) source);
 			gameLogPlayer.addObserver(gameLogForwarder);
+			gameLogPlayer.addSeekMarker(new GameLogSeekMarker(
+					SEEK_MARKER_REFEREE_STATE, EMessageType.SSL_REFBOX_2013, () -> msg -> true, true));
+			gameLogPlayer.addSeekMarker(new GameLogSeekMarker(
+					SEEK_MARKER_REFEREE_COMMAND, EMessageType.SSL_REFBOX_2013, CommandChangeFilter::new, false));
 		}
 
 		if (useGameController)
@@ -191,6 +202,9 @@ public class Referee extends AReferee
 		if (gameLogForwarder != null)
 		{
 			gameLogPlayer.removeObserver(gameLogForwarder);
+			gameLogPlayer.removeSeekMarker(SEEK_MARKER_REFEREE_STATE);
+			gameLogPlayer.removeSeekMarker(SEEK_MARKER_REFEREE_COMMAND);
+			gameLogForwarder = null;
 		}
 
 		source.stop();
@@ -280,4 +294,29 @@ public class Referee extends AReferee
 			// No action required.
 		}
 	}
+
+
+	/**
+	 * Accepts referee messages with a command counter that differs from the previous message.
+	 */
+	private static class CommandChangeFilter implements Predicate<GameLogMessage>
+	{
+		private long lastCommandCounter = -1;
+
+
+		@Override
+		public boolean test(final GameLogMessage message)
+		{
+			try
+			{
+				long commandCounter = SslGcRefereeMessage.Referee.parseFrom(message.getData()).getCommandCounter();
+				boolean changed = commandCounter != lastCommandCounter;
+				lastCommandCounter = commandCounter;
+				return changed;
+			} catch (Exception err)
+			{
+				return false;
+			}
+		}
+	}
 }
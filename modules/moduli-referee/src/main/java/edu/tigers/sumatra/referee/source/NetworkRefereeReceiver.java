@@ -1,21 +1,24 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.referee.source;
 
 import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
+import com.google.protobuf.CodedInputStream;
+import edu.tigers.sumatra.network.IDatagramHandler;
 import edu.tigers.sumatra.network.MulticastUDPReceiver;
 import edu.tigers.sumatra.network.NetworkUtility;
 import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
 
@@ -25,8 +28,6 @@ import java.util.Optional;
 @Log4j2
 public class NetworkRefereeReceiver extends ARefereeMessageSource implements Runnable
 {
-	private static final int BUFFER_SIZE = 10000;
-
 	@Configurable
 	private static String network;
 
@@ -39,6 +40,7 @@ public class NetworkRefereeReceiver extends ARefereeMessageSource implements Run
 	private MulticastUDPReceiver receiver;
 
 	private InetAddress refBoxAddress = null;
+	private final IDatagramHandler datagramHandler = this::processDatagram;
 
 	private boolean expectIOE = false;
 
@@ -81,13 +83,11 @@ public class NetworkRefereeReceiver extends ARefereeMessageSource implements Run
 	@Override
 	public void run()
 	{
-		final DatagramPacket packet = new DatagramPacket(new byte[BUFFER_SIZE], BUFFER_SIZE);
-
 		while (!Thread.currentThread().isInterrupted())
 		{
 			try
 			{
-				receiver.receive(packet);
+				receiver.receive(datagramHandler);
 			} catch (final IOException err)
 			{
 				if (!expectIOE)
@@ -96,24 +96,30 @@ public class NetworkRefereeReceiver extends ARefereeMessageSource implements Run
 				}
 				break;
 			}
+		}
 
-			refBoxAddress = packet.getAddress();
+		// Cleanup
+		expectIOE = false;
+	}
 
-			try
-			{
-				var packetIn = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
-				var sslRefereeMsg = SslGcRefereeMessage.Referee.parseFrom(packetIn);
 
-				// Notify the receipt of a new RefereeMessage to any other observers
-				notifyNewRefereeMessage(sslRefereeMsg);
-			} catch (IOException err)
-			{
-				log.error("Could not read referee message", err);
-			}
+	private void processDatagram(final ByteBuffer data, final SocketAddress source)
+	{
+		if (source instanceof InetSocketAddress inetSource)
+		{
+			refBoxAddress = inetSource.getAddress();
 		}
 
-		// Cleanup
-		expectIOE = false;
+		try
+		{
+			var sslRefereeMsg = SslGcRefereeMessage.Referee.parseFrom(CodedInputStream.newInstance(data));
+
+			// Notify the receipt of a new RefereeMessage to any other observers
+			notifyNewRefereeMessage(sslRefereeMsg);
+		} catch (IOException err)
+		{
+			log.error("Could not read referee message", err);
+		}
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.referee;
@@ -29,4 +29,20 @@ public class MessageSignerTest
 		Assert.assertFalse(signer.verify("Bar".getBytes(), sig));
 	}
 	
+	
+	@Test
+	public void repeatedSigningTest() throws IOException
+	{
+		// the signature instance is reused, so each signature must only depend on its own data
+		MessageSigner signer = new MessageSigner(
+				IOUtils.resourceToString("/edu/tigers/sumatra/game/test.key.pem.pkcs8", Charset.forName("UTF-8")),
+				IOUtils.resourceToString("/edu/tigers/sumatra/game/test.pub.pem", Charset.forName("UTF-8")));
+		byte[] foo = "Foo".getBytes();
+		byte[] bar = "Bar".getBytes();
+		
+		byte[] sigFoo = signer.sign(foo);
+		byte[] sigBar = signer.sign(bar);
+		Assert.assertTrue(signer.verify(bar, sigBar));
+		Assert.assertArrayEquals(sigFoo, signer.sign(foo));
+	}
 }
\ No newline at end of file
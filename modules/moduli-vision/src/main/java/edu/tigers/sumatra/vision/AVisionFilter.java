@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.vision;
@@ -8,6 +8,7 @@ import edu.tigers.moduli.AModule;
 import edu.tigers.sumatra.bot.RobotInfo;
 import edu.tigers.sumatra.cam.ICamFrameObserver;
 import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector3;
@@ -29,6 +30,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @Log4j2
 public abstract class AVisionFilter extends AModule implements ICamFrameObserver
 {
+	/** The source that the shape maps of the filtered vision frames are published for */
+	public static final ShapeMapSource SHAPE_MAP_SOURCE = ShapeMapSource.of("Vision Filter");
+
 	private Map<BotID, RobotInfo> robotInfoMap = new HashMap<>();
 	private final Set<IVisionFilterObserver> observers = new CopyOnWriteArraySet<>();
 	@Setter
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.vision;
@@ -41,7 +41,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -52,8 +51,12 @@ public class VirtualBallProducer
 {
 	private IVector2 lastKnownBallPosition = Vector2f.ZERO_VECTOR;
 	private final Map<BotID, Long> lastBarrierInterruptedMap = new HashMap<>();
+	/**
+	 * The virtual balls of the last update. The list is immutable and replaced on each update, so that it can be
+	 * shared with the cam frame processors.
+	 */
 	@Getter
-	private List<VirtualBall> virtualBalls = new CopyOnWriteArrayList<>();
+	private volatile List<VirtualBall> virtualBalls = List.of();
 
 	private List<ITube> shadows = new ArrayList<>();
 
@@ -104,7 +107,7 @@ public class VirtualBallProducer
 		if (Math.abs(frame.getId() - lastFrameId) > 10)
 			reset();
 
-		virtualBalls.clear();
+		virtualBalls = List.of();
 
 		lastFrameId = frame.getId();
 		lastKnownBallPosition = frame.getBall().getPos().getXYVector();
@@ -138,9 +141,9 @@ public class VirtualBallProducer
 				.toList();
 
 		if (preferBarrier && !candidatesFromBarrier.isEmpty())
-			virtualBalls.addAll(candidatesFromBarrier);
+			virtualBalls = candidatesFromBarrier;
 		else
-			virtualBalls.addAll(ballCandidates);
+			virtualBalls = ballCandidates;
 	}
 
 
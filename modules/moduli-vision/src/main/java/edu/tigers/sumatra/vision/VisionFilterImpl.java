@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.vision;
@@ -14,8 +14,10 @@ import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.drawable.DrawableAnnotation;
 import edu.tigers.sumatra.drawable.DrawableCircle;
 import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.IVector3;
@@ -49,6 +51,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -64,6 +67,9 @@ public class VisionFilterImpl extends AVisionFilter
 	@Configurable(defValue = "0.0125", comment = "Publish frequency (requires restart)")
 	private static double publishDt = 0.0125;
 
+	@Configurable(defValue = "false", comment = "Process the frames of each camera in its own thread (requires restart)")
+	private static boolean processCamsInParallel = false;
+
 	static
 	{
 		ConfigRegistration.registerClass("vision", VisionFilterImpl.class);
@@ -77,7 +83,7 @@ public class VisionFilterImpl extends AVisionFilter
 	private final VirtualBallProducer virtualBallProducer = new VirtualBallProducer();
 
 	private Map<Integer, CamFilter> cams = new ConcurrentHashMap<>();
-	private FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
+	private volatile FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
 	private BallFilterOutput lastBallFilterOutput = new BallFilterOutput(
 			lastFrame.getBall(),
 			null,
@@ -86,8 +92,12 @@ public class VisionFilterImpl extends AVisionFilter
 	);
 
 	private ScheduledExecutorService scheduledExecutorService;
+	/** {@link #processCamsInParallel} at module start, the processor threads can not be changed while running */
+	private boolean parallelCamProcessors;
 	private final BlockingDeque<CamDetectionFrame> camDetectionFrameQueue = new LinkedBlockingDeque<>(
 			CAM_FRAME_BUFFER_SIZE);
+	private final Map<Integer, BlockingDeque<CamDetectionFrame>> camDetectionFrameQueuesByCam =
+			new ConcurrentHashMap<>();
 
 
 	private void publish()
@@ -142,24 +152,45 @@ public class VisionFilterImpl extends AVisionFilter
 		{
 			processCamDetectionFrame(camDetectionFrame);
 			publish();
+		} else if (parallelCamProcessors)
+		{
+			enqueue(camDetectionFrameQueuesByCam.computeIfAbsent(camDetectionFrame.getCameraId(),
+					this::startCamFrameProcessor), camDetectionFrame);
 		} else
 		{
-			if (camDetectionFrameQueue.size() >= CAM_FRAME_BUFFER_SIZE)
-			{
-				camDetectionFrameQueue.pollLast();
-			}
-			camDetectionFrameQueue.addFirst(camDetectionFrame);
+			enqueue(camDetectionFrameQueue, camDetectionFrame);
+		}
+	}
+
+
+	private void enqueue(BlockingDeque<CamDetectionFrame> queue, CamDetectionFrame camDetectionFrame)
+	{
+		if (queue.size() >= CAM_FRAME_BUFFER_SIZE)
+		{
+			queue.pollLast();
 		}
+		queue.addFirst(camDetectionFrame);
+	}
+
+
+	private BlockingDeque<CamDetectionFrame> startCamFrameProcessor(int camId)
+	{
+		BlockingDeque<CamDetectionFrame> queue = new LinkedBlockingDeque<>(CAM_FRAME_BUFFER_SIZE);
+		new Thread(() -> processCamFrameQueue(queue), "VisionFilter Processor Cam " + camId).start();
+		log.debug("Started vision filter processor for camera {}", camId);
+		return queue;
 	}
 
 
-	private void processCamFrameQueue()
+	private void processCamFrameQueue(BlockingDeque<CamDetectionFrame> queue)
 	{
-		while (scheduledExecutorService != null && !scheduledExecutorService.isShutdown())
+		// stop with the executor that was active when the processor started, even if the module was restarted
+		var executor = scheduledExecutorService;
+		while (executor != null && !executor.isShutdown())
 		{
 			try
 			{
-				var camFrame = camDetectionFrameQueue.pollLast(15, TimeUnit.MILLISECONDS);
+				var camFrame = queue.pollLast(15, TimeUnit.MILLISECONDS);
 				if (camFrame != null)
 				{
 					processCamDetectionFrame(camFrame);
@@ -175,18 +206,28 @@ public class VisionFilterImpl extends AVisionFilter
 	}
 
 
+	/**
+	 * Process a detection frame. Frames of different cameras may be processed concurrently.
+	 * Each camera has its own filter and the shared inputs (last frame, virtual balls, robot infos) are
+	 * immutable snapshots that are replaced by the publisher.
+	 */
 	private void processCamDetectionFrame(CamDetectionFrame camDetectionFrame)
 	{
 		int camId = camDetectionFrame.getCameraId();
 
 		// let viewport architect adjust
-		viewportArchitect.newDetectionFrame(camDetectionFrame);
+		IRectangle viewport;
+		synchronized (viewportArchitect)
+		{
+			viewportArchitect.newDetectionFrame(camDetectionFrame);
+			viewport = viewportArchitect.getViewport(camId);
+		}
 
 		// add camera if it does not exist yet
 		var camFilter = cams.computeIfAbsent(camId, CamFilter::new);
 
 		// set viewport
-		camFilter.updateViewport(viewportArchitect.getViewport(camId));
+		camFilter.updateViewport(viewport);
 
 		// update robot infos on all camera filters
 		camFilter.setRobotInfoMap(getRobotInfoMap());
@@ -239,40 +280,52 @@ public class VisionFilterImpl extends AVisionFilter
 				.withBall(ball)
 				.withBots(filteredRobots)
 				.withKick(lastBallFilterOutput.getFilteredKick())
-				.withShapeMap(new ShapeMap())
+				.withShapeMap(new ShapeMap(SHAPE_MAP_SOURCE))
 				.build();
 
 		// forward frame for inspection
 		qualityInspector.inspectFilteredVisionFrame(frame);
 
 		// Update active cameras in viewport architect
-		viewportArchitect.updateCameras(cams.keySet());
-
-		// add debug and info shapes for visualizer
-		frame.getShapeMap().get(EVisionFilterShapesLayer.VIEWPORT_SHAPES).addAll(viewportArchitect.getInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.QUALITY_SHAPES).addAll(qualityInspector.getInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.CAM_INFO_SHAPES).addAll(getCamInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.BALL_TRACKER_SHAPES_IMPORTANT)
-				.addAll(ballFilterPreprocessor.getShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.ROBOT_TRACKER_SHAPES)
-				.addAll(getRobotTrackerShapes(timestamp));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.BALL_TRACKER_SHAPES)
-				.addAll(getBallTrackerShapes(timestamp));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.ROBOT_QUALITY_INSPECTOR)
-				.addAll(getRobotQualityInspectorShapes(mergedRobots));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.VIRTUAL_BALL_SHAPES)
-				.addAll(getVirtualBallShapes());
+		synchronized (viewportArchitect)
+		{
+			viewportArchitect.updateCameras(cams.keySet());
+		}
+
+		// add debug and info shapes for visualizer, if anyone is interested
+		ShapeMap shapeMap = frame.getShapeMap();
+		addShapes(shapeMap, EVisionFilterShapesLayer.VIEWPORT_SHAPES, this::getViewportShapes);
+		addShapes(shapeMap, EVisionFilterShapesLayer.QUALITY_SHAPES, qualityInspector::getInfoShapes);
+		addShapes(shapeMap, EVisionFilterShapesLayer.CAM_INFO_SHAPES, this::getCamInfoShapes);
+		addShapes(shapeMap, EVisionFilterShapesLayer.BALL_TRACKER_SHAPES_IMPORTANT, ballFilterPreprocessor::getShapes);
+		addShapes(shapeMap, EVisionFilterShapesLayer.ROBOT_TRACKER_SHAPES,
+				() -> getRobotTrackerShapes(frame.getTimestamp()));
+		addShapes(shapeMap, EVisionFilterShapesLayer.BALL_TRACKER_SHAPES,
+				() -> getBallTrackerShapes(frame.getTimestamp()));
+		addShapes(shapeMap, EVisionFilterShapesLayer.ROBOT_QUALITY_INSPECTOR,
+				() -> getRobotQualityInspectorShapes(mergedRobots));
+		addShapes(shapeMap, EVisionFilterShapesLayer.VIRTUAL_BALL_SHAPES, this::getVirtualBallShapes);
 
 		return frame;
 	}
 
 
+	private void addShapes(final ShapeMap shapeMap, final IShapeLayerIdentifier layer,
+			final Supplier<? extends Collection<IDrawableShape>> shapes)
+	{
+		if (shapeMap.isActive(layer))
+		{
+			shapeMap.get(layer).addAll(shapes.get());
+		}
+	}
+
+
 	private List<FilteredVisionBot> mergeRobots(final Collection<CamFilter> camFilters, final long timestamp)
 	{
 		Map<BotID, List<RobotTracker>> trackersById = camFilters.stream()
 				.flatMap(f -> f.getValidRobots().values().stream())
 				// group trackers by BotID
-				.collect(Collectors.groupingBy(RobotTracker::getBotId));
+				.collect(Collectors.groupingBy(RobotTracker::getBotId, BotIdMap::new, Collectors.toList()));
 
 		List<FilteredVisionBot> mergedBots = new ArrayList<>();
 
@@ -328,7 +381,10 @@ public class VisionFilterImpl extends AVisionFilter
 		qualityInspector.inspectCameraGeometry(geometry);
 
 		// and to camera architect to lay out viewports
-		viewportArchitect.newCameraGeometry(geometry);
+		synchronized (viewportArchitect)
+		{
+			viewportArchitect.newCameraGeometry(geometry);
+		}
 
 		for (CamFilter c : cams.values())
 		{
@@ -352,10 +408,14 @@ public class VisionFilterImpl extends AVisionFilter
 		{
 			scheduledExecutorService = Executors
 					.newSingleThreadScheduledExecutor(new NamedThreadFactory("VisionFilter Publisher"));
-			new Thread(this::processCamFrameQueue, "VisionFilter Processor").start();
+			parallelCamProcessors = processCamsInParallel;
+			if (!parallelCamProcessors)
+			{
+				new Thread(() -> processCamFrameQueue(camDetectionFrameQueue), "VisionFilter Processor").start();
+			}
 			scheduledExecutorService
 					.scheduleAtFixedRate(() -> Safe.run(this::publish), 0, (long) (publishDt * 1e9), TimeUnit.NANOSECONDS);
-			log.info("Using threaded VisionFilter");
+			log.info("Using threaded VisionFilter{}", parallelCamProcessors ? " with one processor per camera" : "");
 		}
 	}
 
@@ -370,6 +430,7 @@ public class VisionFilterImpl extends AVisionFilter
 			scheduledExecutorService.shutdown();
 			scheduledExecutorService = null;
 			camDetectionFrameQueue.clear();
+			camDetectionFrameQueuesByCam.clear();
 		}
 		cams.clear();
 		viewportArchitect.removeObserver(this);
@@ -420,6 +481,15 @@ public class VisionFilterImpl extends AVisionFilter
 	}
 
 
+	private List<IDrawableShape> getViewportShapes()
+	{
+		synchronized (viewportArchitect)
+		{
+			return viewportArchitect.getInfoShapes();
+		}
+	}
+
+
 	private List<IDrawableShape> getCamInfoShapes()
 	{
 		return cams.values().stream()
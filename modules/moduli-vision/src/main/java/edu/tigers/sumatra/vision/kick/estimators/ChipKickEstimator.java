@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.vision.kick.estimators;
 
@@ -39,7 +39,13 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.IntStream;
 
 
@@ -47,10 +53,13 @@ import java.util.stream.IntStream;
  * Estimate a single chip kick trajectory by a non-linear fitting and some magic.<br>
  * Estimated parameters: [vx vy vz]
  * The kickoff position is required as input.
+ * The solvers can run concurrently to the vision processing with a deadline, see {@link #solverDeadline}.
  */
 public class ChipKickEstimator implements IKickEstimator
 {
 	private static final Logger log = LogManager.getLogger(ChipKickEstimator.class.getName());
+	private static final ExecutorService SOLVER_EXECUTOR = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("ChipKickSolver-", 0).factory());
 
 	private final Map<Integer, CamCalibration> camCalib;
 	private final List<CamBall> records = new ArrayList<>();
@@ -71,6 +80,7 @@ public class ChipKickEstimator implements IKickEstimator
 	private long kickTimestamp;
 	private double avgDistLatest10;
 	private int failures;
+	private Future<Optional<KickSolverResult>> pendingSolverResult;
 
 
 	@Configurable(comment = "Minimum number of records to start estimation", defValue = "8")
@@ -88,6 +98,9 @@ public class ChipKickEstimator implements IKickEstimator
 	@Configurable(comment = "Estimate kick position if the ball is visible on two cameras", defValue = "false")
 	private static boolean useKickPositionEstimator = false;
 
+	@Configurable(comment = "Max time [s] to wait for the solvers of a new record. If exceeded, the result is applied with a later record. <=0: Solve synchronously (deterministic)", defValue = "0.0")
+	private static double solverDeadline = 0.0;
+
 	static
 	{
 		ConfigRegistration.registerClass("vision", ChipKickEstimator.class);
@@ -179,7 +192,19 @@ public class ChipKickEstimator implements IKickEstimator
 
 		pruneRecords();
 
-		Optional<KickSolverResult> optSolverResult = runSolvers();
+		Optional<KickSolverResult> optSolverResult;
+		if (solverDeadline > 0)
+		{
+			if (!awaitSolvers())
+			{
+				// the solvers are still busy with older records, their result will be used with a later record
+				return;
+			}
+			optSolverResult = takeSolverResult();
+		} else
+		{
+			optSolverResult = runSolvers(records, doFirstHopFit, solverNonLin);
+		}
 
 		if (optSolverResult.isEmpty())
 		{
@@ -236,22 +261,77 @@ public class ChipKickEstimator implements IKickEstimator
 	}
 
 
-	private Optional<KickSolverResult> runSolvers()
+	/**
+	 * Start the solvers in the background, if they are not running yet, and wait for them until the deadline.
+	 *
+	 * @return true, if the solvers finished
+	 */
+	private boolean awaitSolvers()
 	{
-		Optional<KickSolverResult> optSolverResult;
+		if (pendingSolverResult == null)
+		{
+			List<CamBall> recordsSnapshot = List.copyOf(records);
+			boolean firstHopFit = doFirstHopFit;
+			AChipKickSolver nonLinSolver = solverNonLin;
+			pendingSolverResult = SOLVER_EXECUTOR.submit(() -> runSolvers(recordsSnapshot, firstHopFit, nonLinSolver));
+		}
+		try
+		{
+			pendingSolverResult.get((long) (solverDeadline * 1e9), TimeUnit.NANOSECONDS);
+			return true;
+		} catch (TimeoutException e)
+		{
+			return false;
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e)
+		{
+			// handled when taking the result
+			return true;
+		}
+	}
 
-		if (doFirstHopFit)
+
+	private Optional<KickSolverResult> takeSolverResult()
+	{
+		Future<Optional<KickSolverResult>> solverResult = pendingSolverResult;
+		pendingSolverResult = null;
+		return getSolverResult(solverResult);
+	}
+
+
+	private Optional<KickSolverResult> getSolverResult(final Future<Optional<KickSolverResult>> solverResult)
+	{
+		try
+		{
+			return solverResult.get();
+		} catch (InterruptedException e)
 		{
-			optSolverResult = solverLin3.solve(records);
-			Optional<KickSolverResult> optLin5Result = Optional.empty();
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e)
+		{
+			log.warn("Chip kick solver failed", e.getCause());
+		}
+		return Optional.empty();
+	}
 
-			Map<Integer, List<CamBall>> groupedRecords = records.stream()
-					.collect(Collectors.groupingBy(CamBall::getCameraId));
 
-			if ((groupedRecords.size() > 1) && useKickPositionEstimator)
-			{
-				optLin5Result = solverLin5.solve(records);
-			}
+	private Optional<KickSolverResult> runSolvers(final List<CamBall> recordsToFit, final boolean firstHopFit,
+			final AChipKickSolver nonLinSolver)
+	{
+		Optional<KickSolverResult> optSolverResult;
+
+		if (firstHopFit)
+		{
+			boolean multipleCams = recordsToFit.stream().map(CamBall::getCameraId).distinct().count() > 1;
+			Future<Optional<KickSolverResult>> lin5Result = (multipleCams && useKickPositionEstimator)
+					? SOLVER_EXECUTOR.submit(() -> solverLin5.solve(recordsToFit))
+					: CompletableFuture.completedFuture(Optional.empty());
+
+			optSolverResult = solverLin3.solve(recordsToFit);
+			Optional<KickSolverResult> optLin5Result = getSolverResult(lin5Result);
 
 			if (optSolverResult.isPresent() && optLin5Result.isPresent()
 					&& (solverLin5.getLastL1Error() < solverLin3.getLastL1Error()))
@@ -260,7 +340,7 @@ public class ChipKickEstimator implements IKickEstimator
 			}
 		} else
 		{
-			optSolverResult = solverNonLin.solve(records);
+			optSolverResult = nonLinSolver.solve(recordsToFit);
 		}
 
 		if (optSolverResult.isPresent())
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import edu.tigers.sumatra.math.SumatraMath;
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
+
+import java.util.Arrays;
+
+
+/**
+ * Nelder-Mead simplex optimizer for a series of similar problems, like fitting a kick to a growing number of records.
+ * Each optimization is warm-started from the previous solution: The initial simplex is centered at the previous
+ * optimum. Optionally, its size is adapted to the size of the previous final simplex, bounded by the given step
+ * sizes. Otherwise, each simplex starts with the max step size.
+ */
+public class WarmStartedSimplexOptimizer
+{
+	@Configurable(defValue = "false",
+			comment = "Adapt the initial simplex of kick fits to the last fit. This changes the fit results.")
+	private static boolean adaptSimplexSize = false;
+
+	static
+	{
+		ConfigRegistration.registerClass("vision", WarmStartedSimplexOptimizer.class);
+	}
+
+	private final SimplexOptimizer optimizer = new SimplexOptimizer(1e-3, 1e-3);
+	private final double maxStep;
+	private final double minStep;
+	private final boolean adaptSteps;
+	private double[] point;
+	private double[] steps;
+
+
+	/**
+	 * Create an optimizer that adapts the simplex size, if configured
+	 *
+	 * @param initialGuess the initial guess for the first optimization
+	 * @param maxStep      the initial and max step size of the simplex
+	 * @param minStep      the min step size of the simplex, must be positive
+	 */
+	public WarmStartedSimplexOptimizer(final double[] initialGuess, final double maxStep, final double minStep)
+	{
+		this(initialGuess, maxStep, minStep, adaptSimplexSize);
+	}
+
+
+	/**
+	 * @param initialGuess the initial guess for the first optimization
+	 * @param maxStep      the initial and max step size of the simplex
+	 * @param minStep      the min step size of the simplex, must be positive
+	 * @param adaptSteps   adapt the simplex size to the previous final simplex
+	 */
+	public WarmStartedSimplexOptimizer(final double[] initialGuess, final double maxStep, final double minStep,
+			final boolean adaptSteps)
+	{
+		this.point = initialGuess.clone();
+		this.maxStep = maxStep;
+		this.minStep = minStep;
+		this.adaptSteps = adaptSteps;
+		this.steps = new double[initialGuess.length];
+		Arrays.fill(steps, maxStep);
+	}
+
+
+	/**
+	 * Minimize the given function, starting at the previous solution
+	 *
+	 * @param function the function to minimize
+	 * @param maxEval  the max number of function evaluations
+	 * @return the optimum or the center of the last simplex, if the optimizer did not converge
+	 */
+	@SuppressWarnings("squid:S1166") // Exception from solver not logged
+	public double[] optimize(final MultivariateFunction function, final int maxEval)
+	{
+		NelderMeadSimplex simplex = new NelderMeadSimplex(steps);
+		try
+		{
+			final PointValuePair optimum = optimizer.optimize(
+					new MaxEval(maxEval),
+					new ObjectiveFunction(function),
+					GoalType.MINIMIZE,
+					new InitialGuess(point),
+					simplex);
+
+			point = optimum.getPoint();
+		} catch (IllegalStateException e)
+		{
+			// compute the current simplex center => best estimate
+			point = center(simplex.getPoints());
+		}
+		if (adaptSteps)
+		{
+			updateSteps(simplex.getPoints());
+		}
+		return point.clone();
+	}
+
+
+	private double[] center(final PointValuePair[] points)
+	{
+		double[] sum = new double[point.length];
+		for (PointValuePair pair : points)
+		{
+			for (int i = 0; i < sum.length; i++)
+			{
+				sum[i] += pair.getPointRef()[i];
+			}
+		}
+
+		for (int i = 0; i < sum.length; i++)
+		{
+			sum[i] /= points.length;
+		}
+		return sum;
+	}
+
+
+	private void updateSteps(final PointValuePair[] points)
+	{
+		for (int i = 0; i < steps.length; i++)
+		{
+			double spread = 0;
+			for (PointValuePair pair : points)
+			{
+				spread = Math.max(spread, Math.abs(pair.getPointRef()[i] - point[i]));
+			}
+			// the solution may still move with new data, so start a bit larger than the last simplex
+			steps[i] = SumatraMath.cap(2 * spread, minStep, maxStep);
+		}
+	}
+}
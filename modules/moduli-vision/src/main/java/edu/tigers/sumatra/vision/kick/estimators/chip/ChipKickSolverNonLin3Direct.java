@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 package edu.tigers.sumatra.vision.kick.estimators.chip;
 
@@ -10,14 +10,8 @@ import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.IVector3;
 import edu.tigers.sumatra.math.vector.Vector3;
 import edu.tigers.sumatra.vision.data.KickSolverResult;
+import edu.tigers.sumatra.vision.kick.estimators.WarmStartedSimplexOptimizer;
 import org.apache.commons.math3.analysis.MultivariateFunction;
-import org.apache.commons.math3.optim.InitialGuess;
-import org.apache.commons.math3.optim.MaxEval;
-import org.apache.commons.math3.optim.PointValuePair;
-import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
-import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
 
 import java.util.List;
 import java.util.Map;
@@ -26,14 +20,13 @@ import java.util.Optional;
 
 /**
  * Estimate kick velocity over complete chip ball trajectory via a simplex optimizer.
+ * Each solve is warm-started from the previous solution.
  * 
  * @author AndreR <andre@ryll.cc>
  */
 public class ChipKickSolverNonLin3Direct extends AChipKickSolver
 {
-	private double[] kickVelArray;
-	private final SimplexOptimizer optimizer = new SimplexOptimizer(1e-3, 1e-3);
-	private final NelderMeadSimplex simplex = new NelderMeadSimplex(3, 10.0);
+	private final WarmStartedSimplexOptimizer optimizer;
 	
 	
 	/**
@@ -48,45 +41,14 @@ public class ChipKickSolverNonLin3Direct extends AChipKickSolver
 		super(kickPosition, kickTimestamp, camCalib);
 		
 		this.kickTimestamp = kickTimestamp;
-		kickVelArray = initialEstimate.toArray();
+		optimizer = new WarmStartedSimplexOptimizer(initialEstimate.toArray(), 10.0, 1.0);
 	}
 	
 	
 	@Override
-	@SuppressWarnings("squid:S1166") // Exception from solver not logged
 	public Optional<KickSolverResult> solve(final List<CamBall> records)
 	{
-		try
-		{
-			final PointValuePair optimum = optimizer.optimize(
-					new MaxEval(20),
-					new ObjectiveFunction(new ChipBallModel(records)),
-					GoalType.MINIMIZE,
-					new InitialGuess(kickVelArray),
-					simplex);
-			
-			kickVelArray = optimum.getPoint();
-		} catch (IllegalStateException e)
-		{
-			// compute the current simplex center => best estimate
-			double[] sum = new double[] { 0, 0, 0 };
-			PointValuePair[] points = simplex.getPoints();
-			
-			for (PointValuePair pair : points)
-			{
-				for (int i = 0; i < 3; i++)
-				{
-					sum[i] += pair.getPointRef()[i];
-				}
-			}
-
-			for (int i = 0; i < 3; i++)
-			{
-				sum[i] /= points.length;
-			}
-
-			kickVelArray = sum;
-		}
+		double[] kickVelArray = optimizer.optimize(new ChipBallModel(records), 20);
 
 		// kick off speed, 3D!
 		IVector3 kickVelEst = Vector3.fromArray(kickVelArray);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.vision.kick.estimators.straight;
@@ -19,17 +19,11 @@ import edu.tigers.sumatra.vision.data.KickSolverResult;
 import edu.tigers.sumatra.vision.kick.estimators.EBallModelIdentType;
 import edu.tigers.sumatra.vision.kick.estimators.IBallModelIdentResult;
 import edu.tigers.sumatra.vision.kick.estimators.IKickSolver;
+import edu.tigers.sumatra.vision.kick.estimators.WarmStartedSimplexOptimizer;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import org.apache.commons.math3.analysis.MultivariateFunction;
-import org.apache.commons.math3.optim.InitialGuess;
-import org.apache.commons.math3.optim.MaxEval;
-import org.apache.commons.math3.optim.PointValuePair;
-import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
-import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
 
 import java.util.HashMap;
 import java.util.List;
@@ -45,9 +39,7 @@ public class FlatKickSolverNonLin3Factor implements IKickSolver
 	private final IVector2 initialSpin;
 	private final double kickBotOrient;
 
-	private double[] initialGuess = new double[3];
-	private final SimplexOptimizer optimizer = new SimplexOptimizer(1e-3, 1e-3);
-	private final NelderMeadSimplex simplex = new NelderMeadSimplex(3, 100.0);
+	private final WarmStartedSimplexOptimizer optimizer = new WarmStartedSimplexOptimizer(new double[3], 100.0, 5.0);
 
 	private IVector2 fixedKickDir = null;
 
@@ -180,46 +172,11 @@ public class FlatKickSolverNonLin3Factor implements IKickSolver
 	}
 
 
-	@SuppressWarnings("squid:S1166") // Exception from solver not logged
 	private NonLinSolve3FactorResult nonLinSolve3Factor(final List<CamBall> records, final IVector2 kickDir,
 			final IVector2 kickSpin)
 	{
-		double[] result;
 		var model = new FlatKickSolverNonLin3Factor.StraightBallModel(records, kickSpin, kickDir);
-
-		try
-		{
-			final PointValuePair optimum = optimizer.optimize(
-					new MaxEval(50),
-					new ObjectiveFunction(model),
-					GoalType.MINIMIZE,
-					new InitialGuess(initialGuess),
-					simplex);
-
-			result = optimum.getPoint();
-		} catch (IllegalStateException e)
-		{
-			// compute the current simplex center => best estimate
-			double[] sum = new double[] { 0, 0, 0 };
-			PointValuePair[] points = simplex.getPoints();
-
-			for (PointValuePair pair : points)
-			{
-				for (int i = 0; i < 3; i++)
-				{
-					sum[i] += pair.getPointRef()[i];
-				}
-			}
-
-			for (int i = 0; i < 3; i++)
-			{
-				sum[i] /= points.length;
-			}
-
-			result = sum;
-		}
-
-		initialGuess = result;
+		double[] result = optimizer.optimize(model, 50);
 
 		double error = model.value(result);
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Test class for WarmStartedSimplexOptimizer
+ */
+public class WarmStartedSimplexOptimizerTest
+{
+	/**
+	 * @return the minima of a series of problems, where the solution moves a bit with every problem
+	 */
+	private static List<double[]> createMinima()
+	{
+		List<double[]> minima = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+		{
+			minima.add(new double[] { 1000 + 10.0 * i, -500 + 5.0 * i, 2.0 * i });
+		}
+		return minima;
+	}
+
+
+	private static MultivariateFunction quadratic(final double[] minimum)
+	{
+		return p -> {
+			double sum = 0;
+			for (int i = 0; i < p.length; i++)
+			{
+				double d = p[i] - minimum[i];
+				sum += (i + 1) * d * d;
+			}
+			return sum;
+		};
+	}
+
+
+	private static double[] center(final PointValuePair[] points)
+	{
+		double[] sum = new double[3];
+		for (PointValuePair pair : points)
+		{
+			for (int i = 0; i < 3; i++)
+			{
+				sum[i] += pair.getPointRef()[i];
+			}
+		}
+		for (int i = 0; i < 3; i++)
+		{
+			sum[i] /= points.length;
+		}
+		return sum;
+	}
+
+
+	@Test
+	public void testFixedStepsKeepResultsOfFixedSimplex()
+	{
+		// the former implementation of the kick solvers: a fixed simplex that starts at the last solution
+		SimplexOptimizer fixedOptimizer = new SimplexOptimizer(1e-3, 1e-3);
+		NelderMeadSimplex fixedSimplex = new NelderMeadSimplex(3, 100.0);
+		double[] expected = new double[3];
+
+		WarmStartedSimplexOptimizer optimizer = new WarmStartedSimplexOptimizer(new double[3], 100.0, 5.0, false);
+		for (double[] minimum : createMinima())
+		{
+			try
+			{
+				expected = fixedOptimizer.optimize(
+						new MaxEval(50),
+						new ObjectiveFunction(quadratic(minimum)),
+						GoalType.MINIMIZE,
+						new InitialGuess(expected),
+						fixedSimplex).getPoint();
+			} catch (IllegalStateException e)
+			{
+				expected = center(fixedSimplex.getPoints());
+			}
+
+			assertThat(optimizer.optimize(quadratic(minimum), 50)).containsExactly(expected);
+		}
+	}
+
+
+	@Test
+	public void testAdaptedStepsFollowMovingMinimum()
+	{
+		List<double[]> minima = createMinima();
+		WarmStartedSimplexOptimizer optimizer = new WarmStartedSimplexOptimizer(minima.getFirst(), 100.0, 5.0, true);
+		for (double[] minimum : minima)
+		{
+			double[] result = optimizer.optimize(quadratic(minimum), 1000);
+			for (int i = 0; i < 3; i++)
+			{
+				assertThat(result[i]).isCloseTo(minimum[i], within(1.0));
+			}
+		}
+	}
+}
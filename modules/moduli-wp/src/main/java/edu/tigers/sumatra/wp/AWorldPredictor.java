@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp;
@@ -9,46 +9,101 @@ import edu.tigers.moduli.AModule;
 import edu.tigers.sumatra.cam.ICamFrameObserver;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
+import edu.tigers.sumatra.util.Safe;
+import edu.tigers.sumatra.wp.data.ExtendedCamDetectionFrame;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import edu.tigers.sumatra.wp.util.IRobotInfoProvider;
+import lombok.extern.log4j.Log4j2;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 
 /**
  * This is the base class for all prediction-implementations, providing basic connections to the predecessor/successor
  * in data-flow and an observable to spread messages.
+ * <p>
+ * Consumers are called synchronously by the producer. Each observer gets its own
+ * {@link WorldFrameObserverDispatcher}, so a slow observer, like a UI or a recorder, can not delay the next frame for
+ * the others.
  *
  * @author Gero
  */
+@Log4j2
 public abstract class AWorldPredictor extends AModule implements ICamFrameObserver, IConfigObserver
 {
-	protected final List<IWorldFrameObserver> observers = new CopyOnWriteArrayList<>();
+	private static final FrameKey WORLD_FRAME_KEY = new FrameKey(WorldFrameWrapper.class, null);
+
+	private final List<WorldFrameObserverDispatcher> observers = new CopyOnWriteArrayList<>();
 	protected final List<IWorldFrameObserver> consumers = new CopyOnWriteArrayList<>();
 
 
 	/**
-	 * Add an observer for worldFrames.<br>
-	 * Observers are notified after all consumers.
-	 * An observer may do <b>some</b> processing in their overridden method,
-	 * but please keep it fast or simply take a copy and do processing somewhere else (different Thread!)
+	 * Add an observer for worldFrames with the {@link EObserverDispatchPolicy#LOSSLESS} policy.<br>
+	 * Observers are notified after all consumers on their own thread.
 	 *
 	 * @param observer that wants to listen for new frames
 	 */
-	@SuppressWarnings("squid:S2250") // Collection methods with O(n) performance
 	public final void addObserver(final IWorldFrameObserver observer)
 	{
-		observers.add(observer);
+		addObserver(observer, EObserverDispatchPolicy.LOSSLESS);
 	}
 
 
 	/**
+	 * Add an observer for worldFrames.<br>
+	 * Observers are notified after all consumers on their own thread.
+	 * The events are queued, the policy decides what happens with new frames, if the observer falls behind.
+	 *
+	 * @param observer that wants to listen for new frames
+	 * @param policy   what to do with new frames, if the observer falls behind
+	 */
+	public final void addObserver(final IWorldFrameObserver observer, final EObserverDispatchPolicy policy)
+	{
+		WorldFrameObserverDispatcher dispatcher = new WorldFrameObserverDispatcher(observer, policy);
+		dispatcher.start();
+		observers.add(dispatcher);
+	}
+
+
+	/**
+	 * Remove an observer. Depending on its policy, pending events are processed first or discarded.
+	 *
 	 * @param observer that is registered atm.
 	 */
-	@SuppressWarnings("squid:S2250") // Collection methods with O(n) performance
 	public final void removeObserver(final IWorldFrameObserver observer)
 	{
-		observers.remove(observer);
+		for (WorldFrameObserverDispatcher dispatcher : observers)
+		{
+			if (dispatcher.getObserver().equals(observer) && observers.remove(dispatcher))
+			{
+				dispatcher.close();
+				log.debug("Removed world frame observer {}", dispatcher);
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Wait until all observers processed the events that were published so far.
+	 * Use this after feeding frames as fast as possible, e.g. from a game log, before evaluating the results of the
+	 * observers, as they process the events on their own threads.
+	 */
+	public final void awaitObservers()
+	{
+		observers.forEach(WorldFrameObserverDispatcher::awaitIdle);
+	}
+
+
+	/**
+	 * @return the dispatchers of all registered observers, with their dispatch metrics
+	 */
+	public final List<WorldFrameObserverDispatcher> getObserverDispatchers()
+	{
+		return Collections.unmodifiableList(observers);
 	}
 
 
@@ -78,7 +133,41 @@ public abstract class AWorldPredictor extends AModule implements ICamFrameObserv
 
 
 	/**
-	 * Notify observers about a new shape map
+	 * Notify all consumers and observers about a new world frame
+	 *
+	 * @param wfw the new world frame
+	 */
+	protected final void notifyNewWorldFrame(final WorldFrameWrapper wfw)
+	{
+		Safe.forEach(consumers, c -> c.onNewWorldFrame(wfw));
+		publish(WORLD_FRAME_KEY, true, o -> o.onNewWorldFrame(wfw));
+	}
+
+
+	/**
+	 * Notify observers about a new camera frame
+	 *
+	 * @param frame the new camera frame
+	 */
+	protected final void notifyNewCamDetectionFrame(final ExtendedCamDetectionFrame frame)
+	{
+		publish(new FrameKey(ExtendedCamDetectionFrame.class, frame.getCameraId()), true,
+				o -> o.onNewCamDetectionFrame(frame));
+	}
+
+
+	/**
+	 * Notify observers that the vision was lost
+	 */
+	protected final void notifyClearCamDetectionFrame()
+	{
+		publish(null, true, IWorldFrameObserver::onClearCamDetectionFrame);
+	}
+
+
+	/**
+	 * Notify observers about a new shape map.
+	 * The shape map is frozen and shared with all observers, so the caller must not modify it afterwards.
 	 *
 	 * @param timestamp
 	 * @param shapeMap  the shape map
@@ -86,19 +175,43 @@ public abstract class AWorldPredictor extends AModule implements ICamFrameObserv
 	 */
 	public final void notifyNewShapeMap(final long timestamp, ShapeMap shapeMap, ShapeMapSource source)
 	{
-		ShapeMap unmodifiableShapeMap = ShapeMap.unmodifiableCopy(shapeMap);
-		for (IWorldFrameObserver o : observers)
+		shapeMap.freeze();
+		// shape maps are published by other modules, like the autoRef, which may be blocking observers themselves
+		publish(new FrameKey(ShapeMap.class, source), false, o -> o.onNewShapeMap(timestamp, shapeMap, source));
+	}
+
+
+	public final void notifyRemoveSourceFromShapeMap(ShapeMapSource source)
+	{
+		publish(null, false, o -> o.onRemoveSourceFromShapeMap(source));
+	}
+
+
+	private void publish(final FrameKey frameKey, final boolean backpressure,
+			final Consumer<IWorldFrameObserver> event)
+	{
+		for (WorldFrameObserverDispatcher dispatcher : observers)
 		{
-			o.onNewShapeMap(timestamp, unmodifiableShapeMap, source);
+			dispatcher.publish(frameKey, backpressure, event);
 		}
 	}
 
 
-	public final void notifyRemoveSourceFromShapeMap(ShapeMapSource source)
+	/**
+	 * Remove all consumers and observers that were not removed by their owners
+	 */
+	protected final void clearObservers()
 	{
-		for (IWorldFrameObserver o : observers)
+		if (!observers.isEmpty())
 		{
-			o.onRemoveSourceFromShapeMap(source);
+			log.warn("There were observers left: {}", observers);
+			observers.forEach(WorldFrameObserverDispatcher::close);
+			observers.clear();
+		}
+		if (!consumers.isEmpty())
+		{
+			log.warn("There were consumers left: {}", consumers);
+			consumers.clear();
 		}
 	}
 
@@ -107,4 +220,12 @@ public abstract class AWorldPredictor extends AModule implements ICamFrameObserv
 
 
 	public abstract void reset();
+
+
+	/**
+	 * Identifies the kind of frame, only frames of the same kind replace each other
+	 */
+	private record FrameKey(Class<?> type, Object id)
+	{
+	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.sleepycat.persist.model.Entity;
+import com.sleepycat.persist.model.PrimaryKey;
+import edu.tigers.sumatra.wp.data.KickedBall;
+import lombok.Getter;
+
+
+/**
+ * The kicked ball of compact world frames.
+ * It is only recorded when the kick changes and the frames reference it by its id.
+ */
+@Entity
+@Getter
+public class BerkeleyCompactKickFrame
+{
+	@PrimaryKey
+	private final long id;
+
+	private final KickedBall kickedBall;
+
+
+	@SuppressWarnings("unused")
+	private BerkeleyCompactKickFrame()
+	{
+		id = 0;
+		kickedBall = null;
+	}
+
+
+	/**
+	 * @param id         the id that frames reference
+	 * @param kickedBall the kicked ball
+	 */
+	public BerkeleyCompactKickFrame(final long id, final KickedBall kickedBall)
+	{
+		this.id = id;
+		this.kickedBall = kickedBall;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.sleepycat.persist.model.Entity;
+import com.sleepycat.persist.model.PrimaryKey;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import lombok.Getter;
+
+
+/**
+ * The referee message and game state of compact world frames.
+ * It is only recorded when one of them changes and the frames reference it by its id.
+ */
+@Entity
+@Getter
+public class BerkeleyCompactRefereeFrame
+{
+	@PrimaryKey
+	private final long id;
+
+	private final RefereeMsg refereeMsg;
+	private final GameState gameState;
+
+
+	@SuppressWarnings("unused")
+	private BerkeleyCompactRefereeFrame()
+	{
+		id = 0;
+		refereeMsg = new RefereeMsg();
+		gameState = GameState.HALT;
+	}
+
+
+	/**
+	 * @param id         the id that frames reference
+	 * @param refereeMsg the referee message
+	 * @param gameState  the game state
+	 */
+	public BerkeleyCompactRefereeFrame(final long id, final RefereeMsg refereeMsg, final GameState gameState)
+	{
+		this.id = id;
+		this.refereeMsg = refereeMsg;
+		this.gameState = gameState;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.sleepycat.persist.model.Entity;
+import com.sleepycat.persist.model.PrimaryKey;
+import lombok.Getter;
+
+
+/**
+ * A world frame in the compact recording format, encoded by the {@link CompactWorldFrameCodec}.
+ * A key frame can be decoded on its own, all other frames only contain the changes since the previous frame.
+ * If time jumps back during a recording, a new key frame may overwrite a frame of an earlier chain. The chain id and
+ * the previous timestamp detect that, so the remaining frames of the earlier chain are not decoded wrongly.
+ */
+@Entity
+@Getter
+public class BerkeleyCompactWorldFrame
+{
+	@PrimaryKey
+	private final long timestamp;
+
+	/** the timestamp of the key frame that decoding has to start at */
+	private final long keyFrameTimestamp;
+	/** identifies the key frame and all frames that are encoded relative to it */
+	private final long chainId;
+	/** the timestamp of the frame that this frame is encoded relative to */
+	private final long previousTimestamp;
+	private final byte[] data;
+
+
+	@SuppressWarnings("unused")
+	private BerkeleyCompactWorldFrame()
+	{
+		timestamp = 0;
+		keyFrameTimestamp = 0;
+		chainId = 0;
+		previousTimestamp = 0;
+		data = new byte[0];
+	}
+
+
+	/**
+	 * @param timestamp         the timestamp of the world frame
+	 * @param keyFrameTimestamp the timestamp of the key frame that decoding has to start at
+	 * @param chainId           identifies the key frame and all frames that are encoded relative to it
+	 * @param previousTimestamp the timestamp of the frame that this frame is encoded relative to
+	 * @param data              the encoded frame
+	 */
+	public BerkeleyCompactWorldFrame(
+			final long timestamp,
+			final long keyFrameTimestamp,
+			final long chainId,
+			final long previousTimestamp,
+			final byte[] data)
+	{
+		this.timestamp = timestamp;
+		this.keyFrameTimestamp = keyFrameTimestamp;
+		this.chainId = chainId;
+		this.previousTimestamp = previousTimestamp;
+		this.data = data;
+	}
+
+
+	public boolean isKeyFrame()
+	{
+		return timestamp == keyFrameTimestamp;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.sleepycat.persist.model.Entity;
+import com.sleepycat.persist.model.PrimaryKey;
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.referee.gameevent.EGameEvent;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.Getter;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+
+/**
+ * The referee relevant state of a world frame.
+ * A new frame is only recorded when the state changes, so these frames form a compact index of a recording.
+ */
+@Entity
+@Getter
+public class BerkeleyRefereeStateFrame
+{
+	@PrimaryKey
+	private final long timestamp;
+
+	private final boolean refereeMsgPresent;
+	private final SslGcRefereeMessage.Referee.Command command;
+	private final EGameState gameState;
+	private final boolean stoppedGame;
+	private final boolean ballPlacement;
+	private final List<EGameEvent> gameEvents;
+
+
+	@SuppressWarnings("unused")
+	private BerkeleyRefereeStateFrame()
+	{
+		timestamp = 0;
+		refereeMsgPresent = false;
+		command = null;
+		gameState = null;
+		stoppedGame = false;
+		ballPlacement = false;
+		gameEvents = new ArrayList<>();
+	}
+
+
+	/**
+	 * @param wfw a world frame
+	 */
+	public BerkeleyRefereeStateFrame(final WorldFrameWrapper wfw)
+	{
+		RefereeMsg refereeMsg = wfw.getRefereeMsg();
+		timestamp = wfw.getTimestamp();
+		refereeMsgPresent = refereeMsg != null;
+		command = refereeMsg == null ? null : refereeMsg.getCommand();
+		gameState = wfw.getGameState().getState();
+		stoppedGame = wfw.getGameState().isStoppedGame();
+		ballPlacement = wfw.getGameState().isBallPlacement();
+		gameEvents = refereeMsg == null ? new ArrayList<>() : refereeMsg.getGameEvents().stream()
+				.map(IGameEvent::getType)
+				.distinct()
+				.collect(Collectors.toCollection(ArrayList::new));
+	}
+
+
+	public List<EGameEvent> getGameEvents()
+	{
+		return Collections.unmodifiableList(gameEvents);
+	}
+
+
+	/**
+	 * @param other another frame
+	 * @return true, if both frames have the same state, ignoring the timestamp
+	 */
+	public boolean hasSameState(final BerkeleyRefereeStateFrame other)
+	{
+		return refereeMsgPresent == other.refereeMsgPresent
+				&& command == other.command
+				&& gameState == other.gameState
+				&& stoppedGame == other.stoppedGame
+				&& ballPlacement == other.ballPlacement
+				&& Objects.equals(gameEvents, other.gameEvents);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+				.append("timestamp", timestamp)
+				.append("command", command)
+				.append("gameState", gameState)
+				.append("gameEvents", gameEvents)
+				.toString();
+	}
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import com.sleepycat.je.CursorConfig;
+import com.sleepycat.persist.EntityCursor;
+import com.sleepycat.persist.EntityStore;
+import com.sleepycat.persist.PrimaryIndex;
+import edu.tigers.sumatra.persistence.BerkeleyAccessor;
+import edu.tigers.sumatra.persistence.IBerkeleyAccessor;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.wp.data.KickedBall;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+
+/**
+ * Accessor for world frames that stores them in the compact recording format.
+ * <p>
+ * The bots and the ball are delta-encoded by the {@link CompactWorldFrameCodec} with a key frame every
+ * {@link #keyFrameInterval} frames. The referee message, the game state and the kicked ball rarely change, so they
+ * are only stored when they change and referenced by id.
+ * Frames are decoded on read. Each thread has its own decoder, so that different readers, like the replay and
+ * the autoRef recalculation, do not interfere. Reading the frames in ascending order, like the replay does,
+ * continues decoding at the last frame that the thread read, otherwise decoding starts at the key frame of the
+ * requested frame.
+ * <p>
+ * Recordings with uncompressed {@link WorldFrameWrapper} entities can still be read.
+ */
+@Log4j2
+public class CompactWorldFrameAccessor implements IBerkeleyAccessor<WorldFrameWrapper>
+{
+	/** the kick estimate improves during the first frames after the kick, store these improvements */
+	private static final double KICK_VEL_TOLERANCE = 0.001;
+	private static final double KICK_POS_TOLERANCE = 1;
+
+	@Configurable(defValue = "true", comment = "Record world frames in the compact, delta-encoded format")
+	private static boolean compactRecording = true;
+
+	@Configurable(defValue = "100", comment = "Number of frames from one key frame of compact recordings to the next. "
+			+ "Reading a random frame decodes up to this number of frames.")
+	private static int keyFrameInterval = 100;
+
+	static
+	{
+		ConfigRegistration.registerClass("user", CompactWorldFrameAccessor.class);
+	}
+
+	private final BerkeleyAccessor<WorldFrameWrapper> uncompressedFrames = new BerkeleyAccessor<>(
+			WorldFrameWrapper.class, true);
+	private final BerkeleyAccessor<BerkeleyCompactWorldFrame> frames = new BerkeleyAccessor<>(
+			BerkeleyCompactWorldFrame.class, true);
+	private final BerkeleyAccessor<BerkeleyCompactRefereeFrame> refereeFrames = new BerkeleyAccessor<>(
+			BerkeleyCompactRefereeFrame.class, true);
+	private final BerkeleyAccessor<BerkeleyCompactKickFrame> kickFrames = new BerkeleyAccessor<>(
+			BerkeleyCompactKickFrame.class, true);
+	private PrimaryIndex<Long, BerkeleyCompactWorldFrame> frameIndex;
+	private boolean uncompressed;
+
+	private final Writer writer = new Writer();
+	private final ThreadLocal<Reader> readers = ThreadLocal.withInitial(Reader::new);
+
+
+	@Override
+	public void open(final EntityStore entityStore)
+	{
+		uncompressedFrames.open(entityStore);
+		frames.open(entityStore);
+		refereeFrames.open(entityStore);
+		kickFrames.open(entityStore);
+		frameIndex = entityStore.getPrimaryIndex(Long.class, BerkeleyCompactWorldFrame.class);
+
+		if (frames.size() > 0)
+		{
+			uncompressed = false;
+		} else if (uncompressedFrames.size() > 0)
+		{
+			uncompressed = true;
+		} else
+		{
+			uncompressed = !compactRecording;
+		}
+	}
+
+
+	private IBerkeleyAccessor<?> keys()
+	{
+		return uncompressed ? uncompressedFrames : frames;
+	}
+
+
+	@Override
+	public long size()
+	{
+		return keys().size();
+	}
+
+
+	@Override
+	public synchronized List<WorldFrameWrapper> load()
+	{
+		List<WorldFrameWrapper> wfws = new ArrayList<>((int) size());
+		forEach(wfws::add);
+		return wfws;
+	}
+
+
+	@Override
+	public synchronized void forEach(final Consumer<WorldFrameWrapper> consumer)
+	{
+		if (uncompressed)
+		{
+			uncompressedFrames.forEach(consumer);
+			return;
+		}
+		Reader sequentialReader = new Reader();
+		try (EntityCursor<BerkeleyCompactWorldFrame> cursor = frameIndex.entities(null, CursorConfig.READ_UNCOMMITTED))
+		{
+			for (BerkeleyCompactWorldFrame frame : cursor)
+			{
+				if (sequentialReader.decode(frame))
+				{
+					consumer.accept(sequentialReader.toWorldFrameWrapper());
+				}
+			}
+		}
+	}
+
+
+	@Override
+	public synchronized void write(final Collection<WorldFrameWrapper> elements)
+	{
+		elements.forEach(this::write);
+	}
+
+
+	@Override
+	public synchronized void write(final WorldFrameWrapper element)
+	{
+		if (uncompressed)
+		{
+			uncompressedFrames.write(element);
+		} else
+		{
+			writer.write(element);
+		}
+	}
+
+
+	@Override
+	public WorldFrameWrapper get(final long key)
+	{
+		Long nearestKey = getNearestKey(key);
+		if (nearestKey == null)
+		{
+			return null;
+		}
+		return getByKey(nearestKey);
+	}
+
+
+	@Override
+	public WorldFrameWrapper getByKey(final long key)
+	{
+		if (uncompressed)
+		{
+			return uncompressedFrames.getByKey(key);
+		}
+		return readers.get().read(key);
+	}
+
+
+	@Override
+	public long[] getKeysAfter(final long key)
+	{
+		return keys().getKeysAfter(key);
+	}
+
+
+	@Override
+	public Long getFirstKey()
+	{
+		return keys().getFirstKey();
+	}
+
+
+	@Override
+	public Long getLastKey()
+	{
+		return keys().getLastKey();
+	}
+
+
+	@Override
+	public Long getNearestKey(final long key)
+	{
+		return keys().getNearestKey(key);
+	}
+
+
+	@Override
+	public Long getNextKey(final long key)
+	{
+		return keys().getNextKey(key);
+	}
+
+
+	@Override
+	public Long getPreviousKey(final long key)
+	{
+		return keys().getPreviousKey(key);
+	}
+
+
+	@Override
+	public boolean isSumatraTimestampBased()
+	{
+		return true;
+	}
+
+
+	private class Writer
+	{
+		private final CompactWorldFrameCodec codec = new CompactWorldFrameCodec();
+		private long lastTimestamp = Long.MIN_VALUE;
+		private long keyFrameTimestamp;
+		private long chainId;
+		private int numFramesSinceKeyFrame;
+		private long lastId = Long.MIN_VALUE;
+		private RefereeMsg lastRefereeMsg;
+		private GameState lastGameState;
+		private long refereeId;
+		private KickedBall lastKickedBall;
+		private long kickId = CompactWorldFrameCodec.NO_ID;
+
+
+		void write(final WorldFrameWrapper wfw)
+		{
+			long timestamp = wfw.getTimestamp();
+			// decoding follows the order of the timestamps, so start over, if time jumps back
+			boolean keyFrame = lastTimestamp == Long.MIN_VALUE
+					|| timestamp <= lastTimestamp
+					|| numFramesSinceKeyFrame >= keyFrameInterval;
+			if (keyFrame)
+			{
+				keyFrameTimestamp = timestamp;
+				chainId = nextId(timestamp);
+				numFramesSinceKeyFrame = 0;
+			}
+			updateRefereeFrame(wfw);
+			updateKickFrame(wfw);
+
+			byte[] data = codec.encode(wfw.getSimpleWorldFrame(), wfw.getUnixTimestamp(), refereeId, kickId, keyFrame);
+			long previousTimestamp = keyFrame ? timestamp : lastTimestamp;
+			frames.write(new BerkeleyCompactWorldFrame(timestamp, keyFrameTimestamp, chainId, previousTimestamp, data));
+			lastTimestamp = timestamp;
+			numFramesSinceKeyFrame++;
+		}
+
+
+		private void updateRefereeFrame(final WorldFrameWrapper wfw)
+		{
+			RefereeMsg refereeMsg = wfw.getRefereeMsg();
+			GameState gameState = wfw.getGameState();
+			if (lastRefereeMsg != null
+					&& (refereeMsg == lastRefereeMsg || refereeMsg.equals(lastRefereeMsg))
+					&& gameState.equals(lastGameState))
+			{
+				return;
+			}
+			refereeId = nextId(wfw.getTimestamp());
+			refereeFrames.write(new BerkeleyCompactRefereeFrame(refereeId, refereeMsg, gameState));
+			lastRefereeMsg = refereeMsg;
+			lastGameState = gameState;
+		}
+
+
+		private void updateKickFrame(final WorldFrameWrapper wfw)
+		{
+			KickedBall kickedBall = wfw.getSimpleWorldFrame().getKickedBall().orElse(null);
+			if (kickedBall == null)
+			{
+				kickId = CompactWorldFrameCodec.NO_ID;
+			} else if (isNewKick(kickedBall))
+			{
+				kickId = nextId(wfw.getTimestamp());
+				kickFrames.write(new BerkeleyCompactKickFrame(kickId, kickedBall));
+			}
+			lastKickedBall = kickedBall;
+		}
+
+
+		private boolean isNewKick(final KickedBall kickedBall)
+		{
+			if (lastKickedBall == null || !lastKickedBall.equals(kickedBall))
+			{
+				return true;
+			}
+			if (kickedBall.getBallTrajectory() == null || lastKickedBall.getBallTrajectory() == null)
+			{
+				return kickedBall.getBallTrajectory() != lastKickedBall.getBallTrajectory();
+			}
+			return !kickedBall.getKickVel().isCloseTo(lastKickedBall.getKickVel(), KICK_VEL_TOLERANCE)
+					|| !kickedBall.getKickPos().isCloseTo(lastKickedBall.getKickPos(), KICK_POS_TOLERANCE);
+		}
+
+
+		/**
+		 * Ids are the timestamps of the frames that first use them, but they have to be unique, even if time jumps back
+		 */
+		private long nextId(final long timestamp)
+		{
+			lastId = lastId == Long.MIN_VALUE ? timestamp : Math.max(timestamp, lastId + 1);
+			return lastId;
+		}
+	}
+
+
+	private class Reader
+	{
+		private final CompactWorldFrameCodec codec = new CompactWorldFrameCodec();
+		private BerkeleyCompactWorldFrame lastFrame;
+		private CompactWorldFrameCodec.Header lastHeader;
+		private WorldFrameWrapper lastWfw;
+		private BerkeleyCompactRefereeFrame refereeFrame;
+		private BerkeleyCompactKickFrame kickFrame;
+
+
+		WorldFrameWrapper read(final long key)
+		{
+			if (lastWfw != null && lastFrame.getTimestamp() == key)
+			{
+				return lastWfw;
+			}
+			BerkeleyCompactWorldFrame frame = frames.getByKey(key);
+			if (frame == null)
+			{
+				return null;
+			}
+
+			boolean continueDecoding = lastFrame != null
+					&& lastFrame.getChainId() == frame.getChainId()
+					&& lastFrame.getTimestamp() < key;
+			long from = continueDecoding ? lastFrame.getTimestamp() : frame.getKeyFrameTimestamp();
+			if (!continueDecoding)
+			{
+				lastFrame = null;
+			}
+			try (EntityCursor<BerkeleyCompactWorldFrame> cursor = frameIndex.entities(null,
+					from, !continueDecoding, key, true, CursorConfig.READ_UNCOMMITTED))
+			{
+				for (BerkeleyCompactWorldFrame f : cursor)
+				{
+					// frames of another chain can only be in between, if time jumped back during the recording
+					if (f.getChainId() == frame.getChainId() && !decode(f))
+					{
+						break;
+					}
+				}
+			}
+			if (lastFrame == null || lastFrame.getTimestamp() != key)
+			{
+				return null;
+			}
+			lastWfw = toWorldFrameWrapper();
+			return lastWfw;
+		}
+
+
+		/**
+		 * @return false, if the frame could not be decoded, because its previous frame was not decoded before,
+		 * or it was overwritten by a frame of another chain
+		 */
+		boolean decode(final BerkeleyCompactWorldFrame frame)
+		{
+			if (frame.isKeyFrame())
+			{
+				lastFrame = null;
+			} else if (lastFrame == null
+					|| lastFrame.getChainId() != frame.getChainId()
+					|| lastFrame.getTimestamp() != frame.getPreviousTimestamp())
+			{
+				log.warn("Skipping frame {} without previous frame {}", frame.getTimestamp(),
+						frame.getPreviousTimestamp());
+				return false;
+			}
+			lastHeader = codec.decode(frame.getTimestamp(), frame.getData());
+			lastFrame = frame;
+			lastWfw = null;
+			return true;
+		}
+
+
+		WorldFrameWrapper toWorldFrameWrapper()
+		{
+			if (refereeFrame == null || refereeFrame.getId() != lastHeader.refereeId())
+			{
+				refereeFrame = Objects.requireNonNullElseGet(
+						refereeFrames.getByKey(lastHeader.refereeId()),
+						() -> new BerkeleyCompactRefereeFrame(lastHeader.refereeId(), new RefereeMsg(), GameState.HALT));
+			}
+			KickedBall kickedBall = null;
+			if (lastHeader.kickId() != CompactWorldFrameCodec.NO_ID)
+			{
+				if (kickFrame == null || kickFrame.getId() != lastHeader.kickId())
+				{
+					kickFrame = kickFrames.getByKey(lastHeader.kickId());
+				}
+				kickedBall = kickFrame == null ? null : kickFrame.getKickedBall();
+			}
+			return new WorldFrameWrapper(codec.toSimpleWorldFrame(kickedBall), refereeFrame.getRefereeMsg(),
+					refereeFrame.getGameState(), lastHeader.unixTimestamp());
+		}
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import edu.tigers.sumatra.ball.BallState;
+import edu.tigers.sumatra.bot.RobotInfo;
+import edu.tigers.sumatra.bot.State;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.pose.Pose;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.IVector3;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector3;
+import edu.tigers.sumatra.wp.data.BallContact;
+import edu.tigers.sumatra.wp.data.ITrackedBall;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+import edu.tigers.sumatra.wp.data.KickedBall;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import edu.tigers.sumatra.wp.data.TrackedBall;
+import edu.tigers.sumatra.wp.data.TrackedBot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Codec for the compact recording format of world frames.
+ * <p>
+ * The states of the ball and the bots are quantized and each value is stored as the difference to the same value
+ * of the previous frame, written as a variable length integer. As most values change only a little between two
+ * frames, most of them take one or two bytes. A key frame stores the differences to zero, so it can be decoded
+ * without any previous frame.
+ * <p>
+ * The codec keeps the state of the last frame. Frames have to be encoded and decoded in the same order, starting
+ * with a key frame. The robot info and the filtered state of the bots are not stored, decoded bots get a stub
+ * robot info.
+ */
+public class CompactWorldFrameCodec
+{
+	/** id for frames without a kicked ball */
+	public static final long NO_ID = Long.MIN_VALUE;
+
+	private static final int FLAG_KEY_FRAME = 1;
+	private static final int FLAG_KICKED_BALL = 1 << 1;
+	private static final int FLAG_MAL_FUNCTIONING = 1;
+
+	/** pos [mm], vel [mm/s], acc [mm/s^2], spin [rad/s] */
+	private static final double[] BALL_QUANTA = {
+			0.01, 0.01, 0.01,
+			0.1, 0.1, 0.1,
+			1, 1, 1,
+			0.001, 0.001 };
+	/** pos [mm], orientation [rad], vel [m/s], angular vel [rad/s], quality */
+	private static final double[] BOT_QUANTA = {
+			0.01, 0.01, 1e-5,
+			1e-4, 1e-4, 1e-4,
+			1e-4 };
+	private static final int NUM_CONTACT_VALUES = 5;
+	private static final ETeamColor[] TEAM_COLORS = ETeamColor.values();
+
+	private long frameNumber;
+	private long timestamp;
+	private long unixTimestamp;
+	private final BallValues ball = new BallValues();
+	private Map<BotID, BotValues> bots = new LinkedHashMap<>();
+
+
+	/**
+	 * Encode a frame and update the state of this codec
+	 *
+	 * @param swf           the frame to encode
+	 * @param unixTimestamp the unix timestamp of the frame in [ms]
+	 * @param refereeId     the id of the referee frame
+	 * @param kickId        the id of the kick frame or {@link #NO_ID}
+	 * @param keyFrame      encode independent of the previous frame
+	 * @return the encoded frame
+	 */
+	public byte[] encode(
+			final SimpleWorldFrame swf,
+			final long unixTimestamp,
+			final long refereeId,
+			final long kickId,
+			final boolean keyFrame)
+	{
+		if (keyFrame)
+		{
+			reset();
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 + 32 * swf.getBots().size());
+		out.write((keyFrame ? FLAG_KEY_FRAME : 0) | (kickId != NO_ID ? FLAG_KICKED_BALL : 0));
+		timestamp = swf.getTimestamp();
+		writeVarLong(out, swf.getFrameNumber() - frameNumber);
+		frameNumber = swf.getFrameNumber();
+		writeVarLong(out, unixTimestamp - this.unixTimestamp);
+		this.unixTimestamp = unixTimestamp;
+		writeVarLong(out, timestamp - refereeId);
+		if (kickId != NO_ID)
+		{
+			writeVarLong(out, timestamp - kickId);
+		}
+
+		encodeBall(out, swf.getBall());
+
+		writeVarLong(out, swf.getBots().size());
+		Map<BotID, BotValues> nextBots = new LinkedHashMap<>();
+		for (ITrackedBot bot : swf.getBots().values())
+		{
+			BotValues values = bots.getOrDefault(bot.getBotId(), new BotValues());
+			encodeBot(out, bot, values);
+			nextBots.put(bot.getBotId(), values);
+		}
+		bots = nextBots;
+		return out.toByteArray();
+	}
+
+
+	private void encodeBall(final ByteArrayOutputStream out, final ITrackedBall trackedBall)
+	{
+		ball.timestamp = trackedBall.getTimestamp();
+		ball.lastVisibleTimestamp = trackedBall.getLastVisibleTimestamp();
+		writeVarLong(out, timestamp - ball.timestamp);
+		writeVarLong(out, ball.timestamp - ball.lastVisibleTimestamp);
+
+		BallState state = trackedBall.getState();
+		IVector3 pos = state.getPos();
+		IVector3 vel = state.getVel();
+		IVector3 acc = state.getAcc();
+		IVector2 spin = state.getSpin();
+		double[] values = {
+				pos.x(), pos.y(), pos.z(),
+				vel.x(), vel.y(), vel.z(),
+				acc.x(), acc.y(), acc.z(),
+				spin.x(), spin.y() };
+		writeDeltas(out, values, BALL_QUANTA, ball.quantized);
+	}
+
+
+	private void encodeBot(final ByteArrayOutputStream out, final ITrackedBot bot, final BotValues botValues)
+	{
+		writeVarLong(out, bot.getBotId().getNumber());
+		out.write(bot.getBotId().getTeamColor().ordinal());
+		botValues.timestamp = bot.getTimestamp();
+		botValues.malFunctioning = bot.isMalFunctioning();
+		writeVarLong(out, timestamp - botValues.timestamp);
+		out.write(botValues.malFunctioning ? FLAG_MAL_FUNCTIONING : 0);
+
+		State state = bot.getBotState();
+		double[] values = {
+				state.getPos().x(), state.getPos().y(), state.getOrientation(),
+				state.getVel2().x(), state.getVel2().y(), state.getAngularVel(),
+				bot.getQuality() };
+		writeDeltas(out, values, BOT_QUANTA, botValues.quantized);
+
+		BallContact contact = bot.getBallContact();
+		long[] contactValues = {
+				contact.getCurrent(), contact.getStart(), contact.getEnd(),
+				contact.getVisionStart(), contact.getVisionEnd() };
+		// the current time of the contact is usually the timestamp of the bot, the others rarely change
+		writeVarLong(out, botValues.timestamp - contactValues[0]);
+		botValues.contact[0] = contactValues[0];
+		for (int i = 1; i < NUM_CONTACT_VALUES; i++)
+		{
+			writeVarLong(out, contactValues[i] - botValues.contact[i]);
+			botValues.contact[i] = contactValues[i];
+		}
+	}
+
+
+	/**
+	 * Decode a frame into the state of this codec.
+	 * Use {@link #toSimpleWorldFrame(KickedBall)} to create the decoded frame.
+	 *
+	 * @param timestamp the timestamp of the frame
+	 * @param data      the encoded frame
+	 * @return the header of the frame
+	 */
+	public Header decode(final long timestamp, final byte[] data)
+	{
+		ByteBuffer in = ByteBuffer.wrap(data);
+		int flags = in.get();
+		boolean keyFrame = (flags & FLAG_KEY_FRAME) != 0;
+		if (keyFrame)
+		{
+			reset();
+		}
+		this.timestamp = timestamp;
+		frameNumber += readVarLong(in);
+		unixTimestamp += readVarLong(in);
+		long refereeId = timestamp - readVarLong(in);
+		long kickId = (flags & FLAG_KICKED_BALL) != 0 ? timestamp - readVarLong(in) : NO_ID;
+
+		ball.timestamp = timestamp - readVarLong(in);
+		ball.lastVisibleTimestamp = ball.timestamp - readVarLong(in);
+		readDeltas(in, ball.quantized);
+
+		long numBots = readVarLong(in);
+		Map<BotID, BotValues> nextBots = new LinkedHashMap<>();
+		for (int i = 0; i < numBots; i++)
+		{
+			BotID botId = BotID.createBotId((int) readVarLong(in), TEAM_COLORS[in.get()]);
+			BotValues values = bots.getOrDefault(botId, new BotValues());
+			decodeBot(in, values);
+			nextBots.put(botId, values);
+		}
+		bots = nextBots;
+		return new Header(keyFrame, unixTimestamp, refereeId, kickId);
+	}
+
+
+	private void decodeBot(final ByteBuffer in, final BotValues botValues)
+	{
+		botValues.timestamp = timestamp - readVarLong(in);
+		botValues.malFunctioning = (in.get() & FLAG_MAL_FUNCTIONING) != 0;
+		readDeltas(in, botValues.quantized);
+		botValues.contact[0] = botValues.timestamp - readVarLong(in);
+		for (int i = 1; i < NUM_CONTACT_VALUES; i++)
+		{
+			botValues.contact[i] += readVarLong(in);
+		}
+	}
+
+
+	/**
+	 * @param kickedBall the kicked ball of the last decoded frame
+	 * @return the last decoded frame
+	 */
+	public SimpleWorldFrame toSimpleWorldFrame(final KickedBall kickedBall)
+	{
+		double[] b = dequantize(ball.quantized, BALL_QUANTA);
+		BallState ballState = BallState.builder()
+				.withPos(Vector3.fromXYZ(b[0], b[1], b[2]))
+				.withVel(Vector3.fromXYZ(b[3], b[4], b[5]))
+				.withAcc(Vector3.fromXYZ(b[6], b[7], b[8]))
+				.withSpin(Vector2.fromXY(b[9], b[10]))
+				.build();
+		TrackedBall trackedBall = TrackedBall.fromBallState(ball.timestamp, ballState, ball.lastVisibleTimestamp);
+
+		Map<BotID, ITrackedBot> trackedBots = new BotIdMap<>();
+		bots.forEach((botId, values) -> trackedBots.put(botId, toTrackedBot(botId, values)));
+		return new SimpleWorldFrame(frameNumber, timestamp, trackedBots, trackedBall, kickedBall);
+	}
+
+
+	private TrackedBot toTrackedBot(final BotID botId, final BotValues botValues)
+	{
+		double[] v = dequantize(botValues.quantized, BOT_QUANTA);
+		long[] c = botValues.contact;
+		return TrackedBot.newBuilder()
+				.withBotId(botId)
+				.withTimestamp(botValues.timestamp)
+				.withState(State.of(Pose.from(Vector2.fromXY(v[0], v[1]), v[2]), Vector3.fromXYZ(v[3], v[4], v[5])))
+				.withQuality(v[6])
+				.withMalFunctioning(botValues.malFunctioning)
+				.withLastBallContact(new BallContact(c[0], c[1], c[2], c[3], c[4]))
+				.withBotInfo(RobotInfo.stub(botId, botValues.timestamp))
+				.build();
+	}
+
+
+	private void reset()
+	{
+		frameNumber = 0;
+		unixTimestamp = 0;
+		ball.reset();
+		bots = new LinkedHashMap<>();
+	}
+
+
+	private static void writeDeltas(
+			final ByteArrayOutputStream out,
+			final double[] values,
+			final double[] quanta,
+			final long[] previous)
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			long quantized = Math.round(values[i] / quanta[i]);
+			writeVarLong(out, quantized - previous[i]);
+			previous[i] = quantized;
+		}
+	}
+
+
+	private static void readDeltas(final ByteBuffer in, final long[] previous)
+	{
+		for (int i = 0; i < previous.length; i++)
+		{
+			previous[i] += readVarLong(in);
+		}
+	}
+
+
+	private static double[] dequantize(final long[] quantized, final double[] quanta)
+	{
+		double[] values = new double[quantized.length];
+		for (int i = 0; i < quantized.length; i++)
+		{
+			values[i] = quantized[i] * quanta[i];
+		}
+		return values;
+	}
+
+
+	/**
+	 * Write a signed value with zigzag encoding and 7 bits per byte, so that small values take few bytes
+	 */
+	private static void writeVarLong(final ByteArrayOutputStream out, final long value)
+	{
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0)
+		{
+			out.write((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.write((int) zigzag);
+	}
+
+
+	private static long readVarLong(final ByteBuffer in)
+	{
+		long zigzag = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = in.get();
+			zigzag |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+
+	/**
+	 * The header of a decoded frame
+	 *
+	 * @param keyFrame      true, if the frame is a key frame
+	 * @param unixTimestamp the unix timestamp of the frame in [ms]
+	 * @param refereeId     the id of the referee frame
+	 * @param kickId        the id of the kick frame or {@link #NO_ID}
+	 */
+	public record Header(boolean keyFrame, long unixTimestamp, long refereeId, long kickId)
+	{
+	}
+
+
+	private static class BallValues
+	{
+		final long[] quantized = new long[BALL_QUANTA.length];
+		long timestamp;
+		long lastVisibleTimestamp;
+
+
+		void reset()
+		{
+			Arrays.fill(quantized, 0);
+			timestamp = 0;
+			lastVisibleTimestamp = 0;
+		}
+	}
+
+
+	private static class BotValues
+	{
+		final long[] quantized = new long[BOT_QUANTA.length];
+		final long[] contact = new long[NUM_CONTACT_VALUES];
+		long timestamp;
+		boolean malFunctioning;
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+/**
+ * What a {@link WorldFrameObserverDispatcher} does with new frames, if its observer falls behind.
+ * Events that are not frames, like clearing the frames, are always delivered.
+ */
+public enum EObserverDispatchPolicy
+{
+	/**
+	 * Only keep the latest pending frame of each kind, e.g. per camera or per shape map source.
+	 * For UIs and network exporters that do not need outdated frames.
+	 */
+	LATEST_ONLY,
+	/**
+	 * Deliver all frames. Only if the queue is full, the oldest pending frame is dropped.
+	 * For recorders and other consumers that need all frames, but must not slow down the producer.
+	 */
+	LOSSLESS,
+	/**
+	 * Deliver all world and camera frames and block the producer, while a frame is pending.
+	 * Shape maps only keep the latest pending frame per source, so the observer may publish shape maps itself.
+	 * Only for headless consumers that the whole pipeline should wait for, like the autoRef in simulation.
+	 */
+	BLOCK,
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Predicate;
+
+
+/**
+ * Index of all referee state changes of a recording.
+ * It allows searching a recording (e.g. for the next goal) without loading the world frames.
+ * <p>
+ * The index is read from the recorded {@link BerkeleyRefereeStateFrame}s. Recordings without these frames are
+ * indexed once by reading all world frames.
+ */
+@Log4j2
+public class RefereeStateIndex
+{
+	private final BerkeleyDb db;
+	private List<BerkeleyRefereeStateFrame> frames = Collections.emptyList();
+	private long numRecordedFrames = -1;
+
+
+	/**
+	 * @param db an opened database
+	 */
+	public RefereeStateIndex(final BerkeleyDb db)
+	{
+		this.db = db;
+	}
+
+
+	/**
+	 * Reload the index, if new state frames were recorded since the last refresh
+	 */
+	public synchronized void refresh()
+	{
+		long numFrames = db.size(BerkeleyRefereeStateFrame.class);
+		if (numFrames == numRecordedFrames)
+		{
+			return;
+		}
+		if (numFrames > 0)
+		{
+			frames = db.getAll(BerkeleyRefereeStateFrame.class);
+		} else
+		{
+			frames = buildFromWorldFrames();
+		}
+		numRecordedFrames = numFrames;
+	}
+
+
+	private List<BerkeleyRefereeStateFrame> buildFromWorldFrames()
+	{
+		log.info("Recording has no referee state index, building it from the world frames");
+		long tStart = System.nanoTime();
+		List<BerkeleyRefereeStateFrame> stateFrames = new ArrayList<>();
+		db.forEach(WorldFrameWrapper.class, wfw -> {
+			BerkeleyRefereeStateFrame stateFrame = new BerkeleyRefereeStateFrame(wfw);
+			if (stateFrames.isEmpty() || !stateFrames.getLast().hasSameState(stateFrame))
+			{
+				stateFrames.add(stateFrame);
+			}
+		});
+		log.info("Built referee state index with {} entries in {}s", stateFrames.size(),
+				(System.nanoTime() - tStart) / 1e9);
+		return stateFrames;
+	}
+
+
+	/**
+	 * Find the first time at or after the given timestamp where the state matches the predicate
+	 *
+	 * @param timestamp the timestamp to start the search from
+	 * @param predicate the searched state
+	 * @return the given timestamp, if the current state matches, the timestamp of the next matching state change
+	 * or empty, if the state does not match anymore
+	 */
+	public synchronized OptionalLong findNext(final long timestamp, final Predicate<BerkeleyRefereeStateFrame> predicate)
+	{
+		int current = floorIndex(timestamp);
+		if (current >= 0 && predicate.test(frames.get(current)))
+		{
+			return OptionalLong.of(timestamp);
+		}
+		for (int i = current + 1; i < frames.size(); i++)
+		{
+			if (predicate.test(frames.get(i)))
+			{
+				return OptionalLong.of(frames.get(i).getTimestamp());
+			}
+		}
+		return OptionalLong.empty();
+	}
+
+
+	/**
+	 * @return the index of the last frame with a timestamp less than or equal to the given timestamp or -1
+	 */
+	private int floorIndex(final long timestamp)
+	{
+		int low = 0;
+		int high = frames.size();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (frames.get(mid).getTimestamp() <= timestamp)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+}
@@ -1,36 +1,42 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp;
 
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
+import edu.tigers.sumatra.drawable.ShapeMapSubscriptions;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.persistence.IBerkeleyRecorder;
-import lombok.extern.log4j.Log4j2;
+import edu.tigers.sumatra.persistence.RecordingQueue;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 
 /**
- * Berkeley storage for cam frames
+ * Berkeley storage for shape maps.
+ * <p>
+ * The shape maps of all sources with the same timestamp are saved together in one frame. As the sources publish
+ * their shape maps at different times, the record saver collects them for {@link #BUFFER_TIME} before saving a frame.
+ * While recording, the recorder subscribes to all layers that are persisted.
  */
-@Log4j2
 public class ShapeMapBerkeleyRecorder implements IBerkeleyRecorder
 {
 	private static final int MAX_BUFFER_SIZE = 10000;
 	private static final long BUFFER_TIME = 1_000_000_000L;
 	private final WfwObserver wfwObserver = new WfwObserver();
 	private final BerkeleyDb db;
-	private final Map<Long, Map<ShapeMapSource, ShapeMap>> buffer = new ConcurrentSkipListMap<>();
+	private final RecordingQueue<BufferedShapeMap> buffer = new RecordingQueue<>("ShapeMap", MAX_BUFFER_SIZE);
+	/** frames that are still collected, only accessed by the record saver */
+	private final NavigableMap<Long, BerkeleyShapeMapFrame> pendingFrames = new TreeMap<>();
 	private long latestReceivedTimestamp = 0;
-	private boolean running = false;
-	private boolean droppingFrames = false;
+	private volatile boolean running = false;
+	private ShapeMapSubscriptions.Subscription subscription;
 
 
 	/**
@@ -47,6 +53,7 @@ public class ShapeMapBerkeleyRecorder implements IBerkeleyRecorder
 	{
 		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
 		wp.addObserver(wfwObserver);
+		subscription = ShapeMapSubscriptions.subscribe(source -> true, ShapeMap::isPersistent);
 		running = true;
 	}
 
@@ -56,6 +63,11 @@ public class ShapeMapBerkeleyRecorder implements IBerkeleyRecorder
 	{
 		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
 		wp.removeObserver(wfwObserver);
+		if (subscription != null)
+		{
+			subscription.close();
+			subscription = null;
+		}
 		running = false;
 	}
 
@@ -63,20 +75,34 @@ public class ShapeMapBerkeleyRecorder implements IBerkeleyRecorder
 	@Override
 	public void flush()
 	{
-		Map<Long, BerkeleyShapeMapFrame> toSave = new HashMap<>();
-		for (var entry : buffer.entrySet())
+		for (BufferedShapeMap buffered : buffer.drain())
+		{
+			pendingFrames.computeIfAbsent(buffered.timestamp(), BerkeleyShapeMapFrame::new)
+					.putShapeMap(buffered.source(), toPersistent(buffered.shapeMap()));
+			latestReceivedTimestamp = Math.max(buffered.timestamp(), latestReceivedTimestamp);
+		}
+
+		List<BerkeleyShapeMapFrame> toSave = new ArrayList<>();
+		while (!pendingFrames.isEmpty() && !isBuffering(pendingFrames.firstKey()))
 		{
-			if (isBuffering(entry.getKey()))
-			{
-				break;
-			}
-			var frame = new BerkeleyShapeMapFrame(entry.getKey());
-			entry.getValue().forEach(frame::putShapeMap);
-			toSave.put(entry.getKey(), frame);
-			buffer.remove(entry.getKey());
+			toSave.add(pendingFrames.pollFirstEntry().getValue());
 		}
 
-		db.write(BerkeleyShapeMapFrame.class, toSave.values());
+		db.write(BerkeleyShapeMapFrame.class, toSave);
+	}
+
+
+	@Override
+	public List<RecordingQueue<?>> getRecordingQueues()
+	{
+		return List.of(buffer);
+	}
+
+
+	private ShapeMap toPersistent(ShapeMap shapeMap)
+	{
+		// frozen shape maps are buffered as they are and only copied when they are saved
+		return shapeMap.isFrozen() ? shapeMap.persistentCopy() : shapeMap;
 	}
 
 
@@ -91,24 +117,13 @@ public class ShapeMapBerkeleyRecorder implements IBerkeleyRecorder
 		@Override
 		public void onNewShapeMap(final long timestamp, final ShapeMap shapeMap, final ShapeMapSource source)
 		{
-
-			if (buffer.size() > MAX_BUFFER_SIZE)
-			{
-				if (!droppingFrames)
-				{
-					log.warn("ShapeMap buffer is full. Dropping frames!");
-					droppingFrames = true;
-				}
-			} else
-			{
-				var frame = buffer.computeIfAbsent(timestamp, k -> new ConcurrentHashMap<>());
-				ShapeMap shapeMapCopy = new ShapeMap();
-				shapeMapCopy.addAll(shapeMap);
-				shapeMapCopy.removeNonPersistent();
-				frame.put(source, shapeMapCopy);
-				latestReceivedTimestamp = Math.max(timestamp, latestReceivedTimestamp);
-				droppingFrames = false;
-			}
+			buffer.offer(new BufferedShapeMap(timestamp, source,
+					shapeMap.isFrozen() ? shapeMap : shapeMap.persistentCopy()));
 		}
 	}
+
+
+	private record BufferedShapeMap(long timestamp, ShapeMapSource source, ShapeMap shapeMap)
+	{
+	}
 }
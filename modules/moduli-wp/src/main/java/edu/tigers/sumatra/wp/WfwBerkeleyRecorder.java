@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp;
@@ -7,26 +7,23 @@ package edu.tigers.sumatra.wp;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.persistence.IBerkeleyRecorder;
+import edu.tigers.sumatra.persistence.RecordingQueue;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
-import lombok.extern.log4j.Log4j2;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 
 /**
  * Berkeley recorder for AI data
  */
-@Log4j2
 public class WfwBerkeleyRecorder implements IBerkeleyRecorder
 {
 	private static final int MAX_BUFFER_SIZE = 10000;
-	private final Queue<WorldFrameWrapper> worldFrames = new ConcurrentLinkedQueue<>();
+	private final RecordingQueue<WorldFrameWrapper> worldFrames = new RecordingQueue<>("WFW", MAX_BUFFER_SIZE);
 	private final WfwObserver wfwObserver = new WfwObserver();
 	private final BerkeleyDb db;
-	private boolean droppingFrames = false;
+	private BerkeleyRefereeStateFrame lastStateFrame = null;
 
 
 	/**
@@ -57,14 +54,32 @@ public class WfwBerkeleyRecorder implements IBerkeleyRecorder
 	@Override
 	public void flush()
 	{
-		List<WorldFrameWrapper> frameToSave = new ArrayList<>();
-		WorldFrameWrapper wfw = worldFrames.poll();
-		while (wfw != null)
+		List<WorldFrameWrapper> frameToSave = worldFrames.drain();
+		db.write(WorldFrameWrapper.class, frameToSave);
+		db.write(BerkeleyRefereeStateFrame.class, getStateChanges(frameToSave));
+	}
+
+
+	private List<BerkeleyRefereeStateFrame> getStateChanges(List<WorldFrameWrapper> frames)
+	{
+		List<BerkeleyRefereeStateFrame> stateChanges = new ArrayList<>();
+		for (WorldFrameWrapper frame : frames)
 		{
-			frameToSave.add(wfw);
-			wfw = worldFrames.poll();
+			BerkeleyRefereeStateFrame stateFrame = new BerkeleyRefereeStateFrame(frame);
+			if (lastStateFrame == null || !lastStateFrame.hasSameState(stateFrame))
+			{
+				stateChanges.add(stateFrame);
+				lastStateFrame = stateFrame;
+			}
 		}
-		db.write(WorldFrameWrapper.class, frameToSave);
+		return stateChanges;
+	}
+
+
+	@Override
+	public List<RecordingQueue<?>> getRecordingQueues()
+	{
+		return List.of(worldFrames);
 	}
 
 
@@ -73,18 +88,7 @@ public class WfwBerkeleyRecorder implements IBerkeleyRecorder
 		@Override
 		public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
 		{
-			if (worldFrames.size() > MAX_BUFFER_SIZE)
-			{
-				if (!droppingFrames)
-				{
-					log.warn("WFW buffer is full. Dropping frames!");
-					droppingFrames = true;
-				}
-			} else
-			{
-				worldFrames.add(wFrameWrapper);
-				droppingFrames = false;
-			}
+			worldFrames.offer(wFrameWrapper);
 		}
 	}
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import edu.tigers.sumatra.util.Safe;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+
+/**
+ * Delivers the events of an {@link AWorldPredictor} to a single {@link IWorldFrameObserver} on its own thread.
+ * <p>
+ * The producer only enqueues the events, so a slow observer does not delay the next frame for the others.
+ * The {@link EObserverDispatchPolicy} decides what happens with new frames, if the observer falls behind.
+ * Only the frames of the world predictor itself apply backpressure with {@link EObserverDispatchPolicy#BLOCK}.
+ * Frames that other modules publish, like shape maps, only keep the latest pending frame of each kind instead,
+ * so that a blocking observer that publishes shapes itself never waits for its own queue.
+ * All other events are always delivered, in the order they were published.
+ * A {@link EObserverDispatchPolicy#BLOCK} observer has a capacity of a single pending frame, so that the producer
+ * stays in lock-step with the observer, like it did when it called the observer directly.
+ * The dispatcher counts published and dropped events and measures the dispatch latency from publishing an event
+ * until the observer processed it, and the lag, which is the number of pending events.
+ */
+@Log4j2
+public class WorldFrameObserverDispatcher
+{
+	@Configurable(defValue = "1000", comment = "Max number of pending events per world frame observer, except for blocking ones")
+	private static int queueCapacity = 1000;
+
+	@Configurable(defValue = "1.0",
+			comment = "Max time [s] to wait for a lossless observer to process its pending events on removal")
+	private static double closeTimeout = 1.0;
+
+	static
+	{
+		ConfigRegistration.registerClass("wp", WorldFrameObserverDispatcher.class);
+	}
+
+	@Getter
+	private final IWorldFrameObserver observer;
+	@Getter
+	private final EObserverDispatchPolicy policy;
+	@Getter
+	private final String name;
+	private final int capacity;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition idle = lock.newCondition();
+	private final Deque<Event> events = new ArrayDeque<>();
+	private Thread thread;
+	private boolean closed = false;
+	private boolean processing = false;
+	private boolean overflowing = false;
+	private long numPublished = 0;
+	private long numDropped = 0;
+	private int maxLag = 0;
+
+	@Getter
+	private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+
+
+	/**
+	 * @param observer the observer to deliver the events to
+	 * @param policy   what to do with new frames, if the observer falls behind
+	 */
+	WorldFrameObserverDispatcher(final IWorldFrameObserver observer, final EObserverDispatchPolicy policy)
+	{
+		this(observer, policy, policy == EObserverDispatchPolicy.BLOCK ? 1 : queueCapacity);
+	}
+
+
+	/**
+	 * @param observer the observer to deliver the events to
+	 * @param policy   what to do with new frames, if the observer falls behind
+	 * @param capacity the max number of pending frames
+	 */
+	WorldFrameObserverDispatcher(final IWorldFrameObserver observer, final EObserverDispatchPolicy policy,
+			final int capacity)
+	{
+		this.observer = observer;
+		this.policy = policy;
+		String simpleName = observer.getClass().getSimpleName();
+		name = simpleName.isEmpty() ? observer.getClass().getName() : simpleName;
+		this.capacity = Math.max(1, capacity);
+	}
+
+
+	void start()
+	{
+		thread = Thread.ofVirtual().name("WP Observer " + name).start(this::run);
+	}
+
+
+	/**
+	 * Stop accepting new events.
+	 * With {@link EObserverDispatchPolicy#LATEST_ONLY}, pending events are discarded. Otherwise, this waits until the
+	 * observer processed its pending events, so that recorders do not lose the last frames.
+	 * An event that is currently processed by the observer is never interrupted.
+	 */
+	void close()
+	{
+		lock.lock();
+		try
+		{
+			closed = true;
+			if (policy == EObserverDispatchPolicy.LATEST_ONLY)
+			{
+				events.clear();
+			}
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally
+		{
+			lock.unlock();
+		}
+
+		if (thread != null && thread != Thread.currentThread())
+		{
+			awaitTermination();
+		}
+	}
+
+
+	private void awaitTermination()
+	{
+		try
+		{
+			if (thread.join(Duration.ofMillis((long) (closeTimeout * 1e3))))
+			{
+				return;
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		lock.lock();
+		try
+		{
+			log.warn("World frame observer {} did not process its {} pending events in time", name, events.size());
+			numDropped += events.size();
+			events.clear();
+		} finally
+		{
+			lock.unlock();
+		}
+		// the observer may wait for something that will not happen anymore
+		thread.interrupt();
+	}
+
+
+	/**
+	 * Enqueue a new event for the observer.
+	 *
+	 * @param frameKey     identifies the kind of frame, to decide which frames can be dropped,
+	 *                     or null, if the event must always be delivered
+	 * @param backpressure true, if the frame may block the publisher with {@link EObserverDispatchPolicy#BLOCK}.
+	 *                     Must be false for publishers that wait for the observer themselves.
+	 * @param action       the action to call on the observer
+	 */
+	void publish(final Object frameKey, final boolean backpressure, final Consumer<IWorldFrameObserver> action)
+	{
+		Event event = new Event(frameKey, action, System.nanoTime());
+		lock.lock();
+		try
+		{
+			if (closed)
+			{
+				return;
+			}
+			numPublished++;
+			if (frameKey != null)
+			{
+				makeRoom(frameKey, backpressure);
+			}
+			if (!closed)
+			{
+				events.addLast(event);
+				maxLag = Math.max(maxLag, events.size());
+				notEmpty.signal();
+			}
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	private void makeRoom(final Object frameKey, final boolean backpressure)
+	{
+		switch (policy)
+		{
+			case LATEST_ONLY -> dropPendingFrame(frameKey);
+			case LOSSLESS ->
+			{
+				if (events.size() >= capacity)
+				{
+					dropOldestFrame();
+				}
+			}
+			case BLOCK ->
+			{
+				if (backpressure)
+				{
+					awaitRoom();
+				} else
+				{
+					dropPendingFrame(frameKey);
+				}
+			}
+		}
+	}
+
+
+	private void dropPendingFrame(final Object frameKey)
+	{
+		// there is at most one pending frame per key
+		if (events.removeIf(e -> frameKey.equals(e.frameKey())))
+		{
+			numDropped++;
+		}
+	}
+
+
+	private void awaitRoom()
+	{
+		while (events.size() >= capacity && !closed)
+		{
+			try
+			{
+				notFull.await();
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				dropOldestFrame();
+				return;
+			}
+		}
+	}
+
+
+	private void dropOldestFrame()
+	{
+		Iterator<Event> iterator = events.iterator();
+		while (iterator.hasNext())
+		{
+			if (iterator.next().frameKey() != null)
+			{
+				iterator.remove();
+				numDropped++;
+				if (!overflowing)
+				{
+					overflowing = true;
+					log.warn("World frame observer {} can not keep up. Dropping frames!", name);
+				}
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Wait until the observer processed all pending events, including the one it is currently processing.
+	 * Returns immediately, if the dispatcher is closed and its thread terminated, or if called by the observer itself.
+	 */
+	void awaitIdle()
+	{
+		if (thread == Thread.currentThread())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			while ((processing || !events.isEmpty()) && thread != null && thread.isAlive())
+			{
+				idle.await();
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	private void run()
+	{
+		Event event = take();
+		while (event != null)
+		{
+			Safe.run(event.action(), observer);
+			dispatchLatency.record(System.nanoTime() - event.timestamp());
+			event = take();
+		}
+	}
+
+
+	private Event take()
+	{
+		lock.lock();
+		try
+		{
+			processing = false;
+			if (events.isEmpty())
+			{
+				idle.signalAll();
+			}
+			while (events.isEmpty() && !closed)
+			{
+				notEmpty.awaitUninterruptibly();
+			}
+			if (events.isEmpty())
+			{
+				// closed and all events were processed
+				return null;
+			}
+			processing = true;
+			Event event = events.pollFirst();
+			if (events.isEmpty())
+			{
+				overflowing = false;
+			}
+			notFull.signal();
+			return event;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the number of pending events
+	 */
+	public int getLag()
+	{
+		lock.lock();
+		try
+		{
+			return events.size();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the max number of pending events so far
+	 */
+	public int getMaxLag()
+	{
+		lock.lock();
+		try
+		{
+			return maxLag;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the number of published events, including the dropped ones
+	 */
+	public long getNumPublished()
+	{
+		lock.lock();
+		try
+		{
+			return numPublished;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the number of dropped frames
+	 */
+	public long getNumDropped()
+	{
+		lock.lock();
+		try
+		{
+			return numDropped;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ENGLISH,
+				"%s: %d published, %d dropped (%s), lag %d, max lag %d/%d, latency avg %.2fms, p99 %.2fms, max %.2fms",
+				name, getNumPublished(), getNumDropped(), policy, getLag(), getMaxLag(), capacity,
+				dispatchLatency.getAverageTime() * 1e3,
+				dispatchLatency.getPercentileTime(0.99) * 1e3,
+				dispatchLatency.getMaxTime() * 1e3);
+	}
+
+
+	private record Event(Object frameKey, Consumer<IWorldFrameObserver> action, long timestamp)
+	{
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp;
@@ -17,15 +17,16 @@ import edu.tigers.sumatra.cam.ICamFrameObserver;
 import edu.tigers.sumatra.cam.data.CamBall;
 import edu.tigers.sumatra.cam.data.CamDetectionFrame;
 import edu.tigers.sumatra.cam.data.CamObjectFilterParams;
-import edu.tigers.sumatra.data.TimestampBasedBuffer;
 import edu.tigers.sumatra.drawable.DrawableBorderText;
 import edu.tigers.sumatra.drawable.DrawableRectangle;
 import edu.tigers.sumatra.drawable.EFontSize;
 import edu.tigers.sumatra.drawable.IDrawableShape;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
+import edu.tigers.sumatra.drawable.ShapeMapSubscriptions;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.math.pose.Pose;
 import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
@@ -39,7 +40,6 @@ import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
 import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
 import edu.tigers.sumatra.referee.source.ERefereeMessageSource;
-import edu.tigers.sumatra.util.Safe;
 import edu.tigers.sumatra.vision.AVisionFilter;
 import edu.tigers.sumatra.vision.IVisionFilterObserver;
 import edu.tigers.sumatra.vision.data.FilteredVisionBall;
@@ -67,7 +67,6 @@ import lombok.extern.log4j.Log4j2;
 import java.awt.Color;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -75,7 +74,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 
 /**
@@ -87,7 +85,6 @@ public class WorldInfoCollector extends AWorldPredictor
 {
 	private static final ShapeMapSource WP_SHAPE_MAP_SOURCE = ShapeMapSource.of("World Frame");
 	private static final ShapeMapSource VISION_SHAPE_MAP_SOURCE = ShapeMapSource.of("Vision");
-	private static final ShapeMapSource VISION_FILTER_SHAPE_MAP_SOURCE = ShapeMapSource.of("Vision Filter");
 
 	@Configurable(
 			comment = "Add a faked ball. Set pos,vel,acc in code.",
@@ -124,7 +121,6 @@ public class WorldInfoCollector extends AWorldPredictor
 	}
 
 	private final BerkeleyAutoPauseHook berkeleyAutoPauseHook = new BerkeleyAutoPauseHook();
-	private final TimestampBasedBuffer<ITrackedBall> ballBuffer = new TimestampBasedBuffer<>(0.3);
 	private final GameStateCalculator gameStateCalculator = new GameStateCalculator();
 	private final WorldFrameVisualization worldFrameVisualization = new WorldFrameVisualization();
 	private final MalFunctioningBotCalculator malFunctioningBotCalculator = new MalFunctioningBotCalculator();
@@ -143,7 +139,7 @@ public class WorldInfoCollector extends AWorldPredictor
 	private Map<BotID, BotState> getFilteredBotStates(final Collection<FilteredVisionBot> visionBots)
 	{
 		return visionBots.stream()
-				.collect(Collectors.toMap(
+				.collect(BotIdMap.toBotIdMap(
 						FilteredVisionBot::getBotID,
 						FilteredVisionBot::toBotState));
 	}
@@ -152,7 +148,7 @@ public class WorldInfoCollector extends AWorldPredictor
 	private Map<BotID, FilteredVisionBot> getFilteredBots(final Collection<FilteredVisionBot> visionBots)
 	{
 		return visionBots.stream()
-				.collect(Collectors.toMap(
+				.collect(BotIdMap.toBotIdMap(
 						FilteredVisionBot::getBotID,
 						Function.identity()));
 	}
@@ -164,7 +160,7 @@ public class WorldInfoCollector extends AWorldPredictor
 				.map(RobotInfo::getInternalState)
 				.filter(Optional::isPresent)
 				.map(Optional::get)
-				.collect(Collectors.toMap(
+				.collect(BotIdMap.toBotIdMap(
 						BotState::getBotId,
 						Function.identity()));
 	}
@@ -230,14 +226,13 @@ public class WorldInfoCollector extends AWorldPredictor
 		Map<BotID, BotState> internalBotStates = getInternalBotStates(robotInfo);
 		Map<BotID, FilteredVisionBot> filteredVisionBotMap = getFilteredBots(filteredVisionBots);
 
-		Map<BotID, ITrackedBot> trackedBots = robotInfo.stream()
+		return robotInfo.stream()
 				.map(r -> createTrackedBot(r, filteredBotStates.get(r.getBotId()),
 						internalBotStates.get(r.getBotId()),
 						filteredVisionBotMap.get(r.getBotId()),
 						filteredBotStates))
 				.filter(Objects::nonNull)
-				.collect(Collectors.toMap(ITrackedBot::getBotId, Function.identity()));
-		return new HashMap<>(trackedBots);
+				.collect(BotIdMap.toBotIdMap(ITrackedBot::getBotId, Function.identity()));
 	}
 
 
@@ -248,7 +243,7 @@ public class WorldInfoCollector extends AWorldPredictor
 
 		return allRelevantBots.stream()
 				.map(robotInfoProvider::getRobotInfo)
-				.collect(Collectors.toMap(
+				.collect(BotIdMap.toBotIdMap(
 						RobotInfo::getBotId,
 						Function.identity()));
 	}
@@ -256,13 +251,20 @@ public class WorldInfoCollector extends AWorldPredictor
 
 	private void visualize(final WorldFrameWrapper wfw)
 	{
-		ShapeMap wfShapeMap = new ShapeMap();
-		worldFrameVisualization.process(wfw, wfShapeMap);
-		notifyNewShapeMap(lastWFTimestamp, wfShapeMap, WP_SHAPE_MAP_SOURCE);
+		// skip the visualization entirely, if nobody is interested, like on a headless auto referee
+		if (ShapeMapSubscriptions.isSubscribed(WP_SHAPE_MAP_SOURCE))
+		{
+			ShapeMap wfShapeMap = new ShapeMap(WP_SHAPE_MAP_SOURCE);
+			worldFrameVisualization.process(wfw, wfShapeMap);
+			notifyNewShapeMap(lastWFTimestamp, wfShapeMap, WP_SHAPE_MAP_SOURCE);
+		}
 
-		ShapeMap visionShapeMap = camFrameShapeMapProducer.createShapeMap();
-		addCamObjectFilterShapes(visionShapeMap);
-		notifyNewShapeMap(lastWFTimestamp, visionShapeMap, VISION_SHAPE_MAP_SOURCE);
+		if (ShapeMapSubscriptions.isSubscribed(VISION_SHAPE_MAP_SOURCE))
+		{
+			ShapeMap visionShapeMap = camFrameShapeMapProducer.createShapeMap();
+			addCamObjectFilterShapes(visionShapeMap);
+			notifyNewShapeMap(lastWFTimestamp, visionShapeMap, VISION_SHAPE_MAP_SOURCE);
+		}
 	}
 
 
@@ -316,7 +318,6 @@ public class WorldInfoCollector extends AWorldPredictor
 		Map<BotID, ITrackedBot> bots = collectTrackedBots(filteredVisionFrame.getBots(), robotInfo.values());
 
 		ITrackedBall ball = getTrackedBall(filteredVisionFrame);
-		ballBuffer.add(ball);
 
 		KickedBall kickedBall = filteredVisionFrame.getKick()
 				.map(this::getKickedBall).orElse(null);
@@ -332,8 +333,7 @@ public class WorldInfoCollector extends AWorldPredictor
 		GameState gameState = gameStateCalculator.getNextGameState(latestRefereeMsg, ball.getPos(), lastWFTimestamp);
 
 		WorldFrameWrapper wfw = new WorldFrameWrapper(swf, latestRefereeMsg, gameState);
-		Safe.forEach(consumers, c -> c.onNewWorldFrame(wfw));
-		Safe.forEach(observers, c -> c.onNewWorldFrame(wfw));
+		notifyNewWorldFrame(wfw);
 
 		visualize(wfw);
 		ShapeMap.setPersistDebugShapes(!SumatraModel.getInstance().isTournamentMode());
@@ -490,7 +490,7 @@ public class WorldInfoCollector extends AWorldPredictor
 	public void reset()
 	{
 		log.debug("Resetting world info collector");
-		observers.forEach(IWorldFrameObserver::onClearCamDetectionFrame);
+		notifyClearCamDetectionFrame();
 
 		gameStateCalculator.reset();
 		worldFrameVisualization.reset();
@@ -510,26 +510,11 @@ public class WorldInfoCollector extends AWorldPredictor
 	}
 
 
-	private void clearObservers()
-	{
-		if (!observers.isEmpty())
-		{
-			log.warn("There were observers left: {}", observers);
-			observers.clear();
-		}
-		if (!consumers.isEmpty())
-		{
-			log.warn("There were consumers left: {}", consumers);
-			consumers.clear();
-		}
-	}
-
-
 	@Override
 	public void onNewFilteredVisionFrame(final FilteredVisionFrame filteredVisionFrame)
 	{
 		processFilteredVisionFrame(filteredVisionFrame);
-		notifyNewShapeMap(lastWFTimestamp, filteredVisionFrame.getShapeMap(), VISION_FILTER_SHAPE_MAP_SOURCE);
+		notifyNewShapeMap(lastWFTimestamp, filteredVisionFrame.getShapeMap(), AVisionFilter.SHAPE_MAP_SOURCE);
 	}
 
 
@@ -560,7 +545,7 @@ public class WorldInfoCollector extends AWorldPredictor
 	{
 		CamBall ball = currentBallDetector.findCurrentBall(camDetectionFrame.getBalls());
 		ExtendedCamDetectionFrame eFrame = new ExtendedCamDetectionFrame(camDetectionFrame, ball);
-		observers.forEach(o -> o.onNewCamDetectionFrame(eFrame));
+		notifyNewCamDetectionFrame(eFrame);
 		camFrameShapeMapProducer.updateCamFrameShapes(eFrame);
 	}
 
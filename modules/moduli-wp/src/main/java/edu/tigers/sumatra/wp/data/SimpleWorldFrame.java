@@ -1,11 +1,12 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.data;
 
 import com.sleepycat.persist.model.Persistent;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.math.IMirrorable;
 import lombok.AccessLevel;
 import lombok.Data;
@@ -16,7 +17,6 @@ import lombok.Setter;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 
 /**
@@ -71,8 +71,8 @@ public class SimpleWorldFrame implements IMirrorable<SimpleWorldFrame>
 	@Override
 	public SimpleWorldFrame mirrored()
 	{
-		var mBots = bots.entrySet().stream()
-				.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().mirrored()));
+		Map<BotID, ITrackedBot> mBots = new BotIdMap<>();
+		bots.forEach((botId, bot) -> mBots.put(botId, bot.mirrored()));
 		var mBall = getBall().mirrored();
 		var mKickedBall = kickedBall == null ? null : kickedBall.mirrored();
 		return new SimpleWorldFrame(frameNumber, timestamp, mBots, mBall, mKickedBall);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.data;
@@ -88,6 +88,20 @@ public class TrackedBall implements ITrackedBall
 	}
 
 
+	/**
+	 * Create a tracked ball from a BallState.
+	 *
+	 * @param timestamp            [ns]
+	 * @param state                State in milli units.
+	 * @param lastVisibleTimestamp the timestamp when the ball was last seen [ns]
+	 * @return
+	 */
+	public static TrackedBall fromBallState(final long timestamp, final BallState state, final long lastVisibleTimestamp)
+	{
+		return new TrackedBall(timestamp, state, lastVisibleTimestamp);
+	}
+
+
 	/**
 	 * Create a tracked ball from a FilteredVisionBall.
 	 *
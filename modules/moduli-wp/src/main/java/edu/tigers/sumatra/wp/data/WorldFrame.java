@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.data;
@@ -7,6 +7,7 @@ package edu.tigers.sumatra.wp.data;
 import edu.tigers.sumatra.bot.RobotInfo;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.ids.EAiTeam;
 import edu.tigers.sumatra.ids.ETeamColor;
 import lombok.AccessLevel;
@@ -17,8 +18,6 @@ import lombok.Getter;
 import java.util.Collections;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 /**
@@ -46,8 +45,9 @@ public class WorldFrame extends SimpleWorldFrame
 		opponentBots = computeOpponentBots(simpleWorldFrame, team);
 		tigerBotsAvailable = computeTigersAvailable(simpleWorldFrame, team);
 		tigerBotsVisible = computeTigersVisible(simpleWorldFrame, team);
-		allBots = Stream.concat(opponentBots.entrySet().stream(), tigerBotsVisible.entrySet().stream())
-				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+		Map<BotID, ITrackedBot> bots = new BotIdMap<>(opponentBots);
+		bots.putAll(tigerBotsVisible);
+		allBots = bots;
 	}
 
 
@@ -97,7 +97,7 @@ public class WorldFrame extends SimpleWorldFrame
 							.withState(bot.getFilteredState().orElse(bot.getBotState()))
 							.build();
 				})
-				.collect(Collectors.toMap(TrackedBot::getBotId, Function.identity()));
+				.collect(BotIdMap.toBotIdMap(TrackedBot::getBotId, Function.identity()));
 		return Collections.unmodifiableMap(opponents);
 	}
 
@@ -106,7 +106,7 @@ public class WorldFrame extends SimpleWorldFrame
 	{
 		Map<BotID, ITrackedBot> visible = simpleWorldFrame.getBots().values().stream()
 				.filter(bot -> aiTeam.matchesColor(bot.getTeamColor()))
-				.collect(Collectors.toMap(ITrackedBot::getBotId, Function.identity()));
+				.collect(BotIdMap.toBotIdMap(ITrackedBot::getBotId, Function.identity()));
 		return Collections.unmodifiableMap(visible);
 	}
 
@@ -118,7 +118,7 @@ public class WorldFrame extends SimpleWorldFrame
 				.filter(bot -> bot.getRobotInfo().isConnected())
 				.filter(bot -> bot.getRobotInfo().isAvailableToAi())
 				.filter(bot -> !bot.isMalFunctioning())
-				.collect(Collectors.toMap(ITrackedBot::getBotId, Function.identity()));
+				.collect(BotIdMap.toBotIdMap(ITrackedBot::getBotId, Function.identity()));
 		return Collections.unmodifiableMap(visible);
 	}
 
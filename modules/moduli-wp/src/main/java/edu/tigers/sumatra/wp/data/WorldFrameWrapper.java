@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.data;
@@ -26,7 +26,7 @@ public class WorldFrameWrapper
 	@PrimaryKey
 	private final long timestamp;
 	
-	private final long timestampMs = System.currentTimeMillis();
+	private final long timestampMs;
 	private final SimpleWorldFrame simpleWorldFrame;
 	private final RefereeMsg refereeMsg;
 	private GameState gameState = GameState.HALT;
@@ -38,16 +38,31 @@ public class WorldFrameWrapper
 	private WorldFrameWrapper()
 	{
 		timestamp = 0;
+		timestampMs = System.currentTimeMillis();
 		simpleWorldFrame = null;
 		refereeMsg = new RefereeMsg();
 	}
 	
 	
 	public WorldFrameWrapper(final SimpleWorldFrame swf, final RefereeMsg refereeMsg, final GameState gameState)
+	{
+		this(swf, refereeMsg, gameState, System.currentTimeMillis());
+	}
+	
+	
+	/**
+	 * @param swf           the simple world frame
+	 * @param refereeMsg    the latest referee message
+	 * @param gameState     the current game state
+	 * @param unixTimestamp the unix timestamp in [ms] at which the frame was created
+	 */
+	public WorldFrameWrapper(final SimpleWorldFrame swf, final RefereeMsg refereeMsg, final GameState gameState,
+			final long unixTimestamp)
 	{
 		assert refereeMsg != null;
 		assert swf != null;
 		timestamp = swf.getTimestamp();
+		timestampMs = unixTimestamp;
 		simpleWorldFrame = swf;
 		this.refereeMsg = refereeMsg;
 		this.gameState = gameState;
@@ -62,6 +77,7 @@ public class WorldFrameWrapper
 	public WorldFrameWrapper(final WorldFrameWrapper wfw)
 	{
 		timestamp = wfw.getSimpleWorldFrame().getTimestamp();
+		timestampMs = System.currentTimeMillis();
 		simpleWorldFrame = wfw.simpleWorldFrame;
 		refereeMsg = wfw.refereeMsg;
 		worldFrames.putAll(wfw.worldFrames);
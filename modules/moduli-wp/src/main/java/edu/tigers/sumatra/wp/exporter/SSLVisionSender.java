@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.exporter;
@@ -25,6 +25,7 @@ import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.network.MulticastUDPTransmitter;
 import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.ITrackedBot;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
@@ -65,7 +66,8 @@ public class SSLVisionSender extends AModule implements IWorldFrameObserver
 			transmitter.connectToAllInterfaces();
 		}
 
-		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(this);
+		SumatraModel.getInstance().getModule(AWorldPredictor.class)
+				.addObserver(this, EObserverDispatchPolicy.LATEST_ONLY);
 	}
 
 
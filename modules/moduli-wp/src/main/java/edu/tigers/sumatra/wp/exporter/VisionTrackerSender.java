@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.exporter;
@@ -8,6 +8,7 @@ import edu.tigers.moduli.AModule;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.network.MulticastUDPTransmitter;
 import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.TrackerPacketGenerator;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
@@ -56,7 +57,8 @@ public class VisionTrackerSender extends AModule implements IWorldFrameObserver
 		String sourceName = getSubnodeConfiguration().getString("source-name", "TIGERs");
 		trackerPacketGenerator = new TrackerPacketGenerator(sourceName);
 
-		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(this);
+		SumatraModel.getInstance().getModule(AWorldPredictor.class)
+				.addObserver(this, EObserverDispatchPolicy.LATEST_ONLY);
 	}
 
 
@@ -1,9 +1,10 @@
 /*
- * Copyright (c) 2009 - 2020, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.wp.vis;
 
+import edu.tigers.sumatra.cam.data.CamFieldSize;
 import edu.tigers.sumatra.drawable.DrawableCircle;
 import edu.tigers.sumatra.drawable.DrawableFieldBackground;
 import edu.tigers.sumatra.drawable.DrawableLine;
@@ -20,26 +21,49 @@ import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
 
 /**
- * Generate field lines
+ * Generate field lines.
+ * The shapes are only recreated if the field changes, so that the visualizer can reuse its cached rendering.
  */
 public class BorderVisCalc implements IWpCalc
 {
 	private static final double GOAL_BORDER_WIDTH_MM = 20;
 
 
+	private FieldLinesKey lastKey;
+	private List<IDrawableShape> regularShapes = List.of();
+	private List<IDrawableShape> additionalShapes = List.of();
+
+
 	@Override
 	public void process(final WorldFrameWrapper wfw, final ShapeMap shapeMap)
 	{
-		List<IDrawableShape> shapes = shapeMap.get(EWpShapesLayer.FIELD_LINES_REGULAR);
+		FieldLinesKey key = new FieldLinesKey(
+				Geometry.getLastCamGeometry().getFieldSize(),
+				wfw.getRefereeMsg().getNegativeHalfTeam(),
+				wfw.getGameState().isPenaltyOrPreparePenalty()
+		);
+		if (!key.equals(lastKey))
+		{
+			lastKey = key;
+			regularShapes = createRegularShapes(key);
+			additionalShapes = createAdditionalShapes();
+		}
+		shapeMap.get(EWpShapesLayer.FIELD_LINES_REGULAR).addAll(regularShapes);
+		shapeMap.get(EWpShapesLayer.FIELD_LINES_ADDITIONAL).addAll(additionalShapes);
+	}
+
+
+	private List<IDrawableShape> createRegularShapes(FieldLinesKey key)
+	{
+		List<IDrawableShape> shapes = new ArrayList<>();
 
 		var widthHalf = Geometry.getFieldWidth() / 2.0;
-		var lengthHalf = Geometry.getFieldLength() / 2.0;
-		var lengthQuarter = Geometry.getFieldLength() / 4.0;
 
 		shapes.add(new DrawableFieldBackground(Geometry.getField(), Geometry.getBoundaryWidth()));
 		drawLine(shapes, new DrawableRectangle(Geometry.getField()));
@@ -48,26 +72,36 @@ public class BorderVisCalc implements IWpCalc
 		drawLine(shapes, new DrawableShapeBoundary(Geometry.getPenaltyAreaOur()));
 		drawLine(shapes, new DrawableShapeBoundary(Geometry.getPenaltyAreaTheir()));
 
-		List<IDrawableShape> additionalShapes = shapeMap.get(EWpShapesLayer.FIELD_LINES_ADDITIONAL);
-		drawLine(additionalShapes, new DrawableLine(Vector2.fromX(-lengthHalf), Vector2.fromX(lengthHalf)));
-		drawLine(additionalShapes,
-				new DrawableLine(Vector2.fromXY(-lengthQuarter, -widthHalf), Vector2.fromXY(-lengthQuarter, widthHalf)));
-		drawLine(additionalShapes,
-				new DrawableLine(Vector2.fromXY(lengthQuarter, -widthHalf), Vector2.fromXY(lengthQuarter, widthHalf)));
-
-
-		Color ourColor = wfw.getRefereeMsg().getNegativeHalfTeam() == ETeamColor.BLUE ? Color.blue : Color.yellow;
+		Color ourColor = key.negativeHalfTeam() == ETeamColor.BLUE ? Color.blue : Color.yellow;
 		drawGoal(Geometry.getGoalOur(), shapes, ourColor);
 
-		Color theirColor = wfw.getRefereeMsg().getNegativeHalfTeam() != ETeamColor.BLUE ? Color.blue : Color.yellow;
+		Color theirColor = key.negativeHalfTeam() != ETeamColor.BLUE ? Color.blue : Color.yellow;
 		drawGoal(Geometry.getGoalTheir(), shapes, theirColor);
 
-		if (wfw.getGameState().isPenaltyOrPreparePenalty())
+		if (key.penalty())
 		{
 			var markSize = 2 * Geometry.getBallRadius() + 20;
 			shapes.add(new DrawablePoint(Geometry.getPenaltyMarkTheir()).withSize(markSize).setColor(Color.WHITE));
 			shapes.add(new DrawablePoint(Geometry.getPenaltyMarkOur()).withSize(markSize).setColor(Color.WHITE));
 		}
+		return List.copyOf(shapes);
+	}
+
+
+	private List<IDrawableShape> createAdditionalShapes()
+	{
+		List<IDrawableShape> shapes = new ArrayList<>();
+
+		var widthHalf = Geometry.getFieldWidth() / 2.0;
+		var lengthHalf = Geometry.getFieldLength() / 2.0;
+		var lengthQuarter = Geometry.getFieldLength() / 4.0;
+
+		drawLine(shapes, new DrawableLine(Vector2.fromX(-lengthHalf), Vector2.fromX(lengthHalf)));
+		drawLine(shapes,
+				new DrawableLine(Vector2.fromXY(-lengthQuarter, -widthHalf), Vector2.fromXY(-lengthQuarter, widthHalf)));
+		drawLine(shapes,
+				new DrawableLine(Vector2.fromXY(lengthQuarter, -widthHalf), Vector2.fromXY(lengthQuarter, widthHalf)));
+		return List.copyOf(shapes);
 	}
 
 
@@ -110,4 +144,9 @@ public class BorderVisCalc implements IWpCalc
 				.map(shape -> shape.setColor(color).setStrokeWidth(GOAL_BORDER_WIDTH_MM))
 				.forEach(shapes::add);
 	}
+
+
+	private record FieldLinesKey(CamFieldSize fieldSize, ETeamColor negativeHalfTeam, boolean penalty)
+	{
+	}
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static edu.tigers.sumatra.wp.CompactWorldFrameCodecTest.assertFrame;
+import static edu.tigers.sumatra.wp.CompactWorldFrameCodecTest.createFrames;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for CompactWorldFrameAccessor
+ */
+public class CompactWorldFrameAccessorTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BerkeleyDb db;
+	private CompactWorldFrameAccessor accessor;
+
+
+	@Before
+	public void setUp()
+	{
+		db = new BerkeleyDb(folder.getRoot().toPath().resolve("db"));
+		accessor = new CompactWorldFrameAccessor();
+		db.add(WorldFrameWrapper.class, accessor);
+		db.open();
+	}
+
+
+	@After
+	public void tearDown()
+	{
+		db.close();
+	}
+
+
+	private List<WorldFrameWrapper> write(final List<SimpleWorldFrame> frames)
+	{
+		List<WorldFrameWrapper> wfws = new ArrayList<>();
+		for (SimpleWorldFrame swf : frames)
+		{
+			GameState gameState = swf.getFrameNumber() % 50 < 25 ? GameState.HALT : GameState.RUNNING;
+			WorldFrameWrapper wfw = new WorldFrameWrapper(swf, new RefereeMsg(), gameState,
+					1700000000000L + swf.getFrameNumber());
+			accessor.write(wfw);
+			wfws.add(wfw);
+		}
+		return wfws;
+	}
+
+
+	private void assertFrameAt(final WorldFrameWrapper expected)
+	{
+		WorldFrameWrapper actual = accessor.getByKey(expected.getTimestamp());
+		assertThat(actual).isNotNull();
+		assertThat(actual.getUnixTimestamp()).isEqualTo(expected.getUnixTimestamp());
+		assertThat(actual.getGameState()).isEqualTo(expected.getGameState());
+		assertFrame(actual.getSimpleWorldFrame(), expected.getSimpleWorldFrame());
+	}
+
+
+	@Test
+	public void testSequentialAccess()
+	{
+		// more than two key frame intervals
+		List<WorldFrameWrapper> wfws = write(createFrames(250, 1_000_000_000L, 1));
+
+		assertThat(accessor.size()).isEqualTo(250);
+		wfws.forEach(this::assertFrameAt);
+
+		List<WorldFrameWrapper> loaded = accessor.load();
+		assertThat(loaded).hasSize(250);
+		for (int i = 0; i < loaded.size(); i++)
+		{
+			assertFrame(loaded.get(i).getSimpleWorldFrame(), wfws.get(i).getSimpleWorldFrame());
+		}
+	}
+
+
+	@Test
+	public void testRandomAccess()
+	{
+		List<WorldFrameWrapper> wfws = write(createFrames(250, 1_000_000_000L, 2));
+
+		List<WorldFrameWrapper> reversed = new ArrayList<>(wfws);
+		Collections.reverse(reversed);
+		reversed.forEach(this::assertFrameAt);
+
+		List<WorldFrameWrapper> shuffled = new ArrayList<>(wfws);
+		Collections.shuffle(shuffled, new Random(42));
+		shuffled.forEach(this::assertFrameAt);
+
+		assertThat(accessor.getByKey(wfws.getFirst().getTimestamp() + 1)).isNull();
+		assertThat(accessor.get(wfws.get(120).getTimestamp() + 1).getTimestamp())
+				.isEqualTo(accessor.getNearestKey(wfws.get(120).getTimestamp() + 1));
+	}
+
+
+	@Test
+	public void testConcurrentReaders() throws InterruptedException
+	{
+		List<WorldFrameWrapper> wfws = write(createFrames(250, 1_000_000_000L, 3));
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread forward = Thread.ofVirtual().start(() -> {
+			try
+			{
+				wfws.forEach(this::assertFrameAt);
+			} catch (Throwable e)
+			{
+				failure.set(e);
+			}
+		});
+		for (int i = wfws.size() - 1; i >= 0; i--)
+		{
+			assertFrameAt(wfws.get(i));
+		}
+		forward.join();
+
+		assertThat(failure.get()).isNull();
+	}
+
+
+	@Test
+	public void testTimeJumpBackDoesNotMixChains()
+	{
+		List<WorldFrameWrapper> first = write(createFrames(10, 1_000_000_000L, 4));
+		// jump back to the 6th frame and overwrite it with the key frame of a new chain
+		long jumpTimestamp = first.get(5).getTimestamp();
+		List<WorldFrameWrapper> second = write(createFrames(3, jumpTimestamp, 5).stream()
+				.map(swf -> new SimpleWorldFrame(swf.getFrameNumber(),
+						// place the following frames in between the frames of the first chain
+						swf.getTimestamp() == jumpTimestamp ? jumpTimestamp : swf.getTimestamp() + 1,
+						swf.getBots(), swf.getBall(), null))
+				.toList());
+
+		// the first chain can be decoded up to the overwritten frame
+		first.subList(0, 5).forEach(this::assertFrameAt);
+		// the new chain is decoded from its own key frame
+		second.forEach(this::assertFrameAt);
+		// the remaining frames of the first chain lost their previous frame
+		for (WorldFrameWrapper wfw : first.subList(6, 10))
+		{
+			assertThat(accessor.getByKey(wfw.getTimestamp())).isNull();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import edu.tigers.sumatra.ball.BallState;
+import edu.tigers.sumatra.bot.RobotInfo;
+import edu.tigers.sumatra.bot.State;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.pose.Pose;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector3;
+import edu.tigers.sumatra.wp.data.BallContact;
+import edu.tigers.sumatra.wp.data.ITrackedBall;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import edu.tigers.sumatra.wp.data.TrackedBall;
+import edu.tigers.sumatra.wp.data.TrackedBot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Test class for CompactWorldFrameCodec
+ */
+public class CompactWorldFrameCodecTest
+{
+	/** half of the quanta of the codec, the max error of rounding */
+	private static final double POS_TOLERANCE = 0.005 + 1e-9;
+	private static final double ORIENTATION_TOLERANCE = 5e-6 + 1e-12;
+	private static final double BOT_VEL_TOLERANCE = 5e-5 + 1e-12;
+	private static final double BALL_VEL_TOLERANCE = 0.05 + 1e-9;
+	private static final double BALL_ACC_TOLERANCE = 0.5 + 1e-9;
+	private static final double SPIN_TOLERANCE = 0.0005 + 1e-12;
+
+	private static final long FRAME_DT = 16_000_000;
+
+
+	/**
+	 * Create a series of frames with moving bots, where one bot leaves and another one enters the field
+	 *
+	 * @param numFrames      the number of frames
+	 * @param firstTimestamp the timestamp of the first frame
+	 * @param seed           the seed for the random values
+	 * @return the frames
+	 */
+	static List<SimpleWorldFrame> createFrames(final int numFrames, final long firstTimestamp, final long seed)
+	{
+		Random rnd = new Random(seed);
+		List<SimpleWorldFrame> frames = new ArrayList<>();
+		for (int i = 0; i < numFrames; i++)
+		{
+			long timestamp = firstTimestamp + i * FRAME_DT;
+			Map<BotID, ITrackedBot> bots = new BotIdMap<>();
+			for (int id = 0; id < 6; id++)
+			{
+				BotID botId = BotID.createBotId(id, id % 2 == 0 ? ETeamColor.YELLOW : ETeamColor.BLUE);
+				boolean present = (id != 4 || i < numFrames / 2) && (id != 5 || i >= numFrames / 3);
+				if (present)
+				{
+					bots.put(botId, createBot(botId, timestamp - rnd.nextInt(1000), i, rnd));
+				}
+			}
+			BallState ballState = BallState.builder()
+					.withPos(Vector3.fromXYZ(1000 + i * 20.123 + rnd.nextGaussian(), -500 + rnd.nextGaussian(), 0))
+					.withVel(Vector3.fromXYZ(1234.567 + rnd.nextGaussian(), -89.1 + rnd.nextGaussian(), 0))
+					.withAcc(Vector3.fromXYZ(-400.7 + rnd.nextGaussian(), 12.3, 0))
+					.withSpin(Vector2.fromXY(rnd.nextGaussian(), rnd.nextGaussian()))
+					.build();
+			TrackedBall ball = TrackedBall.fromBallState(timestamp, ballState, timestamp - FRAME_DT * (i % 3));
+			frames.add(new SimpleWorldFrame(i + 42L, timestamp, bots, ball, null));
+		}
+		return frames;
+	}
+
+
+	private static ITrackedBot createBot(final BotID botId, final long timestamp, final int i, final Random rnd)
+	{
+		Pose pose = Pose.from(
+				Vector2.fromXY(-3000 + botId.getNumber() * 500 + i * 3.3 + rnd.nextGaussian(), 2000 - i * 1.7),
+				rnd.nextDouble() * 2 * Math.PI - Math.PI);
+		return TrackedBot.newBuilder()
+				.withBotId(botId)
+				.withTimestamp(timestamp)
+				.withState(State.of(pose, Vector3.fromXYZ(rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian())))
+				.withQuality(rnd.nextDouble())
+				.withMalFunctioning(i % 7 == botId.getNumber())
+				.withLastBallContact(new BallContact(timestamp, timestamp - 100 * i, timestamp - 10 * i, -1, 3 * i))
+				.withBotInfo(RobotInfo.stub(botId, timestamp))
+				.build();
+	}
+
+
+	static void assertFrame(final SimpleWorldFrame actual, final SimpleWorldFrame expected)
+	{
+		assertThat(actual.getFrameNumber()).isEqualTo(expected.getFrameNumber());
+		assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+		assertBall(actual.getBall(), expected.getBall());
+
+		assertThat(actual.getBots().keySet()).containsExactlyInAnyOrderElementsOf(expected.getBots().keySet());
+		for (ITrackedBot expectedBot : expected.getBots().values())
+		{
+			assertBot(actual.getBot(expectedBot.getBotId()), expectedBot);
+		}
+	}
+
+
+	private static void assertBall(final ITrackedBall actual, final ITrackedBall expected)
+	{
+		assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+		assertThat(actual.getLastVisibleTimestamp()).isEqualTo(expected.getLastVisibleTimestamp());
+		BallState a = actual.getState();
+		BallState e = expected.getState();
+		for (int i = 0; i < 3; i++)
+		{
+			assertThat(a.getPos().get(i)).isCloseTo(e.getPos().get(i), within(POS_TOLERANCE));
+			assertThat(a.getVel().get(i)).isCloseTo(e.getVel().get(i), within(BALL_VEL_TOLERANCE));
+			assertThat(a.getAcc().get(i)).isCloseTo(e.getAcc().get(i), within(BALL_ACC_TOLERANCE));
+		}
+		assertThat(a.getSpin().x()).isCloseTo(e.getSpin().x(), within(SPIN_TOLERANCE));
+		assertThat(a.getSpin().y()).isCloseTo(e.getSpin().y(), within(SPIN_TOLERANCE));
+	}
+
+
+	private static void assertBot(final ITrackedBot actual, final ITrackedBot expected)
+	{
+		assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+		assertThat(actual.isMalFunctioning()).isEqualTo(expected.isMalFunctioning());
+		assertThat(actual.getBallContact()).isEqualTo(expected.getBallContact());
+		assertThat(actual.getPos().x()).isCloseTo(expected.getPos().x(), within(POS_TOLERANCE));
+		assertThat(actual.getPos().y()).isCloseTo(expected.getPos().y(), within(POS_TOLERANCE));
+		assertThat(actual.getOrientation()).isCloseTo(expected.getOrientation(), within(ORIENTATION_TOLERANCE));
+		assertThat(actual.getVel().x()).isCloseTo(expected.getVel().x(), within(BOT_VEL_TOLERANCE));
+		assertThat(actual.getVel().y()).isCloseTo(expected.getVel().y(), within(BOT_VEL_TOLERANCE));
+		assertThat(actual.getAngularVel()).isCloseTo(expected.getAngularVel(), within(BOT_VEL_TOLERANCE));
+		assertThat(actual.getQuality()).isCloseTo(expected.getQuality(), within(BOT_VEL_TOLERANCE));
+	}
+
+
+	@Test
+	public void testRoundTrip()
+	{
+		List<SimpleWorldFrame> frames = createFrames(30, 1_000_000_000L, 1);
+		CompactWorldFrameCodec encoder = new CompactWorldFrameCodec();
+		List<byte[]> encoded = new ArrayList<>();
+		for (int i = 0; i < frames.size(); i++)
+		{
+			long kickId = i < 10 ? CompactWorldFrameCodec.NO_ID : frames.get(10).getTimestamp();
+			encoded.add(encoder.encode(frames.get(i), 1700000000000L + i * 16, 4711, kickId, i == 0));
+		}
+
+		CompactWorldFrameCodec decoder = new CompactWorldFrameCodec();
+		for (int i = 0; i < frames.size(); i++)
+		{
+			SimpleWorldFrame expected = frames.get(i);
+			CompactWorldFrameCodec.Header header = decoder.decode(expected.getTimestamp(), encoded.get(i));
+
+			assertThat(header.keyFrame()).isEqualTo(i == 0);
+			assertThat(header.unixTimestamp()).isEqualTo(1700000000000L + i * 16);
+			assertThat(header.refereeId()).isEqualTo(4711);
+			assertThat(header.kickId())
+					.isEqualTo(i < 10 ? CompactWorldFrameCodec.NO_ID : frames.get(10).getTimestamp());
+			assertFrame(decoder.toSimpleWorldFrame(null), expected);
+		}
+	}
+
+
+	@Test
+	public void testKeyFrameDecodesWithoutPreviousFrames()
+	{
+		List<SimpleWorldFrame> frames = createFrames(20, 5_000_000_000L, 2);
+		CompactWorldFrameCodec encoder = new CompactWorldFrameCodec();
+		List<byte[]> encoded = new ArrayList<>();
+		for (int i = 0; i < frames.size(); i++)
+		{
+			encoded.add(encoder.encode(frames.get(i), 0, 0, CompactWorldFrameCodec.NO_ID, i % 10 == 0));
+		}
+
+		// start decoding at the second key frame, after another decoder state
+		CompactWorldFrameCodec decoder = new CompactWorldFrameCodec();
+		decoder.decode(frames.get(0).getTimestamp(), encoded.get(0));
+		for (int i = 10; i < frames.size(); i++)
+		{
+			decoder.decode(frames.get(i).getTimestamp(), encoded.get(i));
+			assertFrame(decoder.toSimpleWorldFrame(null), frames.get(i));
+		}
+	}
+
+
+	@Test
+	public void testDeltaFramesAreSmall()
+	{
+		List<SimpleWorldFrame> frames = createFrames(2, 1_000_000_000L, 3);
+		CompactWorldFrameCodec encoder = new CompactWorldFrameCodec();
+		byte[] keyFrame = encoder.encode(frames.get(0), 0, 0, CompactWorldFrameCodec.NO_ID, true);
+		byte[] deltaFrame = encoder.encode(frames.get(1), 16, 0, CompactWorldFrameCodec.NO_ID, false);
+
+		assertThat(deltaFrame.length).isLessThan(keyFrame.length);
+	}
+}
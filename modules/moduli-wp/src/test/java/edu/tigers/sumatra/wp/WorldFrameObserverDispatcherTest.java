@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Test class for WorldFrameObserverDispatcher
+ */
+public class WorldFrameObserverDispatcherTest
+{
+	private static final String FRAME = "frame";
+	private static final String OTHER_FRAME = "other frame";
+
+	private final List<String> received = new CopyOnWriteArrayList<>();
+	private final CountDownLatch processing = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private WorldFrameObserverDispatcher dispatcher;
+
+
+	@After
+	public void tearDown()
+	{
+		release.countDown();
+		if (dispatcher != null)
+		{
+			dispatcher.close();
+		}
+	}
+
+
+	private void start(final EObserverDispatchPolicy policy, final int capacity) throws InterruptedException
+	{
+		start(new WorldFrameObserverDispatcher(new IWorldFrameObserver()
+		{
+		}, policy, capacity));
+	}
+
+
+	private void start(final WorldFrameObserverDispatcher newDispatcher) throws InterruptedException
+	{
+		dispatcher = newDispatcher;
+		dispatcher.start();
+
+		// keep the observer busy with a first event, so that the next events are pending
+		dispatcher.publish(null, true, o -> {
+			processing.countDown();
+			awaitUninterruptibly(release);
+			received.add("first");
+		});
+		assertThat(processing.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+
+	private void publish(final Object frameKey, final String event)
+	{
+		dispatcher.publish(frameKey, true, o -> received.add(event));
+	}
+
+
+	private void awaitEvents(final int numEvents) throws InterruptedException
+	{
+		CountDownLatch done = new CountDownLatch(1);
+		dispatcher.publish(null, true, o -> done.countDown());
+		assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).hasSize(numEvents);
+	}
+
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	@Test
+	public void testLatestOnlyReplacesPendingFramePerKey() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LATEST_ONLY, 10);
+
+		publish(FRAME, "frame 1");
+		publish(OTHER_FRAME, "other frame 1");
+		publish(FRAME, "frame 2");
+		publish(FRAME, "frame 3");
+		publish(OTHER_FRAME, "other frame 2");
+		assertThat(dispatcher.getLag()).isEqualTo(2);
+
+		release.countDown();
+		awaitEvents(3);
+
+		assertThat(received).containsExactly("first", "frame 3", "other frame 2");
+		assertThat(dispatcher.getNumPublished()).isEqualTo(7);
+		assertThat(dispatcher.getNumDropped()).isEqualTo(3);
+	}
+
+
+	@Test
+	public void testLosslessDropsOldestFrameOnOverflow() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LOSSLESS, 3);
+
+		for (int i = 1; i <= 10; i++)
+		{
+			publish(FRAME, "frame " + i);
+		}
+		assertThat(dispatcher.getLag()).isEqualTo(3);
+		assertThat(dispatcher.getMaxLag()).isEqualTo(3);
+
+		release.countDown();
+		awaitEvents(4);
+
+		assertThat(received).containsExactly("first", "frame 8", "frame 9", "frame 10");
+		assertThat(dispatcher.getNumPublished()).isEqualTo(12);
+		assertThat(dispatcher.getNumDropped()).isEqualTo(7);
+	}
+
+
+	@Test
+	public void testBlockAppliesBackpressure() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.BLOCK, 2);
+
+		Thread publisher = Thread.ofVirtual().start(() -> {
+			for (int i = 1; i <= 3; i++)
+			{
+				publish(FRAME, "frame " + i);
+			}
+		});
+		publisher.join(200);
+		assertThat(publisher.isAlive()).isTrue();
+		assertThat(dispatcher.getLag()).isEqualTo(2);
+
+		// frames without backpressure do not block, but only the latest one is kept
+		dispatcher.publish(OTHER_FRAME, false, o -> received.add("other frame 1"));
+		dispatcher.publish(OTHER_FRAME, false, o -> received.add("other frame 2"));
+
+		release.countDown();
+		publisher.join(1000);
+		assertThat(publisher.isAlive()).isFalse();
+		awaitEvents(5);
+
+		assertThat(received).containsExactly("first", "frame 1", "frame 2", "other frame 2", "frame 3");
+		assertThat(dispatcher.getNumDropped()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void testBlockKeepsLockStep() throws InterruptedException
+	{
+		start(new WorldFrameObserverDispatcher(new IWorldFrameObserver()
+		{
+		}, EObserverDispatchPolicy.BLOCK));
+
+		Thread publisher = Thread.ofVirtual().start(() -> {
+			publish(FRAME, "frame 1");
+			publish(FRAME, "frame 2");
+		});
+		publisher.join(200);
+		assertThat(publisher.isAlive()).isTrue();
+		assertThat(dispatcher.getLag()).isEqualTo(1);
+
+		release.countDown();
+		publisher.join(1000);
+		assertThat(publisher.isAlive()).isFalse();
+		awaitEvents(3);
+	}
+
+
+	@Test
+	public void testAwaitIdleWaitsForProcessedEvents() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LOSSLESS, 10);
+
+		publish(FRAME, "frame 1");
+		publish(FRAME, "frame 2");
+
+		Thread awaiting = Thread.ofVirtual().start(dispatcher::awaitIdle);
+		awaiting.join(200);
+		assertThat(awaiting.isAlive()).isTrue();
+
+		release.countDown();
+		awaiting.join(1000);
+		assertThat(awaiting.isAlive()).isFalse();
+		assertThat(received).containsExactly("first", "frame 1", "frame 2");
+	}
+
+
+	@Test
+	public void testAwaitIdleReturnsAfterClose() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LATEST_ONLY, 10);
+		publish(FRAME, "frame 1");
+
+		Thread closer = Thread.ofVirtual().start(dispatcher::close);
+		while (dispatcher.getLag() > 0)
+		{
+			Thread.onSpinWait();
+		}
+		release.countDown();
+		closer.join(1000);
+		dispatcher.awaitIdle();
+
+		assertThat(received).containsExactly("first");
+	}
+
+
+	@Test
+	public void testControlEventsKeepOrder() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LATEST_ONLY, 1);
+
+		publish(FRAME, "frame 1");
+		publish(null, "control 1");
+		publish(FRAME, "frame 2");
+		publish(null, "control 2");
+		publish(FRAME, "frame 3");
+
+		release.countDown();
+		awaitEvents(4);
+
+		assertThat(received).containsExactly("first", "control 1", "control 2", "frame 3");
+	}
+
+
+	@Test
+	public void testLosslessNeverDropsControlEvents() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LOSSLESS, 2);
+
+		publish(null, "control 1");
+		publish(FRAME, "frame 1");
+		publish(FRAME, "frame 2");
+		publish(null, "control 2");
+
+		release.countDown();
+		awaitEvents(4);
+
+		assertThat(received).containsExactly("first", "control 1", "frame 2", "control 2");
+	}
+
+
+	@Test
+	public void testCloseDrainsLosslessObserver() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LOSSLESS, 10);
+
+		for (int i = 1; i <= 5; i++)
+		{
+			publish(FRAME, "frame " + i);
+		}
+		release.countDown();
+		dispatcher.close();
+
+		assertThat(received).containsExactly("first", "frame 1", "frame 2", "frame 3", "frame 4", "frame 5");
+		assertThat(dispatcher.getNumDropped()).isZero();
+
+		publish(FRAME, "frame 6");
+		assertThat(dispatcher.getNumPublished()).isEqualTo(6);
+	}
+
+
+	@Test
+	public void testCloseDiscardsLatestOnlyObserver() throws InterruptedException
+	{
+		start(EObserverDispatchPolicy.LATEST_ONLY, 10);
+
+		publish(FRAME, "frame 1");
+		publish(null, "control 1");
+
+		Thread closer = Thread.ofVirtual().start(dispatcher::close);
+		while (dispatcher.getLag() > 0)
+		{
+			Thread.onSpinWait();
+		}
+		release.countDown();
+		closer.join(1000);
+
+		assertThat(closer.isAlive()).isFalse();
+		assertThat(received).containsExactly("first");
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.engine.PassiveAutoRefEngine;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Runs the autoRef over a whole recording on a background thread.
+ * The detected game events of the whole recording are cached by timestamp. The shape maps are only cached within
+ * {@link #SHAPE_MAP_WINDOW} around the current replay position, as the shapes of a full match do not fit into memory.
+ * The recalculation does not run further ahead of the replay position than the window. If the replay jumps back
+ * to a position where the shapes were already dropped, the recalculation is restarted at this position.
+ */
+@Log4j2
+public class AutoRefRecalculation
+{
+	private static final long SHAPE_MAP_WINDOW = 10_000_000_000L;
+	private static final long MAX_WAIT_MS = 100;
+
+	private final NavigableMap<Long, ShapeMap> shapeMaps = new ConcurrentSkipListMap<>();
+	private final NavigableMap<Long, List<IGameEvent>> gameEvents = new ConcurrentSkipListMap<>();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(
+			new NamedThreadFactory("AutoRefRecalculation"));
+	private final Object positionLock = new Object();
+	private volatile boolean cancelled = false;
+	private volatile long replayTimestamp;
+	/** only accessed by the recalculation thread */
+	private long currentTimestamp;
+	/** latest timestamp up to which game events were collected, only accessed by the recalculation thread */
+	private long gameEventsUntil = Long.MIN_VALUE;
+	/** only accessed by the recalculation thread */
+	private boolean finished = false;
+
+
+	/**
+	 * Start the recalculation in the background
+	 *
+	 * @param db        an opened database with world frames
+	 * @param timestamp the current replay position
+	 */
+	public void start(final BerkeleyDb db, final long timestamp)
+	{
+		replayTimestamp = timestamp;
+		executor.execute(() -> run(db));
+	}
+
+
+	/**
+	 * Cancel a running recalculation and wait until it stopped
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+			{
+				log.warn("AutoRef recalculation did not stop within 5s");
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private void run(final BerkeleyDb db)
+	{
+		long tStart = System.nanoTime();
+		long[] keys = db.getKeysAfter(WorldFrameWrapper.class, Long.MIN_VALUE);
+		log.info("Recalculating autoRef for {} frames", keys.length);
+		int start = 0;
+		while (!cancelled && keys.length > 0)
+		{
+			start = recalculate(db, keys, start, tStart);
+		}
+		log.info("Stopped autoRef recalculation with {} game events",
+				gameEvents.values().stream().mapToInt(List::size).sum());
+	}
+
+
+	/**
+	 * Recalculate the frames from the given start index until the recalculation is cancelled or the replay jumps
+	 * back to a position, where the shapes are not cached anymore.
+	 *
+	 * @return the index to restart the recalculation at
+	 */
+	private int recalculate(final BerkeleyDb db, final long[] keys, final int start, final long tStart)
+	{
+		AutoRefFramePreprocessor refPreprocessor = new AutoRefFramePreprocessor();
+		PassiveAutoRefEngine autoRefEngine = new PassiveAutoRefEngine(EnumSet.allOf(EGameEventDetectorType.class));
+		autoRefEngine.addObserver(this::onGameEvent);
+
+		// shapes of earlier frames are not available in this run
+		long shapesFrom = start == 0 ? Long.MIN_VALUE : keys[start];
+		int i = start;
+		try
+		{
+			while (!cancelled)
+			{
+				long position = replayTimestamp;
+				if (position < shapesFrom)
+				{
+					int restart = floorIndex(keys, position);
+					log.debug("Restarting autoRef recalculation at frame {}", restart);
+					shapeMaps.clear();
+					return restart;
+				}
+				long windowStart = position - SHAPE_MAP_WINDOW;
+				if (windowStart > shapesFrom)
+				{
+					shapeMaps.headMap(windowStart).clear();
+					shapesFrom = windowStart;
+				}
+
+				if (i < keys.length && keys[i] <= position + SHAPE_MAP_WINDOW)
+				{
+					process(db, keys[i], refPreprocessor, autoRefEngine, windowStart);
+					i++;
+				} else
+				{
+					logFinished(i == keys.length, tStart);
+					awaitNewPosition(position);
+				}
+			}
+		} finally
+		{
+			autoRefEngine.stop();
+		}
+		return start;
+	}
+
+
+	private void process(final BerkeleyDb db, final long key, final AutoRefFramePreprocessor refPreprocessor,
+			final PassiveAutoRefEngine autoRefEngine, final long windowStart)
+	{
+		WorldFrameWrapper wfw = db.getByKey(WorldFrameWrapper.class, key);
+		if (wfw == null)
+		{
+			return;
+		}
+		currentTimestamp = wfw.getSimpleWorldFrame().getTimestamp();
+		boolean hasLastFrame = refPreprocessor.hasLastFrame();
+		IAutoRefFrame refFrame = refPreprocessor.process(wfw);
+		if (hasLastFrame)
+		{
+			autoRefEngine.process(refFrame);
+		}
+		if (refFrame.getTimestamp() >= windowStart)
+		{
+			shapeMaps.put(refFrame.getTimestamp(), refFrame.getShapes());
+		}
+		gameEventsUntil = Math.max(gameEventsUntil, currentTimestamp);
+	}
+
+
+	private void onGameEvent(final IGameEvent gameEvent)
+	{
+		// frames that are recalculated after a restart already contributed their game events
+		if (currentTimestamp > gameEventsUntil)
+		{
+			gameEvents.computeIfAbsent(currentTimestamp, t -> new CopyOnWriteArrayList<>()).add(gameEvent);
+		}
+	}
+
+
+	private void logFinished(final boolean allFramesProcessed, final long tStart)
+	{
+		if (allFramesProcessed && !finished)
+		{
+			finished = true;
+			log.info("Finished autoRef recalculation after {}s with {} game events",
+					Math.round((System.nanoTime() - tStart) / 1e8) / 10.0,
+					gameEvents.values().stream().mapToInt(List::size).sum());
+		}
+	}
+
+
+	private void awaitNewPosition(final long position)
+	{
+		synchronized (positionLock)
+		{
+			if (replayTimestamp == position && !cancelled)
+			{
+				try
+				{
+					positionLock.wait(MAX_WAIT_MS);
+				} catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					cancelled = true;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * @return the index of the latest key at or before the timestamp, or 0, if there is none
+	 */
+	private static int floorIndex(final long[] keys, final long timestamp)
+	{
+		int index = Arrays.binarySearch(keys, timestamp);
+		return index >= 0 ? index : Math.max(0, -index - 2);
+	}
+
+
+	/**
+	 * Get the recalculated shapes and move the replay position, around which the shapes are cached.
+	 *
+	 * @param timestamp a sumatra timestamp
+	 * @return the shapes of the latest recalculated frame at or before the given timestamp
+	 */
+	public Optional<ShapeMap> getShapeMap(final long timestamp)
+	{
+		if (replayTimestamp != timestamp)
+		{
+			synchronized (positionLock)
+			{
+				replayTimestamp = timestamp;
+				positionLock.notifyAll();
+			}
+		}
+		return Optional.ofNullable(shapeMaps.floorEntry(timestamp)).map(Map.Entry::getValue);
+	}
+
+
+	/**
+	 * @param from exclusive start timestamp
+	 * @param to   inclusive end timestamp
+	 * @return all game events that were detected in the given time range
+	 */
+	public List<IGameEvent> getGameEvents(final long from, final long to)
+	{
+		if (from >= to)
+		{
+			return List.of();
+		}
+		List<IGameEvent> events = new ArrayList<>();
+		gameEvents.subMap(from, false, to, true).values().forEach(events::addAll);
+		return events;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2018, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
@@ -13,10 +13,10 @@ public interface IReplayController
 	/**
 	 * Update for given timestamp
 	 * 
-	 * @param db current database
+	 * @param frameCache cached access to the current database
 	 * @param sumatraTimestampNs current timestamp
 	 */
-	default void update(final BerkeleyDb db, long sumatraTimestampNs)
+	default void update(final ReplayFrameCache frameCache, long sumatraTimestampNs)
 	{
 	}
 	
@@ -28,4 +28,12 @@ public interface IReplayController
 	default void update(final BerkeleyDb db, WorldFrameWrapper wfw)
 	{
 	}
+	
+	
+	/**
+	 * Release all resources before the database is closed
+	 */
+	default void close()
+	{
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
@@ -14,6 +14,7 @@ import edu.tigers.sumatra.views.ASumatraView;
 import edu.tigers.sumatra.views.ESumatraViewType;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
 
 import javax.swing.AbstractAction;
 import javax.swing.JCheckBoxMenuItem;
@@ -22,10 +23,12 @@ import java.util.EnumSet;
 import java.util.List;
 
 
+@Log4j2
 public class ReplayAutoRefReCalcController implements IReplayController
 {
 	private static final ShapeMapSource SHAPE_MAP_SOURCE = ShapeMapSource.of("AutoRef",
 			ShapeMapSource.of("Recalculated"));
+	private static final long MAX_GAME_EVENT_LOG_INTERVAL = 1_000_000_000L;
 	private final AutoRefFramePreprocessor refPreprocessor = new AutoRefFramePreprocessor();
 	private final PassiveAutoRefEngine autoRefEngine = new PassiveAutoRefEngine(
 			EnumSet.allOf(EGameEventDetectorType.class));
@@ -34,6 +37,9 @@ public class ReplayAutoRefReCalcController implements IReplayController
 	private IAutoRefFrame lastAutoRefFrame = null;
 
 	private boolean active = false;
+	private boolean fullRecordingActive = false;
+	private AutoRefRecalculation recalculation = null;
+	private long lastTimestamp = 0;
 
 
 	public ReplayAutoRefReCalcController(List<IWorldFrameObserver> wFrameObservers, List<ASumatraView> sumatraViews)
@@ -45,6 +51,7 @@ public class ReplayAutoRefReCalcController implements IReplayController
 			{
 				ReplayControlPresenter replayControlPresenter = (ReplayControlPresenter) view.getPresenter();
 				replayControlPresenter.getViewPanel().addMenuCheckbox(new RunAutoRefAction());
+				replayControlPresenter.getViewPanel().addMenuCheckbox(new RunAutoRefOnRecordingAction());
 			}
 		}
 	}
@@ -53,6 +60,11 @@ public class ReplayAutoRefReCalcController implements IReplayController
 	@Override
 	public void update(final BerkeleyDb db, final WorldFrameWrapper wfw)
 	{
+		if (fullRecordingActive)
+		{
+			updateFromRecalculation(db, wfw.getSimpleWorldFrame().getTimestamp());
+			return;
+		}
 		if (!active)
 		{
 			return;
@@ -85,6 +97,41 @@ public class ReplayAutoRefReCalcController implements IReplayController
 	}
 
 
+	private synchronized void updateFromRecalculation(final BerkeleyDb db, final long timestamp)
+	{
+		if (recalculation == null)
+		{
+			recalculation = new AutoRefRecalculation();
+			recalculation.start(db, timestamp);
+		}
+		recalculation.getShapeMap(timestamp).ifPresent(shapeMap -> wFrameObservers
+				.forEach(o -> o.onNewShapeMap(timestamp, shapeMap, SHAPE_MAP_SOURCE)));
+		if (timestamp - lastTimestamp < MAX_GAME_EVENT_LOG_INTERVAL)
+		{
+			recalculation.getGameEvents(lastTimestamp, timestamp)
+					.forEach(gameEvent -> log.info("Recalculated game event: {}", gameEvent));
+		}
+		lastTimestamp = timestamp;
+	}
+
+
+	@Override
+	public void close()
+	{
+		stopRecalculation();
+	}
+
+
+	private synchronized void stopRecalculation()
+	{
+		if (recalculation != null)
+		{
+			recalculation.cancel();
+			recalculation = null;
+		}
+	}
+
+
 	private class RunAutoRefAction extends AbstractAction
 	{
 		private RunAutoRefAction()
@@ -105,4 +152,26 @@ public class ReplayAutoRefReCalcController implements IReplayController
 			}
 		}
 	}
+
+	private class RunAutoRefOnRecordingAction extends AbstractAction
+	{
+		private RunAutoRefOnRecordingAction()
+		{
+			super("Run AutoRef on full recording");
+		}
+
+
+		@Override
+		public void actionPerformed(final ActionEvent e)
+		{
+			JCheckBoxMenuItem chk = (JCheckBoxMenuItem) e.getSource();
+			fullRecordingActive = chk.isSelected();
+
+			if (!fullRecordingActive)
+			{
+				stopRecalculation();
+				wFrameObservers.forEach(o -> o.onRemoveSourceFromShapeMap(SHAPE_MAP_SOURCE));
+			}
+		}
+	}
 }
@@ -1,10 +1,9 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
 
-import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.BerkeleyCamDetectionFrame;
 import lombok.RequiredArgsConstructor;
@@ -19,9 +18,9 @@ public class ReplayCamDetectionController implements IReplayController
 
 
 	@Override
-	public void update(final BerkeleyDb db, final long sumatraTimestampNs)
+	public void update(final ReplayFrameCache frameCache, final long sumatraTimestampNs)
 	{
-		BerkeleyCamDetectionFrame camFrame = db.get(BerkeleyCamDetectionFrame.class, sumatraTimestampNs);
+		BerkeleyCamDetectionFrame camFrame = frameCache.get(BerkeleyCamDetectionFrame.class, sumatraTimestampNs);
 		if (camFrame != null)
 		{
 			for (IWorldFrameObserver vp : wFrameObservers)
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.sumatra.persistence.BerkeleyDb;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Cache for the recorded frames of a database during replay.
+ * <p>
+ * The keys of each frame type are loaded once (and extended for recordings that are still running), so a timestamp
+ * is resolved to a key without a database lookup. Deserialized frames are kept in a bounded LRU cache per type.
+ * A background thread prefetches the frames that will be shown next, based on the current playback speed and
+ * direction. When playback is paused, the neighboring frames are prefetched for frame stepping.
+ * Frames are only loaded by this thread, so the refresh thread never waits for the database. On a cache miss,
+ * the controllers keep showing the last frame until the requested frame was loaded.
+ */
+@Log4j2
+public class ReplayFrameCache
+{
+	private static final int CACHE_SIZE = 500;
+	private static final int PREFETCH_FRAMES = 30;
+	/** same as in BerkeleyAccessor, so that the same frames are selected as by the database */
+	private static final long EXPECTED_FRAME_RATE = 16;
+
+	private final BerkeleyDb db;
+	private final Map<Class<?>, TypeCache<?>> caches = new ConcurrentHashMap<>();
+	private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(
+			new NamedThreadFactory("ReplayPrefetch"));
+	private final AtomicBoolean prefetchPending = new AtomicBoolean();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private volatile long prefetchTimestamp;
+	private volatile long prefetchStep;
+
+
+	/**
+	 * @param db an opened database
+	 */
+	public ReplayFrameCache(final BerkeleyDb db)
+	{
+		this.db = db;
+	}
+
+
+	/**
+	 * @param clazz     the frame type
+	 * @param timestamp a timestamp
+	 * @return the frame nearest to the given timestamp or null, if there is none or it is not loaded yet
+	 */
+	public <T> T get(Class<T> clazz, long timestamp)
+	{
+		TypeCache<T> cache = getCache(clazz);
+		long key = cache.findKey(timestamp);
+		if (key == Long.MIN_VALUE)
+		{
+			return null;
+		}
+		T frame = cache.getCached(key);
+		if (frame != null)
+		{
+			hits.incrementAndGet();
+			return frame;
+		}
+		// the frame is loaded by the next prefetch, which also includes the current frame
+		misses.incrementAndGet();
+		return null;
+	}
+
+
+	/**
+	 * Prefetch the current frame and the frames that are shown next. Only the latest request is processed, if the
+	 * prefetching can not keep up.
+	 *
+	 * @param timestamp the current timestamp
+	 * @param step      the expected timestamp increment until the next frame is shown, negative for
+	 *                  backwards playback and zero, if the playback is paused
+	 */
+	public void prefetch(long timestamp, long step)
+	{
+		prefetchTimestamp = timestamp;
+		prefetchStep = step;
+		if (!prefetchPending.getAndSet(true))
+		{
+			prefetchExecutor.execute(this::prefetch);
+		}
+	}
+
+
+	private void prefetch()
+	{
+		prefetchPending.set(false);
+		long timestamp = prefetchTimestamp;
+		long step = prefetchStep;
+		try
+		{
+			caches.values().forEach(cache -> cache.prefetch(timestamp, step));
+		} catch (Exception e)
+		{
+			log.warn("Prefetching frames failed", e);
+		}
+	}
+
+
+	/**
+	 * @return the ratio of frame requests that were served from the cache
+	 */
+	public double getHitRate()
+	{
+		long numHits = hits.get();
+		long total = numHits + misses.get();
+		return total == 0 ? 0 : (double) numHits / total;
+	}
+
+
+	/**
+	 * Stop prefetching and clear the cache
+	 */
+	public void close()
+	{
+		prefetchExecutor.shutdownNow();
+		log.info("Replay frame cache hit rate: {}", getHitRate());
+		caches.clear();
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private <T> TypeCache<T> getCache(Class<T> clazz)
+	{
+		return (TypeCache<T>) caches.computeIfAbsent(clazz, TypeCache::new);
+	}
+
+
+	private class TypeCache<T>
+	{
+		private final Class<T> clazz;
+		private final Map<Long, T> frames = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, T> eldest)
+			{
+				return size() > CACHE_SIZE;
+			}
+		};
+		private volatile long[] keys = new long[0];
+
+
+		TypeCache(final Class<T> clazz)
+		{
+			this.clazz = clazz;
+		}
+
+
+		/**
+		 * Find the key like BerkeleyAccessor#getNearestKey.
+		 *
+		 * @return the first key not older than half a frame before the given timestamp, the first key
+		 * or {@link Long#MIN_VALUE}
+		 */
+		long findKey(long timestamp)
+		{
+			long[] currentKeys = keys;
+			if (currentKeys.length == 0 || timestamp > currentKeys[currentKeys.length - 1])
+			{
+				currentKeys = updateKeys();
+			}
+			if (currentKeys.length == 0)
+			{
+				return Long.MIN_VALUE;
+			}
+			return currentKeys[keyIndex(currentKeys, timestamp)];
+		}
+
+
+		private synchronized long[] updateKeys()
+		{
+			long lastKey = keys.length == 0 ? Long.MIN_VALUE : keys[keys.length - 1];
+			long[] newKeys = db.getKeysAfter(clazz, lastKey);
+			if (newKeys.length > 0)
+			{
+				long[] allKeys = Arrays.copyOf(keys, keys.length + newKeys.length);
+				System.arraycopy(newKeys, 0, allKeys, keys.length, newKeys.length);
+				keys = allKeys;
+			}
+			return keys;
+		}
+
+
+		private int keyIndex(long[] currentKeys, long timestamp)
+		{
+			int i = Arrays.binarySearch(currentKeys, timestamp - EXPECTED_FRAME_RATE / 2);
+			if (i < 0)
+			{
+				i = -i - 1;
+			}
+			return i < currentKeys.length ? i : 0;
+		}
+
+
+		synchronized T getCached(long key)
+		{
+			return frames.get(key);
+		}
+
+
+		private T load(long key)
+		{
+			T frame = db.getByKey(clazz, key);
+			if (frame != null)
+			{
+				synchronized (this)
+				{
+					frames.put(key, frame);
+				}
+			}
+			return frame;
+		}
+
+
+		void prefetch(long timestamp, long step)
+		{
+			long[] currentKeys = keys;
+			if (currentKeys.length == 0)
+			{
+				return;
+			}
+			int current = keyIndex(currentKeys, timestamp);
+			prefetchKey(currentKeys, current);
+			for (int i = 1; i <= PREFETCH_FRAMES; i++)
+			{
+				if (step == 0)
+				{
+					prefetchKey(currentKeys, current + i);
+					prefetchKey(currentKeys, current - i);
+				} else
+				{
+					prefetchKey(currentKeys, keyIndex(currentKeys, timestamp + i * step));
+				}
+			}
+		}
+
+
+		private void prefetchKey(long[] currentKeys, int index)
+		{
+			if (index < 0 || index >= currentKeys.length)
+			{
+				return;
+			}
+			long key = currentKeys[index];
+			boolean cached;
+			synchronized (this)
+			{
+				cached = frames.containsKey(key);
+			}
+			if (!cached)
+			{
+				load(key);
+			}
+		}
+	}
+}
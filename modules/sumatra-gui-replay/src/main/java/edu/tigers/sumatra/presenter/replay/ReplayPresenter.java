@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
@@ -9,9 +9,7 @@ import edu.tigers.sumatra.AMainPresenter;
 import edu.tigers.sumatra.clock.ThreadUtil;
 import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.referee.data.EGameState;
-import edu.tigers.sumatra.referee.data.RefereeMsg;
 import edu.tigers.sumatra.referee.gameevent.EGameEvent;
-import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
 import edu.tigers.sumatra.snapshot.SnapshotController;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
@@ -22,7 +20,9 @@ import edu.tigers.sumatra.views.ESumatraViewType;
 import edu.tigers.sumatra.views.EViewMode;
 import edu.tigers.sumatra.views.ISumatraPresenter;
 import edu.tigers.sumatra.visualizer.VisualizerPresenter;
+import edu.tigers.sumatra.wp.BerkeleyRefereeStateFrame;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
+import edu.tigers.sumatra.wp.RefereeStateIndex;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.extern.log4j.Log4j2;
 
@@ -55,6 +55,8 @@ public class ReplayPresenter extends AMainPresenter
 	private BerkeleyDb db = null;
 	private double speed = 1;
 	private RefreshThread refreshThread;
+	private RefereeStateIndex stateIndex;
+	private ReplayFrameCache frameCache;
 
 	private boolean skipStoppedGame = false;
 	private SslGcRefereeMessage.Referee.Command searchCommand = null;
@@ -127,6 +129,8 @@ public class ReplayPresenter extends AMainPresenter
 	public void start(final BerkeleyDb db, long startTime)
 	{
 		this.db = db;
+		stateIndex = new RefereeStateIndex(db);
+		frameCache = new ReplayFrameCache(db);
 		getMainFrame().setTitle(new File(db.getDbPath()).getName());
 		refreshThread = new RefreshThread(startTime);
 		getMainFrame().getPresenters().forEach(ISumatraPresenter::onStart);
@@ -153,6 +157,11 @@ public class ReplayPresenter extends AMainPresenter
 
 	private void cleanup()
 	{
+		replayControllers.forEach(IReplayController::close);
+		if (frameCache != null)
+		{
+			frameCache.close();
+		}
 		if (db != null)
 		{
 			db.close();
@@ -429,58 +438,29 @@ public class ReplayPresenter extends AMainPresenter
 
 		private void skipFrames()
 		{
-			for (long t = getCurrentTime(); t < recEndTime; t += 250_000_000)
+			if (!skipStoppedGame && !skipBallPlacement
+					&& searchCommand == null && searchGameEvent == null && searchGameState == null)
 			{
-				boolean skipStop = !skipStoppedGame || !skipFrameStoppedGame(db.get(WorldFrameWrapper.class, t));
-				boolean command = searchCommand == null || !skipFrameCommand(db.get(WorldFrameWrapper.class, t));
-				boolean gameEvent = searchGameEvent == null || !skipFrameGameEvent(db.get(WorldFrameWrapper.class, t));
-				boolean gameState = searchGameState == null || !skipFrameGameState(db.get(WorldFrameWrapper.class, t));
-				boolean skipPlacement = !skipBallPlacement || !skipFrameBallPlacement(db.get(WorldFrameWrapper.class, t));
-
-				if (skipStop && command && gameEvent && skipPlacement && gameState)
-				{
-					jumpAbsoluteTime(t);
-					break;
-				}
+				return;
 			}
+			stateIndex.refresh();
+			stateIndex.findNext(getCurrentTime(), this::isSearchedState).ifPresent(this::jumpAbsoluteTime);
 			searchCommand = null;
 			searchGameEvent = null;
 			searchGameState = null;
 		}
 
 
-		private boolean skipFrameStoppedGame(final WorldFrameWrapper wfw)
-		{
-			RefereeMsg refMsg = wfw.getRefereeMsg();
-			return refMsg != null && wfw.getGameState().isStoppedGame();
-		}
-
-
-		private boolean skipFrameBallPlacement(final WorldFrameWrapper wfw)
-		{
-			return wfw.getGameState().isBallPlacement();
-		}
-
-
-		private boolean skipFrameCommand(final WorldFrameWrapper wfw)
-		{
-			RefereeMsg refMsg = wfw.getRefereeMsg();
-			return refMsg != null && refMsg.getCommand() != searchCommand;
-		}
-
-
-		private boolean skipFrameGameEvent(final WorldFrameWrapper wfw)
-		{
-			RefereeMsg refMsg = wfw.getRefereeMsg();
-			return refMsg != null && refMsg.getGameEvents().stream()
-					.map(IGameEvent::getType)
-					.noneMatch(gameEvent -> gameEvent == searchGameEvent);
-		}
-
-
-		private boolean skipFrameGameState(final WorldFrameWrapper wfw)
+		private boolean isSearchedState(final BerkeleyRefereeStateFrame state)
 		{
-			return wfw.getGameState().getState() != searchGameState;
+			boolean skipStop = !skipStoppedGame || !(state.isRefereeMsgPresent() && state.isStoppedGame());
+			boolean command = searchCommand == null || !state.isRefereeMsgPresent()
+					|| state.getCommand() == searchCommand;
+			boolean gameEvent = searchGameEvent == null || !state.isRefereeMsgPresent()
+					|| state.getGameEvents().contains(searchGameEvent);
+			boolean gameState = searchGameState == null || state.getGameState() == searchGameState;
+			boolean skipPlacement = !skipBallPlacement || !state.isBallPlacement();
+			return skipStop && command && gameEvent && skipPlacement && gameState;
 		}
 
 
@@ -529,7 +509,8 @@ public class ReplayPresenter extends AMainPresenter
 
 			lastKey = db.getKey(curT);
 
-			replayControllers.forEach(r -> r.update(db, lastKey));
+			replayControllers.forEach(r -> r.update(frameCache, lastKey));
+			frameCache.prefetch(lastKey, playing ? Math.round(speed * 1e9 / REFRESH_FPS) : 0);
 			updateTimeStep(Math.round(replayCurTime / 1e6));
 		}
 
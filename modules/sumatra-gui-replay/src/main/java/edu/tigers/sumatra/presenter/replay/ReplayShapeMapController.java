@@ -1,11 +1,10 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
 
 import edu.tigers.sumatra.drawable.ShapeMapSource;
-import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.wp.BerkeleyShapeMapFrame;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import lombok.RequiredArgsConstructor;
@@ -23,9 +22,9 @@ public class ReplayShapeMapController implements IReplayController
 
 
 	@Override
-	public void update(final BerkeleyDb db, final long sumatraTimestampNs)
+	public void update(final ReplayFrameCache frameCache, final long sumatraTimestampNs)
 	{
-		BerkeleyShapeMapFrame shapeMapFrame = db.get(BerkeleyShapeMapFrame.class, sumatraTimestampNs);
+		BerkeleyShapeMapFrame shapeMapFrame = frameCache.get(BerkeleyShapeMapFrame.class, sumatraTimestampNs);
 		if (shapeMapFrame != null)
 		{
 			var currentSources = shapeMapFrame.getShapeMaps().keySet();
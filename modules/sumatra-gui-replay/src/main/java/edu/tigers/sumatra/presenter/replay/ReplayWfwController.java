@@ -1,10 +1,9 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.presenter.replay;
 
-import edu.tigers.sumatra.persistence.BerkeleyDb;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.RequiredArgsConstructor;
@@ -21,9 +20,9 @@ public class ReplayWfwController implements IReplayController
 
 
 	@Override
-	public void update(final BerkeleyDb db, final long sumatraTimestampNs)
+	public void update(final ReplayFrameCache frameCache, final long sumatraTimestampNs)
 	{
-		WorldFrameWrapper wfw = db.get(WorldFrameWrapper.class, sumatraTimestampNs);
+		WorldFrameWrapper wfw = frameCache.get(WorldFrameWrapper.class, sumatraTimestampNs);
 		if (wfw != null)
 		{
 			callback.accept(wfw);
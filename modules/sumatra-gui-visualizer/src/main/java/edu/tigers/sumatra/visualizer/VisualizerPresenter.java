@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.visualizer;
@@ -20,6 +20,7 @@ import edu.tigers.sumatra.visualizer.field.recorder.MediaRecorder;
 import edu.tigers.sumatra.visualizer.options.ShapeSelectionModel;
 import edu.tigers.sumatra.visualizer.options.ShapeTreeCellRenderer;
 import edu.tigers.sumatra.wp.AWorldPredictor;
+import edu.tigers.sumatra.wp.EObserverDispatchPolicy;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import lombok.Getter;
 import lombok.Setter;
@@ -45,7 +46,6 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -75,6 +75,7 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 	private String propertiesPrefix = VisualizerPresenter.class.getCanonicalName() + ".";
 	private Thread updateThread;
 	private boolean firstUpdate = true;
+	private long lastShapeMapsVersion = 0;
 
 
 	public VisualizerPresenter()
@@ -217,8 +218,10 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 	{
 		ISumatraViewPresenter.super.onStartModuli();
 
-		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(ballInteractor);
-		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(fieldPresenter);
+		SumatraModel.getInstance().getModule(AWorldPredictor.class)
+				.addObserver(ballInteractor, EObserverDispatchPolicy.LATEST_ONLY);
+		SumatraModel.getInstance().getModule(AWorldPredictor.class)
+				.addObserver(fieldPresenter, EObserverDispatchPolicy.LATEST_ONLY);
 
 		firstUpdate = true;
 	}
@@ -261,8 +264,9 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 	{
 		try
 		{
-			HashMap<ShapeMapSource, ShapeMap> shapeMaps = new HashMap<>(fieldPresenter.getShapeMaps());
-			shapeMaps.forEach(this::newShapeMap);
+			long shapeMapsVersion = fieldPresenter.getShapeMaps().getVersion();
+			fieldPresenter.getShapeMaps().forEachChangedSince(lastShapeMapsVersion, this::newShapeMap);
+			lastShapeMapsVersion = shapeMapsVersion;
 			fieldPresenter.update();
 		} catch (Exception e)
 		{
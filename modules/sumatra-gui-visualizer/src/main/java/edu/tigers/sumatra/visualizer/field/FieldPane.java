@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.visualizer.field;
@@ -12,12 +12,15 @@ import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.wp.vis.RefereeVisCalc;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.util.List;
 
 
@@ -35,6 +38,9 @@ public class FieldPane
 	private boolean fancyPainting = true;
 
 	private final FieldTransformation transformation = new FieldTransformation();
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final ShapeLayerRasterCache rasterCache = new ShapeLayerRasterCache();
 
 
 	public void processFieldBackground(DrawableFieldBackground s)
@@ -100,17 +106,26 @@ public class FieldPane
 		g2.setColor(FIELD_COLOR_BACKGROUND);
 		g2.fillRect(0, 0, width, height);
 
-		if (fancyPainting)
+		setRenderingHints(g2);
+
+		ViewState view = new ViewState(offsetX, offsetY, scale, getBorderOffset(), fancyPainting,
+				transformation.getFieldTurn(), transformation.isDarkMode(), transformation.getFieldGlobalWidth(),
+				transformation.getFieldGlobalLength(), transformation.getFieldGlobalBoundaryWidth());
+		for (ShapeMap.ShapeLayer shapeLayer : shapeLayers)
 		{
-			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-			g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			BufferedImage raster = rasterCache.get(shapeLayer, view, width, height, g -> {
+				setRenderingHints(g);
+				paintShapeMap(g, shapeLayer, defaultStroke);
+			});
+			if (raster != null)
+			{
+				g2.drawImage(raster, 0, 0, null);
+			} else
+			{
+				paintShapeMap(g2, shapeLayer, defaultStroke);
+			}
 		}
-
-		g2.translate(offsetX, offsetY + getBorderOffset());
-		g2.scale(scale, scale);
-		shapeLayers.forEach(shapeLayer -> paintShapeMap(g2, shapeLayer, defaultStroke));
-		g2.scale(1.0 / scale, 1.0 / scale);
-		g2.translate(-offsetX, -offsetY - getBorderOffset());
+		rasterCache.removeUnusedLayers();
 
 		g2.setColor(FIELD_COLOR_BACKGROUND);
 		g2.fillRect(0, 0, width, getBorderOffset());
@@ -119,6 +134,16 @@ public class FieldPane
 	}
 
 
+	private void setRenderingHints(Graphics2D g)
+	{
+		if (fancyPainting)
+		{
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		}
+	}
+
+
 	private void paintShapeMapBorderText(Graphics2D g, ShapeMap.ShapeLayer shapeLayer, BasicStroke defaultStroke)
 	{
 		final Graphics2D gDerived = (Graphics2D) g.create();
@@ -131,8 +156,29 @@ public class FieldPane
 	private void paintShapeMap(Graphics2D g, ShapeMap.ShapeLayer shapeLayer, BasicStroke defaultStroke)
 	{
 		final Graphics2D gDerived = (Graphics2D) g.create();
+		gDerived.translate(offsetX, offsetY + getBorderOffset());
+		gDerived.scale(scale, scale);
 		gDerived.setStroke(defaultStroke);
 		shapeLayer.getShapes().forEach(s -> s.paintShape(gDerived, transformation, shapeLayer.isInverted()));
 		gDerived.dispose();
 	}
+
+
+	/**
+	 * Everything that affects the rasterized shape layers
+	 */
+	private record ViewState(
+			double offsetX,
+			double offsetY,
+			double scale,
+			int borderOffset,
+			boolean fancyPainting,
+			EFieldTurn fieldTurn,
+			boolean darkMode,
+			double fieldWidth,
+			double fieldLength,
+			double boundaryWidth
+	)
+	{
+	}
 }
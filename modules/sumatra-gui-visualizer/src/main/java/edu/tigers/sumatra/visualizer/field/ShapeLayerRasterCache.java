@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.visualizer.field;
+
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.drawable.ShapeMap;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+
+/**
+ * Cache for rasterized shape layers.
+ * <p>
+ * A layer is rasterized into its own image once it is unchanged for two subsequent frames, i.e. it contains the
+ * same shape instances in the same order. The raster is reused until the layer or the view changes.
+ * Layers that change on every frame or contain animated shapes are not rasterized, but painted directly.
+ */
+public class ShapeLayerRasterCache
+{
+	private static final int MAX_RASTERS = 8;
+
+	private final Map<String, LayerEntry> entries = new HashMap<>();
+	private final Set<String> seenLayers = new HashSet<>();
+	private int numRasters = 0;
+
+
+	/**
+	 * Get the raster of a layer
+	 *
+	 * @param shapeLayer the layer to paint
+	 * @param view       the current view, rasters of another view are repainted
+	 * @param width      the width of the raster
+	 * @param height     the height of the raster
+	 * @param painter    paints the layer into the raster
+	 * @return the raster or null, if the layer should be painted directly
+	 */
+	public BufferedImage get(
+			ShapeMap.ShapeLayer shapeLayer,
+			Object view,
+			int width,
+			int height,
+			Consumer<Graphics2D> painter
+	)
+	{
+		String id = shapeLayer.getIdentifier().getId();
+		seenLayers.add(id);
+		LayerEntry entry = entries.computeIfAbsent(id, i -> new LayerEntry());
+		if (!entry.isSameLayer(shapeLayer))
+		{
+			entry.update(shapeLayer);
+			return null;
+		}
+		if (entry.raster != null && entry.valid && view.equals(entry.view))
+		{
+			return entry.raster;
+		}
+		if (entry.raster == null && numRasters >= MAX_RASTERS)
+		{
+			return null;
+		}
+		entry.rasterize(view, width, height, painter);
+		return entry.raster;
+	}
+
+
+	/**
+	 * Remove all layers that were not requested since the last call
+	 */
+	public void removeUnusedLayers()
+	{
+		entries.entrySet().removeIf(e -> {
+			boolean unused = !seenLayers.contains(e.getKey());
+			if (unused && e.getValue().raster != null)
+			{
+				numRasters--;
+			}
+			return unused;
+		});
+		seenLayers.clear();
+	}
+
+
+	private static BufferedImage createImage(int width, int height)
+	{
+		if (GraphicsEnvironment.isHeadless())
+		{
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+		// a compatible image can be cached by the graphics pipeline
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+
+	private class LayerEntry
+	{
+		private List<IDrawableShape> shapes = List.of();
+		private boolean inverted;
+		private Object view;
+		private BufferedImage raster;
+		private boolean valid;
+
+
+		boolean isSameLayer(ShapeMap.ShapeLayer shapeLayer)
+		{
+			List<IDrawableShape> newShapes = shapeLayer.getShapes();
+			if (inverted != shapeLayer.isInverted() || shapes.size() != newShapes.size())
+			{
+				return false;
+			}
+			for (int i = 0; i < shapes.size(); i++)
+			{
+				if (shapes.get(i) != newShapes.get(i) || shapes.get(i).isAnimated())
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+
+		void update(ShapeMap.ShapeLayer shapeLayer)
+		{
+			shapes = new ArrayList<>(shapeLayer.getShapes());
+			inverted = shapeLayer.isInverted();
+			valid = false;
+		}
+
+
+		void rasterize(Object view, int width, int height, Consumer<Graphics2D> painter)
+		{
+			if (raster == null)
+			{
+				numRasters++;
+			}
+			if (raster == null || raster.getWidth() != width || raster.getHeight() != height)
+			{
+				raster = createImage(width, height);
+			}
+			Graphics2D g = raster.createGraphics();
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, width, height);
+			g.setComposite(AlphaComposite.SrcOver);
+			painter.accept(g);
+			g.dispose();
+			this.view = view;
+			valid = true;
+		}
+	}
+}
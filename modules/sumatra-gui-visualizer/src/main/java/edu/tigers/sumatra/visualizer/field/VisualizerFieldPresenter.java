@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
  */
 
 package edu.tigers.sumatra.visualizer.field;
@@ -7,8 +7,10 @@ package edu.tigers.sumatra.visualizer.field;
 import edu.tigers.sumatra.clock.FpsCounter;
 import edu.tigers.sumatra.drawable.DrawableFieldBackground;
 import edu.tigers.sumatra.drawable.EFieldTurn;
+import edu.tigers.sumatra.drawable.PublishedShapeMaps;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
+import edu.tigers.sumatra.drawable.ShapeMapSubscriptions;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.views.ISumatraPresenter;
 import edu.tigers.sumatra.visualizer.field.components.CoordinatesMouseAdapter;
@@ -30,7 +32,6 @@ import java.awt.Image;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,7 +51,7 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 
 	private final Set<ShapeMapSource> showSources = new ConcurrentSkipListSet<>();
 	@Getter
-	private Map<ShapeMapSource, ShapeMap> shapeMaps = new ConcurrentHashMap<>();
+	private final PublishedShapeMaps shapeMaps = new PublishedShapeMaps();
 	private final Map<String, Boolean> shapeVisibilityMap = new ConcurrentHashMap<>();
 
 	@Getter
@@ -74,6 +75,7 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 
 	private final ShapeMap panelShapeMap = new ShapeMap();
 	private Image imageBuffer;
+	private ShapeMapSubscriptions.Subscription shapeMapSubscription;
 
 
 	@Override
@@ -89,8 +91,14 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 		);
 		mouseAdapters.forEach(fieldPanel::addMouseAdapter);
 		fieldPanel.setVisible(true);
-		shapeMaps.put(PANEL_SHAPE_MAP_SOURCE, panelShapeMap);
+		// the panel shape map is modified in place, so all layers must exist before it is published
 		panelShapeMap.get(EFieldPanelShapeLayer.FPS).add(drawableFps);
+		panelShapeMap.get(EFieldPanelShapeLayer.COORDINATES);
+		panelShapeMap.get(EFieldPanelShapeLayer.RULER);
+		panelShapeMap.get(EFieldPanelShapeLayer.RECORDING);
+		shapeMaps.publish(PANEL_SHAPE_MAP_SOURCE, panelShapeMap);
+		// all layers are needed, as the layers are only known to the shape selection, once they are received
+		shapeMapSubscription = ShapeMapSubscriptions.subscribeAll();
 	}
 
 
@@ -98,6 +106,11 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 	public void onStop()
 	{
 		ISumatraPresenter.super.onStop();
+		if (shapeMapSubscription != null)
+		{
+			shapeMapSubscription.close();
+			shapeMapSubscription = null;
+		}
 		mouseAdapters.forEach(fieldPanel::removeMouseAdapter);
 		fieldPanel.setVisible(false);
 		fieldPanel.setOffImage(null);
@@ -108,15 +121,14 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 	@Override
 	public void onNewShapeMap(final long timestamp, final ShapeMap shapeMap, final ShapeMapSource source)
 	{
-		shapeMaps.put(source, shapeMap);
+		shapeMaps.publish(source, shapeMap);
 	}
 
 
 	@Override
 	public void onRemoveSourceFromShapeMap(final ShapeMapSource source)
 	{
-		shapeMaps.remove(source);
-		shapeMaps.keySet().removeIf(s -> s.contains(source));
+		shapeMaps.removeIf(s -> s.equals(source) || s.contains(source));
 	}
 
 
@@ -236,7 +248,7 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 
 	private void updateFieldBackground()
 	{
-		shapeMaps.values().stream()
+		shapeMaps.stream()
 				.flatMap(m -> m.getAllShapeLayers().stream())
 				.flatMap(l -> l.getShapes().stream())
 				.filter(s -> s.getClass().equals(DrawableFieldBackground.class))
@@ -248,14 +260,17 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 
 	public List<ShapeMap.ShapeLayer> visibleShapeLayers()
 	{
-		return shapeMaps.entrySet().stream()
-				.filter(s -> showSources.contains(s.getKey()))
-				.map(Map.Entry::getValue)
-				.map(ShapeMap::getAllShapeLayers)
-				.flatMap(Collection::stream)
-				.filter(e -> shapeVisibilityMap.getOrDefault(e.getIdentifier().getId(), false))
-				.sorted()
-				.toList();
+		List<ShapeMap.ShapeLayer> shapeLayers = new ArrayList<>();
+		shapeMaps.forEach((source, shapeMap) -> {
+			if (showSources.contains(source))
+			{
+				shapeMap.getAllShapeLayers().stream()
+						.filter(e -> shapeVisibilityMap.getOrDefault(e.getIdentifier().getId(), false))
+						.forEach(shapeLayers::add);
+			}
+		});
+		shapeLayers.sort(null);
+		return shapeLayers;
 	}
 
 
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoref;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
+import edu.tigers.autoreferee.IAutoRefObserver;
+import edu.tigers.autoreferee.engine.EAutoRefMode;
+import edu.tigers.autoreferee.module.AutoRefModule;
+import edu.tigers.moduli.exceptions.InitModuleException;
+import edu.tigers.moduli.exceptions.StartModuleException;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogPlayer;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.wp.AWorldPredictor;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Headless batch evaluation of SSL game logs with the passive autoRef.
+ * <p>
+ * The moduli are singletons, so a pipeline (vision filter, world predictor and autoRef) can not be instantiated
+ * multiple times in one JVM. Instead, each log is evaluated in a separate worker JVM and up to one worker per
+ * core runs in parallel. Logs are streamed from disk with {@link GameLogReader#loadFileIndexedBlocking(String)}.
+ * <p>
+ * For each log, the detected game events are written as JSON lines to {@code <output>/<log>.events.jsonl}
+ * while the log is evaluated, where {@code <log>} is the path of the log relative to the given folder, so that logs
+ * with the same name in different folders do not overwrite each other. The worker output goes to
+ * {@code <output>/<log>.out} and a summary of all logs to {@code <output>/summary.csv}.
+ */
+@Log4j2
+public final class AutoRefBatchEvaluation
+{
+	private static final String MODULI_CONFIG = "moduli-batch.xml";
+	private static final String DEFAULT_OUTPUT = "build/autoref-batch";
+	private static final String EVENTS_SUFFIX = ".events.jsonl";
+	private static final String WORKER_OUTPUT_SUFFIX = ".out";
+
+
+	private AutoRefBatchEvaluation()
+	{
+	}
+
+
+	public static void main(final String[] args)
+	{
+		Options options = createOptions();
+		CommandLine cmd = parseOptions(args, options);
+
+		Path output = Path.of(cmd.getOptionValue("o", DEFAULT_OUTPUT));
+		if (cmd.hasOption("wo"))
+		{
+			System.exit(evaluate(Path.of(cmd.getOptionValue("wo")), output) ? 0 : 1);
+		}
+
+		int jobs = Integer.parseInt(cmd.getOptionValue("j", String.valueOf(Runtime.getRuntime().availableProcessors())));
+		List<LogFile> logFiles = findLogFiles(cmd.getArgList());
+		if (logFiles.isEmpty())
+		{
+			printHelp(options);
+		}
+		evaluateAll(logFiles, output, jobs);
+		System.exit(0);
+	}
+
+
+	private static Options createOptions()
+	{
+		Options options = new Options();
+		options.addOption("h", "help", false, "Print this help message");
+		options.addOption("o", "output", true, "Output folder (default: " + DEFAULT_OUTPUT + ")");
+		options.addOption("j", "jobs", true, "Number of logs evaluated in parallel (default: number of cores)");
+		options.addOption("wo", "worker", true, "Evaluate a single log in this JVM (used internally)");
+		return options;
+	}
+
+
+	private static CommandLine parseOptions(final String[] args, final Options options)
+	{
+		try
+		{
+			CommandLine cmd = new DefaultParser().parse(options, args);
+			if (cmd.hasOption("h"))
+			{
+				printHelp(options);
+			}
+			return cmd;
+		} catch (ParseException e)
+		{
+			printHelp(options);
+			return null;
+		}
+	}
+
+
+	private static void printHelp(final Options options)
+	{
+		HelpFormatter formatter = new HelpFormatter();
+		formatter.printHelp("AutoRefBatchEvaluation [options] <log files or folders>", options);
+		System.exit(0);
+	}
+
+
+	private static List<LogFile> findLogFiles(final List<String> paths)
+	{
+		List<LogFile> logFiles = new ArrayList<>();
+		for (String path : paths)
+		{
+			Path root = Path.of(path);
+			try (Stream<Path> stream = Files.walk(root))
+			{
+				stream.filter(p -> p.getFileName().toString().endsWith(".log")
+								|| p.getFileName().toString().endsWith(".log.gz"))
+						.sorted()
+						.forEach(p -> logFiles.add(new LogFile(p, outputName(root, p))));
+			} catch (IOException e)
+			{
+				throw new UncheckedIOException("Could not walk through " + path, e);
+			}
+		}
+		checkUniqueOutputNames(logFiles);
+		return logFiles;
+	}
+
+
+	/**
+	 * @param root    the given log file or folder
+	 * @param logFile a log file within the root
+	 * @return the path of the log relative to the root without its extension
+	 */
+	private static Path outputName(final Path root, final Path logFile)
+	{
+		Path relativePath = Files.isDirectory(root) ? root.relativize(logFile) : logFile.getFileName();
+		return relativePath.resolveSibling(baseName(logFile));
+	}
+
+
+	private static void checkUniqueOutputNames(final List<LogFile> logFiles)
+	{
+		Map<Path, List<Path>> logsByName = logFiles.stream()
+				.collect(Collectors.groupingBy(LogFile::outputName, LinkedHashMap::new,
+						Collectors.mapping(LogFile::path, Collectors.toList())));
+		List<String> duplicates = logsByName.values().stream()
+				.filter(logs -> logs.size() > 1)
+				.map(Object::toString)
+				.toList();
+		if (!duplicates.isEmpty())
+		{
+			throw new IllegalArgumentException(
+					"Multiple logs would be written to the same output files, pass their common parent folder instead: "
+							+ duplicates);
+		}
+	}
+
+
+	private static void evaluateAll(final List<LogFile> logFiles, final Path output, final int jobs)
+	{
+		try
+		{
+			Files.createDirectories(output);
+		} catch (IOException e)
+		{
+			throw new UncheckedIOException("Could not create output folder " + output, e);
+		}
+
+		log.info("Evaluating {} logs with {} workers", logFiles.size(), jobs);
+		List<Future<String>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(jobs))
+		{
+			logFiles.forEach(logFile -> results.add(executor.submit(() -> runWorker(logFile, output))));
+		}
+
+		List<String> summary = new ArrayList<>();
+		summary.add("log,exit code,duration [s],game events");
+		for (Future<String> result : results)
+		{
+			try
+			{
+				summary.add(result.get());
+			} catch (ExecutionException e)
+			{
+				log.error("Worker failed", e.getCause());
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		try
+		{
+			Files.write(output.resolve("summary.csv"), summary);
+		} catch (IOException e)
+		{
+			log.error("Could not write summary", e);
+		}
+	}
+
+
+	private static String runWorker(final LogFile logFile, final Path output) throws IOException, InterruptedException
+	{
+		// the worker writes to the folder of the log within the output folder
+		Path logOutput = output.resolve(logFile.outputName()).getParent();
+		Files.createDirectories(logOutput);
+		String name = baseName(logFile.path());
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(AutoRefBatchEvaluation.class.getName());
+		command.add("-wo");
+		command.add(logFile.path().toString());
+		command.add("-o");
+		command.add(logOutput.toString());
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(logOutput.resolve(name + WORKER_OUTPUT_SUFFIX).toFile())
+				.start();
+		int exitCode = process.waitFor();
+		double duration = (System.nanoTime() - start) / 1e9;
+
+		Path events = logOutput.resolve(name + EVENTS_SUFFIX);
+		long numEvents;
+		try (Stream<String> lines = Files.exists(events) ? Files.lines(events) : Stream.empty())
+		{
+			numEvents = lines.count();
+		}
+		String result = String.format(Locale.ENGLISH, "%s,%d,%.1f,%d", logFile.path(), exitCode, duration, numEvents);
+		log.info("Evaluated log (log,exit code,duration [s],game events): {}", result);
+		return result;
+	}
+
+
+	private static String baseName(final Path logFile)
+	{
+		String name = logFile.getFileName().toString();
+		return name.substring(0, name.lastIndexOf(".log"));
+	}
+
+
+	/**
+	 * Evaluate a single log in this JVM
+	 *
+	 * @param logFile the log to evaluate
+	 * @param output  the output folder
+	 * @return true, if the log was evaluated successfully
+	 */
+	private static boolean evaluate(final Path logFile, final Path output)
+	{
+		SumatraModel.getInstance().setCurrentModuliConfig(MODULI_CONFIG);
+		SumatraModel.getInstance().loadModulesOfConfigSafe(MODULI_CONFIG);
+
+		GameLogReader logReader = new GameLogReader();
+		logReader.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_VISION_2014, EMessageType.SSL_REFBOX_2013)));
+		logReader.loadFileIndexedBlocking(logFile.toAbsolutePath().toString());
+		if (logReader.getMessages().isEmpty())
+		{
+			log.error("No messages found in {}", logFile);
+			return false;
+		}
+
+		Path events = output.resolve(baseName(logFile) + EVENTS_SUFFIX);
+		try (BufferedWriter writer = Files.newBufferedWriter(events))
+		{
+			SumatraModel.getInstance().startModules();
+			AutoRefModule autoRef = SumatraModel.getInstance().getModule(AutoRefModule.class);
+			autoRef.changeMode(EAutoRefMode.PASSIVE);
+			IAutoRefObserver observer = gameEvent -> writeGameEvent(writer, gameEvent);
+			autoRef.addObserver(observer);
+			try
+			{
+				SumatraModel.getInstance().getModule(GameLogPlayer.class).playlogFast(logReader);
+				// the autoRef processes the frames on its own thread
+				SumatraModel.getInstance().getModule(AWorldPredictor.class).awaitObservers();
+			} finally
+			{
+				autoRef.removeObserver(observer);
+				SumatraModel.getInstance().stopModules();
+			}
+			return true;
+		} catch (IOException | UncheckedIOException | InitModuleException | StartModuleException e)
+		{
+			log.error("Could not evaluate {}", logFile, e);
+			return false;
+		} finally
+		{
+			if (logReader.getMessages() instanceof Closeable closeable)
+			{
+				closeQuietly(closeable);
+			}
+		}
+	}
+
+
+	private static void writeGameEvent(final BufferedWriter writer, final IGameEvent gameEvent)
+	{
+		try
+		{
+			writer.write(JsonFormat.printer().omittingInsignificantWhitespace().print(gameEvent.toProtobuf()));
+			writer.newLine();
+			writer.flush();
+		} catch (InvalidProtocolBufferException e)
+		{
+			log.error("Could not convert game event: {}", gameEvent, e);
+		} catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	private static void closeQuietly(final Closeable closeable)
+	{
+		try
+		{
+			closeable.close();
+		} catch (IOException e)
+		{
+			log.warn("Could not close logfile", e);
+		}
+	}
+
+
+	/**
+	 * @param path       the log file
+	 * @param outputName the name of the output files of the log, relative to the output folder
+	 */
+	private record LogFile(Path path, Path outputName)
+	{
+	}
+}